@@ -0,0 +1,26 @@
+package com.application.config;
+
+import static java.lang.annotation.ElementType.FIELD;
+import static java.lang.annotation.ElementType.METHOD;
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+import org.hibernate.annotations.IdGeneratorType;
+
+/**
+ * Assigns the id from a block of pre-reserved sequence values instead of an
+ * IDENTITY column, which lets Hibernate batch the inserts.
+ */
+@IdGeneratorType(BlockSequenceIdGenerator.class)
+@Retention(RUNTIME)
+@Target({ FIELD, METHOD })
+public @interface BlockSequenceId {
+
+	/** Schema-qualified sequence name, e.g. sce_application.sce_app_distribution_id_seq */
+	String sequence();
+
+	/** How many values one round trip reserves. */
+	int blockSize() default 50;
+}
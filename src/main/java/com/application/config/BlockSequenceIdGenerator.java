@@ -0,0 +1,69 @@
+package com.application.config;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Member;
+import java.lang.reflect.Method;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.hibernate.engine.jdbc.spi.JdbcCoordinator;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.id.IdentifierGenerator;
+import org.hibernate.id.factory.spi.CustomIdGeneratorCreationContext;
+
+/**
+ * Hibernate side of {@link BlockSequenceId}. Blocks are reserved on the
+ * session's own JDBC connection (no auto-flush, no extra pool connection).
+ */
+public class BlockSequenceIdGenerator implements IdentifierGenerator {
+
+	private static final long serialVersionUID = 1L;
+
+	private final SequenceBlockPool pool;
+	private final boolean integerId;
+
+	public BlockSequenceIdGenerator(BlockSequenceId config, Member member,
+			CustomIdGeneratorCreationContext context) {
+		this.pool = SequenceBlockPool.of(config.sequence(), config.blockSize());
+		Class<?> idType = member instanceof Field f ? f.getType()
+				: member instanceof Method m ? m.getReturnType() : Long.class;
+		this.integerId = idType == int.class || idType == Integer.class;
+	}
+
+	String getSequenceName() {
+		return pool.getSequenceName();
+	}
+
+	@Override
+	public Object generate(SharedSessionContractImplementor session, Object object) {
+		long id = pool.next(size -> reserve(session));
+		return integerId ? (Object) Math.toIntExact(id) : (Object) id;
+	}
+
+	private long[] reserve(SharedSessionContractImplementor session) {
+		String sql = pool.blockQuery();
+		JdbcCoordinator jdbc = session.getJdbcCoordinator();
+		PreparedStatement st = jdbc.getStatementPreparer().prepareStatement(sql);
+		try {
+			ResultSet rs = jdbc.getResultSetReturn().extract(st, sql);
+			List<Long> ids = new ArrayList<>(pool.getBlockSize());
+			try {
+				while (rs.next()) {
+					ids.add(rs.getLong(1));
+				}
+			} finally {
+				jdbc.getLogicalConnection().getResourceRegistry().release(rs, st);
+			}
+			return ids.stream().mapToLong(Long::longValue).toArray();
+		} catch (SQLException e) {
+			throw session.getJdbcServices().getSqlExceptionHelper().convert(e,
+					"Could not reserve ids from " + pool.getSequenceName(), sql);
+		} finally {
+			jdbc.getLogicalConnection().getResourceRegistry().release(st);
+			jdbc.afterStatementExecution();
+		}
+	}
+}
@@ -0,0 +1,96 @@
+package com.application.config;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import javax.sql.DataSource;
+
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.metamodel.mapping.BasicEntityIdentifierMapping;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Fails startup when a {@link BlockSequenceId} names a sequence that does not
+ * exist, or a different one than the id column's own default
+ * (pg_get_serial_sequence), so a wrong name never reaches the first insert
+ * and never hands out ids from a sequence other writers do not use.
+ */
+@Component
+public class BlockSequenceValidator implements InitializingBean {
+
+	private static final String CHECK_SQL = "SELECT to_regclass(?) IS NOT NULL, pg_get_serial_sequence(?, ?)";
+
+	private final EntityManagerFactory entityManagerFactory;
+	private final DataSource dataSource;
+
+	@Value("${block-sequence.validate-on-startup:true}")
+	private boolean enabled;
+
+	public BlockSequenceValidator(EntityManagerFactory entityManagerFactory, DataSource dataSource) {
+		this.entityManagerFactory = entityManagerFactory;
+		this.dataSource = dataSource;
+	}
+
+	@Override
+	public void afterPropertiesSet() {
+		if (!enabled) {
+			return;
+		}
+		List<String[]> targets = new ArrayList<>();
+		entityManagerFactory.unwrap(SessionFactoryImplementor.class).getMappingMetamodel()
+				.forEachEntityDescriptor(persister -> {
+					if (persister.getGenerator() instanceof BlockSequenceIdGenerator generator
+							&& persister.getIdentifierMapping() instanceof BasicEntityIdentifierMapping id) {
+						targets.add(new String[] { persister.getEntityName(), generator.getSequenceName(),
+								id.getContainingTableExpression(), id.getSelectionExpression() });
+					}
+				});
+
+		List<String> errors = new ArrayList<>();
+		try (Connection connection = dataSource.getConnection();
+				PreparedStatement st = connection.prepareStatement(CHECK_SQL)) {
+			for (String[] t : targets) {
+				String problem = check(st, t[1], t[2], t[3]);
+				if (problem != null) {
+					errors.add(t[0] + ": " + problem);
+				}
+			}
+		} catch (SQLException e) {
+			throw new IllegalStateException("Could not validate @BlockSequenceId sequences", e);
+		}
+		if (!errors.isEmpty()) {
+			throw new IllegalStateException("Invalid @BlockSequenceId mapping(s): " + String.join("; ", errors));
+		}
+	}
+
+	private static String check(PreparedStatement st, String sequence, String table, String column)
+			throws SQLException {
+		st.setString(1, sequence);
+		st.setString(2, table);
+		st.setString(3, column);
+		try (ResultSet rs = st.executeQuery()) {
+			rs.next();
+			if (!rs.getBoolean(1)) {
+				return "sequence " + sequence + " does not exist";
+			}
+			String owned = rs.getString(2);
+			if (owned != null && !normalize(owned).equals(normalize(sequence))) {
+				return "sequence " + sequence + " is not the default of " + table + "." + column + " (" + owned + ")";
+			}
+			return null;
+		}
+	}
+
+	private static String normalize(String name) {
+		return name.replace("\"", "").toLowerCase(Locale.ROOT);
+	}
+}
@@ -15,8 +15,9 @@ public class CorsConfig {
             public void addCorsMappings(CorsRegistry registry) {
                 registry.addMapping("/**") // apply to all endpoints
                         .allowedOrigins("http://localhost:3000") // frontend URL
-                        .allowedMethods("GET", "POST", "PUT", "DELETE", "OPTIONS")
+                        .allowedMethods("GET", "POST", "PUT", "PATCH", "DELETE", "OPTIONS")
                         .allowedHeaders("*")
+                        .exposedHeaders("ETag") // application version after a PATCH
                         .allowCredentials(true) // if you use cookies or auth headers
                         .maxAge(3600); // cache pre-flight response for 1 hour
             }
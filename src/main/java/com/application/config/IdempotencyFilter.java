@@ -0,0 +1,290 @@
+package com.application.config;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Idempotency-Key support for the sale, confirmation and damage POSTs listed
+ * in {@code idempotency.paths}.
+ *
+ * The first request with a given key claims it (SET NX in Redis, with a
+ * short in-progress TTL) and runs normally; its status and body are then
+ * stored for {@code idempotency.ttl-hours}. A repeat of the key gets the
+ * stored response back byte for byte (header Idempotent-Replayed: true)
+ * without reaching the controller. A repeat while the first is still running
+ * gets 409; the same key with a different body gets 422. 5xx responses are
+ * not stored, so the client may retry them.
+ *
+ * Requests without the header are untouched. Completed responses are also
+ * kept in a bounded local map, which is all that is used while Redis is
+ * unreachable.
+ */
+@Component
+public class IdempotencyFilter extends OncePerRequestFilter {
+
+	private static final Logger logger = LoggerFactory.getLogger(IdempotencyFilter.class);
+
+	public static final String HEADER = "Idempotency-Key";
+	private static final String REPLAYED_HEADER = "Idempotent-Replayed";
+	private static final int MAX_KEY_LENGTH = 200;
+
+	private final StringRedisTemplate redis;
+	private final ObjectMapper objectMapper;
+
+	@Value("${idempotency.enabled:true}")
+	private boolean enabled;
+
+	@Value("${idempotency.paths:}")
+	private List<String> paths;
+
+	@Value("${idempotency.ttl-hours:24}")
+	private long ttlHours;
+
+	@Value("${idempotency.in-progress-seconds:120}")
+	private long inProgressSeconds;
+
+	@Value("${idempotency.local-max-entries:10000}")
+	private int localMaxEntries;
+
+	private final Map<String, Local> local = new ConcurrentHashMap<>();
+
+	// What is stored per key: either a claim (completed = false) or the finished response
+	record Stored(boolean completed, String fingerprint, int status, String contentType, String body) {
+	}
+
+	private record Local(Stored stored, long expiresAt) {
+	}
+
+	public IdempotencyFilter(StringRedisTemplate redis, ObjectMapper objectMapper) {
+		this.redis = redis;
+		this.objectMapper = objectMapper;
+	}
+
+	@Override
+	protected boolean shouldNotFilter(HttpServletRequest request) {
+		return !enabled || !"POST".equals(request.getMethod()) || request.getHeader(HEADER) == null
+				|| !paths.contains(request.getRequestURI().substring(request.getContextPath().length()));
+	}
+
+	@Override
+	protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+			throws ServletException, IOException {
+		String key = request.getHeader(HEADER).trim();
+		if (key.isEmpty() || key.length() > MAX_KEY_LENGTH) {
+			reply(response, HttpStatus.BAD_REQUEST.value(), MediaType.TEXT_PLAIN_VALUE,
+					HEADER + " must be 1-" + MAX_KEY_LENGTH + " characters", false);
+			return;
+		}
+		byte[] body = request.getInputStream().readAllBytes();
+		String fingerprint = sha256(body);
+		String storeKey = "idempotency:" + request.getRequestURI() + ":" + key;
+
+		Stored existing = claim(storeKey, new Stored(false, fingerprint, 0, null, null));
+		if (existing != null) {
+			if (!existing.fingerprint().equals(fingerprint)) {
+				reply(response, HttpStatus.UNPROCESSABLE_ENTITY.value(), MediaType.TEXT_PLAIN_VALUE,
+						HEADER + " was already used with a different request body", false);
+			} else if (!existing.completed()) {
+				reply(response, HttpStatus.CONFLICT.value(), MediaType.TEXT_PLAIN_VALUE,
+						"A request with this " + HEADER + " is still being processed", false);
+			} else {
+				reply(response, existing.status(), existing.contentType(), existing.body(), true);
+			}
+			return;
+		}
+
+		ContentCachingResponseWrapper wrapped = new ContentCachingResponseWrapper(response);
+		boolean stored = false;
+		try {
+			chain.doFilter(new CachedBodyRequest(request, body), wrapped);
+			if (wrapped.getStatus() < 500) {
+				String responseBody = new String(wrapped.getContentAsByteArray(), StandardCharsets.UTF_8);
+				complete(storeKey, new Stored(true, fingerprint, wrapped.getStatus(), wrapped.getContentType(),
+						responseBody));
+				stored = true;
+			}
+		} finally {
+			if (!stored) {
+				release(storeKey);
+			}
+			wrapped.copyBodyToResponse();
+		}
+	}
+
+	// ---------------------------------------------------------
+	// Store: Redis first, local map as cache / fallback
+	// ---------------------------------------------------------
+
+	/**
+	 * Claims the key; returns null when this request now owns it, otherwise
+	 * whatever is already stored.
+	 */
+	private Stored claim(String key, Stored claim) {
+		Local cached = local.get(key);
+		if (cached != null && cached.expiresAt() > System.currentTimeMillis()) {
+			return cached.stored();
+		}
+		try {
+			Boolean won = redis.opsForValue().setIfAbsent(key, write(claim), Duration.ofSeconds(inProgressSeconds));
+			if (Boolean.TRUE.equals(won)) {
+				return null;
+			}
+			String value = redis.opsForValue().get(key);
+			// Expired between the two calls: treat as ours
+			return value != null ? objectMapper.readValue(value, Stored.class) : null;
+		} catch (RuntimeException | JsonProcessingException e) {
+			logger.debug("Idempotency store: Redis unavailable ({}); using local map", e.getMessage());
+			Local mine = new Local(claim, System.currentTimeMillis() + inProgressSeconds * 1000);
+			Local raced = local.putIfAbsent(key, mine);
+			return raced != null && raced.expiresAt() > System.currentTimeMillis() ? raced.stored() : null;
+		}
+	}
+
+	private void complete(String key, Stored result) {
+		long ttlMillis = Duration.ofHours(ttlHours).toMillis();
+		prune();
+		local.put(key, new Local(result, System.currentTimeMillis() + ttlMillis));
+		try {
+			redis.opsForValue().set(key, write(result), Duration.ofMillis(ttlMillis));
+		} catch (RuntimeException e) {
+			logger.debug("Idempotency store: could not save {} to Redis ({})", key, e.getMessage());
+		}
+	}
+
+	private void release(String key) {
+		local.remove(key);
+		try {
+			redis.delete(key);
+		} catch (RuntimeException e) {
+			logger.debug("Idempotency store: could not release {} ({})", key, e.getMessage());
+		}
+	}
+
+	private void prune() {
+		if (local.size() < localMaxEntries) {
+			return;
+		}
+		long now = System.currentTimeMillis();
+		local.values().removeIf(l -> l.expiresAt() <= now);
+		// Still full: drop arbitrary entries, Redis keeps the authoritative copy
+		Iterator<String> it = local.keySet().iterator();
+		while (local.size() >= localMaxEntries && it.hasNext()) {
+			it.next();
+			it.remove();
+		}
+	}
+
+	private String write(Stored stored) {
+		try {
+			return objectMapper.writeValueAsString(stored);
+		} catch (JsonProcessingException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	// ---------------------------------------------------------
+
+	private static void reply(HttpServletResponse response, int status, String contentType, String body,
+			boolean replayed) throws IOException {
+		response.setStatus(status);
+		if (contentType != null) {
+			response.setContentType(contentType);
+		}
+		response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+		if (replayed) {
+			response.setHeader(REPLAYED_HEADER, "true");
+		}
+		if (body != null) {
+			response.getOutputStream().write(body.getBytes(StandardCharsets.UTF_8));
+		}
+	}
+
+	private static String sha256(byte[] body) {
+		try {
+			return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(body));
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	/**
+	 * Request whose body was already read for fingerprinting; hands the same
+	 * bytes to the controller.
+	 */
+	private static final class CachedBodyRequest extends HttpServletRequestWrapper {
+		private final byte[] body;
+
+		CachedBodyRequest(HttpServletRequest request, byte[] body) {
+			super(request);
+			this.body = body;
+		}
+
+		@Override
+		public ServletInputStream getInputStream() {
+			ByteArrayInputStream in = new ByteArrayInputStream(body);
+			return new ServletInputStream() {
+				@Override
+				public int read() {
+					return in.read();
+				}
+
+				@Override
+				public int read(byte[] b, int off, int len) {
+					return in.read(b, off, len);
+				}
+
+				@Override
+				public boolean isFinished() {
+					return in.available() == 0;
+				}
+
+				@Override
+				public boolean isReady() {
+					return true;
+				}
+
+				@Override
+				public void setReadListener(ReadListener listener) {
+					throw new UnsupportedOperationException();
+				}
+			};
+		}
+
+		@Override
+		public BufferedReader getReader() {
+			return new BufferedReader(new InputStreamReader(getInputStream(), StandardCharsets.UTF_8));
+		}
+	}
+}
@@ -0,0 +1,218 @@
+package com.application.config;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Runs independent reads of one request side by side.
+ *
+ * <pre>
+ * try (ParallelReads.Scope scope = parallelReads.open()) {
+ *     Supplier&lt;A&gt; a = scope.fork(() -&gt; repoA.find(..));
+ *     Supplier&lt;B&gt; b = scope.fork(() -&gt; repoB.find(..));
+ *     scope.join();
+ *     use(a.get(), b.get());
+ * }
+ * </pre>
+ *
+ * Forked reads run on a shared pool of {@code parallel-reads.threads}
+ * workers, each in its own read-only transaction, so at most that many pool
+ * connections are used for fan-out across all requests; keep it well below
+ * spring.datasource.hikari.maximum-pool-size. When the queue is full the
+ * caller runs the read itself. {@link Scope#join} waits for all forks (up to
+ * {@code parallel-reads.timeout-ms}); the first failure cancels the rest and
+ * is rethrown. Closing the scope cancels anything still running. The timeout
+ * must exceed spring.datasource.hikari.connection-timeout, so a fork that
+ * cannot get a connection fails on its own instead of being left queued on
+ * the pool after its request has given up.
+ *
+ * A fork runs inline, on the caller's thread and in the caller's
+ * transaction, when the caller is inside any transaction or is itself a
+ * forked read. A transaction already holds a pool connection: fanning out
+ * from it would leave that connection idle while each fork takes another,
+ * so a handful of concurrent requests could drain the pool (and a read-write
+ * caller's uncommitted writes would be invisible to the forks anyway). Open
+ * the scope outside {@code @Transactional} methods to get the parallelism.
+ * Results cross threads, so return scalars, DTOs or fully loaded entities -
+ * not lazy associations.
+ */
+@Component
+public class ParallelReads implements DisposableBean {
+
+	private static final Logger logger = LoggerFactory.getLogger(ParallelReads.class);
+
+	private static final ThreadLocal<Boolean> IN_FORK = ThreadLocal.withInitial(() -> Boolean.FALSE);
+
+	private final ThreadPoolExecutor executor;
+	private final TransactionTemplate readOnlyTx;
+
+	@Value("${parallel-reads.enabled:true}")
+	private boolean enabled;
+
+	@Value("${parallel-reads.timeout-ms:35000}")
+	private long timeoutMillis;
+
+	@Value("${spring.datasource.hikari.connection-timeout:30000}")
+	private long connectionTimeoutMillis;
+
+	public ParallelReads(PlatformTransactionManager transactionManager,
+			@Value("${parallel-reads.threads:4}") int threads,
+			@Value("${parallel-reads.queue-capacity:200}") int queueCapacity) {
+		this.readOnlyTx = new TransactionTemplate(transactionManager);
+		this.readOnlyTx.setReadOnly(true);
+		AtomicInteger counter = new AtomicInteger();
+		this.executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+				new ArrayBlockingQueue<>(queueCapacity), r -> {
+					Thread t = new Thread(r, "parallel-read-" + counter.incrementAndGet());
+					t.setDaemon(true);
+					return t;
+				}, new ThreadPoolExecutor.CallerRunsPolicy());
+		this.executor.allowCoreThreadTimeOut(true);
+	}
+
+	@PostConstruct
+	void checkTimeouts() {
+		if (enabled && timeoutMillis <= connectionTimeoutMillis) {
+			logger.warn("parallel-reads.timeout-ms ({}) should exceed spring.datasource.hikari.connection-timeout ({}); "
+					+ "forks still waiting for a connection would outlive their request", timeoutMillis,
+					connectionTimeoutMillis);
+		}
+	}
+
+	public Scope open() {
+		boolean inline = !enabled || IN_FORK.get() || TransactionSynchronizationManager.isActualTransactionActive();
+		return new Scope(inline);
+	}
+
+	@Override
+	public void destroy() {
+		executor.shutdownNow();
+	}
+
+	private <T> T runForked(Supplier<T> read) {
+		boolean outer = IN_FORK.get();
+		IN_FORK.set(Boolean.TRUE);
+		try {
+			// A new read-only transaction, on a worker or (queue full) on the caller's thread
+			return readOnlyTx.execute(status -> read.get());
+		} finally {
+			IN_FORK.set(outer);
+		}
+	}
+
+	/**
+	 * One fan-out; not thread-safe, use from the thread that opened it.
+	 */
+	public final class Scope implements AutoCloseable {
+
+		private final boolean inline;
+		private final CompletionService<Object> completion;
+		private final List<Future<Object>> futures = new ArrayList<>();
+		private boolean joined;
+
+		private Scope(boolean inline) {
+			this.inline = inline;
+			this.completion = inline ? null : new ExecutorCompletionService<>(executor);
+		}
+
+		/**
+		 * Starts the read; the returned supplier may be called after
+		 * {@link #join}.
+		 */
+		public <T> Supplier<T> fork(Supplier<T> read) {
+			if (inline) {
+				T value = read.get();
+				return () -> value;
+			}
+			Future<Object> future = completion.submit(() -> runForked(read));
+			futures.add(future);
+			return () -> {
+				if (!joined) {
+					throw new IllegalStateException("ParallelReads.Scope.join() not called");
+				}
+				try {
+					@SuppressWarnings("unchecked")
+					T value = (T) future.get();
+					return value;
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					throw new IllegalStateException(e);
+				} catch (ExecutionException e) {
+					throw unwrap(e);
+				}
+			};
+		}
+
+		/**
+		 * Waits for every fork; rethrows the first failure.
+		 */
+		public void join() {
+			joined = true;
+			if (inline) {
+				return;
+			}
+			long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+			try {
+				for (int i = 0; i < futures.size(); i++) {
+					Future<Object> done = completion.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+					if (done == null) {
+						throw new TimeoutException("Parallel reads did not finish in " + timeoutMillis + " ms");
+					}
+					done.get();
+				}
+			} catch (InterruptedException e) {
+				cancelAll();
+				Thread.currentThread().interrupt();
+				throw new IllegalStateException(e);
+			} catch (ExecutionException e) {
+				cancelAll();
+				throw unwrap(e);
+			} catch (TimeoutException | CancellationException e) {
+				cancelAll();
+				throw new IllegalStateException(e.getMessage(), e);
+			}
+		}
+
+		@Override
+		public void close() {
+			cancelAll();
+		}
+
+		private void cancelAll() {
+			futures.forEach(f -> f.cancel(true));
+		}
+	}
+
+	private static RuntimeException unwrap(ExecutionException e) {
+		Throwable cause = e.getCause();
+		if (cause instanceof RuntimeException r) {
+			return r;
+		}
+		if (cause instanceof Error err) {
+			throw err;
+		}
+		return new IllegalStateException(cause);
+	}
+}
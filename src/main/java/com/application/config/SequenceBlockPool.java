@@ -0,0 +1,84 @@
+package com.application.config;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.IntFunction;
+
+/**
+ * Hands out IDs of one DB sequence from reserved blocks.
+ *
+ * A block is fetched with a single round trip
+ * ({@code SELECT nextval(seq) FROM generate_series(1, n)}), so it works with
+ * sequences that INCREMENT BY 1 and stays safe next to code that still calls
+ * nextval() directly. Taking an ID is one atomic increment; when two threads
+ * race to refill, the loser's spare IDs are simply skipped (gaps, never
+ * duplicates).
+ *
+ * Pools are shared per sequence name, so every entity whose id comes from
+ * the same sequence draws from the same reservation.
+ */
+public final class SequenceBlockPool {
+
+	private static final Map<String, SequenceBlockPool> POOLS = new ConcurrentHashMap<>();
+
+	private final String sequenceName;
+	private final int blockSize;
+	private final AtomicReference<Block> current = new AtomicReference<>(new Block(new long[0]));
+
+	private SequenceBlockPool(String sequenceName, int blockSize) {
+		this.sequenceName = sequenceName;
+		this.blockSize = blockSize;
+	}
+
+	public static SequenceBlockPool of(String sequenceName, int blockSize) {
+		return POOLS.computeIfAbsent(sequenceName, name -> new SequenceBlockPool(name, Math.max(1, blockSize)));
+	}
+
+	public String getSequenceName() {
+		return sequenceName;
+	}
+
+	public int getBlockSize() {
+		return blockSize;
+	}
+
+	/**
+	 * SQL that reserves {@code n} values of this sequence in one statement.
+	 */
+	public String blockQuery() {
+		return "SELECT nextval('" + sequenceName + "') FROM generate_series(1, " + blockSize + ")";
+	}
+
+	/**
+	 * @param fetcher reserves {@code blockSize} fresh values from the DB
+	 */
+	public long next(IntFunction<long[]> fetcher) {
+		while (true) {
+			Block block = current.get();
+			int i = block.cursor.getAndIncrement();
+			if (i < block.ids.length) {
+				return block.ids[i];
+			}
+
+			long[] ids = fetcher.apply(blockSize);
+			if (ids.length == 0) {
+				throw new IllegalStateException("Sequence " + sequenceName + " returned no values");
+			}
+			Block fresh = new Block(ids);
+			fresh.cursor.set(1); // ids[0] is ours
+			current.compareAndSet(block, fresh);
+			return ids[0];
+		}
+	}
+
+	private static final class Block {
+		private final long[] ids;
+		private final AtomicInteger cursor = new AtomicInteger();
+
+		private Block(long[] ids) {
+			this.ids = ids;
+		}
+	}
+}
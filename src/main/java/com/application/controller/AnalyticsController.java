@@ -1,16 +1,26 @@
 package com.application.controller;
  
+import java.time.LocalDate;
+import java.util.List;
+
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import com.application.dto.CombinedAnalyticsDTO;
+import com.application.dto.DailySnapshotPointDTO;
 import com.application.dto.GraphDTO;
+import com.application.dto.SalesRollupNodeDTO;
+import com.application.dto.YearOverYearDTO;
 import com.application.service.ApplicationAnalyticsService;
+import com.application.service.DailySnapshotStore;
+import com.application.service.SalesHierarchyService;
  
 @RestController
 @RequestMapping("/api/analytics")
@@ -19,6 +29,12 @@ public class AnalyticsController {
     @Autowired
     private ApplicationAnalyticsService analyticsService;
 
+    @Autowired
+    private SalesHierarchyService salesHierarchyService;
+
+    @Autowired
+    private DailySnapshotStore dailySnapshotStore;
+
     @GetMapping("/zone/{id}")
     public ResponseEntity<CombinedAnalyticsDTO> getZoneAnalytics(@PathVariable Long id) {
         try {
@@ -82,4 +98,47 @@ public class AnalyticsController {
         GraphDTO graphData = analyticsService.getGraphDataByCampusIdAndAmount(campusId, amount);
         return ResponseEntity.ok(graphData);
     }
-}
\ No newline at end of file
+
+    // --- Zone -> DGM -> campus rollup (whole subtree in one response) ---
+
+    @GetMapping("/hierarchy")
+    public ResponseEntity<SalesRollupNodeDTO> getHierarchy(
+            @RequestParam(value = "academicYearId", required = false) Integer academicYearId) {
+        return ResponseEntity.ok(salesHierarchyService.getAll(academicYearId));
+    }
+
+    @GetMapping("/hierarchy/zone/{zoneId}")
+    public ResponseEntity<SalesRollupNodeDTO> getZoneHierarchy(@PathVariable("zoneId") Integer zoneId,
+            @RequestParam(value = "academicYearId", required = false) Integer academicYearId) {
+        return ResponseEntity.of(salesHierarchyService.getZone(zoneId, academicYearId));
+    }
+
+    @GetMapping("/hierarchy/employee/{empId}")
+    public ResponseEntity<SalesRollupNodeDTO> getEmployeeHierarchy(@PathVariable("empId") Integer empId,
+            @RequestParam(value = "academicYearId", required = false) Integer academicYearId) {
+        return ResponseEntity.of(salesHierarchyService.getForEmployee(empId, academicYearId));
+    }
+
+    // --- Daily snapshots (level ALL / ZONE / DGM / CAMPUS, id 0 for ALL) ---
+
+    @GetMapping("/snapshots/{level}/{id}/year-over-year")
+    public ResponseEntity<YearOverYearDTO> getYearOverYear(@PathVariable("level") String level,
+            @PathVariable("id") Integer id,
+            @RequestParam(value = "date", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
+        return ResponseEntity.ok(dailySnapshotStore.yearOverYear(level, id, date != null ? date : LocalDate.now()));
+    }
+
+    @GetMapping("/snapshots/{level}/{id}/trend")
+    public ResponseEntity<List<DailySnapshotPointDTO>> getTrend(@PathVariable("level") String level,
+            @PathVariable("id") Integer id,
+            @RequestParam("from") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(value = "to", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        return ResponseEntity.ok(dailySnapshotStore.trend(level, id, from, to != null ? to : LocalDate.now()));
+    }
+
+    // Captures today's snapshot now (also scheduled daily); returns the number of rows written
+    @PostMapping("/snapshots/capture")
+    public ResponseEntity<Integer> captureSnapshot() {
+        return ResponseEntity.ok(dailySnapshotStore.capture(LocalDate.now()));
+    }
+}
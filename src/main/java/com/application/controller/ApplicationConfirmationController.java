@@ -15,6 +15,7 @@ import org.springframework.web.bind.annotation.RestController;
 
 import com.application.dto.ApiResponse;
 import com.application.dto.BatchDTO;
+import com.application.dto.BulkConfirmationReportDTO;
 import com.application.dto.CampusDropdownDTO;
 import com.application.dto.OccupationSectorDropdownDTO;
 import com.application.dto.OrientationBatchDetailsDTO;
@@ -31,6 +32,7 @@ import com.application.entity.StudentClass;
 import com.application.entity.StudentRelation;
 import com.application.entity.StudentType;
 import com.application.service.ApplicationNewConfirmationService;
+import com.application.service.BulkConfirmationService;
 
 import jakarta.persistence.EntityNotFoundException;
 
@@ -41,6 +43,7 @@ public class ApplicationConfirmationController {
     
     
     @Autowired ApplicationNewConfirmationService confirmationService;
+    @Autowired BulkConfirmationService bulkConfirmationService;
 
     @GetMapping("/dropdown/relation/type")
     public ResponseEntity<ApiResponse<List<StudentRelation>>> getStudentRelations() {
@@ -300,7 +303,21 @@ public ResponseEntity<?> saveStudentConfirmation(@RequestBody StudentConfirmatio
     }
 }
 
-    
+
+    // Bulk school confirmation: JSON array of the /confirm-school payloads, one result per student
+    @PostMapping("/confirm-school/batch")
+    public ResponseEntity<?> saveStudentConfirmations(@RequestBody List<StudentConfirmationDTO> dtos) {
+        try {
+            BulkConfirmationReportDTO report = bulkConfirmationService.confirmAll(dtos);
+            return ResponseEntity.ok(report);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (Exception e) {
+            e.printStackTrace();
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body("Failed to confirm students: " + e.getMessage());
+        }
+    }
     
     @GetMapping("/orientation-fee")//used/n
     public ResponseEntity<ApiResponse<OrientationFeeDTO>> getOrientationFee(
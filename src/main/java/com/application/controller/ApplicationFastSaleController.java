@@ -1,23 +1,33 @@
 package com.application.controller;
 
+import java.io.InputStream;
+
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import com.application.dto.ApplicationFastDetailsGet;
+import com.application.dto.SaleImportReportDTO;
 import com.application.dto.StudentApplicationSaleColegeDTO;
 import com.application.dto.StudentApplicationSingleDTO;
 import com.application.dto.StudentApplicationUpdateDTO;
 import com.application.dto.StudentCollegeConfirmationDto;
 import com.application.dto.StudentFastSaleDTO;
+import com.application.exception.ApplicationAlreadyExistsException;
 import com.application.service.ApplicationFastSale;
+import com.application.service.SaleImportService;
 
 import jakarta.persistence.EntityNotFoundException;
 import jakarta.validation.Valid;
@@ -27,6 +37,7 @@ import jakarta.validation.Valid;
 public class ApplicationFastSaleController {
 	
 	@Autowired private ApplicationFastSale applicationFastSale;
+	@Autowired private SaleImportService saleImportService;
 	
 	@PostMapping("/fast-sale")
     public ResponseEntity<String> createFastSaleAdmission(@RequestBody StudentFastSaleDTO formData) {
@@ -34,6 +45,8 @@ public class ApplicationFastSaleController {
         try {
         	applicationFastSale.createFastSaleAdmission(formData);
             return ResponseEntity.ok("Fast sale admission created successfully!");
+        } catch (ApplicationAlreadyExistsException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
         } catch (Exception e) {
             // Log the full stack trace for debugging purposes
             e.printStackTrace();
@@ -42,7 +55,21 @@ public class ApplicationFastSaleController {
     }
 	
 	
-	@GetMapping("/fast-sale-get-colleges/{admsNo}")
+	// Bulk import of offline fast sales: body is NDJSON (default) or CSV with a header row
+	@PostMapping("/fast-sale/import")
+	public ResponseEntity<?> importFastSales(InputStream body, @RequestParam(defaultValue = "ndjson") String format) {
+		try {
+			SaleImportReportDTO report = saleImportService.importFastSales(body, format);
+			return ResponseEntity.ok(report);
+		} catch (IllegalArgumentException e) {
+			return ResponseEntity.badRequest().body(e.getMessage());
+		} catch (Exception e) {
+			e.printStackTrace();
+			return ResponseEntity.internalServerError().body("Failed to import fast sales: " + e.getMessage());
+		}
+	}
+	
+		@GetMapping("/fast-sale-get-colleges/{admsNo}")
     public ResponseEntity<ApplicationFastDetailsGet> getFastSaleDetails(@PathVariable Long admsNo) {
         try {
             ApplicationFastDetailsGet details = applicationFastSale.getFastSaleDetailsByAdmissionNo(admsNo);
@@ -91,7 +118,7 @@ public class ApplicationFastSaleController {
         }
     }
 	
-	@PutMapping("/update/{studAdmsId}")  // or @PatchMapping if you prefer
+	@PutMapping("/update/{studAdmsId}")  // PATCH below writes only what changed
 	public ResponseEntity<String> updateApplication(
 	        @PathVariable Long studAdmsId,
 	        @RequestBody StudentApplicationUpdateDTO formData) {
@@ -107,12 +134,51 @@ public class ApplicationFastSaleController {
 	        // 404 - Resource not found
 	        return ResponseEntity.status(HttpStatus.NOT_FOUND).body(e.getMessage());
 	        
+	    } catch (ObjectOptimisticLockingFailureException e) {
+	        // 409 - Someone else saved the application in between
+	        return ResponseEntity.status(HttpStatus.CONFLICT)
+	                .body("Application was changed by another user; reload and try again.");
+
 	    } catch (Exception e) {
 	        // 500 - Any other unexpected error
 	        return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
 	                .body("An unexpected error occurred during update.");
 	    }
 	}
+
+	// Partial update: only changed fields / rows are written. The expected
+	// version comes from the form ("version") or an If-Match header; the new
+	// version is returned as the ETag.
+	@PatchMapping("/update/{studAdmsId}")
+	public ResponseEntity<String> patchApplication(
+	        @PathVariable Long studAdmsId,
+	        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+	        @RequestBody StudentApplicationUpdateDTO formData) {
+
+	    try {
+	        if (formData.getVersion() == null && ifMatch != null) {
+	            formData.setVersion(Integer.valueOf(ifMatch.replace("W/", "").replace("\"", "").trim()));
+	        }
+	        int version = applicationFastSale.patchApplicationSale(studAdmsId, formData);
+
+	        return ResponseEntity.ok().eTag(String.valueOf(version))
+	                .body("Application Sale updated successfully for Admission Number: " + studAdmsId);
+
+	    } catch (NumberFormatException e) {
+	        return ResponseEntity.badRequest().body("If-Match must be the application version");
+
+	    } catch (EntityNotFoundException e) {
+	        return ResponseEntity.status(HttpStatus.NOT_FOUND).body(e.getMessage());
+
+	    } catch (ObjectOptimisticLockingFailureException e) {
+	        return ResponseEntity.status(HttpStatus.CONFLICT)
+	                .body("Application was changed by another user; reload and try again.");
+
+	    } catch (Exception e) {
+	        return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+	                .body("An unexpected error occurred during update.");
+	    }
+	}
 	
 	@PostMapping("/college-confirmation")
     public ResponseEntity<String> confirmCollegeEnrollment(@RequestBody StudentCollegeConfirmationDto formData) {
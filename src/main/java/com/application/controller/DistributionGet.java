@@ -10,9 +10,12 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import com.application.dto.AppAvailabilityDTO;
 import com.application.dto.AppSeriesDTO;
 import com.application.dto.EmployeesDto;
 import com.application.dto.GenericDropdownDTO;
+import com.application.dto.LedgerCompactionReportDTO;
+import com.application.dto.LedgerReconciliationReportDTO;
 import com.application.dto.LocationAutoFillDTO;
 import com.application.entity.AcademicYear;
 import com.application.entity.BalanceTrack;
@@ -23,8 +26,11 @@ import com.application.entity.Zone;
 import com.application.repository.BalanceTrackRepository;
 import com.application.repository.EmployeeRepository;
 import com.application.repository.SchoolDetailsRepository;
+import com.application.service.ApplicationAvailabilityMap;
 import com.application.service.CampusService;
 import com.application.service.DgmService;
+import com.application.service.LedgerCompactionJob;
+import com.application.service.LedgerReconciliationService;
 import com.application.service.ZoneService;
 
 @RestController
@@ -42,6 +48,12 @@ public class DistributionGet {
 	private ZoneService distributionService;
 	
 	@Autowired private BalanceTrackRepository balanceTrackRepository;
+
+	@Autowired private ApplicationAvailabilityMap availabilityMap;
+
+	@Autowired private LedgerCompactionJob ledgerCompactionJob;
+
+	@Autowired private LedgerReconciliationService ledgerReconciliationService;
 	
 	DistributionGet(SchoolDetailsRepository schoolDetailsRepository) {
     }
@@ -230,11 +242,41 @@ public class DistributionGet {
 	     public ResponseEntity<List<AppSeriesDTO>> getSeriesDropdown(
 	             @RequestParam int receiverId, 
 	             @RequestParam Double amount,
-	             @RequestParam boolean isPro) { // Frontend passes true if receiver is PRO
+	             @RequestParam boolean isPro, // Frontend passes true if receiver is PRO
+	             @RequestParam(required = false) Integer academicYearId,
+	             @RequestParam(defaultValue = "false") boolean availableOnly) { // true: skip sold/damaged numbers
 	             
+	         if (availableOnly && academicYearId != null) {
+	             return ResponseEntity.ok(availabilityMap.getAvailableSeries(receiverId, academicYearId, isPro,
+	                     amount.floatValue()));
+	         }
 	         return ResponseEntity.ok(applicationService.getActiveSeriesForReceiver(receiverId, amount, isPro));
 	     }
 
+	     // Held / available / sold / damaged / returned counts for one holder and year
+	     @GetMapping("/availability")
+	     public ResponseEntity<AppAvailabilityDTO> getAvailability(
+	             @RequestParam int holderId,
+	             @RequestParam int academicYearId,
+	             @RequestParam boolean isPro) {
+
+	         return ResponseEntity.ok(availabilityMap.getAvailability(holderId, academicYearId, isPro));
+	     }
+
+	     // First unsold, undamaged number of the holder at or after 'from' (sale forms)
+	     @GetMapping("/next-available")
+	     public ResponseEntity<Integer> getNextAvailable(
+	             @RequestParam int holderId,
+	             @RequestParam int academicYearId,
+	             @RequestParam boolean isPro,
+	             @RequestParam(required = false) Double amount,
+	             @RequestParam(defaultValue = "0") int from) {
+
+	         Integer next = availabilityMap.nextAvailable(holderId, academicYearId, isPro,
+	                 amount != null ? amount.floatValue() : null, from);
+	         return next != null ? ResponseEntity.ok(next) : ResponseEntity.noContent().build();
+	     }
+
 	     // 2. Get the Distribution ID (Call this when user selects a Series)
 	     @GetMapping("/get-distribution-id")
 	     public ResponseEntity<Integer> getDistributionId(
@@ -246,5 +288,17 @@ public class DistributionGet {
 	             
 	         return ResponseEntity.ok(applicationService.getDistributionIdBySeries(receiverId, start, end, amount, isPro));
 	     }
-	 	
+
+	     // Progress / result of the current or last ledger compaction run
+	     @GetMapping("/ledger-compaction")
+	     public ResponseEntity<LedgerCompactionReportDTO> getLedgerCompactionStatus() {
+	         return ResponseEntity.ok(ledgerCompactionJob.status());
+	     }
+
+	     // Drift between balances, distributions, master allocations and sales, with proposed balance rows
+	     @GetMapping("/reconciliation")
+	     public ResponseEntity<LedgerReconciliationReportDTO> reconcileLedger(
+	             @RequestParam(required = false) Integer academicYearId) {
+	         return ResponseEntity.ok(ledgerReconciliationService.reconcile(academicYearId));
+	     }
 }
@@ -6,6 +6,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import com.application.dto.DistributionGetTableDTO;
@@ -22,9 +23,15 @@ public class DistributionGetTableController {
 	@GetMapping("/getdistributiondata/{empId}/{issuedToTypeId}")
 	public List<DistributionGetTableDTO> getByEmpIdAndIssueType(
 	        @PathVariable int empId,
-	        @PathVariable int issuedToTypeId) {
+	        @PathVariable int issuedToTypeId,
+	        @RequestParam(required = false) Integer size,
+	        @RequestParam(required = false) Integer afterKey,
+	        @RequestParam(required = false) Integer afterId,
+	        @RequestParam(defaultValue = "id") String sortBy,
+	        @RequestParam(defaultValue = "asc") String direction) {
 
-	    return distributionGetTableService.getDistributionsByEmployeeAndIssuedToType(empId, issuedToTypeId);
+	    return distributionGetTableService.getDistributionsByEmployeeAndIssuedToType(empId, issuedToTypeId, size,
+	            afterKey, afterId, sortBy, direction);
 	}
  
 }
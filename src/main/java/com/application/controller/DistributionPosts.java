@@ -1,18 +1,23 @@
 package com.application.controller;
 
+import java.util.List;
+
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import com.application.dto.DgmToCampusFormDTO;
 import com.application.dto.DistributionRequestDTO;
 import com.application.dto.FormSubmissionDTO;
+import com.application.dto.LedgerCompactionReportDTO;
 import com.application.service.CampusService;
 import com.application.service.DgmService;
+import com.application.service.LedgerCompactionJob;
 import com.application.service.ZoneService;
 
 @RestController
@@ -28,14 +33,22 @@ public class DistributionPosts {
 	 
 	@Autowired
 	private CampusService dgmService;
+
+	@Autowired
+	private LedgerCompactionJob ledgerCompactionJob;
 	
 	@PostMapping("/zone-save")//used
-	public ResponseEntity<String> saveDistribution(@RequestBody DistributionRequestDTO request) {
+	public ResponseEntity<?> saveDistribution(@RequestBody DistributionRequestDTO request,
+	        @RequestParam(defaultValue = "false") boolean preview) {
 	    
 	    // ADD THIS LINE FOR DEBUGGING
 	    System.out.println("--- RECEIVED DATA IN CONTROLLER --- \n" + request.toString());
 
 	    try {
+	        if (preview) {
+	            // Dry run: nothing is written
+	            return ResponseEntity.ok(distributionService.previewDistribution(request));
+	        }
 	        distributionService.saveDistribution(request);
 	        return ResponseEntity.ok("Distribution saved successfully!");
 	    } catch (Exception e) {
@@ -44,9 +57,28 @@ public class DistributionPosts {
 	    }
 	}
 	
+	@PostMapping("/zone-save/bulk")
+	public ResponseEntity<?> saveDistributionsBulk(@RequestBody List<DistributionRequestDTO> requests,
+	        @RequestParam(defaultValue = "false") boolean preview) {
+	    try {
+	        if (preview) {
+	            return ResponseEntity.ok(distributionService.previewDistributionsBulk(requests));
+	        }
+	        int saved = distributionService.saveDistributionsBulk(requests);
+	        return ResponseEntity.ok(saved + " distributions saved successfully!");
+	    } catch (Exception e) {
+	        return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+	                             .body("Failed to save distributions: " + e.getMessage());
+	    }
+	}
+	
 	 @PostMapping("/dgm-save")//used
-	    public ResponseEntity<String> submitForm(@RequestBody FormSubmissionDTO formDto) {
+	    public ResponseEntity<?> submitForm(@RequestBody FormSubmissionDTO formDto,
+	            @RequestParam(defaultValue = "false") boolean preview) {
 	        try {
+	            if (preview) {
+	                return ResponseEntity.ok(applicationService.previewForm(formDto));
+	            }
 	            applicationService.submitForm(formDto);
 	            return ResponseEntity.ok("Form submitted successfully!");
 	        } catch (Exception e) {
@@ -55,9 +87,27 @@ public class DistributionPosts {
 	        }
 	    }
 	 
+	 @PostMapping("/dgm-save/bulk")
+	    public ResponseEntity<?> submitFormsBulk(@RequestBody List<FormSubmissionDTO> forms,
+	            @RequestParam(defaultValue = "false") boolean preview) {
+	        try {
+	            if (preview) {
+	                return ResponseEntity.ok(applicationService.previewFormsBulk(forms));
+	            }
+	            int saved = applicationService.submitFormsBulk(forms);
+	            return ResponseEntity.ok(saved + " forms submitted successfully!");
+	        } catch (Exception e) {
+	            return ResponseEntity.internalServerError().body(e.getMessage());
+	        }
+	    }
+	 
 	 @PostMapping("/campus-save")//used
-	    public ResponseEntity<String> submitForm(@RequestBody DgmToCampusFormDTO formDto) {
+	    public ResponseEntity<?> submitForm(@RequestBody DgmToCampusFormDTO formDto,
+	            @RequestParam(defaultValue = "false") boolean preview) {
 	        try {
+	            if (preview) {
+	                return ResponseEntity.ok(dgmService.previewDgmToCampusForm(formDto));
+	            }
 	            dgmService.submitDgmToCampusForm(formDto);
 	            return ResponseEntity.ok("DGM distribution saved successfully!");
 	        } catch (Exception e) {
@@ -65,4 +115,10 @@ public class DistributionPosts {
 	            return ResponseEntity.internalServerError().body(e.getMessage());
 	        }
 	    }
+
+	 // Starts a ledger compaction run in the background (also scheduled nightly)
+	 @PostMapping("/ledger-compaction")
+	    public ResponseEntity<LedgerCompactionReportDTO> startLedgerCompaction() {
+	        return ResponseEntity.accepted().body(ledgerCompactionJob.start());
+	    }
 }
@@ -6,6 +6,7 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import com.application.dto.DgmToCampusFormDTO;
@@ -32,8 +33,13 @@ public class DistributionUpdates {
 	private CampusService dgmService;
 	
 	@PutMapping("/update-zone/{id}")//used
-     public ResponseEntity<String> updateDistribution(@PathVariable int id, @RequestBody DistributionRequestDTO request) {
+     public ResponseEntity<?> updateDistribution(@PathVariable int id, @RequestBody DistributionRequestDTO request,
+             @RequestParam(defaultValue = "false") boolean preview) {
          try {
+             if (preview) {
+                 // Dry run: nothing is written
+                 return ResponseEntity.ok(distributionService.previewUpdate(id, request));
+             }
              distributionService.updateDistribution(id, request);
              return new ResponseEntity<>("Distribution updated successfully", HttpStatus.OK);
          } catch (RuntimeException e) {
@@ -42,8 +48,12 @@ public class DistributionUpdates {
      }
   
      @PutMapping("/update-dgm/{id}")//used
-     public ResponseEntity<String> updateDistribution(@PathVariable Integer id, @RequestBody FormSubmissionDTO formDto) {
+     public ResponseEntity<?> updateDistribution(@PathVariable Integer id, @RequestBody FormSubmissionDTO formDto,
+             @RequestParam(defaultValue = "false") boolean preview) {
          try {
+             if (preview) {
+                 return ResponseEntity.ok(applicationService.previewUpdate(id, formDto));
+             }
              applicationService.updateForm(id, formDto);
              return ResponseEntity.ok("Distribution record updated successfully.");
          } catch (Exception e) {
@@ -52,10 +62,14 @@ public class DistributionUpdates {
      }
     
      @PutMapping("/update-campus/{Id}")//used
-     public ResponseEntity<Void> updateDgmToCampusForm(
-             @PathVariable int distributionId,
-             @RequestBody DgmToCampusFormDTO formDto) {
+     public ResponseEntity<?> updateDgmToCampusForm(
+             @PathVariable("Id") int distributionId,
+             @RequestBody DgmToCampusFormDTO formDto,
+             @RequestParam(defaultValue = "false") boolean preview) {
          try {
+             if (preview) {
+                 return ResponseEntity.ok(dgmService.previewUpdateDgmToCampusForm(distributionId, formDto));
+             }
              dgmService.updateDgmToCampusForm(distributionId, formDto);
              return new ResponseEntity<>(HttpStatus.OK);
          } catch (RuntimeException e) {
@@ -1,6 +1,7 @@
 
 package com.application.controller;
  
+import java.io.InputStream;
 import java.util.List;
 
 import org.springframework.beans.factory.annotation.Autowired;
@@ -27,9 +28,12 @@ import com.application.dto.OrientationDTO;
 import com.application.dto.OrientationFeeAndDatesDTO;
 import com.application.dto.OrientationResponseDTO;
 import com.application.dto.PinCodeLocationDTO;
+import com.application.dto.SaleImportReportDTO;
 import com.application.dto.StudentAdmissionDTO;
 import com.application.dto.StudentSaleDTO;
 import com.application.entity.StudyType;
+import com.application.exception.ApplicationAlreadyExistsException;
+import com.application.service.SaleImportService;
 import com.application.service.StudentAdmissionService;
 
 import jakarta.persistence.EntityNotFoundException;
@@ -41,6 +45,9 @@ public class StudentAdmissionController {
  
     @Autowired
     private StudentAdmissionService studentAdmissionService;
+
+    @Autowired
+    private SaleImportService saleImportService;
  
     // --- Endpoint for Form Submission ---
     @PostMapping("/create")
@@ -48,6 +55,8 @@ public class StudentAdmissionController {
         try {
             studentAdmissionService.createAdmissionAndSale(formDto);
             return ResponseEntity.ok("Admission form created successfully!");
+        } catch (ApplicationAlreadyExistsException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
         } catch (Exception e) {
             // Log the full stack trace for debugging purposes
             e.printStackTrace();
@@ -55,11 +64,27 @@ public class StudentAdmissionController {
         }
     }
     
+    // Bulk import of offline admission sales: body is NDJSON (default) or CSV with a header row
+    @PostMapping("/create/import")
+    public ResponseEntity<?> importAdmissionSales(InputStream body, @RequestParam(defaultValue = "ndjson") String format) {
+        try {
+            SaleImportReportDTO report = saleImportService.importAdmissionSales(body, format);
+            return ResponseEntity.ok(report);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (Exception e) {
+            e.printStackTrace();
+            return ResponseEntity.internalServerError().body("Failed to import admission sales: " + e.getMessage());
+        }
+    }
+    
     @PostMapping("/create/sale/only")
     public ResponseEntity<String> createAdmission(@RequestBody StudentSaleDTO formDto) {
         try {
             studentAdmissionService.createAdmission(formDto);
             return ResponseEntity.ok("Admission form created successfully!");
+        } catch (ApplicationAlreadyExistsException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
         } catch (Exception e) {
             // Log the full stack trace for debugging purposes
             e.printStackTrace();
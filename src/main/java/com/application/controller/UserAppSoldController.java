@@ -6,8 +6,10 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import com.application.dto.RateResponseDTO;
+import com.application.service.PerformanceLeaderboard;
 import com.application.service.UserAppSoldService;
  
 @RestController
@@ -16,10 +18,21 @@ public class UserAppSoldController {
  
 	@Autowired
 	private UserAppSoldService userAppSoldService;
+	@Autowired
+	private PerformanceLeaderboard performanceLeaderboard;
 	 
 	 @GetMapping("/top_drop_rate")//used
 	    public ResponseEntity<List<RateResponseDTO>> getAllRateData() {
 	        return ResponseEntity.ok(userAppSoldService.getAllRateData());
 	    }
 	 
+	 @GetMapping("/leaderboard")
+	    public ResponseEntity<List<RateResponseDTO>> getLeaderboard(
+	            @RequestParam(required = false) Integer k,
+	            @RequestParam(required = false) Integer academicYearId,
+	            @RequestParam(required = false) Float amount,
+	            @RequestParam(defaultValue = "NAME") PerformanceLeaderboard.TieBreak tieBreak) {
+	        return ResponseEntity.ok(performanceLeaderboard.getRateData(k, academicYearId, amount, tieBreak));
+	    }
+	 
 }
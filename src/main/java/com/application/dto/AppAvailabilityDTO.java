@@ -0,0 +1,21 @@
+package com.application.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AppAvailabilityDTO {
+    private int holderId;
+    private boolean pro;
+    private int academicYearId;
+    private long heldCount;      // numbers currently with the holder
+    private long availableCount; // held, not sold and not damaged
+    private long soldCount;
+    private long damagedCount;
+    private long returnedCount;  // damaged earlier, marked available again
+    private Integer nextAvailableNo;
+    private boolean exact;       // false when a CO/Admin bucket row is counted without per-number detail
+}
@@ -0,0 +1,23 @@
+package com.application.dto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkConfirmationReportDTO {
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+    private long elapsedMillis;
+    private int requested;
+    private int confirmed;
+    private int failed;
+    private int chunks;
+    private int chunksRetriedPerRecord; // chunks whose batch commit failed and were replayed one student at a time
+    private List<BulkConfirmationResultDTO> results;
+}
@@ -0,0 +1,16 @@
+package com.application.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Outcome for one student of a bulk confirmation (index = position in the request)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkConfirmationResultDTO {
+    private int index;
+    private Long studAdmsNo;
+    private boolean confirmed;
+    private String message;
+}
@@ -0,0 +1,29 @@
+package com.application.dto;
+
+import java.time.LocalDate;
+
+/**
+ * One day of a hierarchy node's sales counters, for the academic year that
+ * was current on that day. issued / sold / withPro are null where the node's
+ * screen has no such value.
+ */
+public record DailySnapshotPointDTO(
+    LocalDate date,
+    Integer acdcYearId,
+    long totalApp,
+    long appSold,
+    long appConfirmed,
+    long appAvailable,
+    long appUnavailable,
+    long appDamaged,
+    long appIssued,
+    Long issued,
+    Long sold,
+    Long withPro
+) {
+
+    public MetricsAggregateDTO toAggregate() {
+        return new MetricsAggregateDTO(totalApp, appSold, appConfirmed, appAvailable, appUnavailable, appDamaged,
+                appIssued);
+    }
+}
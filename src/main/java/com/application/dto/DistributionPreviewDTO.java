@@ -0,0 +1,17 @@
+package com.application.dto;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Result of a preview=true call: what the write would do, nothing is saved
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DistributionPreviewDTO {
+    private List<DistributionPreviewRowDTO> deactivated;
+    private List<DistributionPreviewRowDTO> created;
+    private List<HolderBalancePreviewDTO> balances;
+}
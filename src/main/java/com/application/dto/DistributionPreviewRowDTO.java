@@ -0,0 +1,19 @@
+package com.application.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DistributionPreviewRowDTO {
+    private Integer distributionId; // null for rows that would be created
+    private String kind;            // NEW, REMAINDER or DEACTIVATED
+    private int startNo;
+    private int endNo;
+    private int count;
+    private Integer issuedToEmpId;
+    private Integer issuedToProId;
+    private Float amount;
+}
@@ -0,0 +1,15 @@
+package com.application.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DistributionRangeDTO {
+    private Integer distributionId;
+    private int appStartNo;
+    private int appEndNo;
+    private Integer issuedToTypeId;
+}
@@ -0,0 +1,24 @@
+package com.application.dto;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class HolderBalancePreviewDTO {
+    private Integer empId;
+    private Integer proId;
+    private int academicYearId;
+    private Float amount;
+    private boolean admin;                     // CO/Admin: single "master minus distributed" row
+    private List<AppSeriesDTO> released;
+    private List<AppSeriesDTO> received;
+    private List<AppSeriesDTO> currentSeries;
+    private List<AppSeriesDTO> resultingSeries;
+    private int currentCount;
+    private int resultingCount;
+}
@@ -0,0 +1,23 @@
+package com.application.dto;
+
+import java.time.LocalDateTime;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LedgerCompactionReportDTO {
+    private String status;                 // RUNNING, COMPLETED, FAILED or IDLE
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+    private Integer archiveBeforeYearId;   // inactive rows of earlier years are archived
+    private int batches;
+    private long holdersCompacted;
+    private long balanceRowsMerged;        // active balance rows folded into a neighbour
+    private long distributionsArchived;
+    private long balancesArchived;
+    private String error;
+}
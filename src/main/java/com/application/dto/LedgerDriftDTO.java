@@ -0,0 +1,26 @@
+package com.application.dto;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// One holder (or, with no holder, one academic year) whose ledger does not add up
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LedgerDriftDTO {
+    private int academicYearId;
+    private Integer empId;
+    private Integer proId;
+    private Float amount;
+    private boolean admin;
+    private List<String> issues;
+    private long expectedCount;
+    private long actualCount;
+    private List<AppSeriesDTO> missing;        // expected but not in any balance row
+    private List<AppSeriesDTO> extra;          // in a balance row but not expected
+    private List<AppSeriesDTO> proposedSeries; // balance rows the holder should have
+    private long proposedCount;
+}
@@ -0,0 +1,24 @@
+package com.application.dto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LedgerReconciliationReportDTO {
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+    private long elapsedMillis;
+    private List<Integer> academicYearIds;
+    private long distributionsScanned;
+    private long balancesScanned;
+    private long salesScanned;
+    private long holdersChecked;
+    private int holdersWithDrift;
+    private List<LedgerDriftDTO> drifts;
+}
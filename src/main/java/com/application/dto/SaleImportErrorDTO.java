@@ -0,0 +1,15 @@
+package com.application.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// One rejected record of a bulk sale import (line = 1-based line/record number in the upload)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SaleImportErrorDTO {
+    private long line;
+    private Long studAdmsNo;
+    private String message;
+}
@@ -0,0 +1,26 @@
+package com.application.dto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SaleImportReportDTO {
+    private String kind;          // FAST_SALE or ADMISSION
+    private String format;        // NDJSON or CSV
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+    private long elapsedMillis;
+    private long records;
+    private long imported;
+    private long failed;
+    private int chunks;
+    private int chunksRetriedPerRecord; // chunks whose batch commit failed and were replayed one record at a time
+    private boolean errorsTruncated;
+    private List<SaleImportErrorDTO> errors;
+}
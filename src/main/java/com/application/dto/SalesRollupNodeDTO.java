@@ -0,0 +1,34 @@
+package com.application.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One node of the zone -> DGM -> campus rollup with its whole subtree.
+ * issued / sold come from sce_user_app_sold campus rows, the app* counters
+ * from sce_app_stats_trk; a parent's values are the sum over its distinct
+ * campuses.
+ */
+@Data
+@NoArgsConstructor
+public class SalesRollupNodeDTO {
+    private String level; // "ALL", "ZONE", "DGM" or "CAMPUS"
+    private Integer id;
+    private String name;
+    private int academicYearId;
+    private long issued;
+    private long sold;
+    private double soldPercent;
+    private long totalApp;
+    private long appSold;
+    private long appConfirmed;
+    private long appAvailable;
+    private long appIssued;
+    private long appDamaged;
+    private long appUnavailable;
+    private int campusCount;
+    private List<SalesRollupNodeDTO> children = new ArrayList<>();
+}
@@ -16,6 +16,7 @@ public class StudentApplicationSingleDTO {
     // ===========================
     private Integer studAdmsId;
     private Long studAdmsNo;
+    private Integer version; // send back on PATCH
     private String firstName;
     private String lastName;
     private String apaarNo;
@@ -14,6 +14,7 @@ public class StudentApplicationUpdateDTO {
 	
 	private Long studAdmsNo;
     private Integer createdBy;
+    private Integer version; // Application version read with the form (PATCH only)
 
     private String hallTicketNumber;      // "Hall Ticket Number"
     private Integer schoolStateId;        // "School State"
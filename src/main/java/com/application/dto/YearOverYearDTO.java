@@ -0,0 +1,13 @@
+package com.application.dto;
+
+/**
+ * A hierarchy node on one date and on the same date a year earlier; either
+ * side is null when no snapshot was captured near that date.
+ */
+public record YearOverYearDTO(
+    String level,
+    Integer id,
+    DailySnapshotPointDTO current,
+    DailySnapshotPointDTO lastYear
+) {
+}
@@ -0,0 +1,20 @@
+package com.application.dto;
+
+// One academic year of sce_app_stats_trk for an analytics scope (year = AcademicYear.year, 0 when unknown)
+public record YearlyMetricsDTO(
+    Integer acdcYearId,
+    Integer year,
+    Long totalApp,
+    Long appSold,
+    Long appConfirmed,
+    Long appAvailable,
+    Long appUnavailable,
+    Long appDamaged,
+    Long appIssued
+) {
+
+    public MetricsAggregateDTO toAggregate() {
+        return new MetricsAggregateDTO(totalApp, appSold, appConfirmed, appAvailable, appUnavailable, appDamaged,
+                appIssued);
+    }
+}
@@ -0,0 +1,20 @@
+package com.application.dto;
+
+/**
+ * One academic year of sce_user_app_sold for an analytics scope.
+ * issued / sold feed the graph, withPro the "With PRO" card; inGraph is 1
+ * when the year is one the graph lists for that scope.
+ */
+public record YearlySoldSummaryDTO(
+    Integer acdcYearId,
+    String academicYear,
+    Long issued,
+    Long sold,
+    Long withPro,
+    Integer inGraph
+) {
+
+    public GraphSoldSummaryDTO toGraphSummary() {
+        return new GraphSoldSummaryDTO(issued, sold);
+    }
+}
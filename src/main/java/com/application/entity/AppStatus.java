@@ -2,7 +2,10 @@ package com.application.entity;
 
 import java.time.LocalDate;
 
+import com.application.service.AvailabilityMapListener;
+
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
@@ -17,6 +20,7 @@ import lombok.NoArgsConstructor;
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
+@EntityListeners(AvailabilityMapListener.class)
 @Table(name = "sce_app_status" , schema="sce_application")
 public class AppStatus {
 
@@ -1,10 +1,13 @@
 package com.application.entity;
 
+import com.application.config.BlockSequenceId;
+import com.application.service.AvailabilityMapListener;
+import com.application.service.FeeResolutionListener;
+
 import jakarta.annotation.Generated;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
-import jakarta.persistence.GeneratedValue;
-import jakarta.persistence.GenerationType;
+import jakarta.persistence.EntityListeners;
 import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
@@ -18,11 +21,12 @@ import lombok.NoArgsConstructor;
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
+@EntityListeners({ AvailabilityMapListener.class, FeeResolutionListener.class })
 @Table(name="sce_app_balance_trk" , schema = "sce_application") 
 public class BalanceTrack {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @BlockSequenceId(sequence = "sce_application.sce_app_balance_trk_id_seq")
     @Column(name = "app_balance_trk_id")
     private int appBalanceTrkId;
 
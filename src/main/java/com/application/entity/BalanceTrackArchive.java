@@ -0,0 +1,59 @@
+package com.application.entity;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Archive of sce_app_balance_trk, laid out like {@link DistributionArchive}.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "sce_app_balance_trk_arch", schema = "sce_application")
+public class BalanceTrackArchive {
+
+	@Id
+	@Column(name = "app_balance_trk_id")
+	private Integer appBalanceTrkId;
+
+	@Column(name = "app_avbl_cnt")
+	private Integer appAvblCnt;
+
+	@Column(name = "app_from")
+	private Integer appFrom;
+
+	@Column(name = "app_to")
+	private Integer appTo;
+
+	@Column(name = "is_active")
+	private Integer isActive;
+
+	@Column(name = "created_by")
+	private Integer createdBy;
+
+	@Column(name = "acdc_year_id")
+	private Integer academicYearId;
+
+	@Column(name = "emp_id")
+	private Integer empId;
+
+	@Column(name = "issued_type_id")
+	private Integer issuedTypeId;
+
+	@Column(name = "amount")
+	private Float amount;
+
+	@Column(name = "issued_to_pro_id")
+	private Integer issuedToProId;
+
+	@Column(name = "archived_at")
+	private LocalDateTime archivedAt;
+}
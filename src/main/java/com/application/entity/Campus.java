@@ -1,7 +1,10 @@
 package com.application.entity;
 
+import com.application.service.FeeResolutionListener;
+
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
 import jakarta.persistence.FetchType;
 import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
@@ -15,6 +18,7 @@ import lombok.NoArgsConstructor;
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
+@EntityListeners(FeeResolutionListener.class)
 @Table(name = "sce_cmps", schema = "sce_campus")
 public class Campus {
 
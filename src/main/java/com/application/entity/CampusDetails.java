@@ -1,6 +1,9 @@
 package com.application.entity;
 
+import com.application.service.FeeResolutionListener;
+
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
 import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
@@ -13,6 +16,7 @@ import lombok.NoArgsConstructor;
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
+@EntityListeners(FeeResolutionListener.class)
 @Table(name="sce_cmps_detl" , schema = "sce_campus")
 public class CampusDetails {
 	
@@ -0,0 +1,48 @@
+package com.application.entity;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One sale / confirmation / damage waiting to be applied to the
+ * sce_user_app_sold and sce_app_stats_trk counters. Written in the same
+ * transaction as the change itself and deleted once the relay has applied it.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "sce_counter_outbox", schema = "sce_application")
+public class CounterOutboxEvent {
+
+	public static final String SOLD = "SOLD";
+	public static final String CONFIRMED = "CONFIRMED";
+	public static final String DAMAGED = "DAMAGED";
+
+	@Id
+	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	@Column(name = "outbox_id")
+	private Long outboxId;
+
+	@Column(name = "event_type", nullable = false, length = 16)
+	private String eventType;
+
+	@Column(name = "app_no", nullable = false)
+	private Long appNo;
+
+	// Null when the writer does not know it; resolved from the PRO distribution
+	@Column(name = "acdc_year_id")
+	private Integer acdcYearId;
+
+	@Column(name = "created_at", nullable = false)
+	private LocalDateTime createdAt;
+}
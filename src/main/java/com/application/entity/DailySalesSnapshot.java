@@ -0,0 +1,89 @@
+package com.application.entity;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * The sales counters of one hierarchy node on one day, for the academic year
+ * that was current then. ALL rows carry the dashboard totals (ref_id 0),
+ * ZONE / DGM / CAMPUS rows what that node's analytics show; issued, sold and
+ * with_pro are null where the screen has no such value.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "sce_daily_sales_snapshot", schema = "sce_application", uniqueConstraints = @UniqueConstraint(
+		name = "uk_daily_sales_snapshot", columnNames = { "snapshot_date", "level_code", "ref_id" }),
+		indexes = @Index(name = "ix_daily_sales_snapshot_date", columnList = "snapshot_date"))
+public class DailySalesSnapshot {
+
+	public static final String ALL = "ALL";
+	public static final String ZONE = "ZONE";
+	public static final String DGM = "DGM";
+	public static final String CAMPUS = "CAMPUS";
+
+	@Id
+	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	@Column(name = "snapshot_id")
+	private Long snapshotId;
+
+	@Column(name = "snapshot_date", nullable = false)
+	private LocalDate snapshotDate;
+
+	@Column(name = "level_code", nullable = false, length = 8)
+	private String levelCode;
+
+	// Zone id, DGM emp_id or campus id; 0 for ALL
+	@Column(name = "ref_id", nullable = false)
+	private Integer refId;
+
+	@Column(name = "acdc_year_id", nullable = false)
+	private Integer acdcYearId;
+
+	@Column(name = "total_app", nullable = false)
+	private Long totalApp;
+
+	@Column(name = "app_sold", nullable = false)
+	private Long appSold;
+
+	@Column(name = "app_confirmed", nullable = false)
+	private Long appConfirmed;
+
+	@Column(name = "app_available", nullable = false)
+	private Long appAvailable;
+
+	@Column(name = "app_unavailable", nullable = false)
+	private Long appUnavailable;
+
+	@Column(name = "app_damaged", nullable = false)
+	private Long appDamaged;
+
+	@Column(name = "app_issued", nullable = false)
+	private Long appIssued;
+
+	// sce_user_app_sold totalAppCount / sold
+	@Column(name = "issued")
+	private Long issued;
+
+	@Column(name = "sold")
+	private Long sold;
+
+	@Column(name = "with_pro")
+	private Long withPro;
+
+	@Column(name = "captured_at", nullable = false)
+	private LocalDateTime capturedAt;
+}
@@ -2,10 +2,12 @@ package com.application.entity;
  
 import java.time.LocalDateTime;
 
+import com.application.config.BlockSequenceId;
+import com.application.service.DistributionIndexListener;
+
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
-import jakarta.persistence.GeneratedValue;
-import jakarta.persistence.GenerationType;
+import jakarta.persistence.EntityListeners;
 import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
@@ -18,11 +20,12 @@ import lombok.NoArgsConstructor;
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
+@EntityListeners(DistributionIndexListener.class)
 @Table(name="sce_app_distrubution", schema = "sce_application")
 public class Distribution {
  
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @BlockSequenceId(sequence = "sce_application.sce_app_distribution_id_seq")
     @Column(name = "app_distrubution_id")
     private Integer appDistributionId;
  
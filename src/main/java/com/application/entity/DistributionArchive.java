@@ -0,0 +1,82 @@
+package com.application.entity;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Inactive sce_app_distrubution rows of past academic years, moved here by
+ * LedgerCompactionJob. Same columns as the ledger table (plain ids, no foreign
+ * keys) plus archived_at; rows are only ever inserted.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "sce_app_distrubution_arch", schema = "sce_application")
+public class DistributionArchive {
+
+	@Id
+	@Column(name = "app_distrubution_id")
+	private Integer appDistributionId;
+
+	@Column(name = "app_start_no")
+	private Integer appStartNo;
+
+	@Column(name = "app_end_no")
+	private Integer appEndNo;
+
+	@Column(name = "total_app_count")
+	private Integer totalAppCount;
+
+	@Column(name = "amount")
+	private Float amount;
+
+	@Column(name = "is_active")
+	private Integer isActive;
+
+	@Column(name = "created_by")
+	private Integer createdBy;
+
+	@Column(name = "issued_to_emp_id")
+	private Integer issuedToEmpId;
+
+	@Column(name = "issued_to_pro_id")
+	private Integer issuedToProId;
+
+	@Column(name = "issued_by_type_id")
+	private Integer issuedByTypeId;
+
+	@Column(name = "issued_to_type_id")
+	private Integer issuedToTypeId;
+
+	@Column(name = "city_id")
+	private Integer cityId;
+
+	@Column(name = "state_id")
+	private Integer stateId;
+
+	@Column(name = "zone_id")
+	private Integer zoneId;
+
+	@Column(name = "district_id")
+	private Integer districtId;
+
+	@Column(name = "cmps_id")
+	private Integer campusId;
+
+	@Column(name = "created_date")
+	private LocalDateTime issueDate;
+
+	@Column(name = "acdc_year_id")
+	private Integer academicYearId;
+
+	@Column(name = "archived_at")
+	private LocalDateTime archivedAt;
+}
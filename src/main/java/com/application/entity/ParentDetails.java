@@ -1,9 +1,11 @@
 package com.application.entity;
 
+import com.application.config.BlockSequenceId;
+
+import org.hibernate.annotations.DynamicUpdate;
+
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
-import jakarta.persistence.GeneratedValue;
-import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
@@ -16,11 +18,12 @@ import lombok.NoArgsConstructor;
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
+@DynamicUpdate
 @Table(name = "sce_parent_detls" , schema = "sce_student")
 public class ParentDetails {
 	
 	@Id
-	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	@BlockSequenceId(sequence = "sce_student.sce_parent_detls_parent_detls_id_seq")
 	@Column(name = "parent_detls_id")
 	private int parentId;
 	private String occupation;
@@ -2,9 +2,9 @@ package com.application.entity;
 
 import java.util.Date;
 
+import com.application.config.BlockSequenceId;
+
 import jakarta.persistence.Entity;
-import jakarta.persistence.GeneratedValue;
-import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
@@ -21,7 +21,7 @@ import lombok.NoArgsConstructor;
 public class PaymentDetails {
 
 	@Id
-	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	@BlockSequenceId(sequence = "sce_student.sce_stud_payment_detls_stud_payment_detls_id_seq")
 	private int stud_payment_detls_id;
 	private float app_fee;
 	private float conc_amount;
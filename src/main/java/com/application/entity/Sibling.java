@@ -1,8 +1,10 @@
 package com.application.entity;
 
+import com.application.config.BlockSequenceId;
+
+import org.hibernate.annotations.DynamicUpdate;
+
 import jakarta.persistence.Entity;
-import jakarta.persistence.GeneratedValue;
-import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
@@ -15,11 +17,12 @@ import lombok.NoArgsConstructor;
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
+@DynamicUpdate
 @Table(name="sce_stud_sibling" , schema = "sce_student")
 public class Sibling {
 	
 	@Id
-	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	@BlockSequenceId(sequence = "sce_student.sce_stud_sibling_stud_sibling_id_seq")
 	private int stud_sibling_id;
 	private String sibling_name;
 	private String sibling_school;
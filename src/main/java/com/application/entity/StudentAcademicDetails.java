@@ -3,14 +3,19 @@ package com.application.entity;
 import java.time.LocalDate;
 import java.util.Date;
 
+import com.application.config.BlockSequenceId;
+import com.application.service.AvailabilityMapListener;
+
+import org.hibernate.annotations.DynamicUpdate;
+
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
-import jakarta.persistence.GeneratedValue;
-import jakarta.persistence.GenerationType;
+import jakarta.persistence.EntityListeners;
 import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -19,11 +24,13 @@ import lombok.NoArgsConstructor;
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
+@DynamicUpdate
+@EntityListeners(AvailabilityMapListener.class)
 @Table(name = "sce_stud_acdc_detl", schema = "sce_student")
 public class StudentAcademicDetails {
 
 	@Id
-	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	@BlockSequenceId(sequence = "sce_student.sce_stud_acdc_detl_stud_adms_id_seq")
 	private int stud_adms_id;
 	@Column(name = "stud_adms_no") 
 	private Long studAdmsNo;
@@ -128,4 +135,10 @@ public class StudentAcademicDetails {
 	@JoinColumn(name = "pre_school_type_id",referencedColumnName = "school_type_id")
 	private CampusSchoolType preCampusSchoolType;
 
+	// Optimistic version of the whole application (this row and its child rows),
+	// checked by ApplicationFastSale.patchApplicationSale
+	@Version
+	@Column(name = "version", columnDefinition = "integer default 0 not null")
+	private int version;
+
 }
@@ -1,5 +1,9 @@
 package com.application.entity;
 
+import com.application.config.BlockSequenceId;
+
+import org.hibernate.annotations.DynamicUpdate;
+
 import jakarta.persistence.*;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -9,11 +13,12 @@ import lombok.AllArgsConstructor;
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
+@DynamicUpdate
 @Table(name="sce_stud_addrs" , schema = "sce_student")
 public class StudentAddress {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @BlockSequenceId(sequence = "sce_student.sce_stud_addrs_stud_addrs_id_seq")
     private int stud_addrs_id;
     private String house_no;
     private String street;
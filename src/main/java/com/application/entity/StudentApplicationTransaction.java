@@ -1,10 +1,10 @@
 package com.application.entity;
  
 import java.util.Date;
+
+import com.application.config.BlockSequenceId;
  
 import jakarta.persistence.Entity;
-import jakarta.persistence.GeneratedValue;
-import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
@@ -21,7 +21,7 @@ import lombok.NoArgsConstructor;
 public class StudentApplicationTransaction {
 	
 	@Id
-	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	@BlockSequenceId(sequence = "sce_student.sce_app_transactions_app_transaction_id_seq")
 	private int app_transaction_id;
 	private int org_id;
 	private String number;
@@ -2,10 +2,12 @@ package com.application.entity;
 
 import java.time.LocalDateTime;
 
+import com.application.config.BlockSequenceId;
+
+import org.hibernate.annotations.DynamicUpdate;
+
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
-import jakarta.persistence.GeneratedValue;
-import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
@@ -18,11 +20,12 @@ import lombok.NoArgsConstructor;
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
+@DynamicUpdate
 @Table(name="sce_stud_conc_detls" , schema = "sce_student")
 public class StudentConcessionType {
 
 	@Id
-	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	@BlockSequenceId(sequence = "sce_student.sce_stud_conc_detls_stud_conc_detls_id_seq")
 	private int stud_conc_detls_id;
 	@Column(name = "stud_adms_id")
 	private int studAdmsId;
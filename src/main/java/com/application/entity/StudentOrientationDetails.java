@@ -2,9 +2,11 @@ package com.application.entity;
 
 import java.util.Date;
 
+import com.application.config.BlockSequenceId;
+
+import org.hibernate.annotations.DynamicUpdate;
+
 import jakarta.persistence.Entity;
-import jakarta.persistence.GeneratedValue;
-import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
@@ -18,11 +20,12 @@ import lombok.NoArgsConstructor;
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
+@DynamicUpdate
 @Table(name = "sce_stud_orientation_detl" , schema = "sce_student")
 public class StudentOrientationDetails {
 	
 	@Id
-	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	@BlockSequenceId(sequence = "sce_student.sce_stud_orientation_detl_stud_orientation_id_seq")
 	private int stud_orientation_id;
 	private Date orientation_date;
 	
@@ -1,5 +1,7 @@
 package com.application.entity;
 
+import com.application.service.FeeResolutionListener;
+
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
@@ -9,6 +11,7 @@ import lombok.NoArgsConstructor;
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
+@EntityListeners(FeeResolutionListener.class)
 @Table(name = "sce_zone", schema = "sce_locations")
 public class Zone {
 
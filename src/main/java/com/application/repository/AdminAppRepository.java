@@ -52,4 +52,25 @@ public interface AdminAppRepository extends JpaRepository<AdminApp, Integer> {
             @Param("yearId") int yearId,
             @Param("amount") Float amount
     );
+
+    // Active master ranges of one employee and year (marks a CO/Admin holder)
+    @Query("""
+        SELECT a FROM AdminApp a
+        WHERE a.employee.id = :empId
+          AND a.academicYear.id = :yearId
+          AND a.is_active = 1
+    """)
+    List<AdminApp> findActiveByEmpAndYear(
+            @Param("empId") int empId,
+            @Param("yearId") int yearId
+    );
+
+    // [academic year id, lowest from, highest to] of the active master ranges, per year
+    @Query("""
+        SELECT a.academicYear.acdcYearId, MIN(a.appFromNo), MAX(a.appToNo)
+        FROM AdminApp a
+        WHERE a.is_active = 1
+        GROUP BY a.academicYear.acdcYearId
+    """)
+    List<Object[]> findActiveMasterBoundsByYear();
 }
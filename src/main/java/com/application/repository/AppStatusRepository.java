@@ -1,5 +1,6 @@
 package com.application.repository;
 
+import java.util.List;
 import java.util.Optional;
 
 import org.springframework.data.jpa.repository.JpaRepository;
@@ -17,5 +18,9 @@ public interface AppStatusRepository extends JpaRepository<AppStatus, Integer> {
 
     @Query("SELECT a FROM AppStatus a WHERE a.app_no = :appNo AND a.is_active = 1")
     Optional<AppStatus> findByApp_no(@Param("appNo") int appNo);
+
+    // [app_no, is_active, status_id] of every status row within [fromNo, toNo]
+    @Query("SELECT a.app_no, a.is_active, a.status.status_id FROM AppStatus a WHERE a.app_no BETWEEN :fromNo AND :toNo")
+    List<Object[]> findStatusFlagsBetween(@Param("fromNo") int fromNo, @Param("toNo") int toNo);
  
 }
@@ -9,7 +9,7 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import com.application.dto.AppStatusTrackDTO;
-import com.application.dto.MetricsAggregateDTO;
+import com.application.dto.YearlyMetricsDTO;
 import com.application.entity.AppStatusTrack;
 
 @Repository
@@ -76,68 +76,97 @@ public interface AppStatusTrackRepository extends JpaRepository<AppStatusTrack,
 			""")
 	Long getWithProByYear(Integer yearId);
 
+	@Query("""
+			    SELECT
+			        a.campus.campusId,
+			        SUM(a.totalApp),
+			        SUM(a.appSold),
+			        SUM(a.appConfirmed),
+			        SUM(a.appAvailable),
+			        SUM(a.appIssued),
+			        SUM(a.appDamaged),
+			        SUM(a.appUnavailable)
+			    FROM AppStatusTrack a
+			    WHERE a.isActive = 1
+			      AND a.academicYear.acdcYearId = :yearId
+			      AND a.campus IS NOT NULL
+			    GROUP BY a.campus.campusId
+			""")
+	List<Object[]> getCampusTotalsByYear(@Param("yearId") Integer yearId);
+
+	// --- One year per zone / employee / campus for the daily snapshot, as getYearlyMetricsBy*: ---
+	// [id, total, sold, confirmed, available, unavailable, damaged, issued]
+
+	@Query("SELECT ast.zone.zoneId, COALESCE(SUM(ast.totalApp), 0), COALESCE(SUM(ast.appSold), 0), "
+			+ "COALESCE(SUM(ast.appConfirmed), 0), COALESCE(SUM(ast.appAvailable), 0), "
+			+ "COALESCE(SUM(ast.appUnavailable), 0), COALESCE(SUM(ast.appDamaged), 0), COALESCE(SUM(ast.appIssued), 0) "
+			+ "FROM AppStatusTrack ast WHERE ast.academicYear.acdcYearId = :yearId AND ast.zone IS NOT NULL "
+			+ "GROUP BY ast.zone.zoneId")
+	List<Object[]> getZoneMetricsByYear(@Param("yearId") Integer yearId);
+
+	@Query("SELECT ast.employee.emp_id, COALESCE(SUM(ast.totalApp), 0), COALESCE(SUM(ast.appSold), 0), "
+			+ "COALESCE(SUM(ast.appConfirmed), 0), COALESCE(SUM(ast.appAvailable), 0), "
+			+ "COALESCE(SUM(ast.appUnavailable), 0), COALESCE(SUM(ast.appDamaged), 0), COALESCE(SUM(ast.appIssued), 0) "
+			+ "FROM AppStatusTrack ast WHERE ast.academicYear.acdcYearId = :yearId AND ast.employee IS NOT NULL "
+			+ "GROUP BY ast.employee.emp_id")
+	List<Object[]> getEmployeeMetricsByYear(@Param("yearId") Integer yearId);
+
+	@Query("SELECT ast.campus.campusId, COALESCE(SUM(ast.totalApp), 0), COALESCE(SUM(ast.appSold), 0), "
+			+ "COALESCE(SUM(ast.appConfirmed), 0), COALESCE(SUM(ast.appAvailable), 0), "
+			+ "COALESCE(SUM(ast.appUnavailable), 0), COALESCE(SUM(ast.appDamaged), 0), COALESCE(SUM(ast.appIssued), 0) "
+			+ "FROM AppStatusTrack ast WHERE ast.academicYear.acdcYearId = :yearId AND ast.campus IS NOT NULL "
+			+ "GROUP BY ast.campus.campusId")
+	List<Object[]> getCampusMetricsByYear(@Param("yearId") Integer yearId);
+
 	public record MetricsAggregate(long totalApp, long appSold, long appConfirmed, long appAvailable,
 			long appUnavailable, long appDamaged, long appIssued) {
 	}
 
-	/**
-	 * Aggregates all metric counts for a specific Zone and Academic Year.
-	 */
-	@Query("SELECT NEW com.application.dto.MetricsAggregateDTO(" + // <-- Use new DTO
-			"COALESCE(SUM(ast.totalApp), 0), COALESCE(SUM(ast.appSold), 0), COALESCE(SUM(ast.appConfirmed), 0), "
-			+ "COALESCE(SUM(ast.appAvailable), 0), COALESCE(SUM(ast.appUnavailable), 0), "
-			+ "COALESCE(SUM(ast.appDamaged), 0), COALESCE(SUM(ast.appIssued), 0)) " + "FROM AppStatusTrack ast "
-			+ "WHERE ast.zone.id = :zoneId AND ast.academicYear.acdcYearId = :acdcYearId")
-	Optional<MetricsAggregateDTO> getMetricsByZoneAndYear( // <-- Use new DTO
-			@Param("zoneId") Long zoneId, @Param("acdcYearId") Integer acdcYearId);
-
-	/**
-	 * Aggregates all metric counts for a specific DGM (Employee) and Academic Year.
-	 */
-	@Query("SELECT NEW com.application.dto.MetricsAggregateDTO("
+	// --- One row per academic year for the metrics cards ---
+
+	@Query("SELECT NEW com.application.dto.YearlyMetricsDTO(ast.academicYear.acdcYearId, COALESCE(y.year, 0), "
 			+ "COALESCE(SUM(ast.totalApp), 0), COALESCE(SUM(ast.appSold), 0), COALESCE(SUM(ast.appConfirmed), 0), "
 			+ "COALESCE(SUM(ast.appAvailable), 0), COALESCE(SUM(ast.appUnavailable), 0), "
-			+ "COALESCE(SUM(ast.appDamaged), 0), COALESCE(SUM(ast.appIssued), 0)) " + "FROM AppStatusTrack ast "
-			+ "WHERE ast.employee.id = :empId AND ast.academicYear.acdcYearId = :acdcYearId")
-	Optional<MetricsAggregateDTO> getMetricsByEmployeeAndYear(@Param("empId") Integer empId,
-			@Param("acdcYearId") Integer acdcYearId);
-
-	/**
-	 * Aggregates all metric counts for a specific Campus and Academic Year.
-	 */
-	@Query("SELECT NEW com.application.dto.MetricsAggregateDTO(" + // <-- Use new DTO
-			"COALESCE(SUM(ast.totalApp), 0), COALESCE(SUM(ast.appSold), 0), COALESCE(SUM(ast.appConfirmed), 0), "
-			+ "COALESCE(SUM(ast.appAvailable), 0), COALESCE(SUM(ast.appUnavailable), 0), "
-			+ "COALESCE(SUM(ast.appDamaged), 0), COALESCE(SUM(ast.appIssued), 0)) " + "FROM AppStatusTrack ast "
-			+ "WHERE ast.campus.id = :campusId AND ast.academicYear.acdcYearId = :acdcYearId")
-	Optional<MetricsAggregateDTO> getMetricsByCampusAndYear( // <-- Use new DTO
-			@Param("campusId") Long campusId, @Param("acdcYearId") Integer acdcYearId);
-
-	@Query("SELECT DISTINCT ast.academicYear.acdcYearId FROM AppStatusTrack ast WHERE ast.zone.id = :zoneId")
-	List<Integer> findDistinctYearIdsByZone(@Param("zoneId") Long zoneId);
+			+ "COALESCE(SUM(ast.appDamaged), 0), COALESCE(SUM(ast.appIssued), 0)) "
+			+ "FROM AppStatusTrack ast LEFT JOIN ast.academicYear y "
+			+ "WHERE ast.zone.id = :zoneId "
+			+ "GROUP BY ast.academicYear.acdcYearId, y.year")
+	List<YearlyMetricsDTO> getYearlyMetricsByZone(@Param("zoneId") Long zoneId);
 
-	@Query("SELECT DISTINCT ast.academicYear.acdcYearId FROM AppStatusTrack ast WHERE ast.employee.id = :empId")
-	List<Integer> findDistinctYearIdsByEmployee(@Param("empId") Integer empId);
-
-	@Query("SELECT DISTINCT ast.academicYear.acdcYearId FROM AppStatusTrack ast WHERE ast.campus.id = :campusId")
-	List<Integer> findDistinctYearIdsByCampus(@Param("campusId") Long campusId);
-
-	// --- NEW: Method for a LIST of campuses (DGM-Rollup) ---
-	@Query("SELECT NEW com.application.dto.MetricsAggregateDTO(COALESCE(SUM(ast.totalApp), 0), COALESCE(SUM(ast.appSold), 0), COALESCE(SUM(ast.appConfirmed), 0), COALESCE(SUM(ast.appAvailable), 0), COALESCE(SUM(ast.appUnavailable), 0), COALESCE(SUM(ast.appDamaged), 0), COALESCE(SUM(ast.appIssued), 0)) FROM AppStatusTrack ast WHERE ast.campus.id IN :campusIds AND ast.academicYear.acdcYearId = :acdcYearId")
-	Optional<MetricsAggregateDTO> getMetricsByCampusListAndYear(@Param("campusIds") List<Integer> campusIds,
-			@Param("acdcYearId") Integer acdcYearId);
+	@Query("SELECT NEW com.application.dto.YearlyMetricsDTO(ast.academicYear.acdcYearId, COALESCE(y.year, 0), "
+			+ "COALESCE(SUM(ast.totalApp), 0), COALESCE(SUM(ast.appSold), 0), COALESCE(SUM(ast.appConfirmed), 0), "
+			+ "COALESCE(SUM(ast.appAvailable), 0), COALESCE(SUM(ast.appUnavailable), 0), "
+			+ "COALESCE(SUM(ast.appDamaged), 0), COALESCE(SUM(ast.appIssued), 0)) "
+			+ "FROM AppStatusTrack ast LEFT JOIN ast.academicYear y "
+			+ "WHERE ast.employee.id = :empId "
+			+ "GROUP BY ast.academicYear.acdcYearId, y.year")
+	List<YearlyMetricsDTO> getYearlyMetricsByEmployee(@Param("empId") Integer empId);
 
-	// --- NEW: Method for a LIST of campuses (DGM-Rollup) ---
-	@Query("SELECT DISTINCT ast.academicYear.acdcYearId FROM AppStatusTrack ast WHERE ast.campus.id IN :campusIds")
-	List<Integer> findDistinctYearIdsByCampusList(@Param("campusIds") List<Integer> campusIds);
+	@Query("SELECT NEW com.application.dto.YearlyMetricsDTO(ast.academicYear.acdcYearId, COALESCE(y.year, 0), "
+			+ "COALESCE(SUM(ast.totalApp), 0), COALESCE(SUM(ast.appSold), 0), COALESCE(SUM(ast.appConfirmed), 0), "
+			+ "COALESCE(SUM(ast.appAvailable), 0), COALESCE(SUM(ast.appUnavailable), 0), "
+			+ "COALESCE(SUM(ast.appDamaged), 0), COALESCE(SUM(ast.appIssued), 0)) "
+			+ "FROM AppStatusTrack ast LEFT JOIN ast.academicYear y "
+			+ "WHERE ast.campus.id = :campusId "
+			+ "GROUP BY ast.academicYear.acdcYearId, y.year")
+	List<YearlyMetricsDTO> getYearlyMetricsByCampus(@Param("campusId") Long campusId);
 
-	// --- NEW: Employee List query for Zonal Rollup (Metrics) ---
-	@Query("SELECT NEW com.application.dto.MetricsAggregateDTO(COALESCE(SUM(ast.totalApp), 0), COALESCE(SUM(ast.appSold), 0), COALESCE(SUM(ast.appConfirmed), 0), COALESCE(SUM(ast.appAvailable), 0), COALESCE(SUM(ast.appUnavailable), 0), COALESCE(SUM(ast.appDamaged), 0), COALESCE(SUM(ast.appIssued), 0)) FROM AppStatusTrack ast WHERE ast.employee.id IN :empIds AND ast.academicYear.acdcYearId = :acdcYearId")
-	Optional<MetricsAggregateDTO> getMetricsByEmployeeListAndYear(@Param("empIds") List<Integer> empIds,
-			@Param("acdcYearId") Integer acdcYearId);
+	@Query("SELECT NEW com.application.dto.YearlyMetricsDTO(ast.academicYear.acdcYearId, COALESCE(y.year, 0), "
+			+ "COALESCE(SUM(ast.totalApp), 0), COALESCE(SUM(ast.appSold), 0), COALESCE(SUM(ast.appConfirmed), 0), "
+			+ "COALESCE(SUM(ast.appAvailable), 0), COALESCE(SUM(ast.appUnavailable), 0), "
+			+ "COALESCE(SUM(ast.appDamaged), 0), COALESCE(SUM(ast.appIssued), 0)) "
+			+ "FROM AppStatusTrack ast LEFT JOIN ast.academicYear y "
+			+ "WHERE ast.campus.id IN :campusIds "
+			+ "GROUP BY ast.academicYear.acdcYearId, y.year")
+	List<YearlyMetricsDTO> getYearlyMetricsByCampusList(@Param("campusIds") List<Integer> campusIds);
 
-	// --- NEW: Employee List query for Zonal Rollup (Years) ---
-	@Query("SELECT DISTINCT ast.academicYear.acdcYearId FROM AppStatusTrack ast WHERE ast.employee.id IN :empIds")
-	List<Integer> findDistinctYearIdsByEmployeeList(@Param("empIds") List<Integer> empIds);
+	@Query("SELECT NEW com.application.dto.YearlyMetricsDTO(ast.academicYear.acdcYearId, COALESCE(y.year, 0), "
+			+ "COALESCE(SUM(ast.totalApp), 0), COALESCE(SUM(ast.appSold), 0), COALESCE(SUM(ast.appConfirmed), 0), "
+			+ "COALESCE(SUM(ast.appAvailable), 0), COALESCE(SUM(ast.appUnavailable), 0), "
+			+ "COALESCE(SUM(ast.appDamaged), 0), COALESCE(SUM(ast.appIssued), 0)) "
+			+ "FROM AppStatusTrack ast LEFT JOIN ast.academicYear y "
+			+ "WHERE ast.employee.id IN :empIds "
+			+ "GROUP BY ast.academicYear.acdcYearId, y.year")
+	List<YearlyMetricsDTO> getYearlyMetricsByEmployeeList(@Param("empIds") List<Integer> empIds);
 
-}
\ No newline at end of file
+}
@@ -50,7 +50,14 @@ public interface BalanceTrackRepository extends JpaRepository<BalanceTrack, Inte
  			+ "AND b.appTo = :targetEnd")
  	Optional<BalanceTrack> findMergeableRowForEmployee(@Param("yearId") int yearId, @Param("empId") int empId,
  			@Param("amount") Float amount, @Param("targetEnd") int targetEnd);
-     
+
+     // Active rows of one holder that overlap (or touch, when the caller widens the range) [startNo, endNo]
+     @Query("SELECT b FROM BalanceTrack b WHERE " + "b.academicYear.acdcYearId = :yearId "
+ 			+ "AND b.employee.emp_id = :empId " + "AND b.amount = :amount " + "AND b.isActive = 1 "
+ 			+ "AND b.appFrom <= :endNo AND b.appTo >= :startNo " + "ORDER BY b.appFrom ASC")
+ 	List<BalanceTrack> findActiveBalancesByEmpAndAmountInRange(@Param("yearId") int yearId, @Param("empId") int empId,
+ 			@Param("amount") Float amount, @Param("startNo") int startNo, @Param("endNo") int endNo);
+
      @Query("SELECT new com.application.dto.AppSeriesDTO(concat(b.appFrom, ' - ', b.appTo), b.appFrom, b.appTo) " +
 	           "FROM BalanceTrack b WHERE " +
 	           "b.employee.emp_id = :empId " +
@@ -79,6 +86,9 @@ public interface BalanceTrackRepository extends JpaRepository<BalanceTrack, Inte
 	Optional<BalanceTrack> findActiveBalanceByProAndAmount(@Param("yearId") int yearId, @Param("proId") int proId,
 			@Param("amount") Float amount);
 	
+	@Query("SELECT b FROM BalanceTrack b WHERE b.academicYear.acdcYearId = :yearId AND b.issuedToProId = :proId AND b.isActive = 1 ORDER BY b.appFrom ASC")
+	List<BalanceTrack> findActiveBalancesByProAndYear(@Param("yearId") int yearId, @Param("proId") int proId);
+
 	@Query("SELECT b FROM BalanceTrack b WHERE b.academicYear.acdcYearId = :yearId AND b.issuedToProId = :proId AND b.isActive = 1 AND b.amount = :amount ORDER BY b.appFrom ASC")
 	List<BalanceTrack> findActiveBalancesByProAndAmount(@Param("yearId") int yearId, @Param("proId") int proId, @Param("amount") Float amount);
 	
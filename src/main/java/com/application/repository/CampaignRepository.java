@@ -1,8 +1,11 @@
 package com.application.repository;
 
+import java.util.Collection;
 import java.util.List;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import com.application.entity.Campaign;
@@ -12,5 +15,9 @@ public interface CampaignRepository  extends JpaRepository<Campaign, Integer>{
 	 List<Campaign> findByCity_CityId(int cityId);
 	 
 	 Campaign findByCampus_CampusId(int campusId);
+
+	 // [campusId, campaignId, areaName] for the given campuses
+	 @Query("SELECT c.campus.campusId, c.campaignId, c.areaName FROM Campaign c WHERE c.campus.campusId IN :campusIds ORDER BY c.campaignId")
+	 List<Object[]> findCampaignAreasByCampusIds(@Param("campusIds") Collection<Integer> campusIds);
 	 
 }
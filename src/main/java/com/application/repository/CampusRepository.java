@@ -1,5 +1,6 @@
 package com.application.repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -72,4 +73,7 @@ public interface CampusRepository extends JpaRepository<Campus, Integer>{
 	           "FROM Campus c WHERE c.city.cityId = :cityId AND c.isActive = 1")
 	    List<GenericDropdownDTO> findCampusesByCityId(@Param("cityId") int cityId);
 	
+	 @Query("SELECT c.campusId FROM Campus c WHERE c.campusId IN :ids")
+	    List<Integer> findExistingIds(@Param("ids") Collection<Integer> ids);
+	
 }
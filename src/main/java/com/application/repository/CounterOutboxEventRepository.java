@@ -0,0 +1,10 @@
+package com.application.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import com.application.entity.CounterOutboxEvent;
+
+@Repository
+public interface CounterOutboxEventRepository extends JpaRepository<CounterOutboxEvent, Long> {
+}
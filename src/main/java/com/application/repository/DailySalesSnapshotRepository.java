@@ -0,0 +1,26 @@
+package com.application.repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.application.entity.DailySalesSnapshot;
+
+@Repository
+public interface DailySalesSnapshotRepository extends JpaRepository<DailySalesSnapshot, Long> {
+
+	List<DailySalesSnapshot> findBySnapshotDateGreaterThanEqual(LocalDate from);
+
+	@Modifying
+	@Query("DELETE FROM DailySalesSnapshot s WHERE s.snapshotDate = :date")
+	int deleteBySnapshotDate(@Param("date") LocalDate date);
+
+	@Modifying
+	@Query("DELETE FROM DailySalesSnapshot s WHERE s.snapshotDate < :date")
+	int deleteBySnapshotDateBefore(@Param("date") LocalDate date);
+}
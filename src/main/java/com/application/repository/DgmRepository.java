@@ -1,6 +1,7 @@
 
 package com.application.repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -24,6 +25,16 @@ public interface DgmRepository extends JpaRepository<Dgm, Integer> {
 	@Query("SELECT d FROM Dgm d WHERE d.campus.campusId = :campusId")
 	List<Dgm> findByCampusId(@Param("campusId") int campusId);
 
+	// [zoneId, first_name, last_name] for every DGM of the given zones, first DGM per zone first
+	@Query("SELECT d.zone.zoneId, e.first_name, e.last_name FROM Dgm d LEFT JOIN d.employee e "
+			+ "WHERE d.zone.zoneId IN :zoneIds ORDER BY d.zone.zoneId, d.dgm_id")
+	List<Object[]> findDgmNamesByZoneIds(@Param("zoneIds") Collection<Integer> zoneIds);
+
+	// [campusId, first_name, last_name] for every DGM of the given campuses, first DGM per campus first
+	@Query("SELECT d.campus.campusId, e.first_name, e.last_name FROM Dgm d LEFT JOIN d.employee e "
+			+ "WHERE d.campus.campusId IN :campusIds ORDER BY d.campus.campusId, d.dgm_id")
+	List<Object[]> findDgmNamesByCampusIds(@Param("campusIds") Collection<Integer> campusIds);
+
 	@Query("SELECT new com.application.dto.GenericDropdownDTO(e.emp_id, CONCAT(e.first_name, ' ', e.last_name)) "
 			+ "FROM Dgm d JOIN d.employee e " + "WHERE e.isActive = 1")
 	List<GenericDropdownDTO> findAllDgmEmployees();
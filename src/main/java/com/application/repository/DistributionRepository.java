@@ -8,6 +8,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import com.application.dto.DistributionRangeDTO;
 import com.application.entity.Distribution;
 
 @Repository
@@ -85,6 +86,15 @@ public interface DistributionRepository extends JpaRepository<Distribution, Inte
 
 		@Query("SELECT d FROM Distribution d WHERE d.issued_to_emp_id = :empId AND d.academicYear.acdcYearId = :yearId AND d.isActive = 1 ORDER BY d.appStartNo ASC")
 	    List<Distribution> findActiveHoldingsForEmp(@Param("empId") Integer empId, @Param("yearId") Integer yearId);
-		
+
+		// Cold-start load for DistributionRangeIndex (ranges only, no entity graph)
+		@Query("SELECT new com.application.dto.DistributionRangeDTO(d.appDistributionId, d.appStartNo, d.appEndNo, t.appIssuedId) "
+				+ "FROM Distribution d LEFT JOIN d.issuedToType t "
+				+ "WHERE d.academicYear.acdcYearId = :academicYearId AND d.isActive = 1 ORDER BY d.appStartNo ASC")
+		List<DistributionRangeDTO> findActiveRangesByAcademicYear(@Param("academicYearId") int academicYearId);
+
+		@Query("SELECT DISTINCT d.academicYear.acdcYearId FROM Distribution d WHERE d.isActive = 1")
+		List<Integer> findActiveAcademicYearIds();
+
 
 }
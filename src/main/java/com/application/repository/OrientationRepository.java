@@ -1,6 +1,11 @@
 package com.application.repository;
 
+import java.util.Collection;
+import java.util.List;
+
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import com.application.entity.Orientation;
@@ -8,4 +13,6 @@ import com.application.entity.Orientation;
 @Repository
 public interface OrientationRepository extends JpaRepository<Orientation, Integer>{
 
+	@Query("SELECT o.orientationId FROM Orientation o WHERE o.orientationId IN :ids")
+	List<Integer> findExistingIds(@Param("ids") Collection<Integer> ids);
 }
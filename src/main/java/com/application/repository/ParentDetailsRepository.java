@@ -1,5 +1,6 @@
 package com.application.repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import org.springframework.data.jpa.repository.JpaRepository;
@@ -16,4 +17,6 @@ public interface ParentDetailsRepository extends JpaRepository<ParentDetails, In
          StudentAcademicDetails academicDetails,
          int relationId
      );
-}
\ No newline at end of file
+
+     List<ParentDetails> findByStudentAcademicDetailsIn(Collection<StudentAcademicDetails> academics);
+}
@@ -1,5 +1,6 @@
 package com.application.repository;
 
+import java.util.Collection;
 import java.util.List;
 
 import org.springframework.data.jpa.repository.JpaRepository;
@@ -12,4 +13,6 @@ import com.application.entity.StudentAcademicDetails;
 public interface SiblingRepository extends JpaRepository<Sibling, Integer>{
 	
 	List<Sibling> findByStudentAcademicDetails(StudentAcademicDetails studentAcademicDetails);
+
+	List<Sibling> findByStudentAcademicDetailsIn(Collection<StudentAcademicDetails> academics);
 }
@@ -1,8 +1,13 @@
 package com.application.repository;
  
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
  
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
  
 import com.application.entity.StudentAcademicDetails;
@@ -11,4 +16,22 @@ import com.application.entity.StudentAcademicDetails;
 public interface StudentAcademicDetailsRepository extends JpaRepository<StudentAcademicDetails, Integer> {
  
     Optional<StudentAcademicDetails> findByStudAdmsNo(Long admissionNo); 
-}
\ No newline at end of file
+
+    // Admission (application) numbers already used within [fromNo, toNo]
+    @Query("SELECT s.studAdmsNo FROM StudentAcademicDetails s WHERE s.studAdmsNo BETWEEN :fromNo AND :toNo")
+    List<Long> findUsedAdmissionNumbersBetween(@Param("fromNo") Long fromNo, @Param("toNo") Long toNo);
+
+    // Which of the given admission numbers already have a student record
+    @Query("SELECT s.studAdmsNo FROM StudentAcademicDetails s WHERE s.studAdmsNo IN :numbers")
+    List<Long> findUsedAdmissionNumbersIn(@Param("numbers") Collection<Long> numbers);
+
+    boolean existsByStudAdmsNo(Long admissionNo);
+
+    // Keyset page of [admission number, academic year id] in use, ascending (admission number filter warm-up)
+    @Query("SELECT s.studAdmsNo, s.academicYear.acdcYearId FROM StudentAcademicDetails s "
+            + "WHERE s.studAdmsNo > :after ORDER BY s.studAdmsNo")
+    List<Object[]> findAdmissionNumbersAfter(@Param("after") Long after, Pageable page);
+
+    // Students of a bulk confirmation, one query per chunk
+    List<StudentAcademicDetails> findByStudAdmsNoIn(Collection<Long> admissionNos);
+}
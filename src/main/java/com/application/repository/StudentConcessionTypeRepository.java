@@ -1,5 +1,6 @@
 package com.application.repository;
 
+import java.util.Collection;
 import java.util.List;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
@@ -10,4 +11,6 @@ import com.application.entity.StudentConcessionType;
 public interface StudentConcessionTypeRepository extends JpaRepository<StudentConcessionType, Integer> {
 
 	List<StudentConcessionType> findByStudAdmsId(int studAdmsId);
+
+	List<StudentConcessionType> findByStudAdmsIdIn(Collection<Integer> studAdmsIds);
 }
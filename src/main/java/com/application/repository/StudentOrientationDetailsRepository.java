@@ -1,5 +1,7 @@
 package com.application.repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 import org.springframework.data.jpa.repository.JpaRepository;
@@ -12,5 +14,6 @@ import com.application.entity.StudentOrientationDetails;
 public interface StudentOrientationDetailsRepository extends JpaRepository<StudentOrientationDetails, Integer>{
 	
 	Optional<StudentOrientationDetails> findByStudentAcademicDetails(StudentAcademicDetails studentAcademicDetails);
-    
+
+	List<StudentOrientationDetails> findByStudentAcademicDetailsIn(Collection<StudentAcademicDetails> academics);
 }
@@ -1,5 +1,7 @@
 package com.application.repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 import org.springframework.data.jpa.repository.JpaRepository;
@@ -12,4 +14,6 @@ import com.application.entity.StudentPersonalDetails;
 public interface StudentPersonalDetailsRepository extends JpaRepository<StudentPersonalDetails, Integer> {
 
     Optional<StudentPersonalDetails> findByStudentAcademicDetails(StudentAcademicDetails academic);
-}
\ No newline at end of file
+
+    List<StudentPersonalDetails> findByStudentAcademicDetailsIn(Collection<StudentAcademicDetails> academics);
+}
@@ -1,13 +1,12 @@
 package com.application.repository;
 
 import java.util.List;
-import java.util.Optional;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
-import com.application.dto.GraphSoldSummaryDTO;
+import com.application.dto.YearlySoldSummaryDTO;
 import com.application.entity.UserAppSold;
 
 @Repository
@@ -15,18 +14,38 @@ public interface UserAppSoldRepository extends JpaRepository<UserAppSold, Long>
 
 	List<UserAppSold> findByEntityId(Integer entityId);
 
-	@Query("SELECT u.zone.zoneName, SUM(u.totalAppCount), SUM(u.sold) " + "FROM UserAppSold u "
-			+ "WHERE u.isActive = 1 AND u.entityId = 2 " + "GROUP BY u.zone.zoneName")
-	List<Object[]> getZoneWiseRates();
+	// --- Leaderboard rows: [id, name, issued, sold]; academic year / amount optional ---
 
-	@Query("SELECT u.campus.campusName, SUM(u.totalAppCount), SUM(u.sold) " + "FROM UserAppSold u "
-			+ "WHERE u.isActive = 1 AND u.entityId = 4 " + "GROUP BY u.campus.campusName")
-	List<Object[]> getCampusWiseRates();
+	@Query("""
+			    SELECT z.zoneId, z.zoneName, COALESCE(SUM(u.totalAppCount), 0), COALESCE(SUM(u.sold), 0)
+			    FROM UserAppSold u JOIN u.zone z
+			    WHERE u.isActive = 1 AND u.entityId = 2
+			      AND (:acdcYearId IS NULL OR u.acdcYearId = :acdcYearId)
+			      AND (:amount IS NULL OR u.amount = :amount)
+			    GROUP BY z.zoneId, z.zoneName
+			""")
+	List<Object[]> getZoneRateRows(@Param("acdcYearId") Integer acdcYearId, @Param("amount") Float amount);
+
+	@Query("""
+			    SELECT e.emp_id, CONCAT(e.first_name, ' ', e.last_name), COALESCE(SUM(u.totalAppCount), 0),
+			        COALESCE(SUM(u.sold), 0)
+			    FROM UserAppSold u JOIN Employee e ON u.empId = e.emp_id
+			    WHERE u.isActive = 1 AND u.entityId = 3
+			      AND (:acdcYearId IS NULL OR u.acdcYearId = :acdcYearId)
+			      AND (:amount IS NULL OR u.amount = :amount)
+			    GROUP BY e.emp_id, e.first_name, e.last_name
+			""")
+	List<Object[]> getDgmRateRows(@Param("acdcYearId") Integer acdcYearId, @Param("amount") Float amount);
 
-	@Query("SELECT CONCAT(e.first_name, ' ', e.last_name), SUM(u.totalAppCount), SUM(u.sold) "
-			+ "FROM UserAppSold u JOIN Employee e ON u.empId = e.emp_id " + "WHERE u.isActive = 1 AND u.entityId = 3 "
-			+ "GROUP BY e.first_name, e.last_name")
-	List<Object[]> getDgmWiseRates();
+	@Query("""
+			    SELECT c.campusId, c.campusName, COALESCE(SUM(u.totalAppCount), 0), COALESCE(SUM(u.sold), 0)
+			    FROM UserAppSold u JOIN u.campus c
+			    WHERE u.isActive = 1 AND u.entityId = 4
+			      AND (:acdcYearId IS NULL OR u.acdcYearId = :acdcYearId)
+			      AND (:amount IS NULL OR u.amount = :amount)
+			    GROUP BY c.campusId, c.campusName
+			""")
+	List<Object[]> getCampusRateRows(@Param("acdcYearId") Integer acdcYearId, @Param("amount") Float amount);
 
 	@Query("""
 			    SELECT
@@ -41,142 +60,166 @@ public interface UserAppSoldRepository extends JpaRepository<UserAppSold, Long>
 	List<Object[]> getYearWiseIssuedAndSold();
 
 	@Query("""
-			    SELECT NEW com.application.dto.GraphSoldSummaryDTO(
+			    SELECT
+			        a.acdcYearId,
+			        COALESCE(SUM(a.totalAppCount), 0),
+			        COALESCE(SUM(a.sold), 0)
+			    FROM UserAppSold a
+			    WHERE a.isActive = 1
+			      AND a.empId = :empId
+			      AND a.acdcYearId IN :yearIds
+			    GROUP BY a.acdcYearId
+			    ORDER BY a.acdcYearId
+			""")
+	List<Object[]> getYearWiseIssuedAndSoldByEmployee(@Param("empId") Integer empId,
+			@Param("yearIds") List<Integer> yearIds);
+
+	@Query("""
+			    SELECT
+			        u.campus.campusId,
+			        COALESCE(SUM(u.totalAppCount), 0),
+			        COALESCE(SUM(u.sold), 0)
+			    FROM UserAppSold u
+			    WHERE u.isActive = 1
+			      AND u.entityId = 4
+			      AND u.acdcYearId = :yearId
+			      AND u.campus IS NOT NULL
+			    GROUP BY u.campus.campusId
+			""")
+	List<Object[]> getCampusIssuedAndSoldByYear(@Param("yearId") Integer yearId);
+
+	// --- One year per zone / DGM / campus for the daily snapshot, as getYearlySummaryBy*: ---
+	// [id, issued, sold, withPro]
+
+	@Query("""
+			    SELECT u.zone.zoneId, COALESCE(SUM(u.totalAppCount), 0), COALESCE(SUM(u.sold), 0),
+			        COALESCE(SUM(CASE WHEN u.entityId = 4 THEN u.totalAppCount ELSE 0 END), 0)
+			    FROM UserAppSold u
+			    WHERE u.acdcYearId = :yearId AND u.zone IS NOT NULL
+			    GROUP BY u.zone.zoneId
+			""")
+	List<Object[]> getZoneSoldByYear(@Param("yearId") Integer yearId);
+
+	@Query("""
+			    SELECT u.empId, COALESCE(SUM(u.totalAppCount), 0), COALESCE(SUM(u.sold), 0),
+			        COALESCE(SUM(u.totalAppCount), 0)
+			    FROM UserAppSold u
+			    WHERE u.acdcYearId = :yearId AND u.empId IS NOT NULL
+			    GROUP BY u.empId
+			""")
+	List<Object[]> getDgmSoldByYear(@Param("yearId") Integer yearId);
+
+	@Query("""
+			    SELECT u.campus.campusId, COALESCE(SUM(u.totalAppCount), 0), COALESCE(SUM(u.sold), 0),
+			        COALESCE(SUM(u.totalAppCount), 0)
+			    FROM UserAppSold u
+			    WHERE u.acdcYearId = :yearId AND u.campus IS NOT NULL
+			    GROUP BY u.campus.campusId
+			""")
+	List<Object[]> getCampusSoldByYear(@Param("yearId") Integer yearId);
+
+	// --- One row per academic year (graph + 'With PRO' card in one pass) ---
+	// inGraph marks the years the scope's graph lists (its own entity level)
+
+	@Query("""
+			    SELECT NEW com.application.dto.YearlySoldSummaryDTO(
+			        uas.acdcYearId, y.academicYear,
 			        COALESCE(SUM(uas.totalAppCount), 0),
-			        COALESCE(SUM(uas.sold), 0))
+			        COALESCE(SUM(uas.sold), 0),
+			        COALESCE(SUM(CASE WHEN uas.entityId = 4 THEN uas.totalAppCount ELSE 0 END), 0),
+			        MAX(CASE WHEN uas.entityId = 2 THEN 1 ELSE 0 END))
 			    FROM UserAppSold uas
-			    WHERE uas.empId = :dgmId
-			      AND uas.acdcYearId = :acdcYearId
+			    LEFT JOIN AcademicYear y ON y.acdcYearId = uas.acdcYearId
+			    WHERE uas.zone.zoneId = :zoneId
+			    GROUP BY uas.acdcYearId, y.academicYear
 			""")
-	Optional<GraphSoldSummaryDTO> getSalesSummaryByDgm(@Param("dgmId") Integer dgmId,
-			@Param("acdcYearId") Integer acdcYearId);
+	List<YearlySoldSummaryDTO> getYearlySummaryByZone(@Param("zoneId") Integer zoneId);
 
 	@Query("""
-			    SELECT NEW com.application.dto.GraphSoldSummaryDTO(
+			    SELECT NEW com.application.dto.YearlySoldSummaryDTO(
+			        uas.acdcYearId, y.academicYear,
 			        COALESCE(SUM(uas.totalAppCount), 0),
-			        COALESCE(SUM(uas.sold), 0))
+			        COALESCE(SUM(uas.sold), 0),
+			        COALESCE(SUM(uas.totalAppCount), 0),
+			        MAX(CASE WHEN uas.entityId = 3 THEN 1 ELSE 0 END))
 			    FROM UserAppSold uas
-			    WHERE uas.zone.zoneId = :zoneId
-			      AND uas.acdcYearId = :acdcYearId
+			    LEFT JOIN AcademicYear y ON y.acdcYearId = uas.acdcYearId
+			    WHERE uas.empId = :dgmId
+			    GROUP BY uas.acdcYearId, y.academicYear
 			""")
-	Optional<GraphSoldSummaryDTO> getSalesSummaryByZone(@Param("zoneId") Integer zoneId,
-			@Param("acdcYearId") Integer acdcYearId);
+	List<YearlySoldSummaryDTO> getYearlySummaryByDgm(@Param("dgmId") Integer dgmId);
 
 	@Query("""
-			    SELECT NEW com.application.dto.GraphSoldSummaryDTO(
+			    SELECT NEW com.application.dto.YearlySoldSummaryDTO(
+			        uas.acdcYearId, y.academicYear,
+			        COALESCE(SUM(uas.totalAppCount), 0),
+			        COALESCE(SUM(uas.sold), 0),
 			        COALESCE(SUM(uas.totalAppCount), 0),
-			        COALESCE(SUM(uas.sold), 0))
+			        MAX(CASE WHEN uas.entityId = 4 THEN 1 ELSE 0 END))
 			    FROM UserAppSold uas
+			    LEFT JOIN AcademicYear y ON y.acdcYearId = uas.acdcYearId
 			    WHERE uas.campus.campusId = :campusId
-			      AND uas.acdcYearId = :acdcYearId
+			    GROUP BY uas.acdcYearId, y.academicYear
 			""")
-	Optional<GraphSoldSummaryDTO> getSalesSummaryByCampus(@Param("campusId") Integer campusId,
-			@Param("acdcYearId") Integer acdcYearId);
+	List<YearlySoldSummaryDTO> getYearlySummaryByCampus(@Param("campusId") Integer campusId);
 
 	@Query("""
-			    SELECT COALESCE(SUM(uas.totalAppCount), 0)
+			    SELECT NEW com.application.dto.YearlySoldSummaryDTO(
+			        uas.acdcYearId, y.academicYear,
+			        COALESCE(SUM(uas.totalAppCount), 0),
+			        COALESCE(SUM(uas.sold), 0),
+			        COALESCE(SUM(uas.totalAppCount), 0),
+			        1)
 			    FROM UserAppSold uas
-			    WHERE uas.entityId = 4
-			      AND uas.zone.zoneId = :zoneId
-			      AND uas.acdcYearId = :acdcYearId
+			    LEFT JOIN AcademicYear y ON y.acdcYearId = uas.acdcYearId
+			    WHERE uas.entityId = 4 AND uas.campus.id IN :campusIds
+			    GROUP BY uas.acdcYearId, y.academicYear
 			""")
-	Optional<Long> getProMetricByZone(@Param("zoneId") Integer zoneId, @Param("acdcYearId") Integer acdcYearId);
+	List<YearlySoldSummaryDTO> getYearlySummaryByCampusList(@Param("campusIds") List<Integer> campusIds);
 
+	// Graph counts the DGM rows (entity 3), 'With PRO' the campus rows (entity 4) of the same DGMs
 	@Query("""
-			    SELECT COALESCE(SUM(uas.totalAppCount), 0)
+			    SELECT NEW com.application.dto.YearlySoldSummaryDTO(
+			        uas.acdcYearId, y.academicYear,
+			        COALESCE(SUM(CASE WHEN uas.entityId = 3 THEN uas.totalAppCount ELSE 0 END), 0),
+			        COALESCE(SUM(CASE WHEN uas.entityId = 3 THEN uas.sold ELSE 0 END), 0),
+			        COALESCE(SUM(CASE WHEN uas.entityId = 4 THEN uas.totalAppCount ELSE 0 END), 0),
+			        MAX(CASE WHEN uas.entityId = 3 THEN 1 ELSE 0 END))
 			    FROM UserAppSold uas
-			    WHERE uas.campus.campusId = :campusId
-			      AND uas.acdcYearId = :acdcYearId
+			    LEFT JOIN AcademicYear y ON y.acdcYearId = uas.acdcYearId
+			    WHERE uas.entityId IN (3, 4) AND uas.empId IN :dgmEmpIds
+			    GROUP BY uas.acdcYearId, y.academicYear
 			""")
-	Optional<Long> getProMetricByCampus(@Param("campusId") Integer campusId, @Param("acdcYearId") Integer acdcYearId);
+	List<YearlySoldSummaryDTO> getYearlySummaryByDgmList(@Param("dgmEmpIds") List<Integer> dgmEmpIds);
 
 	@Query("""
-			    SELECT COALESCE(SUM(uas.totalAppCount), 0)
-			    FROM UserAppSold uas
-			    WHERE uas.empId = :dgmId
-			      AND uas.acdcYearId = :acdcYearId
-			""")
-	Optional<Long> getProMetricByDgm(@Param("dgmId") Integer dgmId, @Param("acdcYearId") Integer acdcYearId);
-
-	// --- NEW: Method for a LIST of campuses (DGM-Rollup) ---
-	@Query("SELECT NEW com.application.dto.GraphSoldSummaryDTO(COALESCE(SUM(uas.totalAppCount), 0), COALESCE(SUM(uas.sold), 0)) FROM UserAppSold uas WHERE uas.entityId = 4 AND uas.campus.id IN :campusIds AND uas.acdcYearId = :acdcYearId")
-	Optional<GraphSoldSummaryDTO> getSalesSummaryByCampusList(@Param("campusIds") List<Integer> campusIds,
-			@Param("acdcYearId") Integer acdcYearId);
-
-	// --- NEW: Method for a LIST of campuses (DGM-Rollup) ---
-	@Query("SELECT COALESCE(SUM(uas.totalAppCount), 0) FROM UserAppSold uas WHERE uas.entityId = 4 AND uas.campus.id IN :campusIds AND uas.acdcYearId = :acdcYearId")
-	Optional<Long> getProMetricByCampusList(@Param("campusIds") List<Integer> campusIds,
-			@Param("acdcYearId") Integer acdcYearId);
-
-	// --- Methods to find distinct years for GRAPH ---
-
-	@Query("SELECT DISTINCT uas.acdcYearId FROM UserAppSold uas WHERE uas.entityId = 2 AND uas.zone.id = :zoneId")
-	List<Integer> findDistinctYearIdsByZone(@Param("zoneId") Integer zoneId);
-
-	@Query("SELECT DISTINCT uas.acdcYearId FROM UserAppSold uas WHERE uas.entityId = 3 AND uas.empId = :dgmId")
-	List<Integer> findDistinctYearIdsByDgm(@Param("dgmId") Integer dgmId);
-
-	// This method is for a single campus (PRO role)
-	@Query("SELECT DISTINCT uas.acdcYearId FROM UserAppSold uas WHERE uas.entityId = 4 AND uas.campus.id = :campusId")
-	List<Integer> findDistinctYearIdsByCampus(@Param("campusId") Integer campusId);
-
-	// --- NEW: Method for a LIST of campuses (DGM-Rollup) ---
-	@Query("SELECT DISTINCT uas.acdcYearId FROM UserAppSold uas WHERE uas.entityId = 4 AND uas.campus.id IN :campusIds")
-	List<Integer> findDistinctYearIdsByCampusList(@Param("campusIds") List<Integer> campusIds);
-
-	// --- NEW: DGM List query for Zonal Rollup (Graph) ---
-	@Query("SELECT NEW com.application.dto.GraphSoldSummaryDTO(COALESCE(SUM(uas.totalAppCount), 0), COALESCE(SUM(uas.sold), 0)) FROM UserAppSold uas WHERE uas.entityId = 3 AND uas.empId IN :dgmEmpIds AND uas.acdcYearId = :acdcYearId")
-	Optional<GraphSoldSummaryDTO> getSalesSummaryByDgmList(@Param("dgmEmpIds") List<Integer> dgmEmpIds,
-			@Param("acdcYearId") Integer acdcYearId);
-
-	// --- NEW: DGM List query for Zonal Rollup ('With PRO' card) ---
-	@Query("SELECT COALESCE(SUM(uas.totalAppCount), 0) FROM UserAppSold uas WHERE uas.entityId = 4 AND uas.empId IN :dgmEmpIds AND uas.acdcYearId = :acdcYearId")
-	Optional<Long> getProMetricByDgmList(@Param("dgmEmpIds") List<Integer> dgmEmpIds,
-			@Param("acdcYearId") Integer acdcYearId);
-
-	// --- NEW: DGM List query for Zonal Rollup (Years) ---
-	@Query("SELECT DISTINCT uas.acdcYearId FROM UserAppSold uas WHERE uas.entityId = 3 AND uas.empId IN :dgmEmpIds")
-	List<Integer> findDistinctYearIdsByDgmList(@Param("dgmEmpIds") List<Integer> dgmEmpIds);
-
-	@Query("SELECT new com.application.dto.GraphSoldSummaryDTO(SUM(u.totalAppCount), SUM(u.sold)) "
-			+ "FROM UserAppSold u " + "WHERE u.zone.zoneId = :zoneId AND u.acdcYearId = :yearId AND u.amount = :amount")
-	Optional<GraphSoldSummaryDTO> getSalesSummaryByZoneAndAmount(@Param("zoneId") Integer zoneId,
-			@Param("yearId") Integer yearId, @Param("amount") Float amount);
-
-	/**
-	 * Custom query to find all distinct academic year IDs that have data for a
-	 * specific zone and amount.
-	 */
-	@Query("SELECT DISTINCT u.acdcYearId FROM UserAppSold u WHERE u.zone.zoneId = :zoneId AND u.amount = :amount")
-	List<Integer> findDistinctYearIdsByZoneAndAmount(@Param("zoneId") Integer zoneId, @Param("amount") Float amount);
-
-	@Query("SELECT new com.application.dto.GraphSoldSummaryDTO(SUM(u.totalAppCount), SUM(u.sold)) "
-			+ "FROM UserAppSold u " + "WHERE u.campus.id = :campusId AND u.acdcYearId = :yearId AND u.amount = :amount")
-	Optional<GraphSoldSummaryDTO> getSalesSummaryByCampusAndAmount(@Param("campusId") Integer campusId,
-			@Param("yearId") Integer yearId, @Param("amount") Float amount);
-
-	/**
-	 * Custom query to find all distinct academic year IDs that have data for a
-	 * specific campus and amount. FIX: Explicitly reference the Campus ID field
-	 * (u.campus.id) to prevent type mismatch.
-	 */
-	@Query("SELECT DISTINCT u.acdcYearId FROM UserAppSold u WHERE u.campus.id = :campusId AND u.amount = :amount")
-	List<Integer> findDistinctYearIdsByCampusAndAmount(@Param("campusId") Integer campusId,
+			    SELECT NEW com.application.dto.YearlySoldSummaryDTO(
+			        u.acdcYearId, y.academicYear,
+			        COALESCE(SUM(u.totalAppCount), 0),
+			        COALESCE(SUM(u.sold), 0),
+			        0L,
+			        1)
+			    FROM UserAppSold u
+			    LEFT JOIN AcademicYear y ON y.acdcYearId = u.acdcYearId
+			    WHERE u.zone.zoneId = :zoneId AND u.amount = :amount
+			    GROUP BY u.acdcYearId, y.academicYear
+			""")
+	List<YearlySoldSummaryDTO> getYearlySummaryByZoneAndAmount(@Param("zoneId") Integer zoneId,
 			@Param("amount") Float amount);
 
 	@Query("""
-			    SELECT
-			        a.acdcYearId,
-			        COALESCE(SUM(a.totalAppCount), 0),
-			        COALESCE(SUM(a.sold), 0)
-			    FROM UserAppSold a
-			    WHERE a.isActive = 1
-			      AND a.empId = :empId
-			      AND a.acdcYearId IN :yearIds
-			    GROUP BY a.acdcYearId
-			    ORDER BY a.acdcYearId
+			    SELECT NEW com.application.dto.YearlySoldSummaryDTO(
+			        u.acdcYearId, y.academicYear,
+			        COALESCE(SUM(u.totalAppCount), 0),
+			        COALESCE(SUM(u.sold), 0),
+			        0L,
+			        1)
+			    FROM UserAppSold u
+			    LEFT JOIN AcademicYear y ON y.acdcYearId = u.acdcYearId
+			    WHERE u.campus.id = :campusId AND u.amount = :amount
+			    GROUP BY u.acdcYearId, y.academicYear
 			""")
-	List<Object[]> getYearWiseIssuedAndSoldByEmployee(@Param("empId") Integer empId,
-			@Param("yearIds") List<Integer> yearIds);
+	List<YearlySoldSummaryDTO> getYearlySummaryByCampusAndAmount(@Param("campusId") Integer campusId,
+			@Param("amount") Float amount);
 
 }
\ No newline at end of file
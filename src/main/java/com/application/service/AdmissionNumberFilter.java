@@ -0,0 +1,292 @@
+package com.application.service;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.application.entity.StudentAcademicDetails;
+import com.application.repository.AdminAppRepository;
+import com.application.repository.StudentAcademicDetailsRepository;
+
+/**
+ * "Has this admission number already been used?" answered without loading
+ * any entity, so a resubmitted sale is rejected before the write path starts.
+ *
+ * Numbers are tracked per academic year, as offsets from the start of the
+ * year's master range (lowest to highest active AdminApp number). A number
+ * outside its year's range is never tracked; the filter just answers "not
+ * seen" for it.
+ *
+ * Two tiers:
+ * - a local bitmap per year of every number with a StudentAcademicDetails
+ *   row, loaded once at startup (keyset pages)
+ * - a shared Redis bitmap per year, keyed by the year and its range start,
+ *   so no bit ever lies past the end of the year's range
+ *
+ * Both tiers change only after a sale commits or is deleted. A hit is
+ * confirmed with one existence query before it is reported; a bit left by a
+ * sale deleted on another node is cleared there. A miss only means "not
+ * seen"; the sale path goes on as before. Redis being down degrades to the
+ * local tier.
+ */
+@Service
+public class AdmissionNumberFilter {
+
+	private static final Logger logger = LoggerFactory.getLogger(AdmissionNumberFilter.class);
+
+	private final StudentAcademicDetailsRepository studentAcademicDetailsRepository;
+	private final AdminAppRepository adminAppRepository;
+	private final StringRedisTemplate redis;
+
+	@Value("${admission-filter.enabled:true}")
+	private boolean enabled;
+
+	@Value("${admission-filter.redis-enabled:true}")
+	private boolean redisEnabled;
+
+	@Value("${admission-filter.redis-key:sale:admission-numbers:used}")
+	private String redisKey;
+
+	@Value("${admission-filter.page-size:10000}")
+	private int pageSize;
+
+	@Value("${admission-filter.max-year-span:100000000}")
+	private int maxYearSpan;
+
+	@Value("${admission-filter.bounds-max-age-ms:60000}")
+	private long boundsMaxAgeMillis;
+
+	private record Bounds(int start, int end) {
+		boolean contains(long n) {
+			return n >= start && n <= end;
+		}
+	}
+
+	// Guarded by itself
+	private final Map<Integer, AppNumberBitmap> used = new HashMap<>();
+	private volatile Map<Integer, Bounds> bounds = Map.of();
+	private volatile long boundsLoadedAt;
+	private volatile boolean loaded;
+
+	public AdmissionNumberFilter(StudentAcademicDetailsRepository studentAcademicDetailsRepository,
+			AdminAppRepository adminAppRepository, StringRedisTemplate redis) {
+		this.studentAcademicDetailsRepository = studentAcademicDetailsRepository;
+		this.adminAppRepository = adminAppRepository;
+		this.redis = redis;
+	}
+
+	@EventListener(ApplicationReadyEvent.class)
+	public void load() {
+		if (!enabled) {
+			return;
+		}
+		long start = System.currentTimeMillis();
+		long count = 0;
+		Long after = Long.MIN_VALUE;
+		try {
+			loadBounds();
+			while (true) {
+				List<Object[]> page = studentAcademicDetailsRepository.findAdmissionNumbersAfter(after,
+						PageRequest.of(0, pageSize));
+				synchronized (used) {
+					for (Object[] row : page) {
+						Integer yearId = (Integer) row[1];
+						Bounds b = yearId != null ? bounds.get(yearId) : null;
+						long n = (Long) row[0];
+						if (b != null && b.contains(n)) {
+							used.computeIfAbsent(yearId, k -> new AppNumberBitmap()).add(offset(b, n));
+						}
+					}
+				}
+				count += page.size();
+				if (page.size() < pageSize) {
+					break;
+				}
+				after = (Long) page.get(page.size() - 1)[0];
+			}
+			loaded = true;
+			logger.info("Admission number filter loaded {} numbers for years {} in {} ms", count,
+					bounds.keySet(), System.currentTimeMillis() - start);
+		} catch (RuntimeException e) {
+			logger.warn("Admission number filter not loaded ({}); using Redis only", e.getMessage());
+		}
+	}
+
+	/**
+	 * True when the number is known to belong to a saved student of the year.
+	 */
+	public boolean isUsed(Integer academicYearId, Long admissionNo) {
+		if (!enabled || academicYearId == null || admissionNo == null) {
+			return false;
+		}
+		Bounds b = boundsFor(academicYearId, admissionNo);
+		if (b == null) {
+			return false;
+		}
+		int offset = offset(b, admissionNo);
+		boolean hit;
+		synchronized (used) {
+			AppNumberBitmap year = used.get(academicYearId);
+			hit = year != null && year.contains(offset);
+		}
+		if (!hit && redisEnabled) {
+			try {
+				hit = Boolean.TRUE.equals(redis.opsForValue().getBit(redisKey(academicYearId, b), offset));
+			} catch (RuntimeException e) {
+				logger.debug("Admission number filter: Redis lookup failed ({})", e.getMessage());
+			}
+		}
+		if (!hit) {
+			return false;
+		}
+		if (studentAcademicDetailsRepository.existsByStudAdmsNo(admissionNo)) {
+			setBit(academicYearId, b, offset, false);
+			return true;
+		}
+		// The sale behind this bit is gone (deleted on another node)
+		clearBit(academicYearId, b, offset);
+		return false;
+	}
+
+	public boolean isLoaded() {
+		return loaded;
+	}
+
+	// Called from AvailabilityMapListener; applied once the sale commits
+	void onSaleWritten(StudentAcademicDetails sale) {
+		afterCommit(sale, true);
+	}
+
+	// Called from AvailabilityMapListener; applied once the delete commits
+	void onSaleRemoved(StudentAcademicDetails sale) {
+		afterCommit(sale, false);
+	}
+
+	private void afterCommit(StudentAcademicDetails sale, boolean set) {
+		Long admissionNo = sale.getStudAdmsNo();
+		Integer yearId = sale.getAcademicYear() != null ? sale.getAcademicYear().getAcdcYearId() : null;
+		if (!enabled || admissionNo == null || yearId == null) {
+			return;
+		}
+		Runnable apply = () -> {
+			Bounds b = boundsFor(yearId, admissionNo);
+			if (b == null) {
+				return;
+			}
+			if (set) {
+				setBit(yearId, b, offset(b, admissionNo), true);
+			} else {
+				clearBit(yearId, b, offset(b, admissionNo));
+			}
+		};
+		if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+			apply.run();
+			return;
+		}
+		TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+			@Override
+			public void afterCommit() {
+				apply.run();
+			}
+		});
+	}
+
+	private void setBit(int yearId, Bounds b, int offset, boolean shared) {
+		synchronized (used) {
+			used.computeIfAbsent(yearId, k -> new AppNumberBitmap()).add(offset);
+		}
+		if (shared && redisEnabled) {
+			try {
+				redis.opsForValue().setBit(redisKey(yearId, b), offset, true);
+			} catch (RuntimeException e) {
+				logger.debug("Admission number filter: Redis update failed ({})", e.getMessage());
+			}
+		}
+	}
+
+	private void clearBit(int yearId, Bounds b, int offset) {
+		synchronized (used) {
+			AppNumberBitmap year = used.get(yearId);
+			if (year != null) {
+				year.remove(offset);
+			}
+		}
+		if (redisEnabled) {
+			try {
+				redis.opsForValue().setBit(redisKey(yearId, b), offset, false);
+			} catch (RuntimeException e) {
+				logger.debug("Admission number filter: Redis update failed ({})", e.getMessage());
+			}
+		}
+	}
+
+	// ---------------------------------------------------------
+	// Year ranges
+	// ---------------------------------------------------------
+
+	/**
+	 * The year's range when it contains the number, else null. An unknown year
+	 * or a number past the known range reloads the ranges, at most once per
+	 * {@code admission-filter.bounds-max-age-ms}.
+	 */
+	private Bounds boundsFor(int yearId, long admissionNo) {
+		Bounds b = bounds.get(yearId);
+		if ((b == null || !b.contains(admissionNo))
+				&& System.currentTimeMillis() - boundsLoadedAt > boundsMaxAgeMillis) {
+			try {
+				loadBounds();
+			} catch (RuntimeException e) {
+				logger.debug("Admission number filter: range reload failed ({})", e.getMessage());
+			}
+			b = bounds.get(yearId);
+		}
+		return b != null && b.contains(admissionNo) ? b : null;
+	}
+
+	private synchronized void loadBounds() {
+		Map<Integer, Bounds> next = new HashMap<>();
+		for (Object[] row : adminAppRepository.findActiveMasterBoundsByYear()) {
+			if (row[0] == null || row[1] == null || row[2] == null) {
+				continue;
+			}
+			int yearId = ((Number) row[0]).intValue();
+			int start = ((Number) row[1]).intValue();
+			int end = ((Number) row[2]).intValue();
+			if (start < 0 || end < start || (long) end - start >= maxYearSpan) {
+				logger.warn("Admission number filter: year {} range {}-{} not tracked", yearId, start, end);
+				continue;
+			}
+			next.put(yearId, new Bounds(start, end));
+		}
+		Map<Integer, Bounds> previous = bounds;
+		bounds = Map.copyOf(next);
+		boundsLoadedAt = System.currentTimeMillis();
+		// Offsets are relative to the range start; a moved start invalidates the year's local bits
+		synchronized (used) {
+			used.keySet().removeIf(yearId -> {
+				Bounds was = previous.get(yearId);
+				Bounds now = next.get(yearId);
+				return was == null || now == null || was.start() != now.start();
+			});
+		}
+	}
+
+	private static int offset(Bounds b, long admissionNo) {
+		return (int) (admissionNo - b.start());
+	}
+
+	private String redisKey(int yearId, Bounds b) {
+		return redisKey + ":" + yearId + ":" + b.start();
+	}
+}
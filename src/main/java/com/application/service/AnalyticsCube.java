@@ -0,0 +1,770 @@
+package com.application.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.application.dto.YearlyMetricsDTO;
+import com.application.dto.YearlySoldSummaryDTO;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
+/**
+ * In-memory rollup of sce_user_app_sold and sce_app_stats_trk for the
+ * dashboards, so that analytics, metric cards and rate lists are answered
+ * without re-summing the tables on every hit.
+ *
+ * One cell per distinct (table, academic year, zone, employee / DGM, campus,
+ * amount, issued type, active) with the counters of all its rows in a
+ * {@code long[]}: total, sold, confirmed, available, issued, damaged,
+ * unavailable and the row count. sce_user_app_sold rows fill total / sold,
+ * use entity_id as issued type and have an amount; sce_app_stats_trk rows
+ * fill every counter and have no amount. Queries scan the cells (there are
+ * about as many as rows, the tables being per holder and year already).
+ *
+ * The cube is built with a streaming scan at startup and rebuilt every
+ * {@code analytics-cube.max-age-ms}, or within
+ * {@code analytics-cube.reload-ms} once a change touches a row it does not
+ * know. Between rebuilds {@link CounterOutbox} deltas are added to the cells
+ * after commit; a rebuild waits for an in-flight relay batch
+ * ({@link #applyingDeltas}) so none is counted twice or lost. Rows written
+ * outside this process (triggers, other nodes' relays) show up at the next
+ * rebuild. Until the first build completes every accessor returns empty and
+ * callers use the queries. Sold deltas and rebuilds are passed on to
+ * {@link PerformanceLeaderboard}.
+ */
+@Service
+public class AnalyticsCube {
+
+	private static final Logger logger = LoggerFactory.getLogger(AnalyticsCube.class);
+
+	// Counter layout of one cell; the first seven match getOverallTotals / getTotalsByYear
+	private static final int TOTAL = 0;
+	private static final int SOLD = 1;
+	private static final int CONFIRMED = 2;
+	private static final int AVAILABLE = 3;
+	private static final int ISSUED = 4;
+	private static final int DAMAGED = 5;
+	private static final int UNAVAILABLE = 6;
+	private static final int ROWS = 7;
+	private static final int STRIDE = 8;
+
+	private static final byte USER_APP_SOLD = 0;
+	private static final byte APP_STATUS_TRACK = 1;
+
+	private static final int NONE = Integer.MIN_VALUE;
+	private static final int NO_AMOUNT = Float.floatToIntBits(Float.NaN);
+
+	private static final int ZONE = 2;
+	private static final int DGM = 3;
+	private static final int CAMPUS = 4;
+	private static final int PRO_ISSUED_TYPE_ID = 4;
+
+	@PersistenceContext
+	private EntityManager entityManager;
+
+	private final TransactionTemplate readOnlyTx;
+	private final ObjectProvider<PerformanceLeaderboard> leaderboard;
+
+	// Relay batches share it, a rebuild takes it exclusively
+	private final ReentrantReadWriteLock rebuildLock = new ReentrantReadWriteLock();
+
+	@Value("${analytics-cube.enabled:true}")
+	private boolean enabled;
+
+	@Value("${analytics-cube.max-age-ms:300000}")
+	private long maxAgeMillis;
+
+	@Value("${analytics-cube.fetch-size:2000}")
+	private int fetchSize;
+
+	private volatile Cube cube;
+	private volatile boolean stale = true;
+
+	/**
+	 * sce_app_stats_trk totals for the dashboard cards, in the column order of
+	 * getOverallTotals; a value is null where the SUM would be.
+	 */
+	public record StatusTotals(Integer latestYearId, Object[] overall, Long overallWithPro,
+			Map<Integer, Object[]> byYear, Map<Integer, Long> withProByYear) {
+
+		public Object[] year(Integer yearId) {
+			return byYear.getOrDefault(yearId, new Object[ROWS]);
+		}
+
+		public Long withPro(Integer yearId) {
+			return withProByYear.get(yearId);
+		}
+	}
+
+	public AnalyticsCube(PlatformTransactionManager transactionManager,
+			ObjectProvider<PerformanceLeaderboard> leaderboard) {
+		this.readOnlyTx = new TransactionTemplate(transactionManager);
+		this.readOnlyTx.setReadOnly(true);
+		this.leaderboard = leaderboard;
+	}
+
+	@EventListener(ApplicationReadyEvent.class)
+	public void load() {
+		refresh();
+	}
+
+	@Scheduled(initialDelayString = "${analytics-cube.reload-ms:5000}", fixedDelayString = "${analytics-cube.reload-ms:5000}")
+	public void refresh() {
+		if (!enabled) {
+			return;
+		}
+		Cube current = cube;
+		if (!stale && current != null && System.currentTimeMillis() - current.loadedAt <= maxAgeMillis) {
+			return;
+		}
+		rebuildLock.writeLock().lock();
+		try {
+			// Cleared first: a change to an unknown row during the scan marks it stale again
+			stale = false;
+			long started = System.currentTimeMillis();
+			Cube built = readOnlyTx.execute(status -> build());
+			cube = built;
+			leaderboard.ifAvailable(PerformanceLeaderboard::onCubeRebuilt);
+			logger.info("Analytics cube: {} cells built in {} ms", built.size, System.currentTimeMillis() - started);
+		} catch (RuntimeException e) {
+			stale = true;
+			logger.warn("Analytics cube not rebuilt: {}", e.getMessage());
+		} finally {
+			rebuildLock.writeLock().unlock();
+		}
+	}
+
+	public boolean isReady() {
+		return enabled && cube != null;
+	}
+
+	/**
+	 * Runs one counter relay batch so that a rebuild cannot scan between its
+	 * commit and the cells being updated.
+	 */
+	public <T> T applyingDeltas(Supplier<T> batch) {
+		rebuildLock.readLock().lock();
+		try {
+			return batch.get();
+		} finally {
+			rebuildLock.readLock().unlock();
+		}
+	}
+
+	// ---------------------------------------------------------
+	// Change events (CounterOutbox relay, applied after commit)
+	// ---------------------------------------------------------
+
+	void onUserAppSoldDelta(long userAppSoldId, int sold) {
+		afterCommit(() -> add(USER_APP_SOLD, userAppSoldId, new int[] { 0, sold, 0, 0, 0, 0, 0 }));
+	}
+
+	void onAppStatusTrackDelta(int appStatsTrkId, int sold, int confirmed, int damaged, int available) {
+		afterCommit(() -> add(APP_STATUS_TRACK, appStatsTrkId,
+				new int[] { 0, sold, confirmed, available, 0, damaged, 0 }));
+	}
+
+	private void add(byte source, long rowId, int[] delta) {
+		Cube c = cube;
+		if (c == null) {
+			return;
+		}
+		Integer cell = source == USER_APP_SOLD ? c.userAppSoldCells.get(rowId) : c.appStatusTrackCells.get((int) rowId);
+		if (cell == null) {
+			// Row created since the last scan
+			stale = true;
+			return;
+		}
+		Runnable update = () -> {
+			c.lock.writeLock().lock();
+			try {
+				int base = cell * STRIDE;
+				for (int i = 0; i < delta.length; i++) {
+					c.counters[base + i] += delta[i];
+				}
+			} finally {
+				c.lock.writeLock().unlock();
+			}
+		};
+		int[] ranked = source == USER_APP_SOLD ? levelDimension(c, c.type[cell]) : null;
+		PerformanceLeaderboard board = ranked != null && c.active[cell] && delta[SOLD] != 0
+				? leaderboard.getIfAvailable()
+				: null;
+		if (board == null) {
+			update.run();
+		} else {
+			board.onSold(update, c.type[cell], ranked[cell], c.year[cell], Float.intBitsToFloat(c.amount[cell]),
+					delta[SOLD]);
+		}
+	}
+
+	private static void afterCommit(Runnable change) {
+		if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+			change.run();
+			return;
+		}
+		TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+			@Override
+			public void afterCommit() {
+				change.run();
+			}
+		});
+	}
+
+	// ---------------------------------------------------------
+	// Analytics (same rows as the UserAppSold / AppStatusTrack yearly queries)
+	// ---------------------------------------------------------
+
+	public Optional<List<YearlySoldSummaryDTO>> yearlySoldByZone(int zoneId) {
+		return yearlySold((c, i) -> c.zone[i] == zoneId, null, (c, i) -> c.type[i] == CAMPUS,
+				(c, i) -> c.type[i] == ZONE);
+	}
+
+	public Optional<List<YearlySoldSummaryDTO>> yearlySoldByDgm(int dgmEmpId) {
+		return yearlySold((c, i) -> c.employee[i] == dgmEmpId, null, (c, i) -> true, (c, i) -> c.type[i] == DGM);
+	}
+
+	public Optional<List<YearlySoldSummaryDTO>> yearlySoldByCampus(int campusId) {
+		return yearlySold((c, i) -> c.campus[i] == campusId, null, (c, i) -> true, (c, i) -> c.type[i] == CAMPUS);
+	}
+
+	public Optional<List<YearlySoldSummaryDTO>> yearlySoldByCampusList(Collection<Integer> campusIds) {
+		Set<Integer> ids = new HashSet<>(campusIds);
+		return yearlySold((c, i) -> c.type[i] == CAMPUS && ids.contains(c.campus[i]), null, (c, i) -> true,
+				(c, i) -> true);
+	}
+
+	/**
+	 * Graph from the DGM rows, 'With PRO' from the campus rows of the same
+	 * employees.
+	 */
+	public Optional<List<YearlySoldSummaryDTO>> yearlySoldByDgmList(Collection<Integer> dgmEmpIds) {
+		Set<Integer> ids = new HashSet<>(dgmEmpIds);
+		return yearlySold((c, i) -> (c.type[i] == DGM || c.type[i] == CAMPUS) && ids.contains(c.employee[i]),
+				(c, i) -> c.type[i] == DGM, (c, i) -> c.type[i] == CAMPUS, (c, i) -> c.type[i] == DGM);
+	}
+
+	public Optional<List<YearlySoldSummaryDTO>> yearlySoldByZoneAndAmount(int zoneId, float amount) {
+		int bits = Float.floatToIntBits(amount);
+		return yearlySold((c, i) -> c.zone[i] == zoneId && c.amount[i] == bits, null, null, (c, i) -> true);
+	}
+
+	public Optional<List<YearlySoldSummaryDTO>> yearlySoldByCampusAndAmount(int campusId, float amount) {
+		int bits = Float.floatToIntBits(amount);
+		return yearlySold((c, i) -> c.campus[i] == campusId && c.amount[i] == bits, null, null, (c, i) -> true);
+	}
+
+	public Optional<List<YearlyMetricsDTO>> yearlyMetricsByZone(int zoneId) {
+		return yearlyMetrics((c, i) -> c.zone[i] == zoneId);
+	}
+
+	public Optional<List<YearlyMetricsDTO>> yearlyMetricsByEmployee(int empId) {
+		return yearlyMetrics((c, i) -> c.employee[i] == empId);
+	}
+
+	public Optional<List<YearlyMetricsDTO>> yearlyMetricsByCampus(int campusId) {
+		return yearlyMetrics((c, i) -> c.campus[i] == campusId);
+	}
+
+	public Optional<List<YearlyMetricsDTO>> yearlyMetricsByCampusList(Collection<Integer> campusIds) {
+		Set<Integer> ids = new HashSet<>(campusIds);
+		return yearlyMetrics((c, i) -> ids.contains(c.campus[i]));
+	}
+
+	public Optional<List<YearlyMetricsDTO>> yearlyMetricsByEmployeeList(Collection<Integer> empIds) {
+		Set<Integer> ids = new HashSet<>(empIds);
+		return yearlyMetrics((c, i) -> ids.contains(c.employee[i]));
+	}
+
+	/**
+	 * One row per year of the sce_user_app_sold cells in scope: issued / sold
+	 * of the {@code counted} ones (all when null), total of the {@code pro}
+	 * ones (0 when null), and inGraph = 1 when a {@code graph} cell exists.
+	 */
+	private Optional<List<YearlySoldSummaryDTO>> yearlySold(CellFilter scope, CellFilter counted, CellFilter pro,
+			CellFilter graph) {
+		Cube c = readyCube();
+		if (c == null) {
+			return Optional.empty();
+		}
+		// year -> issued, sold, withPro, inGraph
+		Map<Integer, long[]> years = new LinkedHashMap<>();
+		c.lock.readLock().lock();
+		try {
+			for (int i = 0; i < c.size; i++) {
+				if (c.source[i] != USER_APP_SOLD || !scope.test(c, i)) {
+					continue;
+				}
+				long[] y = years.computeIfAbsent(c.year[i], k -> new long[4]);
+				int base = i * STRIDE;
+				if (counted == null || counted.test(c, i)) {
+					y[0] += c.counters[base + TOTAL];
+					y[1] += c.counters[base + SOLD];
+				}
+				if (pro != null && pro.test(c, i)) {
+					y[2] += c.counters[base + TOTAL];
+				}
+				if (graph.test(c, i)) {
+					y[3] = 1;
+				}
+			}
+		} finally {
+			c.lock.readLock().unlock();
+		}
+		List<YearlySoldSummaryDTO> rows = new ArrayList<>(years.size());
+		years.forEach((yearId, y) -> rows.add(new YearlySoldSummaryDTO(yearId == NONE ? null : yearId,
+				c.yearLabels.get(yearId), y[0], y[1], y[2], (int) y[3])));
+		return Optional.of(rows);
+	}
+
+	private Optional<List<YearlyMetricsDTO>> yearlyMetrics(CellFilter scope) {
+		Cube c = readyCube();
+		if (c == null) {
+			return Optional.empty();
+		}
+		Map<Integer, long[]> years = sumBy(c, APP_STATUS_TRACK, scope, c.year);
+		List<YearlyMetricsDTO> rows = new ArrayList<>(years.size());
+		years.forEach((yearId, m) -> rows.add(new YearlyMetricsDTO(yearId == NONE ? null : yearId,
+				c.yearNumbers.getOrDefault(yearId, 0), m[TOTAL], m[SOLD], m[CONFIRMED], m[AVAILABLE], m[UNAVAILABLE],
+				m[DAMAGED], m[ISSUED])));
+		return Optional.of(rows);
+	}
+
+	// ---------------------------------------------------------
+	// Dashboard cards and rate lists
+	// ---------------------------------------------------------
+
+	public Optional<StatusTotals> statusTotals() {
+		Cube c = readyCube();
+		if (c == null) {
+			return Optional.empty();
+		}
+		Integer latestYearId = latestYearId(c);
+		Map<Integer, long[]> active = sumBy(c, APP_STATUS_TRACK, (cube, i) -> cube.active[i], c.year);
+		Map<Integer, long[]> activePro = sumBy(c, APP_STATUS_TRACK,
+				(cube, i) -> cube.active[i] && cube.type[i] == PRO_ISSUED_TYPE_ID, c.year);
+
+		long[] overall = new long[STRIDE];
+		active.values().forEach(m -> addInto(overall, m));
+		long[] overallPro = new long[STRIDE];
+		activePro.values().forEach(m -> addInto(overallPro, m));
+
+		Map<Integer, Object[]> byYear = new HashMap<>();
+		active.forEach((yearId, m) -> byYear.put(yearId, sums(m)));
+		Map<Integer, Long> withProByYear = new HashMap<>();
+		activePro.forEach((yearId, m) -> withProByYear.put(yearId, m[TOTAL]));
+
+		return Optional.of(new StatusTotals(latestYearId, sums(overall),
+				overallPro[ROWS] > 0 ? overallPro[TOTAL] : null, byYear, withProByYear));
+	}
+
+	/**
+	 * Latest academic year id of sce_app_stats_trk, as findLatestYearId.
+	 */
+	public Optional<Integer> latestYearId() {
+		Cube c = readyCube();
+		return c == null ? Optional.empty() : Optional.ofNullable(latestYearId(c));
+	}
+
+	/**
+	 * Active sce_app_stats_trk rows of one year per campus: [campusId, total,
+	 * sold, confirmed, available, issued, damaged, unavailable], as
+	 * getCampusTotalsByYear.
+	 */
+	public Optional<List<Object[]>> appStatusByCampus(int yearId) {
+		Cube c = readyCube();
+		if (c == null) {
+			return Optional.empty();
+		}
+		List<Object[]> rows = new ArrayList<>();
+		sumBy(c, APP_STATUS_TRACK, (cube, i) -> cube.active[i] && cube.year[i] == yearId && cube.campus[i] != NONE,
+				c.campus).forEach((campusId, m) -> {
+					Object[] row = new Object[ROWS + 1];
+					row[0] = campusId;
+					System.arraycopy(sums(m), 0, row, 1, ROWS);
+					rows.add(row);
+				});
+		return Optional.of(rows);
+	}
+
+	/**
+	 * Active sce_user_app_sold campus rows of one year per campus: [campusId,
+	 * issued, sold], as getCampusIssuedAndSoldByYear.
+	 */
+	public Optional<List<Object[]>> issuedAndSoldByCampus(int yearId) {
+		Cube c = readyCube();
+		if (c == null) {
+			return Optional.empty();
+		}
+		List<Object[]> rows = new ArrayList<>();
+		sumBy(c, USER_APP_SOLD, (cube, i) -> cube.active[i] && cube.type[i] == CAMPUS && cube.year[i] == yearId
+				&& cube.campus[i] != NONE, c.campus)
+				.forEach((campusId, m) -> rows.add(new Object[] { campusId, m[TOTAL], m[SOLD] }));
+		return Optional.of(rows);
+	}
+
+	/**
+	 * sce_app_stats_trk rows of one year per zone / employee / campus (level 2,
+	 * 3, 4): [id, total, sold, confirmed, available, unavailable, damaged,
+	 * issued], as the *MetricsByYear queries.
+	 */
+	public Optional<List<Object[]>> metricsByLevel(int entityId, int yearId) {
+		Cube c = readyCube();
+		if (c == null) {
+			return Optional.empty();
+		}
+		int[] dimension = levelDimension(c, entityId);
+		if (dimension == null) {
+			return Optional.of(List.of());
+		}
+		List<Object[]> rows = new ArrayList<>();
+		sumBy(c, APP_STATUS_TRACK, (cube, i) -> cube.year[i] == yearId && dimension[i] != NONE, dimension)
+				.forEach((id, m) -> rows.add(new Object[] { id, m[TOTAL], m[SOLD], m[CONFIRMED], m[AVAILABLE],
+						m[UNAVAILABLE], m[DAMAGED], m[ISSUED] }));
+		return Optional.of(rows);
+	}
+
+	/**
+	 * sce_user_app_sold rows of one year per zone / employee / campus: [id,
+	 * issued, sold, withPro], as the *SoldByYear queries ('With PRO' counts
+	 * the campus rows of a zone, every row of a DGM or campus).
+	 */
+	public Optional<List<Object[]>> soldByLevel(int entityId, int yearId) {
+		Cube c = readyCube();
+		if (c == null) {
+			return Optional.empty();
+		}
+		int[] dimension = levelDimension(c, entityId);
+		if (dimension == null) {
+			return Optional.of(List.of());
+		}
+		Map<Integer, long[]> all = sumBy(c, USER_APP_SOLD,
+				(cube, i) -> cube.year[i] == yearId && dimension[i] != NONE, dimension);
+		Map<Integer, long[]> pro = entityId == ZONE ? sumBy(c, USER_APP_SOLD,
+				(cube, i) -> cube.year[i] == yearId && dimension[i] != NONE && cube.type[i] == CAMPUS, dimension)
+				: all;
+		List<Object[]> rows = new ArrayList<>(all.size());
+		all.forEach((id, m) -> {
+			long[] p = pro.get(id);
+			rows.add(new Object[] { id, m[TOTAL], m[SOLD], p != null ? p[TOTAL] : 0L });
+		});
+		return Optional.of(rows);
+	}
+
+	/**
+	 * Active sce_user_app_sold rows of one level (2 zone, 3 DGM, 4 campus) per
+	 * zone / employee / campus: [id, name, issued, sold], optionally of one
+	 * academic year and amount, as the UserAppSoldRepository *RateRows
+	 * queries.
+	 */
+	public Optional<List<Object[]>> rateRows(int entityId, Integer academicYearId, Float amount) {
+		Cube c = readyCube();
+		if (c == null) {
+			return Optional.empty();
+		}
+		int[] dimension = levelDimension(c, entityId);
+		Map<Integer, String> nameOf = levelNames(c, entityId);
+		if (dimension == null) {
+			return Optional.of(List.of());
+		}
+		Integer amountBits = amount != null ? Float.floatToIntBits(amount) : null;
+		Map<Integer, long[]> byId = sumBy(c, USER_APP_SOLD,
+				(cube, i) -> cube.active[i] && cube.type[i] == entityId && nameOf.containsKey(dimension[i])
+						&& (academicYearId == null || cube.year[i] == academicYearId)
+						&& (amountBits == null || cube.amount[i] == amountBits),
+				dimension);
+		List<Object[]> rows = new ArrayList<>(byId.size());
+		byId.forEach((id, m) -> rows.add(new Object[] { id, nameOf.get(id), m[TOTAL], m[SOLD] }));
+		return Optional.of(rows);
+	}
+
+	private static int[] levelDimension(Cube c, int entityId) {
+		return switch (entityId) {
+		case ZONE -> c.zone;
+		case DGM -> c.employee;
+		case CAMPUS -> c.campus;
+		default -> null;
+		};
+	}
+
+	private static Map<Integer, String> levelNames(Cube c, int entityId) {
+		return switch (entityId) {
+		case ZONE -> c.zoneNames;
+		case DGM -> c.employeeNames;
+		case CAMPUS -> c.campusNames;
+		default -> Map.of();
+		};
+	}
+
+	// ---------------------------------------------------------
+	// Scans
+	// ---------------------------------------------------------
+
+	@FunctionalInterface
+	private interface CellFilter {
+		boolean test(Cube c, int cell);
+	}
+
+	private Cube readyCube() {
+		return enabled ? cube : null;
+	}
+
+	private static Integer latestYearId(Cube c) {
+		Integer latest = null;
+		for (int i = 0; i < c.size; i++) {
+			if (c.source[i] == APP_STATUS_TRACK && c.year[i] != NONE && (latest == null || c.year[i] > latest)) {
+				latest = c.year[i];
+			}
+		}
+		return latest;
+	}
+
+	private static Map<Integer, long[]> sumBy(Cube c, byte source, CellFilter filter, int[] groupBy) {
+		Map<Integer, long[]> groups = new TreeMap<>();
+		c.lock.readLock().lock();
+		try {
+			for (int i = 0; i < c.size; i++) {
+				if (c.source[i] != source || !filter.test(c, i)) {
+					continue;
+				}
+				long[] g = groups.computeIfAbsent(groupBy[i], k -> new long[STRIDE]);
+				int base = i * STRIDE;
+				for (int m = 0; m < STRIDE; m++) {
+					g[m] += c.counters[base + m];
+				}
+			}
+		} finally {
+			c.lock.readLock().unlock();
+		}
+		return groups;
+	}
+
+	private static void addInto(long[] target, long[] m) {
+		for (int i = 0; i < STRIDE; i++) {
+			target[i] += m[i];
+		}
+	}
+
+	private static Object[] sums(long[] m) {
+		Object[] row = new Object[ROWS];
+		if (m[ROWS] > 0) {
+			for (int i = 0; i < ROWS; i++) {
+				row[i] = m[i];
+			}
+		}
+		return row;
+	}
+
+	// ---------------------------------------------------------
+	// Build
+	// ---------------------------------------------------------
+
+	private Cube build() {
+		Builder b = new Builder();
+
+		try (Stream<Object[]> rows = entityManager.createQuery("SELECT u.userAppSold, u.acdcYearId, u.zone.zoneId, "
+				+ "u.empId, u.campus.campusId, u.amount, u.entityId, u.isActive, u.totalAppCount, u.sold "
+				+ "FROM UserAppSold u", Object[].class)
+				.setHint("org.hibernate.fetchSize", fetchSize)
+				.getResultStream()) {
+			rows.forEach(r -> {
+				int cell = b.cell(USER_APP_SOLD, id(r[1]), id(r[2]), id(r[3]), id(r[4]),
+						r[5] != null ? Float.floatToIntBits(((Number) r[5]).floatValue()) : NO_AMOUNT, id(r[6]),
+						r[7] != null && ((Number) r[7]).intValue() == 1);
+				b.add(cell, count(r[8]), count(r[9]), 0, 0, 0, 0, 0);
+				b.userAppSoldCells.put(((Number) r[0]).longValue(), cell);
+			});
+		}
+
+		try (Stream<Object[]> rows = entityManager.createQuery("SELECT t.appStatsTrkId, t.academicYear.acdcYearId, "
+				+ "t.zone.zoneId, t.employee.emp_id, t.campus.campusId, t.issuedByType.appIssuedId, t.isActive, "
+				+ "t.totalApp, t.appSold, t.appConfirmed, t.appAvailable, t.appIssued, t.appDamaged, t.appUnavailable "
+				+ "FROM AppStatusTrack t", Object[].class)
+				.setHint("org.hibernate.fetchSize", fetchSize)
+				.getResultStream()) {
+			rows.forEach(r -> {
+				int cell = b.cell(APP_STATUS_TRACK, id(r[1]), id(r[2]), id(r[3]), id(r[4]), NO_AMOUNT, id(r[5]),
+						((Number) r[6]).intValue() == 1);
+				b.add(cell, count(r[7]), count(r[8]), count(r[9]), count(r[10]), count(r[11]), count(r[12]),
+						count(r[13]));
+				b.appStatusTrackCells.put(((Number) r[0]).intValue(), cell);
+			});
+		}
+
+		Map<Integer, String> zoneNames = new HashMap<>();
+		for (Object[] r : entityManager.createQuery("SELECT z.zoneId, z.zoneName FROM Zone z", Object[].class)
+				.getResultList()) {
+			zoneNames.put(((Number) r[0]).intValue(), (String) r[1]);
+		}
+		Map<Integer, String> campusNames = new HashMap<>();
+		for (Object[] r : entityManager.createQuery("SELECT c.campusId, c.campusName FROM Campus c", Object[].class)
+				.getResultList()) {
+			campusNames.put(((Number) r[0]).intValue(), (String) r[1]);
+		}
+		Map<Integer, String> employeeNames = new HashMap<>();
+		for (Object[] r : entityManager.createQuery("SELECT e.emp_id, e.first_name, e.last_name FROM Employee e "
+				+ "WHERE e.emp_id IN (SELECT u.empId FROM UserAppSold u WHERE u.entityId = " + DGM + ")",
+				Object[].class).getResultList()) {
+			employeeNames.put(((Number) r[0]).intValue(), r[1] + " " + r[2]);
+		}
+		Map<Integer, String> yearLabels = new HashMap<>();
+		Map<Integer, Integer> yearNumbers = new HashMap<>();
+		for (Object[] r : entityManager.createQuery("SELECT y.acdcYearId, y.year, y.academicYear FROM AcademicYear y",
+				Object[].class).getResultList()) {
+			int yearId = ((Number) r[0]).intValue();
+			yearNumbers.put(yearId, ((Number) r[1]).intValue());
+			yearLabels.put(yearId, (String) r[2]);
+		}
+
+		return b.toCube(zoneNames, campusNames, employeeNames, yearLabels, yearNumbers);
+	}
+
+	private static int id(Object value) {
+		return value != null ? ((Number) value).intValue() : NONE;
+	}
+
+	private static long count(Object value) {
+		return value != null ? ((Number) value).longValue() : 0L;
+	}
+
+	private record CellKey(byte source, int year, int zone, int employee, int campus, int amount, int type,
+			boolean active) {
+	}
+
+	private static final class Builder {
+		private final Map<CellKey, Integer> cells = new HashMap<>();
+		private final Map<Long, Integer> userAppSoldCells = new HashMap<>();
+		private final Map<Integer, Integer> appStatusTrackCells = new HashMap<>();
+		private int size;
+		private byte[] source = new byte[1024];
+		private int[] year = new int[1024];
+		private int[] zone = new int[1024];
+		private int[] employee = new int[1024];
+		private int[] campus = new int[1024];
+		private int[] amount = new int[1024];
+		private int[] type = new int[1024];
+		private boolean[] active = new boolean[1024];
+		private long[] counters = new long[1024 * STRIDE];
+
+		int cell(byte src, int yearId, int zoneId, int empId, int campusId, int amountBits, int typeId,
+				boolean isActive) {
+			return cells.computeIfAbsent(
+					new CellKey(src, yearId, zoneId, empId, campusId, amountBits, typeId, isActive), k -> {
+						if (size == year.length) {
+							int n = size * 2;
+							source = Arrays.copyOf(source, n);
+							year = Arrays.copyOf(year, n);
+							zone = Arrays.copyOf(zone, n);
+							employee = Arrays.copyOf(employee, n);
+							campus = Arrays.copyOf(campus, n);
+							amount = Arrays.copyOf(amount, n);
+							type = Arrays.copyOf(type, n);
+							active = Arrays.copyOf(active, n);
+							counters = Arrays.copyOf(counters, n * STRIDE);
+						}
+						source[size] = src;
+						year[size] = yearId;
+						zone[size] = zoneId;
+						employee[size] = empId;
+						campus[size] = campusId;
+						amount[size] = amountBits;
+						type[size] = typeId;
+						active[size] = isActive;
+						return size++;
+					});
+		}
+
+		void add(int cell, long... values) {
+			int base = cell * STRIDE;
+			for (int i = 0; i < values.length; i++) {
+				counters[base + i] += values[i];
+			}
+			counters[base + ROWS]++;
+		}
+
+		Cube toCube(Map<Integer, String> zoneNames, Map<Integer, String> campusNames,
+				Map<Integer, String> employeeNames, Map<Integer, String> yearLabels, Map<Integer, Integer> yearNumbers) {
+			return new Cube(size, Arrays.copyOf(source, size), Arrays.copyOf(year, size), Arrays.copyOf(zone, size),
+					Arrays.copyOf(employee, size), Arrays.copyOf(campus, size), Arrays.copyOf(amount, size),
+					Arrays.copyOf(type, size), Arrays.copyOf(active, size), Arrays.copyOf(counters, size * STRIDE),
+					userAppSoldCells, appStatusTrackCells, zoneNames, campusNames, employeeNames, yearLabels,
+					yearNumbers);
+		}
+	}
+
+	/**
+	 * Dimensions are fixed per build; only the counters change, under
+	 * {@code lock}.
+	 */
+	private static final class Cube {
+		private final int size;
+		private final byte[] source;
+		private final int[] year;
+		private final int[] zone;
+		private final int[] employee;
+		private final int[] campus;
+		private final int[] amount;
+		private final int[] type;
+		private final boolean[] active;
+		private final long[] counters;
+		private final Map<Long, Integer> userAppSoldCells;
+		private final Map<Integer, Integer> appStatusTrackCells;
+		private final Map<Integer, String> zoneNames;
+		private final Map<Integer, String> campusNames;
+		private final Map<Integer, String> employeeNames;
+		private final Map<Integer, String> yearLabels;
+		private final Map<Integer, Integer> yearNumbers;
+		private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+		private final long loadedAt = System.currentTimeMillis();
+
+		private Cube(int size, byte[] source, int[] year, int[] zone, int[] employee, int[] campus, int[] amount,
+				int[] type, boolean[] active, long[] counters, Map<Long, Integer> userAppSoldCells,
+				Map<Integer, Integer> appStatusTrackCells, Map<Integer, String> zoneNames,
+				Map<Integer, String> campusNames, Map<Integer, String> employeeNames, Map<Integer, String> yearLabels,
+				Map<Integer, Integer> yearNumbers) {
+			this.size = size;
+			this.source = source;
+			this.year = year;
+			this.zone = zone;
+			this.employee = employee;
+			this.campus = campus;
+			this.amount = amount;
+			this.type = type;
+			this.active = active;
+			this.counters = counters;
+			this.userAppSoldCells = userAppSoldCells;
+			this.appStatusTrackCells = appStatusTrackCells;
+			this.zoneNames = zoneNames;
+			this.campusNames = campusNames;
+			this.employeeNames = employeeNames;
+			this.yearLabels = yearLabels;
+			this.yearNumbers = yearNumbers;
+		}
+	}
+}
@@ -0,0 +1,214 @@
+package com.application.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Compressed set of application numbers.
+ *
+ * Numbers are split into 65,536-wide chunks (as in Roaring bitmaps): empty
+ * chunks are not stored, completely filled chunks share one sentinel array, and
+ * only partially filled chunks own a 8 KB word array. Application stock is
+ * handed out in long contiguous series, so most chunks end up full or empty.
+ *
+ * The total cardinality is maintained on every change, so size() is O(1).
+ * Not thread-safe; callers synchronise.
+ */
+final class AppNumberBitmap {
+
+	private static final int CHUNK_BITS = 16;
+	private static final int WORDS = (1 << CHUNK_BITS) / 64;
+	private static final long[] FULL = filled();
+
+	private final TreeMap<Integer, long[]> chunks = new TreeMap<>();
+	private final TreeMap<Integer, Integer> chunkCounts = new TreeMap<>();
+	private long size;
+
+	long size() {
+		return size;
+	}
+
+	boolean contains(int n) {
+		long[] words = chunks.get(n >>> CHUNK_BITS);
+		return words != null && (words == FULL || (words[(n & 0xFFFF) >>> 6] & (1L << n)) != 0);
+	}
+
+	boolean add(int n) {
+		if (contains(n)) {
+			return false;
+		}
+		long[] words = writable(n >>> CHUNK_BITS);
+		words[(n & 0xFFFF) >>> 6] |= 1L << n;
+		adjust(n >>> CHUNK_BITS, 1);
+		return true;
+	}
+
+	boolean remove(int n) {
+		if (!contains(n)) {
+			return false;
+		}
+		long[] words = writable(n >>> CHUNK_BITS);
+		words[(n & 0xFFFF) >>> 6] &= ~(1L << n);
+		adjust(n >>> CHUNK_BITS, -1);
+		return true;
+	}
+
+	void addRange(int from, int to) {
+		for (int n = from; n <= to;) {
+			int chunk = n >>> CHUNK_BITS;
+			int chunkEnd = Math.min(to, (chunk << CHUNK_BITS) | 0xFFFF);
+			if ((n & 0xFFFF) == 0 && (chunkEnd & 0xFFFF) == 0xFFFF) {
+				// Whole chunk: switch to the shared sentinel
+				size += (1 << CHUNK_BITS) - chunkCounts.getOrDefault(chunk, 0);
+				chunks.put(chunk, FULL);
+				chunkCounts.put(chunk, 1 << CHUNK_BITS);
+			} else {
+				for (int i = n; i <= chunkEnd; i++) {
+					add(i);
+				}
+			}
+			if (chunkEnd == Integer.MAX_VALUE) {
+				break;
+			}
+			n = chunkEnd + 1;
+		}
+	}
+
+	void removeAll(AppNumberBitmap other) {
+		for (Map.Entry<Integer, long[]> e : other.chunks.entrySet()) {
+			if (!chunks.containsKey(e.getKey())) {
+				continue;
+			}
+			int base = e.getKey() << CHUNK_BITS;
+			long[] theirs = e.getValue();
+			for (int w = 0; w < WORDS; w++) {
+				long bits = theirs[w];
+				while (bits != 0) {
+					int bit = Long.numberOfTrailingZeros(bits);
+					remove(base | (w << 6) | bit);
+					bits &= bits - 1;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Smallest member >= from, or -1.
+	 */
+	int nextSetBit(int from) {
+		Map.Entry<Integer, long[]> e = chunks.ceilingEntry(from >>> CHUNK_BITS);
+		while (e != null) {
+			int base = e.getKey() << CHUNK_BITS;
+			int startBit = e.getKey() == (from >>> CHUNK_BITS) ? (from & 0xFFFF) : 0;
+			if (e.getValue() == FULL) {
+				return base | startBit;
+			}
+			long[] words = e.getValue();
+			int w = startBit >>> 6;
+			long bits = words[w] & (-1L << startBit);
+			while (true) {
+				if (bits != 0) {
+					return base | (w << 6) | Long.numberOfTrailingZeros(bits);
+				}
+				if (++w == WORDS) {
+					break;
+				}
+				bits = words[w];
+			}
+			e = chunks.higherEntry(e.getKey());
+		}
+		return -1;
+	}
+
+	/**
+	 * Members in [from, to].
+	 */
+	long count(int from, int to) {
+		long total = 0;
+		for (Map.Entry<Integer, long[]> e : chunks.subMap(from >>> CHUNK_BITS, true, to >>> CHUNK_BITS, true)
+				.entrySet()) {
+			int base = e.getKey() << CHUNK_BITS;
+			int lo = Math.max(from, base) - base;
+			int hi = Math.min(to, base | 0xFFFF) - base;
+			if (lo == 0 && hi == 0xFFFF) {
+				total += chunkCounts.get(e.getKey());
+				continue;
+			}
+			long[] words = e.getValue();
+			for (int w = lo >>> 6; w <= hi >>> 6; w++) {
+				long mask = -1L;
+				if (w == lo >>> 6) {
+					mask &= -1L << lo;
+				}
+				if (w == hi >>> 6 && (hi & 63) != 63) {
+					mask &= (1L << (hi + 1)) - 1;
+				}
+				total += Long.bitCount(words[w] & mask);
+			}
+		}
+		return total;
+	}
+
+	/**
+	 * Members as contiguous {start, end} runs, ascending.
+	 */
+	List<int[]> runs() {
+		List<int[]> runs = new ArrayList<>();
+		int n = nextSetBit(0);
+		while (n >= 0) {
+			int end = n;
+			while (end < Integer.MAX_VALUE && contains(end + 1)) {
+				end++;
+			}
+			runs.add(new int[] { n, end });
+			n = end == Integer.MAX_VALUE ? -1 : nextSetBit(end + 1);
+		}
+		return runs;
+	}
+
+	AppNumberBitmap copy() {
+		AppNumberBitmap copy = new AppNumberBitmap();
+		for (Map.Entry<Integer, long[]> e : chunks.entrySet()) {
+			copy.chunks.put(e.getKey(), e.getValue() == FULL ? FULL : e.getValue().clone());
+		}
+		copy.chunkCounts.putAll(chunkCounts);
+		copy.size = size;
+		return copy;
+	}
+
+	private long[] writable(int chunk) {
+		long[] words = chunks.get(chunk);
+		if (words == null) {
+			words = new long[WORDS];
+			chunks.put(chunk, words);
+		} else if (words == FULL) {
+			// Copy-on-write out of the shared sentinel
+			words = FULL.clone();
+			chunks.put(chunk, words);
+		}
+		return words;
+	}
+
+	private void adjust(int chunk, int delta) {
+		int count = chunkCounts.getOrDefault(chunk, 0) + delta;
+		size += delta;
+		if (count == 0) {
+			chunks.remove(chunk);
+			chunkCounts.remove(chunk);
+		} else if (count == 1 << CHUNK_BITS) {
+			chunks.put(chunk, FULL);
+			chunkCounts.put(chunk, count);
+		} else {
+			chunkCounts.put(chunk, count);
+		}
+	}
+
+	private static long[] filled() {
+		long[] words = new long[WORDS];
+		Arrays.fill(words, -1L);
+		return words;
+	}
+}
@@ -12,12 +12,14 @@ import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
 
 import com.application.dto.AppStatusTrackDTO;
+import com.application.dto.DailySnapshotPointDTO;
 import com.application.dto.DashboardResponseDTO;
 import com.application.dto.GenericDropdownDTO;
 import com.application.dto.GraphBarDTO;
 import com.application.dto.GraphResponseDTO;
 import com.application.dto.MetricCardDTO;
 import com.application.entity.AcademicYear;
+import com.application.entity.DailySalesSnapshot;
 import com.application.repository.AcademicYearRepository;
 import com.application.repository.AppStatusTrackRepository;
 import com.application.repository.DgmRepository;
@@ -34,6 +36,8 @@ public class AppStatusTrackService {
     @Autowired UserAppSoldService userAppSoldService;
     @Autowired private UserAppSoldRepository userAppSoldRepository;
     @Autowired private AcademicYearRepository academicYearRepository;
+    @Autowired private AnalyticsCube analyticsCube;
+    @Autowired private DailySnapshotStore dailySnapshotStore;
     
 
     /**
@@ -137,19 +141,32 @@ public class AppStatusTrackService {
      */
     public List<MetricCardDTO> getMetricCards() {
 
-        Integer currentYearId = appStatusTrackRepository.findLatestYearId();
+        // Same sums from the in-memory cube once it is loaded
+        AnalyticsCube.StatusTotals cached = analyticsCube.statusTotals().orElse(null);
+
+        Integer currentYearId = cached != null ? cached.latestYearId() : appStatusTrackRepository.findLatestYearId();
         Integer previousYearId = currentYearId - 1;
 
         // Overall totals (for all years)
-        Object[] overall = appStatusTrackRepository.getOverallTotals().get(0);
-        Long overallWithPro = appStatusTrackRepository.getOverallWithPro(); // total_app where type = 4
+        Object[] overall = cached != null ? cached.overall() : appStatusTrackRepository.getOverallTotals().get(0);
+        Long overallWithPro = cached != null ? cached.overallWithPro()
+                : appStatusTrackRepository.getOverallWithPro(); // total_app where type = 4
 
         // Current & previous year values
-        Object[] curr = appStatusTrackRepository.getTotalsByYear(currentYearId).get(0);
-        Object[] prev = appStatusTrackRepository.getTotalsByYear(previousYearId).get(0);
-
-        Long currProObj = appStatusTrackRepository.getWithProByYear(currentYearId);
-        Long prevProObj = appStatusTrackRepository.getWithProByYear(previousYearId);
+        Object[] curr = cached != null ? cached.year(currentYearId)
+                : appStatusTrackRepository.getTotalsByYear(currentYearId).get(0);
+        // Previous year as of the same date when a daily snapshot has it, else the whole previous year
+        DailySnapshotPointDTO lastYear = dailySnapshotStore.sameDateLastYear(DailySalesSnapshot.ALL, 0)
+                .filter(p -> p.acdcYearId() < currentYearId).orElse(null);
+        Object[] prev = lastYear != null ? totalsRow(lastYear)
+                : cached != null ? cached.year(previousYearId)
+                : appStatusTrackRepository.getTotalsByYear(previousYearId).get(0);
+
+        Long currProObj = cached != null ? cached.withPro(currentYearId)
+                : appStatusTrackRepository.getWithProByYear(currentYearId);
+        Long prevProObj = lastYear != null ? lastYear.withPro()
+                : cached != null ? cached.withPro(previousYearId)
+                : appStatusTrackRepository.getWithProByYear(previousYearId);
 
         // Convert safely
         int totalApp = toInt(overall[0]);
@@ -194,6 +211,12 @@ public class AppStatusTrackService {
     }
     
 
+    // Same order as getTotalsByYear
+    private static Object[] totalsRow(DailySnapshotPointDTO p) {
+        return new Object[] { p.totalApp(), p.appSold(), p.appConfirmed(), p.appAvailable(), p.appIssued(),
+                p.appDamaged(), p.appUnavailable() };
+    }
+
     // Helper conversions
     private int toInt(Object o) {
         return o == null ? 0 : ((Number) o).intValue();
@@ -2,24 +2,27 @@ package com.application.service;
  
 import java.util.ArrayList;
 import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
-import java.util.Optional;
-import java.util.function.Function;
+import java.util.Map;
 import java.util.function.Supplier;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import com.application.config.ParallelReads;
 import com.application.dto.CombinedAnalyticsDTO;
+import com.application.dto.DailySnapshotPointDTO;
 import com.application.dto.GraphDTO;
 import com.application.dto.GraphSoldSummaryDTO;
 import com.application.dto.MetricDTO;
 import com.application.dto.MetricsAggregateDTO;
 import com.application.dto.MetricsDataDTO;
 import com.application.dto.YearlyGraphPointDTO;
-import com.application.entity.AcademicYear;
+import com.application.dto.YearlyMetricsDTO;
+import com.application.dto.YearlySoldSummaryDTO;
+import com.application.entity.DailySalesSnapshot;
 import com.application.entity.SCEmployeeEntity;
-import com.application.repository.AcademicYearRepository;
 import com.application.repository.AppStatusTrackRepository;
 import com.application.repository.DgmRepository;
 import com.application.repository.SCEmployeeRepository;
@@ -34,14 +37,20 @@ public class ApplicationAnalyticsService {
     @Autowired
     private AppStatusTrackRepository appStatusTrackRepository;
  
-    @Autowired
-    private AcademicYearRepository academicYearRepository;
-    
     @Autowired
     private SCEmployeeRepository scEmployeeRepository;
     
     @Autowired
     private DgmRepository dgmRepository;
+
+    @Autowired
+    private ParallelReads parallelReads;
+
+    @Autowired
+    private AnalyticsCube analyticsCube;
+
+    @Autowired
+    private DailySnapshotStore dailySnapshotStore;
  
     // --- NEW "MASTER ROLLUP" ROUTER METHOD ---
     
@@ -159,51 +168,33 @@ public class ApplicationAnalyticsService {
     // --- CORE ANALYTICS METHODS (Unchanged) ---
  
     public CombinedAnalyticsDTO getZoneAnalytics(Long zoneId) {
-        CombinedAnalyticsDTO analytics = new CombinedAnalyticsDTO();
-        analytics.setGraphData(getGraphData(
-            (yearId) -> userAppSoldRepository.getSalesSummaryByZone(zoneId.intValue(), yearId),
-            () -> userAppSoldRepository.findDistinctYearIdsByZone(zoneId.intValue())
-        ));
-        analytics.setMetricsData(
-            getMetricsData(
-                (yearId) -> appStatusTrackRepository.getMetricsByZoneAndYear(zoneId, yearId),
-                (yearId) -> userAppSoldRepository.getProMetricByZone(zoneId.intValue(), yearId),
-                () -> appStatusTrackRepository.findDistinctYearIdsByZone(zoneId)
-            )
+        return getCombinedAnalytics(
+            () -> analyticsCube.yearlySoldByZone(zoneId.intValue())
+                    .orElseGet(() -> userAppSoldRepository.getYearlySummaryByZone(zoneId.intValue())),
+            () -> analyticsCube.yearlyMetricsByZone(zoneId.intValue())
+                    .orElseGet(() -> appStatusTrackRepository.getYearlyMetricsByZone(zoneId)),
+            dailySnapshotStore.sameDateLastYear(DailySalesSnapshot.ZONE, zoneId.intValue()).orElse(null)
         );
-        return analytics;
     }
  
     public CombinedAnalyticsDTO getDgmAnalytics(Integer dgmEmpId) {
-        CombinedAnalyticsDTO analytics = new CombinedAnalyticsDTO();
-        analytics.setGraphData(getGraphData(
-            (yearId) -> userAppSoldRepository.getSalesSummaryByDgm(dgmEmpId, yearId),
-            () -> userAppSoldRepository.findDistinctYearIdsByDgm(dgmEmpId)
-        ));
-        analytics.setMetricsData(
-            getMetricsData(
-                (yearId) -> appStatusTrackRepository.getMetricsByEmployeeAndYear(dgmEmpId, yearId),
-                (yearId) -> userAppSoldRepository.getProMetricByDgm(dgmEmpId, yearId),
-                () -> appStatusTrackRepository.findDistinctYearIdsByEmployee(dgmEmpId)
-            )
+        return getCombinedAnalytics(
+            () -> analyticsCube.yearlySoldByDgm(dgmEmpId)
+                    .orElseGet(() -> userAppSoldRepository.getYearlySummaryByDgm(dgmEmpId)),
+            () -> analyticsCube.yearlyMetricsByEmployee(dgmEmpId)
+                    .orElseGet(() -> appStatusTrackRepository.getYearlyMetricsByEmployee(dgmEmpId)),
+            dailySnapshotStore.sameDateLastYear(DailySalesSnapshot.DGM, dgmEmpId).orElse(null)
         );
-        return analytics;
     }
  
     public CombinedAnalyticsDTO getCampusAnalytics(Long campusId) {
-        CombinedAnalyticsDTO analytics = new CombinedAnalyticsDTO();
-        analytics.setGraphData(getGraphData(
-            (yearId) -> userAppSoldRepository.getSalesSummaryByCampus(campusId.intValue(), yearId),
-            () -> userAppSoldRepository.findDistinctYearIdsByCampus(campusId.intValue())
-        ));
-        analytics.setMetricsData(
-            getMetricsData(
-                (yearId) -> appStatusTrackRepository.getMetricsByCampusAndYear(campusId, yearId),
-                (yearId) -> userAppSoldRepository.getProMetricByCampus(campusId.intValue(), yearId),
-                () -> appStatusTrackRepository.findDistinctYearIdsByCampus(campusId)
-            )
+        return getCombinedAnalytics(
+            () -> analyticsCube.yearlySoldByCampus(campusId.intValue())
+                    .orElseGet(() -> userAppSoldRepository.getYearlySummaryByCampus(campusId.intValue())),
+            () -> analyticsCube.yearlyMetricsByCampus(campusId.intValue())
+                    .orElseGet(() -> appStatusTrackRepository.getYearlyMetricsByCampus(campusId)),
+            dailySnapshotStore.sameDateLastYear(DailySalesSnapshot.CAMPUS, campusId.intValue()).orElse(null)
         );
-        return analytics;
     }
     
 public GraphDTO getGraphDataByZoneIdAndAmount(Integer zoneId, Float amount) {
@@ -215,14 +206,8 @@ public GraphDTO getGraphDataByZoneIdAndAmount(Integer zoneId, Float amount) {
             return emptyGraph;
         }
         
-        // This leverages the generic getGraphData helper with new repository functions
-        return getGraphData(
-            // Data Fetcher: Function<Integer, Optional<GraphSoldSummaryDTO>> (takes yearId)
-            (yearId) -> userAppSoldRepository.getSalesSummaryByZoneAndAmount(zoneId, yearId, amount),
-            
-            // Year Fetcher: Supplier<List<Integer>> (takes no arguments)
-            () -> userAppSoldRepository.findDistinctYearIdsByZoneAndAmount(zoneId, amount)
-        );
+        return getGraphData(() -> analyticsCube.yearlySoldByZoneAndAmount(zoneId, amount)
+                .orElseGet(() -> userAppSoldRepository.getYearlySummaryByZoneAndAmount(zoneId, amount)));
     }
 
 public GraphDTO getGraphDataByCampusIdAndAmount(Integer campusId, Float amount) {
@@ -234,14 +219,8 @@ public GraphDTO getGraphDataByCampusIdAndAmount(Integer campusId, Float amount)
         return emptyGraph;
     }
 
-    // This leverages the generic getGraphData helper with new repository functions
-    return getGraphData(
-        // Data Fetcher: Function<Integer, Optional<GraphSoldSummaryDTO>> (takes yearId)
-        (yearId) -> userAppSoldRepository.getSalesSummaryByCampusAndAmount(campusId, yearId, amount),
-        
-        // Year Fetcher: Supplier<List<Integer>> (takes no arguments)
-        () -> userAppSoldRepository.findDistinctYearIdsByCampusAndAmount(campusId, amount)
-    );
+    return getGraphData(() -> analyticsCube.yearlySoldByCampusAndAmount(campusId, amount)
+            .orElseGet(() -> userAppSoldRepository.getYearlySummaryByCampusAndAmount(campusId, amount)));
 }
  
     // --- ROLLUP LOGIC (Now private helpers) ---
@@ -264,10 +243,12 @@ public GraphDTO getGraphDataByCampusIdAndAmount(Integer campusId, Float amount)
         }
 
         System.out.println("DGM " + dgmEmpId + " is viewing analytics for " + campusIds.size() + " campuses.");
-        CombinedAnalyticsDTO analytics = new CombinedAnalyticsDTO();
-
-        analytics.setGraphData(getGraphDataForCampusList(campusIds));
-        analytics.setMetricsData(getMetricsDataForCampusList(campusIds));
+        CombinedAnalyticsDTO analytics = getCombinedAnalytics(
+            () -> analyticsCube.yearlySoldByCampusList(campusIds)
+                    .orElseGet(() -> userAppSoldRepository.getYearlySummaryByCampusList(campusIds)),
+            () -> analyticsCube.yearlyMetricsByCampusList(campusIds)
+                    .orElseGet(() -> appStatusTrackRepository.getYearlyMetricsByCampusList(campusIds))
+        );
         
         analytics.setRole("DGM (Campus Rollup)");
         analytics.setDesignationName(designation); // <--- SET DESIGNATION HERE
@@ -298,10 +279,12 @@ public GraphDTO getGraphDataByCampusIdAndAmount(Integer campusId, Float amount)
         }
 
         System.out.println("Zonal Acct " + empId + " is viewing analytics for " + dgmEmpIds.size() + " DGMs.");
-        CombinedAnalyticsDTO analytics = new CombinedAnalyticsDTO();
-
-        analytics.setGraphData(getGraphDataForDgmList(dgmEmpIds));
-        analytics.setMetricsData(getMetricsDataForDgmList(dgmEmpIds));
+        CombinedAnalyticsDTO analytics = getCombinedAnalytics(
+            () -> analyticsCube.yearlySoldByDgmList(dgmEmpIds)
+                    .orElseGet(() -> userAppSoldRepository.getYearlySummaryByDgmList(dgmEmpIds)),
+            () -> analyticsCube.yearlyMetricsByEmployeeList(dgmEmpIds)
+                    .orElseGet(() -> appStatusTrackRepository.getYearlyMetricsByEmployeeList(dgmEmpIds))
+        );
         
         analytics.setRole("Zonal Accountant (DGM Rollup)");
         analytics.setDesignationName(designation); // <--- SET DESIGNATION HERE
@@ -311,62 +294,80 @@ public GraphDTO getGraphDataByCampusIdAndAmount(Integer campusId, Float amount)
         return analytics;
     }
     
-    // --- PRIVATE HELPER METHODS for ROLLUPS (Unchanged) ---
-    
-    private GraphDTO getGraphDataForCampusList(List<Integer> campusIds) {
-        return getGraphData(
-            (yearId) -> userAppSoldRepository.getSalesSummaryByCampusList(campusIds, yearId),
-            () -> userAppSoldRepository.findDistinctYearIdsByCampusList(campusIds)
-        );
-    }
-    
-    private MetricsDataDTO getMetricsDataForCampusList(List<Integer> campusIds) {
-        return getMetricsData(
-            (yearId) -> appStatusTrackRepository.getMetricsByCampusListAndYear(campusIds, yearId),
-            (yearId) -> userAppSoldRepository.getProMetricByCampusList(campusIds, yearId),
-            () -> appStatusTrackRepository.findDistinctYearIdsByCampusList(campusIds)
-        );
+    /**
+     * Graph and metrics of one scope from two per-year result sets - taken
+     * from {@link AnalyticsCube} when it is loaded, otherwise from two GROUP BY
+     * year queries run side by side. The sold rows feed both the graph and the
+     * 'With PRO' card.
+     */
+    private CombinedAnalyticsDTO getCombinedAnalytics(
+            Supplier<List<YearlySoldSummaryDTO>> soldFetcher,
+            Supplier<List<YearlyMetricsDTO>> metricsFetcher) {
+        return getCombinedAnalytics(soldFetcher, metricsFetcher, null);
     }
- 
-    private GraphDTO getGraphDataForDgmList(List<Integer> dgmEmpIds) {
-        return getGraphData(
-            (yearId) -> userAppSoldRepository.getSalesSummaryByDgmList(dgmEmpIds, yearId),
-            () -> userAppSoldRepository.findDistinctYearIdsByDgmList(dgmEmpIds)
-        );
+
+    /**
+     * lastYear: the scope's daily snapshot of the same date last year, compared
+     * against instead of the whole previous year when present.
+     */
+    private CombinedAnalyticsDTO getCombinedAnalytics(
+            Supplier<List<YearlySoldSummaryDTO>> soldFetcher,
+            Supplier<List<YearlyMetricsDTO>> metricsFetcher,
+            DailySnapshotPointDTO lastYear) {
+
+        Supplier<List<YearlySoldSummaryDTO>> sold;
+        Supplier<List<YearlyMetricsDTO>> metrics;
+        if (analyticsCube.isReady()) {
+            sold = deferFailure(soldFetcher).get();
+            metrics = deferFailure(metricsFetcher).get();
+        } else {
+            try (ParallelReads.Scope scope = parallelReads.open()) {
+                Supplier<Supplier<List<YearlySoldSummaryDTO>>> soldRead = scope.fork(deferFailure(soldFetcher));
+                Supplier<Supplier<List<YearlyMetricsDTO>>> metricsRead = scope.fork(deferFailure(metricsFetcher));
+                scope.join();
+                sold = soldRead.get();
+                metrics = metricsRead.get();
+            }
+        }
+
+        CombinedAnalyticsDTO analytics = new CombinedAnalyticsDTO();
+        analytics.setGraphData(getGraphData(sold));
+        analytics.setMetricsData(getMetricsData(metrics, sold, lastYear));
+        return analytics;
     }
-    
-    private MetricsDataDTO getMetricsDataForDgmList(List<Integer> dgmEmpIds) {
-        return getMetricsData(
-            (yearId) -> appStatusTrackRepository.getMetricsByEmployeeListAndYear(dgmEmpIds, yearId),
-            (yearId) -> userAppSoldRepository.getProMetricByDgmList(dgmEmpIds, yearId),
-            () -> appStatusTrackRepository.findDistinctYearIdsByEmployeeList(dgmEmpIds)
-        );
+
+    // A failed read is rethrown inside the assembler, so the graph and the cards fail independently
+    private static <T> Supplier<Supplier<T>> deferFailure(Supplier<T> read) {
+        return () -> {
+            try {
+                T value = read.get();
+                return () -> value;
+            } catch (RuntimeException e) {
+                return () -> {
+                    throw e;
+                };
+            }
+        };
     }
  
+    // --- Private Graph Data Assembler ---
  
-    // --- Private Graph Data Helper (Unchanged) ---
- 
-    private GraphDTO getGraphData(
-            Function<Integer, Optional<GraphSoldSummaryDTO>> dataFetcher,
-            Supplier<List<Integer>> yearFetcher) {
+    private GraphDTO getGraphData(Supplier<List<YearlySoldSummaryDTO>> soldFetcher) {
         
         GraphDTO graphData = new GraphDTO();
         List<YearlyGraphPointDTO> yearlyDataList = new ArrayList<>();
  
         try {
-            List<Integer> existingYearIds = yearFetcher.get();
- 
-            List<AcademicYear> academicYears = academicYearRepository.findByAcdcYearIdIn(existingYearIds)
+            // Only the scope's graph years that have an AcademicYear row, oldest first
+            List<YearlySoldSummaryDTO> years = soldFetcher.get()
                     .stream()
-                    .sorted(Comparator.comparingInt(AcademicYear::getAcdcYearId))
+                    .filter(y -> y.acdcYearId() != null && y.academicYear() != null
+                            && y.inGraph() != null && y.inGraph() == 1)
+                    .sorted(Comparator.comparingInt(YearlySoldSummaryDTO::acdcYearId))
                     .toList();
  
-            for (AcademicYear year : academicYears) {
-                int acdcYearId = year.getAcdcYearId();
-                String yearLabel = year.getAcademicYear();
- 
-                GraphSoldSummaryDTO summary = dataFetcher.apply(acdcYearId)
-                        .orElse(new GraphSoldSummaryDTO(0L, 0L));
+            for (YearlySoldSummaryDTO year : years) {
+                GraphSoldSummaryDTO summary = year.toGraphSummary();
  
                 long issued = summary.totalApplications();
                 long sold = summary.totalSold();
@@ -377,14 +378,14 @@ public GraphDTO getGraphDataByCampusIdAndAmount(Integer campusId, Float amount)
                         : 0.0;
  
                 yearlyDataList.add(new YearlyGraphPointDTO(
-                        yearLabel, issuedPercent, soldPercent, issued, sold
+                        year.academicYear(), issuedPercent, soldPercent, issued, sold
                 ));
             }
  
-            if (!academicYears.isEmpty()) {
+            if (!years.isEmpty()) {
                 graphData.setTitle("Application Sales Percentage (" +
-                        academicYears.get(0).getAcademicYear() + "–" +
-                        academicYears.get(academicYears.size() - 1).getAcademicYear() + ")");
+                        years.get(0).academicYear() + "–" +
+                        years.get(years.size() - 1).academicYear() + ")");
             } else {
                 graphData.setTitle("Application Sales Percentage (No Data)");
             }
@@ -398,45 +399,53 @@ public GraphDTO getGraphDataByCampusIdAndAmount(Integer campusId, Float amount)
         return graphData;
     }
  
-    // --- Private Metrics Data Helper (Unchanged) ---
+    // --- Private Metrics Data Assembler ---
  
     private MetricsDataDTO getMetricsData(
-            Function<Integer, Optional<MetricsAggregateDTO>> dataFetcher,
-            Function<Integer, Optional<Long>> proFetcher,
-            Supplier<List<Integer>> yearFetcher) {
+            Supplier<List<YearlyMetricsDTO>> metricsFetcher,
+            Supplier<List<YearlySoldSummaryDTO>> soldFetcher,
+            DailySnapshotPointDTO lastYear) {
 
         MetricsDataDTO dto = new MetricsDataDTO();
 
         try {
 
-            List<Integer> yearIds = yearFetcher.get();
+            List<YearlyMetricsDTO> years = metricsFetcher.get()
+                    .stream()
+                    .sorted(Comparator.comparingInt(YearlyMetricsDTO::acdcYearId))
+                    .toList();
 
-            if (yearIds.isEmpty()) {
+            if (years.isEmpty()) {
                 dto.setMetrics(new ArrayList<>());
                 return dto;
             }
 
-            // Sort yearIds ascending → last one is current year
-            yearIds.sort(Integer::compare);
-
-            int currentYearId = yearIds.get(yearIds.size() - 1);
-            int previousYearId = (yearIds.size() > 1)
-                    ? yearIds.get(yearIds.size() - 2)
-                    : currentYearId;
+            // Sorted ascending → last one is current year
+            YearlyMetricsDTO cy = years.get(years.size() - 1);
+            YearlyMetricsDTO py = (years.size() > 1) ? years.get(years.size() - 2) : cy;
 
-            AcademicYear cy = academicYearRepository.findById(currentYearId).orElse(null);
-            AcademicYear py = academicYearRepository.findById(previousYearId).orElse(null);
+            Map<Integer, Long> proByYear = new HashMap<>();
+            for (YearlySoldSummaryDTO sold : soldFetcher.get()) {
+                if (sold.acdcYearId() != null) {
+                    proByYear.put(sold.acdcYearId(), sold.withPro());
+                }
+            }
 
-            dto.setCurrentYear(cy != null ? cy.getYear() : 0);
-            dto.setPreviousYear(py != null ? py.getYear() : 0);
+            dto.setCurrentYear(cy.year());
+            dto.setPreviousYear(py.year());
 
-            MetricsAggregateDTO curr = dataFetcher.apply(currentYearId)
-                    .orElse(new MetricsAggregateDTO());
-            MetricsAggregateDTO prev = dataFetcher.apply(previousYearId)
-                    .orElse(new MetricsAggregateDTO());
+            MetricsAggregateDTO curr = cy.toAggregate();
+            MetricsAggregateDTO prev = py.toAggregate();
+            long proCurr = proByYear.getOrDefault(cy.acdcYearId(), 0L);
+            long proPrev = proByYear.getOrDefault(py.acdcYearId(), 0L);
 
-            long proCurr = proFetcher.apply(currentYearId).orElse(0L);
-            long proPrev = proFetcher.apply(previousYearId).orElse(0L);
+            // Same date last year instead of the whole previous year
+            if (lastYear != null && cy.acdcYearId() != null && lastYear.acdcYearId() < cy.acdcYearId()) {
+                years.stream().filter(y -> lastYear.acdcYearId().equals(y.acdcYearId())).findFirst()
+                        .ifPresent(y -> dto.setPreviousYear(y.year()));
+                prev = lastYear.toAggregate();
+                proPrev = lastYear.withPro() != null ? lastYear.withPro() : proPrev;
+            }
 
             MetricsAggregateDTO totalMetrics = curr;   // instead of summing every year
             long totalPro = proCurr;
@@ -535,10 +544,4 @@ public GraphDTO getGraphDataByCampusIdAndAmount(Integer campusId, Float amount)
         if (change < 0) return "down";
         return "neutral";
     }
- 
-    private int getAcdcYearId(int year) {
-        return academicYearRepository.findByYear(year)
-                .map(AcademicYear::getAcdcYearId)
-                .orElse(0);
-    }
-}
\ No newline at end of file
+}
@@ -0,0 +1,353 @@
+package com.application.service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.application.dto.AppAvailabilityDTO;
+import com.application.dto.AppSeriesDTO;
+import com.application.entity.AdminApp;
+import com.application.entity.AppStatus;
+import com.application.entity.BalanceTrack;
+import com.application.entity.StudentAcademicDetails;
+import com.application.repository.AdminAppRepository;
+import com.application.repository.AppStatusRepository;
+import com.application.repository.BalanceTrackRepository;
+import com.application.repository.StudentAcademicDetailsRepository;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Per holder (employee or PRO) and academic year, which application numbers
+ * are held, sold, damaged or returned - kept as compressed bitmaps.
+ *
+ * - held:      numbers in the holder's active BalanceTrack rows
+ * - sold:      held numbers already used by a StudentAcademicDetails row
+ * - damaged:   held numbers with an active AppStatus (other than PRO/AVAILABLE)
+ * - returned:  held numbers marked AVAILABLE again after being damaged
+ * - available: held minus sold minus damaged (also kept per amount)
+ *
+ * Counts are O(1); "next available number" is a bitmap scan. A holder is loaded
+ * lazily with three queries and kept current by {@link AvailabilityMapListener}:
+ * sales and status changes flip bits after commit, balance changes drop the
+ * holder so the next read reloads it. A holder loaded more than
+ * {@code distribution.availability.max-age-ms} ago is reloaded as well, which
+ * bounds how long writes from other nodes stay invisible.
+ *
+ * CO/Admin balances (an active AdminApp master range for the employee, year
+ * and amount) are a single "master minus distributed" row whose count does not
+ * match its range; such rows are counted but not tracked per number
+ * (exact = false).
+ */
+@Service
+@RequiredArgsConstructor
+public class ApplicationAvailabilityMap {
+
+	private static final Logger logger = LoggerFactory.getLogger(ApplicationAvailabilityMap.class);
+
+	private static final int STATUS_WITH_PRO = 1;
+	private static final int STATUS_AVAILABLE = 3;
+
+	private final BalanceTrackRepository balanceTrackRepository;
+	private final StudentAcademicDetailsRepository studentAcademicDetailsRepository;
+	private final AppStatusRepository appStatusRepository;
+	private final AdminAppRepository adminAppRepository;
+
+	@Value("${distribution.availability.enabled:true}")
+	private boolean enabled;
+
+	@Value("${distribution.availability.max-holders:5000}")
+	private int maxHolders;
+
+	@Value("${distribution.availability.max-age-ms:300000}")
+	private long maxAgeMillis;
+
+	private final Map<HolderKey, HolderState> holders = new ConcurrentHashMap<>();
+
+	private record HolderKey(boolean pro, int holderId, int academicYearId) {
+	}
+
+	// ---------------------------------------------------------
+	// Queries
+	// ---------------------------------------------------------
+
+	public AppAvailabilityDTO getAvailability(int holderId, int academicYearId, boolean isPro) {
+		HolderState s = state(holderId, academicYearId, isPro);
+		synchronized (s) {
+			int next = s.available.nextSetBit(0);
+			return new AppAvailabilityDTO(holderId, isPro, academicYearId, s.held.size() + s.untracked,
+					s.available.size() + s.untracked, s.sold.size(), s.damaged.size(), s.returned.size(),
+					next >= 0 ? next : null, s.untracked == 0);
+		}
+	}
+
+	/**
+	 * Smallest available number >= fromNo, optionally restricted to one fee
+	 * amount; null when the holder has none left.
+	 */
+	public Integer nextAvailable(int holderId, int academicYearId, boolean isPro, Float amount, int fromNo) {
+		HolderState s = state(holderId, academicYearId, isPro);
+		synchronized (s) {
+			AppNumberBitmap source = amount == null ? s.available : s.availableByAmount.get(amount);
+			int next = source == null ? -1 : source.nextSetBit(Math.max(0, fromNo));
+			return next >= 0 ? next : null;
+		}
+	}
+
+	/**
+	 * Available numbers of one amount as contiguous series (sold/damaged numbers
+	 * split a series).
+	 */
+	public List<AppSeriesDTO> getAvailableSeries(int holderId, int academicYearId, boolean isPro, Float amount) {
+		HolderState s = state(holderId, academicYearId, isPro);
+		List<AppSeriesDTO> series = new ArrayList<>();
+		synchronized (s) {
+			AppNumberBitmap source = s.availableByAmount.get(amount);
+			if (source == null) {
+				return series;
+			}
+			for (int[] run : source.runs()) {
+				series.add(new AppSeriesDTO(run[0] + " - " + run[1], run[0], run[1]));
+			}
+		}
+		return series;
+	}
+
+	public void invalidateAll() {
+		holders.clear();
+	}
+
+	// ---------------------------------------------------------
+	// Write side (called from AvailabilityMapListener, applied after commit)
+	// ---------------------------------------------------------
+
+	void onBalanceWritten(BalanceTrack b) {
+		if (b.getAcademicYear() == null) {
+			return;
+		}
+		int yearId = b.getAcademicYear().getAcdcYearId();
+		List<HolderKey> keys = new ArrayList<>();
+		if (b.getEmployee() != null) {
+			keys.add(new HolderKey(false, b.getEmployee().getEmp_id(), yearId));
+		}
+		if (b.getIssuedToProId() != null) {
+			keys.add(new HolderKey(true, b.getIssuedToProId(), yearId));
+		}
+		afterCommit(() -> keys.forEach(holders::remove));
+	}
+
+	void onSaleWritten(StudentAcademicDetails sale) {
+		Long appNo = sale.getStudAdmsNo();
+		if (appNo == null || appNo < 0 || appNo > Integer.MAX_VALUE) {
+			return;
+		}
+		int n = appNo.intValue();
+		afterCommit(() -> forHoldersOf(n, s -> s.markSold(n)));
+	}
+
+	void onStatusWritten(AppStatus status) {
+		int n = status.getApp_no();
+		int statusId = status.getStatus() != null ? status.getStatus().getStatus_id() : 0;
+		boolean damaged = isDamaged(status.getIs_active(), statusId);
+		boolean returned = statusId == STATUS_AVAILABLE;
+		afterCommit(() -> forHoldersOf(n, s -> s.markStatus(n, damaged, returned)));
+	}
+
+	// ---------------------------------------------------------
+	// Loading
+	// ---------------------------------------------------------
+
+	private HolderState state(int holderId, int academicYearId, boolean isPro) {
+		HolderKey key = new HolderKey(isPro, holderId, academicYearId);
+		HolderState s = enabled ? holders.get(key) : null;
+		if (s != null && System.currentTimeMillis() - s.loadedAt <= maxAgeMillis) {
+			return s;
+		}
+		HolderState stale = s;
+		s = load(key);
+		if (enabled) {
+			if (holders.size() >= maxHolders) {
+				logger.info("Availability map reached {} holders; clearing", maxHolders);
+				holders.clear();
+			}
+			if (stale == null || !holders.replace(key, stale, s)) {
+				HolderState raced = holders.putIfAbsent(key, s);
+				if (raced != null) {
+					s = raced;
+				}
+			}
+		}
+		return s;
+	}
+
+	private HolderState load(HolderKey key) {
+		List<BalanceTrack> rows = key.pro()
+				? balanceTrackRepository.findActiveBalancesByProAndYear(key.academicYearId(), key.holderId())
+				: balanceTrackRepository.findAppNumberRanges(key.academicYearId(), key.holderId());
+
+		List<AdminApp> masters = key.pro() ? List.of()
+				: adminAppRepository.findActiveByEmpAndYear(key.holderId(), key.academicYearId());
+
+		HolderState s = new HolderState();
+		int min = Integer.MAX_VALUE;
+		int max = Integer.MIN_VALUE;
+		for (BalanceTrack b : rows) {
+			if (isMasterRow(masters, b.getAmount())) {
+				// CO/Admin bucket: count only
+				s.untracked += Math.max(0, b.getAppAvblCnt());
+				continue;
+			}
+			s.held.addRange(b.getAppFrom(), b.getAppTo());
+			s.heldByAmount.computeIfAbsent(b.getAmount(), a -> new AppNumberBitmap()).addRange(b.getAppFrom(),
+					b.getAppTo());
+			min = Math.min(min, b.getAppFrom());
+			max = Math.max(max, b.getAppTo());
+		}
+
+		if (min <= max) {
+			for (Long used : studentAcademicDetailsRepository.findUsedAdmissionNumbersBetween((long) min,
+					(long) max)) {
+				if (used != null && s.held.contains(used.intValue())) {
+					s.sold.add(used.intValue());
+				}
+			}
+
+			// Latest state per number: any damaged row wins, then AVAILABLE (returned)
+			Map<Integer, boolean[]> flags = new LinkedHashMap<>();
+			for (Object[] r : appStatusRepository.findStatusFlagsBetween(min, max)) {
+				int n = ((Number) r[0]).intValue();
+				if (!s.held.contains(n)) {
+					continue;
+				}
+				int isActive = r[1] != null ? ((Number) r[1]).intValue() : 0;
+				int statusId = r[2] != null ? ((Number) r[2]).intValue() : 0;
+				boolean[] f = flags.computeIfAbsent(n, k -> new boolean[2]);
+				f[0] |= isDamaged(isActive, statusId);
+				f[1] |= statusId == STATUS_AVAILABLE;
+			}
+			for (Map.Entry<Integer, boolean[]> e : flags.entrySet()) {
+				if (e.getValue()[0]) {
+					s.damaged.add(e.getKey());
+				} else if (e.getValue()[1]) {
+					s.returned.add(e.getKey());
+				}
+			}
+		}
+
+		s.available = s.held.copy();
+		s.available.removeAll(s.sold);
+		s.available.removeAll(s.damaged);
+		for (Map.Entry<Float, AppNumberBitmap> e : s.heldByAmount.entrySet()) {
+			AppNumberBitmap byAmount = e.getValue().copy();
+			byAmount.removeAll(s.sold);
+			byAmount.removeAll(s.damaged);
+			s.availableByAmount.put(e.getKey(), byAmount);
+		}
+		return s;
+	}
+
+	private void forHoldersOf(int appNo, Consumer<HolderState> change) {
+		for (HolderState s : holders.values()) {
+			synchronized (s) {
+				if (s.held.contains(appNo)) {
+					change.accept(s);
+				}
+			}
+		}
+	}
+
+	private void afterCommit(Runnable change) {
+		if (!enabled) {
+			return;
+		}
+		if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+			change.run();
+			return;
+		}
+		TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+			@Override
+			public void afterCommit() {
+				change.run();
+			}
+		});
+	}
+
+	// The row belongs to a CO/Admin master of the same amount (app_amount or app_fee, as BalanceDeltaEngine matches it)
+	private static boolean isMasterRow(List<AdminApp> masters, Float amount) {
+		if (amount == null) {
+			return false;
+		}
+		for (AdminApp m : masters) {
+			if (amount == m.getApp_amount() || (m.getApp_fee() != null && amount == m.getApp_fee().floatValue())) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private static boolean isDamaged(int isActive, int statusId) {
+		return isActive == 1 && statusId != STATUS_WITH_PRO && statusId != STATUS_AVAILABLE;
+	}
+
+	private static final class HolderState {
+		private final long loadedAt = System.currentTimeMillis();
+		private final AppNumberBitmap held = new AppNumberBitmap();
+		private final Map<Float, AppNumberBitmap> heldByAmount = new HashMap<>();
+		private final AppNumberBitmap sold = new AppNumberBitmap();
+		private final AppNumberBitmap damaged = new AppNumberBitmap();
+		private final AppNumberBitmap returned = new AppNumberBitmap();
+		private AppNumberBitmap available;
+		private final Map<Float, AppNumberBitmap> availableByAmount = new HashMap<>();
+		private long untracked;
+
+		void markSold(int n) {
+			if (sold.add(n)) {
+				setAvailable(n, false);
+			}
+		}
+
+		void markStatus(int n, boolean isDamaged, boolean isReturned) {
+			if (isDamaged) {
+				damaged.add(n);
+				returned.remove(n);
+			} else {
+				damaged.remove(n);
+				if (isReturned) {
+					returned.add(n);
+				} else {
+					returned.remove(n);
+				}
+			}
+			setAvailable(n, !damaged.contains(n) && !sold.contains(n));
+		}
+
+		private void setAvailable(int n, boolean value) {
+			for (Map.Entry<Float, AppNumberBitmap> e : heldByAmount.entrySet()) {
+				if (e.getValue().contains(n)) {
+					AppNumberBitmap byAmount = availableByAmount.get(e.getKey());
+					if (value) {
+						byAmount.add(n);
+					} else {
+						byAmount.remove(n);
+					}
+				}
+			}
+			if (value) {
+				available.add(n);
+			} else {
+				available.remove(n);
+			}
+		}
+	}
+}
@@ -62,6 +62,7 @@ public class ApplicationDamagedService {
     @Autowired public DgmRepository dgmRepository;
     @Autowired public ZoneRepository zoneRepository;
     @Autowired private StudentAcademicDetailsRepository studentAcademicDetailsRepository;
+    @Autowired private CounterOutbox counterOutbox;
 
     // ---------------------- READ METHODS (CACHEABLE) ----------------------
 
@@ -175,6 +176,7 @@ public class ApplicationDamagedService {
 
     // ---------------------- WRITE METHODS ----------------------
 
+  @Transactional
   public AppStatusResponseDTO  saveOrUpdateApplicationStatus(ApplicationDamagedDto dto) {
  
         if (dto == null)
@@ -251,6 +253,11 @@ public class ApplicationDamagedService {
         // 5️⃣ Save
         AppStatus saved = appStatusRepository.save(appStatus);
  
+        // Only PRO-held (status 1) or untracked numbers get here, so this is a new damage
+        if (saved.getIs_active() == 1 && dto.getStatusId() != 1 && dto.getStatusId() != 3) {
+            counterOutbox.recordDamage(saved.getApp_no());
+        }
+ 
         return convertToDTO(saved);
     }
     private AppStatusResponseDTO convertToDTO(AppStatus entity) {
@@ -0,0 +1,169 @@
+package com.application.service;
+
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.stereotype.Service;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Tuple;
+
+/**
+ * Fetch plan for the application detail screens
+ * ({@link ApplicationFastSale#getSingleApplicationDetails} and
+ * {@link StudentAdmissionService#getApplicationDetailsByAdmissionNo}).
+ *
+ * Everything is read as scalar projections, so no entity (and none of its
+ * eager @ManyToOne graph) is loaded:
+ * - {@link #findDetail}: one row with the academic record, its lookups,
+ *   personal details, orientation and best batch fee, father, mother,
+ *   address and the referring employee
+ * - {@link #findSiblingsAndConcessions}: the sibling x concession rows for
+ *   the student, with class / relation / type / reason / employee names
+ *
+ * Column aliases are the keys callers read from the returned tuples.
+ */
+@Service
+class ApplicationDetailsReader {
+
+	private static final String DETAIL = """
+			SELECT a.stud_adms_id AS studAdmsId, a.studAdmsNo AS studAdmsNo, a.version AS version,
+			       a.first_name AS firstName, a.last_name AS lastName, a.apaar_no AS apaarNo,
+			       a.app_sale_date AS appSaleDate, a.ht_no AS htNo, a.score_marks AS scoreMarks,
+			       a.pre_school_name AS preSchoolName, a.pro_receipt_no AS proReceiptNo,
+			       a.admission_referred_by AS referredBy,
+			       referrer.first_name AS referrerFirstName, referrer.last_name AS referrerLastName,
+			       yr.acdcYearId AS academicYearId, yr.academicYear AS academicYearName,
+			       cls.classId AS classId, cls.className AS className,
+			       cmps.campusId AS campusId, cmps.campusName AS campusName,
+			       cmpsCity.cityId AS cityId, cmpsCity.cityName AS cityName,
+			       quota.quota_id AS quotaId, quota.quota_name AS quotaName,
+			       gender.gender_id AS genderId, gender.genderName AS genderName,
+			       admsType.adms_type_id AS admissionTypeId, admsType.adms_type_name AS admissionTypeName,
+			       studType.stud_type_id AS studentTypeId, studType.stud_type AS studentTypeName,
+			       studyType.study_type_id AS studyTypeId, studyType.study_type_name AS studyTypeName,
+			       preState.stateId AS preSchoolStateId, preState.stateName AS preSchoolStateName,
+			       preDistrict.districtId AS preSchoolDistrictId, preDistrict.districtName AS preSchoolDistrictName,
+			       personal.stud_aadhaar_no AS aadharNo, personal.dob AS dob,
+			       caste.caste_id AS casteId, caste.caste_type AS casteName,
+			       religion.religion_id AS religionId, religion.religion_type AS religionName,
+			       bloodGroup.blood_group_id AS bloodGroupId, bloodGroup.blood_group_name AS bloodGroupName,
+			       foodType.food_type_id AS foodTypeId, foodType.food_type AS foodTypeName,
+			       orientation.orientationId AS orientationId, orientation.orientation_name AS orientationName,
+			       fee.orientationStartDate AS orientationStartDate, fee.orientationEndDate AS orientationEndDate,
+			       fee.orientationFee AS orientationFee,
+			       father.parentId AS fatherId, father.name AS fatherName, father.mobileNo AS fatherMobile,
+			       father.email AS fatherEmail, father.occupation AS fatherOccupation,
+			       fatherSector.occupation_sector_id AS fatherSectorId, fatherSector.sector_name AS fatherSectorName,
+			       mother.parentId AS motherId, mother.name AS motherName, mother.mobileNo AS motherMobile,
+			       mother.email AS motherEmail, mother.occupation AS motherOccupation,
+			       motherSector.occupation_sector_id AS motherSectorId, motherSector.sector_name AS motherSectorName,
+			       address.stud_addrs_id AS addressId, address.house_no AS doorNo, address.street AS street,
+			       address.area AS area, address.landmark AS landmark, address.postalCode AS pincode,
+			       addrState.stateId AS addressStateId, addrState.stateName AS addressStateName,
+			       addrDistrict.districtId AS addressDistrictId, addrDistrict.districtName AS addressDistrictName,
+			       addrDistrictState.stateId AS addressDistrictStateId,
+			       addrDistrictState.stateName AS addressDistrictStateName,
+			       addrCity.cityId AS addressCityId, addrCity.cityName AS addressCityName,
+			       addrMandal.mandal_id AS addressMandalId, addrMandal.mandal_name AS addressMandalName
+			FROM StudentAcademicDetails a
+			LEFT JOIN a.academicYear yr
+			LEFT JOIN a.studentClass cls
+			LEFT JOIN a.campus cmps
+			LEFT JOIN cmps.city cmpsCity
+			LEFT JOIN a.quota quota
+			LEFT JOIN a.gender gender
+			LEFT JOIN a.admissionType admsType
+			LEFT JOIN a.studentType studType
+			LEFT JOIN a.studyType studyType
+			LEFT JOIN a.state preState
+			LEFT JOIN a.district preDistrict
+			LEFT JOIN Employee referrer ON cast(referrer.emp_id as String) = a.admission_referred_by
+			LEFT JOIN StudentPersonalDetails personal ON personal.studentAcademicDetails = a
+			LEFT JOIN personal.caste caste
+			LEFT JOIN personal.religion religion
+			LEFT JOIN personal.bloodGroup bloodGroup
+			LEFT JOIN personal.foodType foodType
+			LEFT JOIN StudentOrientationDetails so ON so.studentAcademicDetails = a
+			LEFT JOIN so.orientation orientation
+			LEFT JOIN CmpsOrientationBatchFeeView fee ON fee.orientationId = orientation.orientationId
+			       AND fee.cmpsId = cmps.campusId AND fee.classId = cls.classId
+			LEFT JOIN ParentDetails father ON father.studentAcademicDetails = a
+			       AND father.studentRelation.relationId = 1
+			LEFT JOIN father.sector fatherSector
+			LEFT JOIN ParentDetails mother ON mother.studentAcademicDetails = a
+			       AND mother.studentRelation.relationId = 2
+			LEFT JOIN mother.sector motherSector
+			LEFT JOIN StudentAddress address ON address.studentAcademicDetails = a
+			LEFT JOIN address.state addrState
+			LEFT JOIN address.district addrDistrict
+			LEFT JOIN addrDistrict.state addrDistrictState
+			LEFT JOIN address.city addrCity
+			LEFT JOIN address.mandal addrMandal
+			WHERE a.studAdmsNo = :studAdmsNo
+			ORDER BY fee.orientationStartDate ASC NULLS LAST
+			""";
+
+	private static final String SIBLINGS_AND_CONCESSIONS = """
+			SELECT sibling.stud_sibling_id AS siblingId, sibling.sibling_name AS siblingName,
+			       sibling.sibling_school AS siblingSchool,
+			       siblingClass.classId AS siblingClassId, siblingClass.className AS siblingClassName,
+			       relation.relationId AS relationId, relation.relationType AS relationName,
+			       conc.stud_conc_detls_id AS concessionId, conc.conc_amount AS amount, conc.comments AS comments,
+			       concType.concTypeId AS concessionTypeId, concType.conc_type AS concessionTypeName,
+			       reason.conc_reason_id AS reasonId, reason.conc_reason AS reasonName,
+			       conc.conc_issued_by AS givenById,
+			       givenBy.first_name AS givenByFirstName, givenBy.last_name AS givenByLastName,
+			       conc.conc_authorised_by AS authorizedById,
+			       authorizedBy.first_name AS authorizedByFirstName, authorizedBy.last_name AS authorizedByLastName,
+			       conc.conc_referred_by AS referredById,
+			       referredBy.first_name AS referredByFirstName, referredBy.last_name AS referredByLastName
+			FROM StudentAcademicDetails a
+			LEFT JOIN Sibling sibling ON sibling.studentAcademicDetails = a
+			LEFT JOIN sibling.studentClass siblingClass
+			LEFT JOIN sibling.studentRelation relation
+			LEFT JOIN StudentConcessionType conc ON conc.studAdmsId = a.stud_adms_id
+			LEFT JOIN conc.concessionType concType
+			LEFT JOIN conc.concessionReason reason
+			LEFT JOIN Employee givenBy ON givenBy.emp_id = conc.conc_issued_by
+			LEFT JOIN Employee authorizedBy ON authorizedBy.emp_id = conc.conc_authorised_by
+			LEFT JOIN Employee referredBy ON referredBy.emp_id = conc.conc_referred_by
+			WHERE a.studAdmsNo = :studAdmsNo
+			ORDER BY sibling.stud_sibling_id, conc.stud_conc_detls_id
+			""";
+
+	@PersistenceContext
+	private EntityManager entityManager;
+
+	/**
+	 * The single-valued part of the screen. Several fee batches (or duplicate
+	 * parent rows) multiply the join; the first row carries the earliest
+	 * batch, matching findSingleBestBatchDetails.
+	 */
+	Optional<Tuple> findDetail(Long studAdmsNo) {
+		return entityManager.createQuery(DETAIL, Tuple.class)
+				.setParameter("studAdmsNo", studAdmsNo)
+				.setMaxResults(1)
+				.getResultStream()
+				.findFirst();
+	}
+
+	/**
+	 * Siblings crossed with concessions; callers de-duplicate on siblingId /
+	 * concessionId. Both lists are a handful of rows per student. Keyed by
+	 * admission number so it can run alongside {@link #findDetail}.
+	 */
+	List<Tuple> findSiblingsAndConcessions(Long studAdmsNo) {
+		return entityManager.createQuery(SIBLINGS_AND_CONCESSIONS, Tuple.class)
+				.setParameter("studAdmsNo", studAdmsNo)
+				.getResultList();
+	}
+
+	static String fullName(String firstName, String lastName) {
+		if (firstName == null) {
+			return null;
+		}
+		return firstName + (lastName != null ? " " + lastName : "");
+	}
+}
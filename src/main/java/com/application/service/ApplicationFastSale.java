@@ -3,15 +3,21 @@ package com.application.service;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.Date;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
 import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
 
+import com.application.config.ParallelReads;
 import com.application.dto.AddressDetailsDTO;
 import com.application.dto.ApplicationFastDetailsGet;
 import com.application.dto.ConcessionConfirmationDTO;
@@ -24,6 +30,26 @@ import com.application.dto.StudentApplicationUpdateDTO;
 import com.application.dto.StudentCollegeConfirmationDto;
 import com.application.dto.StudentFastSaleDTO;
 import com.application.entity.AcademicYear;
+import com.application.entity.AdmissionType;
+import com.application.entity.BloodGroup;
+import com.application.entity.CampusSchoolType;
+import com.application.entity.Caste;
+import com.application.entity.City;
+import com.application.entity.ConcessionReason;
+import com.application.entity.ConcessionType;
+import com.application.entity.District;
+import com.application.entity.FoodType;
+import com.application.entity.Gender;
+import com.application.entity.Mandal;
+import com.application.entity.Occupation;
+import com.application.entity.Orientation;
+import com.application.entity.OrgBank;
+import com.application.entity.OrgBankBranch;
+import com.application.entity.PaymentMode;
+import com.application.entity.Quota;
+import com.application.entity.Religion;
+import com.application.entity.Sector;
+import com.application.entity.State;
 import com.application.entity.Campus;
 import com.application.entity.Distribution;
 import com.application.entity.Employee;
@@ -39,9 +65,15 @@ import com.application.entity.StudentConcessionType;
 import com.application.entity.StudentOrientationDetails;
 import com.application.entity.StudentPersonalDetails;
 import com.application.entity.StudentRelation;
+import com.application.entity.StudentType;
 import com.application.entity.StudyType;
+import com.application.exception.ApplicationAlreadyExistsException;
 import com.application.repository.*;
+import jakarta.persistence.EntityManager;
 import jakarta.persistence.EntityNotFoundException;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Tuple;
 import jakarta.transaction.Transactional;
 
 @Service
@@ -52,6 +84,8 @@ public class ApplicationFastSale {
 	@Autowired
 	private DistributionRepository distributionRepository;
 	@Autowired
+	private DistributionRangeIndex distributionRangeIndex;
+	@Autowired
 	private AcademicYearRepository academicYearRepository;
 	@Autowired
 	private QuotaRepository quotaRepository;
@@ -125,6 +159,18 @@ public class ApplicationFastSale {
 	private CmpsOrientationBatchFeeViewRepository cmpsOrientationBatchFeeViewRepository;
 	@Autowired
 	CampusSchoolTypeRepository schoolTypeRepository;
+	@Autowired
+	private ReferenceDataRegistry referenceDataRegistry;
+	@Autowired
+	private AdmissionNumberFilter admissionNumberFilter;
+	@Autowired
+	private ApplicationDetailsReader applicationDetailsReader;
+	@Autowired
+	private CounterOutbox counterOutbox;
+	@Autowired
+	private ParallelReads parallelReads;
+	@PersistenceContext
+	private EntityManager entityManager;
 
 	ApplicationFastSale(EmployeeRepository employeeRepository, ReligionRepository religionRepository,
 			DgmRepository dgmRepository) {
@@ -140,7 +186,11 @@ public class ApplicationFastSale {
 		if (admissionNumberNumeric == null) {
 			throw new IllegalArgumentException("Admission Number must be provided.");
 		}
-		Distribution distribution = distributionRepository.findProDistributionForAdmissionNumber(admissionNumberNumeric)
+		if (admissionNumberFilter.isUsed(formData.getAcademicYearId(), admissionNumberNumeric)) {
+			throw new ApplicationAlreadyExistsException(
+					"Admission Number " + admissionNumberNumeric + " has already been used.");
+		}
+		Distribution distribution = distributionRangeIndex.findProDistributionForAdmissionNumber(admissionNumberNumeric)
 				.orElseThrow(() -> new EntityNotFoundException(
 						"No PRO has been assigned for Admission Number: " + admissionNumberNumeric));
 		Employee pro = distribution.getIssuedToEmployee();
@@ -155,7 +205,7 @@ public class ApplicationFastSale {
 
 		// Set from DTO
 		if (formData.getAcademicYearId() != null) {
-			academicYearRepository.findById(formData.getAcademicYearId()).ifPresent(academicDetails::setAcademicYear);
+			referenceDataRegistry.reference(AcademicYear.class, formData.getAcademicYearId()).ifPresent(academicDetails::setAcademicYear);
 		}
 		academicDetails.setStudAdmsNo(formData.getStudAdmsNo());
 		academicDetails.setFirst_name(formData.getFirstName());
@@ -168,24 +218,24 @@ public class ApplicationFastSale {
 
 		// Quota (Admission referred by)
 		if (formData.getQuotaId() != null) {
-			quotaRepository.findById(formData.getQuotaId()).ifPresent(academicDetails::setQuota);
+			referenceDataRegistry.reference(Quota.class, formData.getQuotaId()).ifPresent(academicDetails::setQuota);
 		}
 
 		// Gender
 		if (formData.getGenderId() != null) {
-			genderRepository.findById(formData.getGenderId()).ifPresent(academicDetails::setGender);
+			referenceDataRegistry.reference(Gender.class, formData.getGenderId()).ifPresent(academicDetails::setGender);
 		}
 
 		if (formData.getAppTypeId() != null)
-			admissionTypeRepository.findById(formData.getAppTypeId()).ifPresent(academicDetails::setAdmissionType);
+			referenceDataRegistry.reference(AdmissionType.class, formData.getAppTypeId()).ifPresent(academicDetails::setAdmissionType);
 
 		// Student Type
 		if (formData.getStudentTypeId() != null) {
-			studentTypeRepository.findById(formData.getStudentTypeId()).ifPresent(academicDetails::setStudentType);
+			referenceDataRegistry.reference(StudentType.class, formData.getStudentTypeId()).ifPresent(academicDetails::setStudentType);
 		}
 
 		// Class and Campus/Branch
-		StudentClass studentClass = classRepository.findById(formData.getClassId())
+		StudentClass studentClass = referenceDataRegistry.reference(StudentClass.class, formData.getClassId())
 				.orElseThrow(() -> new EntityNotFoundException("Invalid Class ID: " + formData.getClassId()));
 		academicDetails.setStudentClass(studentClass);
 
@@ -198,15 +248,16 @@ public class ApplicationFastSale {
 		academicDetails.setEmployee(pro);
 
 		// Defaults
-		StudyType defaultStudyType = studyTypeRepository.findById(1)
+		StudyType defaultStudyType = referenceDataRegistry.reference(StudyType.class, 1)
 				.orElseThrow(() -> new EntityNotFoundException("Default StudyType (ID: 1) not found"));
 		academicDetails.setStudyType(defaultStudyType);
 
-		Status defaultStatus = statusRepository.findById(9)
+		Status defaultStatus = referenceDataRegistry.reference(Status.class, 9)
 				.orElseThrow(() -> new EntityNotFoundException("Default Status (ID: 2) not found"));
 		academicDetails.setStatus(defaultStatus);
 
 		StudentAcademicDetails savedAcademicDetails = studentAcademicDetailsRepository.save(academicDetails);
+		counterOutbox.recordSale(savedAcademicDetails);
 
 		// --- 2. Save Personal Details (minimal: DOB, defaults) ---
 		StudentPersonalDetails personalDetails = new StudentPersonalDetails();
@@ -227,7 +278,7 @@ public class ApplicationFastSale {
 		// --- 4. Save Parent Details (Father only, if provided) ---
 		if (formData.getFatherName() != null || formData.getFatherMobileNo() != null) {
 
-			StudentRelation fatherRelation = relationRepository.findById(1) // Assuming 1 = Father
+			StudentRelation fatherRelation = referenceDataRegistry.reference(StudentRelation.class, 1) // Assuming 1 = Father
 					.orElseThrow(() -> new EntityNotFoundException("StudentRelation 'Father' (ID: 1) not found"));
 
 			ParentDetails parent = new ParentDetails();
@@ -253,13 +304,13 @@ public class ApplicationFastSale {
 			if (addressDTO.getPincode() != null)
 				address.setPostalCode(addressDTO.getPincode());
 			if (addressDTO.getStateId() != null)
-				stateRepository.findById(addressDTO.getStateId()).ifPresent(address::setState);
+				referenceDataRegistry.reference(State.class, addressDTO.getStateId()).ifPresent(address::setState);
 			if (addressDTO.getCityId() != null)
-				cityRepository.findById(addressDTO.getCityId()).ifPresent(address::setCity);
+				referenceDataRegistry.reference(City.class, addressDTO.getCityId()).ifPresent(address::setCity);
 			if (addressDTO.getMandalId() != null)
-				mandalRepository.findById(addressDTO.getMandalId()).ifPresent(address::setMandal);
+				referenceDataRegistry.reference(Mandal.class, addressDTO.getMandalId()).ifPresent(address::setMandal);
 			if (addressDTO.getDistrictId() != null)
-				districtRepository.findById(addressDTO.getDistrictId()).ifPresent(address::setDistrict);
+				referenceDataRegistry.reference(District.class, addressDTO.getDistrictId()).ifPresent(address::setDistrict);
 
 			// --- FIX 1: Use the 'createdBy' from the AddressDetailsDTO ---
 			address.setCreated_by(addressDTO.getCreatedBy());
@@ -285,7 +336,7 @@ public class ApplicationFastSale {
 			paymentDetails.setStatus(defaultStatus);
 
 			if (paymentDTO.getPaymentModeId() != null) {
-				paymentModeRepository.findById(paymentDTO.getPaymentModeId()).ifPresent(paymentDetails::setPaymenMode);
+				referenceDataRegistry.reference(PaymentMode.class, paymentDTO.getPaymentModeId()).ifPresent(paymentDetails::setPaymenMode);
 			}
 
 			PaymentDetails savedPaymentDetails = paymentDetailsRepository.save(paymentDetails);
@@ -310,11 +361,11 @@ public class ApplicationFastSale {
 				if (paymentDTO.getOrganisationId() != null)
 					transaction.setOrg_id(paymentDTO.getOrganisationId());
 				if (paymentDTO.getBankId() != null)
-					orgBankRepository.findById(paymentDTO.getBankId()).ifPresent(transaction::setOrgBank);
+					referenceDataRegistry.reference(OrgBank.class, paymentDTO.getBankId()).ifPresent(transaction::setOrgBank);
 				if (paymentDTO.getBranchId() != null)
-					orgBankBranchRepository.findById(paymentDTO.getBranchId()).ifPresent(transaction::setOrgBankBranch);
+					referenceDataRegistry.reference(OrgBankBranch.class, paymentDTO.getBranchId()).ifPresent(transaction::setOrgBankBranch);
 				if (paymentDTO.getCityId() != null)
-					cityRepository.findById(paymentDTO.getCityId()).ifPresent(transaction::setCity);
+					referenceDataRegistry.reference(City.class, paymentDTO.getCityId()).ifPresent(transaction::setCity);
 
 				studentApplicationTransactionRepository.save(transaction);
 			}
@@ -494,7 +545,7 @@ public class ApplicationFastSale {
 		// ==============================================================
 		// PART 1: VALIDATE PRO and LOOKUP/FETCH Academic Record
 		// ==============================================================
-		Distribution distribution = distributionRepository.findProDistributionForAdmissionNumber(admissionNumberNumeric)
+		Distribution distribution = distributionRangeIndex.findProDistributionForAdmissionNumber(admissionNumberNumeric)
 				.orElseThrow(() -> new EntityNotFoundException(
 						"No PRO has been assigned for Admission Number: " + admissionNumberNumeric));
 		Employee pro = distribution.getIssuedToEmployee();
@@ -507,6 +558,9 @@ public class ApplicationFastSale {
 		// (UPSERT) ---
 		StudentAcademicDetails academicDetails = studentAcademicDetailsRepository
 				.findByStudAdmsNo(admissionNumberNumeric).orElseGet(StudentAcademicDetails::new);
+		// A new record has no child rows yet: skip the per-child lookups so every
+		// insert below is queued and flushed as one ordered batch
+		boolean newRecord = academicDetails.getStud_adms_id() == 0;
 
 		// --- 1. Map/Update Academic Details (Conditional Update) ---
 		academicDetails.setIs_active(1);
@@ -521,17 +575,17 @@ public class ApplicationFastSale {
 		if (formData.getApaarNo() != null)
 			academicDetails.setApaar_no(formData.getApaarNo());
 		if (formData.getGenderId() != null)
-			genderRepository.findById(formData.getGenderId()).ifPresent(academicDetails::setGender);
+			referenceDataRegistry.reference(Gender.class, formData.getGenderId()).ifPresent(academicDetails::setGender);
 		if (formData.getQuotaId() != null)
-			quotaRepository.findById(formData.getQuotaId()).ifPresent(academicDetails::setQuota);
+			referenceDataRegistry.reference(Quota.class, formData.getQuotaId()).ifPresent(academicDetails::setQuota);
 		if (formData.getAppTypeId() != null)
-			admissionTypeRepository.findById(formData.getAppTypeId()).ifPresent(academicDetails::setAdmissionType);
+			referenceDataRegistry.reference(AdmissionType.class, formData.getAppTypeId()).ifPresent(academicDetails::setAdmissionType);
 		if (formData.getAcademicYearId() != null)
-			academicYearRepository.findById(formData.getAcademicYearId()).ifPresent(academicDetails::setAcademicYear);
+			referenceDataRegistry.reference(AcademicYear.class, formData.getAcademicYearId()).ifPresent(academicDetails::setAcademicYear);
 		if (formData.getStudentTypeId() != null)
-			studentTypeRepository.findById(formData.getStudentTypeId()).ifPresent(academicDetails::setStudentType);
+			referenceDataRegistry.reference(StudentType.class, formData.getStudentTypeId()).ifPresent(academicDetails::setStudentType);
 		if (formData.getSchoolType() != null)
-			schoolTypeRepository.findById(formData.getSchoolType()).ifPresent(academicDetails::setCampusSchoolType);
+			referenceDataRegistry.reference(CampusSchoolType.class, formData.getSchoolType()).ifPresent(academicDetails::setCampusSchoolType);
 
 		// Fields that must be set/updated regardless of prior state
 		academicDetails.setAdms_date(LocalDate.now());
@@ -552,12 +606,12 @@ public class ApplicationFastSale {
 		// Previous School Details
 		academicDetails.setPre_school_name(formData.getSchoolName());
 		if (formData.getSchoolStateId() != null && formData.getSchoolStateId() > 0)
-			stateRepository.findById(formData.getSchoolStateId()).ifPresent(academicDetails::setState);
+			referenceDataRegistry.reference(State.class, formData.getSchoolStateId()).ifPresent(academicDetails::setState);
 		if (formData.getSchoolDistrictId() != null && formData.getSchoolDistrictId() > 0)
-			districtRepository.findById(formData.getSchoolDistrictId()).ifPresent(academicDetails::setDistrict);
+			referenceDataRegistry.reference(District.class, formData.getSchoolDistrictId()).ifPresent(academicDetails::setDistrict);
 
 		if (formData.getClassId() != null) {
-			StudentClass studentClass = classRepository.findById(formData.getClassId())
+			StudentClass studentClass = referenceDataRegistry.reference(StudentClass.class, formData.getClassId())
 					.orElseThrow(() -> new EntityNotFoundException("Invalid Class ID: " + formData.getClassId()));
 			academicDetails.setStudentClass(studentClass);
 		}
@@ -572,19 +626,23 @@ public class ApplicationFastSale {
 		academicDetails.setEmployee(pro);
 
 		// Defaults/Status Update
-		StudyType defaultStudyType = studyTypeRepository.findById(1)
+		StudyType defaultStudyType = referenceDataRegistry.reference(StudyType.class, 1)
 				.orElseThrow(() -> new EntityNotFoundException("Default StudyType (ID: 1) not found"));
 		academicDetails.setStudyType(defaultStudyType);
 
-		Status defaultStatus = statusRepository.findById(2)
+		Status defaultStatus = referenceDataRegistry.reference(Status.class, 2)
 				.orElseThrow(() -> new EntityNotFoundException("Default Status (ID: 2) not found"));
 		academicDetails.setStatus(defaultStatus);
 
 		StudentAcademicDetails savedAcademicDetails = studentAcademicDetailsRepository.save(academicDetails);
+		if (newRecord) {
+			counterOutbox.recordSale(savedAcademicDetails);
+		}
 
 		// --- 2. Save/Update Personal Details ---
-		StudentPersonalDetails personalDetails = personalDetailsRepository
-				.findByStudentAcademicDetails(savedAcademicDetails).orElseGet(StudentPersonalDetails::new);
+		StudentPersonalDetails personalDetails = newRecord ? new StudentPersonalDetails()
+				: personalDetailsRepository.findByStudentAcademicDetails(savedAcademicDetails)
+						.orElseGet(StudentPersonalDetails::new);
 
 		personalDetails.setStudentAcademicDetails(savedAcademicDetails);
 		personalDetails.setCreated_by(formData.getCreatedBy());
@@ -595,19 +653,20 @@ public class ApplicationFastSale {
 			personalDetails.setDob(formData.getDob());
 
 		if (formData.getCasteId() != null)
-			casteRepository.findById(formData.getCasteId()).ifPresent(personalDetails::setCaste);
+			referenceDataRegistry.reference(Caste.class, formData.getCasteId()).ifPresent(personalDetails::setCaste);
 		if (formData.getReligionId() != null)
-			religionRepository.findById(formData.getReligionId()).ifPresent(personalDetails::setReligion);
+			referenceDataRegistry.reference(Religion.class, formData.getReligionId()).ifPresent(personalDetails::setReligion);
 		if (formData.getBloodGroupId() != null)
-			bloodGroupRepository.findById(formData.getBloodGroupId()).ifPresent(personalDetails::setBloodGroup);
+			referenceDataRegistry.reference(BloodGroup.class, formData.getBloodGroupId()).ifPresent(personalDetails::setBloodGroup);
 		if (formData.getFoodTypeId() != null)
-			foodTypeRepository.findById(formData.getFoodTypeId()).ifPresent(personalDetails::setFoodType);
+			referenceDataRegistry.reference(FoodType.class, formData.getFoodTypeId()).ifPresent(personalDetails::setFoodType);
 
 		personalDetailsRepository.save(personalDetails);
 
 		// --- 3. Save/Update Student Orientation Details ---
-		StudentOrientationDetails orientationDetails = orientationDetailsRepository
-				.findByStudentAcademicDetails(savedAcademicDetails).orElseGet(StudentOrientationDetails::new);
+		StudentOrientationDetails orientationDetails = newRecord ? new StudentOrientationDetails()
+				: orientationDetailsRepository.findByStudentAcademicDetails(savedAcademicDetails)
+						.orElseGet(StudentOrientationDetails::new);
 
 		orientationDetails.setStudentAcademicDetails(savedAcademicDetails);
 		if (formData.getOrientationId() != null)
@@ -615,14 +674,15 @@ public class ApplicationFastSale {
 		orientationDetailsRepository.save(orientationDetails);
 
 		// --- 4. Save/Update Parent Details (Father and Mother) ---
-		StudentRelation fatherRelation = relationRepository.findById(1)
+		StudentRelation fatherRelation = referenceDataRegistry.reference(StudentRelation.class, 1)
 				.orElseThrow(() -> new EntityNotFoundException("StudentRelation 'Father' (ID: 1) not found"));
 
 		// FATHER UPSERT
 		if (formData.getFatherName() != null || formData.getFatherMobileNo() != null) {
-			ParentDetails father = parentDetailsRepository
-					.findByStudentAcademicDetailsAndStudentRelationRelationId(savedAcademicDetails, 1)
-					.orElseGet(ParentDetails::new);
+			ParentDetails father = newRecord ? new ParentDetails()
+					: parentDetailsRepository
+							.findByStudentAcademicDetailsAndStudentRelationRelationId(savedAcademicDetails, 1)
+							.orElseGet(ParentDetails::new);
 
 			father.setStudentAcademicDetails(savedAcademicDetails);
 			father.setStudentRelation(fatherRelation);
@@ -635,21 +695,22 @@ public class ApplicationFastSale {
 
 			father.setEmail(formData.getFatherEmail());
 			if (formData.getFatherSectorId() != null)
-				sectorRepository.findById(formData.getFatherSectorId()).ifPresent(father::setSector);
+				referenceDataRegistry.reference(Sector.class, formData.getFatherSectorId()).ifPresent(father::setSector);
 			if (formData.getFatherOccupationId() != null)
-				occupationRepository.findById(formData.getFatherOccupationId())
+				referenceDataRegistry.find(Occupation.class, formData.getFatherOccupationId())
 						.ifPresent(occupation -> father.setOccupation(occupation.getOccupation_name()));
 			parentDetailsRepository.save(father);
 		}
 
 		// MOTHER UPSERT
 		if (formData.getMotherName() != null || formData.getMotherMobileNo() != null) {
-			StudentRelation motherRelation = relationRepository.findById(2)
+			StudentRelation motherRelation = referenceDataRegistry.reference(StudentRelation.class, 2)
 					.orElseThrow(() -> new EntityNotFoundException("StudentRelation 'Mother' (ID: 2) not found"));
 
-			ParentDetails mother = parentDetailsRepository
-					.findByStudentAcademicDetailsAndStudentRelationRelationId(savedAcademicDetails, 2)
-					.orElseGet(ParentDetails::new);
+			ParentDetails mother = newRecord ? new ParentDetails()
+					: parentDetailsRepository
+							.findByStudentAcademicDetailsAndStudentRelationRelationId(savedAcademicDetails, 2)
+							.orElseGet(ParentDetails::new);
 
 			mother.setStudentAcademicDetails(savedAcademicDetails);
 			mother.setStudentRelation(motherRelation);
@@ -659,9 +720,9 @@ public class ApplicationFastSale {
 			mother.setMobileNo(formData.getMotherMobileNo());
 			mother.setEmail(formData.getMotherEmail());
 			if (formData.getMotherSectorId() != null)
-				sectorRepository.findById(formData.getMotherSectorId()).ifPresent(mother::setSector);
+				referenceDataRegistry.reference(Sector.class, formData.getMotherSectorId()).ifPresent(mother::setSector);
 			if (formData.getMotherOccupationId() != null)
-				occupationRepository.findById(formData.getMotherOccupationId())
+				referenceDataRegistry.find(Occupation.class, formData.getMotherOccupationId())
 						.ifPresent(occupation -> mother.setOccupation(occupation.getOccupation_name()));
 			parentDetailsRepository.save(mother);
 		}
@@ -670,8 +731,9 @@ public class ApplicationFastSale {
 		if (formData.getAddressDetails() != null) {
 			AddressDetailsDTO addressDTO = formData.getAddressDetails();
 
-			StudentAddress address = studentAddressRepository.findByStudentAcademicDetails(savedAcademicDetails)
-					.orElseGet(StudentAddress::new);
+			StudentAddress address = newRecord ? new StudentAddress()
+					: studentAddressRepository.findByStudentAcademicDetails(savedAcademicDetails)
+							.orElseGet(StudentAddress::new);
 
 			address.setStudentAcademicDetails(savedAcademicDetails);
 			address.setHouse_no(addressDTO.getDoorNo());
@@ -683,13 +745,13 @@ public class ApplicationFastSale {
 
 			// CRITICAL FIX: Ensure ID is present and non-zero before calling findById
 			if (addressDTO.getStateId() != null && addressDTO.getStateId() > 0)
-				stateRepository.findById(addressDTO.getStateId()).ifPresent(address::setState);
+				referenceDataRegistry.reference(State.class, addressDTO.getStateId()).ifPresent(address::setState);
 			if (addressDTO.getCityId() != null && addressDTO.getCityId() > 0)
-				cityRepository.findById(addressDTO.getCityId()).ifPresent(address::setCity);
+				referenceDataRegistry.reference(City.class, addressDTO.getCityId()).ifPresent(address::setCity);
 			if (addressDTO.getMandalId() != null && addressDTO.getMandalId() > 0)
-				mandalRepository.findById(addressDTO.getMandalId()).ifPresent(address::setMandal);
+				referenceDataRegistry.reference(Mandal.class, addressDTO.getMandalId()).ifPresent(address::setMandal);
 			if (addressDTO.getDistrictId() != null && addressDTO.getDistrictId() > 0) // <--- FIX HERE
-				districtRepository.findById(addressDTO.getDistrictId()).ifPresent(address::setDistrict);
+				referenceDataRegistry.reference(District.class, addressDTO.getDistrictId()).ifPresent(address::setDistrict);
 
 			address.setCreated_by(addressDTO.getCreatedBy());
 			studentAddressRepository.save(address);
@@ -697,10 +759,10 @@ public class ApplicationFastSale {
 
 		// --- 6. Save/Update Siblings (UPSERT LOGIC) ---
 		if (formData.getSiblings() != null && !formData.getSiblings().isEmpty()) {
-			Map<String, Sibling> existingSiblingsMap = siblingRepository
-					.findByStudentAcademicDetails(savedAcademicDetails).stream()
-					.filter(s -> s.getSibling_name() != null)
-					.collect(Collectors.toMap(Sibling::getSibling_name, Function.identity(), (first, second) -> first));
+			Map<String, Sibling> existingSiblingsMap = newRecord ? Map.of()
+					: siblingRepository.findByStudentAcademicDetails(savedAcademicDetails).stream()
+							.filter(s -> s.getSibling_name() != null).collect(Collectors.toMap(Sibling::getSibling_name,
+									Function.identity(), (first, second) -> first));
 
 			for (SiblingDTO siblingDto : formData.getSiblings()) {
 				Sibling sibling = existingSiblingsMap.get(siblingDto.getFullName());
@@ -712,24 +774,25 @@ public class ApplicationFastSale {
 				}
 				sibling.setSibling_school(siblingDto.getSchoolName());
 				if (siblingDto.getRelationTypeId() != null)
-					relationRepository.findById(siblingDto.getRelationTypeId()).ifPresent(sibling::setStudentRelation);
+					referenceDataRegistry.reference(StudentRelation.class, siblingDto.getRelationTypeId()).ifPresent(sibling::setStudentRelation);
 				if (siblingDto.getClassId() != null)
-					classRepository.findById(siblingDto.getClassId()).ifPresent(sibling::setStudentClass);
+					referenceDataRegistry.reference(StudentClass.class, siblingDto.getClassId()).ifPresent(sibling::setStudentClass);
 				if (siblingDto.getGenderId() != null)
-					genderRepository.findById(siblingDto.getGenderId()).ifPresent(sibling::setGender);
+					referenceDataRegistry.reference(Gender.class, siblingDto.getGenderId()).ifPresent(sibling::setGender);
 				siblingRepository.save(sibling);
 			}
 		}
 
 		// --- 7. Save/Update Concession Details (UPSERT LOGIC) ---
 		if (formData.getConcessions() != null && !formData.getConcessions().isEmpty()) {
-			Map<Integer, StudentConcessionType> existingConcessionsMap = concessionRepository
-					.findByStudAdmsId(savedAcademicDetails.getStud_adms_id()).stream()
-					.filter(c -> c.getConcessionType() != null).collect(Collectors.toMap(
-							c -> c.getConcessionType().getConcTypeId(), Function.identity(), (first, second) -> first));
-
-			AcademicYear currentYear = academicYearRepository
-					.findById(savedAcademicDetails.getAcademicYear().getAcdcYearId())
+			Map<Integer, StudentConcessionType> existingConcessionsMap = newRecord ? Map.of()
+					: concessionRepository.findByStudAdmsId(savedAcademicDetails.getStud_adms_id()).stream()
+							.filter(c -> c.getConcessionType() != null)
+							.collect(Collectors.toMap(c -> c.getConcessionType().getConcTypeId(), Function.identity(),
+									(first, second) -> first));
+
+			AcademicYear currentYear = referenceDataRegistry
+					.reference(AcademicYear.class, savedAcademicDetails.getAcademicYear().getAcdcYearId())
 					.orElseThrow(() -> new EntityNotFoundException("Academic Year not found"));
 
 			for (ConcessionConfirmationDTO concDto : formData.getConcessions()) {
@@ -741,13 +804,13 @@ public class ApplicationFastSale {
 					concession.setCreated_by(concDto.getCreatedBy());
 					concession.setCreated_Date(LocalDateTime.now());
 					if (concDto.getConcessionTypeId() != null)
-						concessionTypeRepository.findById(concDto.getConcessionTypeId())
+						referenceDataRegistry.reference(ConcessionType.class, concDto.getConcessionTypeId())
 								.ifPresent(concession::setConcessionType);
 				}
 				concession.setConc_amount(concDto.getConcessionAmount());
 				concession.setComments(concDto.getComments());
 				if (concDto.getReasonId() != null)
-					concessionReasonRepository.findById(concDto.getReasonId())
+					referenceDataRegistry.reference(ConcessionReason.class, concDto.getReasonId())
 							.ifPresent(concession::setConcessionReason);
 				concession.setConc_referred_by(concDto.getConcReferedBy());
 				if (concDto.getGivenById() != null)
@@ -774,7 +837,7 @@ public class ApplicationFastSale {
 			paymentDetails.setStudentClass(savedAcademicDetails.getStudentClass());
 			paymentDetails.setStatus(defaultStatus);
 			if (paymentDTO.getPaymentModeId() != null)
-				paymentModeRepository.findById(paymentDTO.getPaymentModeId()).ifPresent(paymentDetails::setPaymenMode);
+				referenceDataRegistry.reference(PaymentMode.class, paymentDTO.getPaymentModeId()).ifPresent(paymentDetails::setPaymenMode);
 
 			PaymentDetails savedPaymentDetails = paymentDetailsRepository.save(paymentDetails);
 
@@ -798,11 +861,11 @@ public class ApplicationFastSale {
 				if (paymentDTO.getOrganisationId() != null)
 					transaction.setOrg_id(paymentDTO.getOrganisationId());
 				if (paymentDTO.getBankId() != null)
-					orgBankRepository.findById(paymentDTO.getBankId()).ifPresent(transaction::setOrgBank);
+					referenceDataRegistry.reference(OrgBank.class, paymentDTO.getBankId()).ifPresent(transaction::setOrgBank);
 				if (paymentDTO.getBranchId() != null)
-					orgBankBranchRepository.findById(paymentDTO.getBranchId()).ifPresent(transaction::setOrgBankBranch);
+					referenceDataRegistry.reference(OrgBankBranch.class, paymentDTO.getBranchId()).ifPresent(transaction::setOrgBankBranch);
 				if (paymentDTO.getCityId() != null)
-					cityRepository.findById(paymentDTO.getCityId()).ifPresent(transaction::setCity);
+					referenceDataRegistry.reference(City.class, paymentDTO.getCityId()).ifPresent(transaction::setCity);
 
 				studentApplicationTransactionRepository.save(transaction);
 			}
@@ -813,42 +876,45 @@ public class ApplicationFastSale {
 
 	// application-sale - colleges - get
 
-	@Transactional
 	public StudentApplicationSingleDTO getSingleApplicationDetails(Long studAdmsNo) {
 
-		// 1. Fetch Academic Entity
-		StudentAcademicDetails academic = studentAcademicDetailsRepository.findByStudAdmsNo(studAdmsNo)
-				.orElseThrow(() -> new EntityNotFoundException("Student not found"));
+		// Both queries key on the admission number, so they run side by side
+		Tuple row;
+		List<Tuple> siblingsAndConcessions;
+		try (ParallelReads.Scope scope = parallelReads.open()) {
+			Supplier<Optional<Tuple>> detail = scope.fork(() -> applicationDetailsReader.findDetail(studAdmsNo));
+			Supplier<List<Tuple>> children = scope
+					.fork(() -> applicationDetailsReader.findSiblingsAndConcessions(studAdmsNo));
+			scope.join();
+			row = detail.get().orElseThrow(() -> new EntityNotFoundException("Student not found"));
+			siblingsAndConcessions = children.get();
+		}
+
+		// 1. Academic record with every single-valued part of the screen
 
 		StudentApplicationSingleDTO dto = new StudentApplicationSingleDTO();
 
 		// --- Academic Basic ---
-		dto.setStudAdmsId(academic.getStud_adms_id());
-		dto.setStudAdmsNo(academic.getStudAdmsNo());
-		dto.setFirstName(academic.getFirst_name());
-		dto.setLastName(academic.getLast_name());
-		dto.setApaarNo(academic.getApaar_no());
-		dto.setAppSaleDate(academic.getApp_sale_date());
-		dto.setHallTicketNo(academic.getHt_no());
-		dto.setScoreMarks(academic.getScore_marks());
-		dto.setPreSchoolName(academic.getPre_school_name());
-
-		// ============================================
-		// 1️⃣ FIX: Admission Referred By (String → ID/Name)
-		// ============================================
-		String ref = academic.getAdmission_referred_by();
+		dto.setStudAdmsId(row.get("studAdmsId", Integer.class));
+		dto.setStudAdmsNo(row.get("studAdmsNo", Long.class));
+		dto.setVersion(row.get("version", Integer.class));
+		dto.setFirstName(row.get("firstName", String.class));
+		dto.setLastName(row.get("lastName", String.class));
+		dto.setApaarNo(row.get("apaarNo", String.class));
+		dto.setAppSaleDate(row.get("appSaleDate", Date.class));
+		dto.setHallTicketNo(row.get("htNo", String.class));
+		dto.setScoreMarks(row.get("scoreMarks", Integer.class));
+		dto.setPreSchoolName(row.get("preSchoolName", String.class));
+
+		// Admission Referred By (String → ID/Name)
+		String ref = row.get("referredBy", String.class);
 
 		if (ref != null && !ref.trim().isEmpty()) {
 			try {
-				Integer empId = Integer.valueOf(ref);
-				dto.setAdmissionReferredByID(empId);
-
-				employeeRepository.findById(empId).ifPresentOrElse(emp -> {
-					String fullName = emp.getFirst_name()
-							+ (emp.getLast_name() != null ? " " + emp.getLast_name() : "");
-					dto.setAdmissionReferredByName(fullName);
-				}, () -> dto.setAdmissionReferredByName(ref));
-
+				dto.setAdmissionReferredByID(Integer.valueOf(ref));
+				String fullName = ApplicationDetailsReader.fullName(row.get("referrerFirstName", String.class),
+						row.get("referrerLastName", String.class));
+				dto.setAdmissionReferredByName(fullName != null ? fullName : ref);
 			} catch (NumberFormatException e) {
 				dto.setAdmissionReferredByID(null);
 				dto.setAdmissionReferredByName(ref); // plain string
@@ -856,236 +922,141 @@ public class ApplicationFastSale {
 		}
 
 		// --- Academic Lookups ---
-		if (academic.getAcademicYear() != null) {
-			dto.setAcademicYearId(academic.getAcademicYear().getAcdcYearId());
-			dto.setAcademicYearName(academic.getAcademicYear().getAcademicYear());
-		}
-		if (academic.getStudentClass() != null) {
-			dto.setClassId(academic.getStudentClass().getClassId());
-			dto.setClassName(academic.getStudentClass().getClassName());
-		}
-		if (academic.getCampus() != null) {
-
-			Campus campus = academic.getCampus();
-
-			dto.setBranchId(campus.getCampusId());
-			dto.setBranchName(campus.getCampusName());
-
-			// ============================================
-			// 2️⃣ FIX: City from Campus
-			// ============================================
-			if (campus.getCity() != null) {
-				dto.setCityId(campus.getCity().getCityId());
-				dto.setCityName(campus.getCity().getCityName());
-			}
-		}
-
-		if (academic.getQuota() != null) {
-			dto.setQuotaId(academic.getQuota().getQuota_id());
-			dto.setQuotaName(academic.getQuota().getQuota_name());
-		}
-		if (academic.getGender() != null) {
-			dto.setGenderId(academic.getGender().getGender_id());
-			dto.setGenderName(academic.getGender().getGenderName());
-		}
-		if (academic.getAdmissionType() != null) {
-			dto.setAdmissionTypeId(academic.getAdmissionType().getAdms_type_id());
-			dto.setAdmissionTypeName(academic.getAdmissionType().getAdms_type_name());
-		}
-		if (academic.getStudentType() != null) {
-			dto.setStudentTypeId(academic.getStudentType().getStud_type_id());
-			dto.setStudentTypeName(academic.getStudentType().getStud_type());
-		}
-		if (academic.getStudyType() != null) {
-			dto.setStudyTypeId(academic.getStudyType().getStudy_type_id());
-			dto.setStudyTypeName(academic.getStudyType().getStudy_type_name());
-		}
+		dto.setAcademicYearId(row.get("academicYearId", Integer.class));
+		dto.setAcademicYearName(row.get("academicYearName", String.class));
+		dto.setClassId(row.get("classId", Integer.class));
+		dto.setClassName(row.get("className", String.class));
+		dto.setBranchId(row.get("campusId", Integer.class));
+		dto.setBranchName(row.get("campusName", String.class));
+		dto.setCityId(row.get("cityId", Integer.class));
+		dto.setCityName(row.get("cityName", String.class));
+		dto.setQuotaId(row.get("quotaId", Integer.class));
+		dto.setQuotaName(row.get("quotaName", String.class));
+		dto.setGenderId(row.get("genderId", Integer.class));
+		dto.setGenderName(row.get("genderName", String.class));
+		dto.setAdmissionTypeId(row.get("admissionTypeId", Integer.class));
+		dto.setAdmissionTypeName(row.get("admissionTypeName", String.class));
+		dto.setStudentTypeId(row.get("studentTypeId", Integer.class));
+		dto.setStudentTypeName(row.get("studentTypeName", String.class));
+		dto.setStudyTypeId(row.get("studyTypeId", Integer.class));
+		dto.setStudyTypeName(row.get("studyTypeName", String.class));
 
 		// Pre-School State & District
-		if (academic.getState() != null) {
-			dto.setPreSchoolStateId(academic.getState().getStateId());
-			dto.setPreSchoolStateName(academic.getState().getStateName());
-		}
-		if (academic.getDistrict() != null) {
-			dto.setPreSchoolDistrictId(academic.getDistrict().getDistrictId());
-			dto.setPreSchoolDistrictName(academic.getDistrict().getDistrictName());
-		}
+		dto.setPreSchoolStateId(row.get("preSchoolStateId", Integer.class));
+		dto.setPreSchoolStateName(row.get("preSchoolStateName", String.class));
+		dto.setPreSchoolDistrictId(row.get("preSchoolDistrictId", Integer.class));
+		dto.setPreSchoolDistrictName(row.get("preSchoolDistrictName", String.class));
 
 		// --- Personal Details ---
-		personalDetailsRepository.findByStudentAcademicDetails(academic).ifPresent(personal -> {
-			dto.setAadharNo(personal.getStud_aadhaar_no());
-			dto.setDob(personal.getDob());
-
-			if (personal.getCaste() != null) {
-				dto.setCasteId(personal.getCaste().getCaste_id());
-				dto.setCasteName(personal.getCaste().getCaste_type());
-			}
-			if (personal.getReligion() != null) {
-				dto.setReligionId(personal.getReligion().getReligion_id());
-				dto.setReligionName(personal.getReligion().getReligion_type());
-			}
-			if (personal.getBloodGroup() != null) {
-				dto.setBloodGroupId(personal.getBloodGroup().getBlood_group_id());
-				dto.setBloodGroupName(personal.getBloodGroup().getBlood_group_name());
-			}
-			if (personal.getFoodType() != null) {
-				dto.setFoodTypeId(personal.getFoodType().getFood_type_id());
-				dto.setFoodTypeName(personal.getFoodType().getFood_type());
-			}
-		});
-
-		// --- Orientation Details ---
-		StudentOrientationDetails orientation = orientationDetailsRepository.findByStudentAcademicDetails(academic)
-				.orElse(null);
-
-		if (orientation != null && orientation.getOrientation() != null) {
-
-			dto.setOrientationId(orientation.getOrientation().getOrientationId());
-			dto.setOrientationName(orientation.getOrientation().getOrientation_name());
-
-			Integer orientationId = orientation.getOrientation().getOrientationId();
-			Integer cmpsId = academic.getCampus() != null ? academic.getCampus().getCampusId() : null;
-			Integer classId = academic.getStudentClass() != null ? academic.getStudentClass().getClassId() : null;
-
-			if (orientationId != null && cmpsId != null && classId != null) {
-				cmpsOrientationBatchFeeViewRepository.findSingleBestBatchDetails(orientationId, cmpsId, classId)
-						.ifPresent(feeView -> {
-							dto.setOrientationStartDate(feeView.getOrientationStartDate());
-							dto.setOrientationEndDate(feeView.getOrientationEndDate());
-							dto.setOrientationFee(feeView.getOrientationFee());
-						});
-			}
-		}
+		dto.setAadharNo(row.get("aadharNo", Long.class));
+		dto.setDob(row.get("dob", Date.class));
+		dto.setCasteId(row.get("casteId", Integer.class));
+		dto.setCasteName(row.get("casteName", String.class));
+		dto.setReligionId(row.get("religionId", Integer.class));
+		dto.setReligionName(row.get("religionName", String.class));
+		dto.setBloodGroupId(row.get("bloodGroupId", Integer.class));
+		dto.setBloodGroupName(row.get("bloodGroupName", String.class));
+		dto.setFoodTypeId(row.get("foodTypeId", Integer.class));
+		dto.setFoodTypeName(row.get("foodTypeName", String.class));
+
+		// --- Orientation Details (earliest batch for campus + class) ---
+		dto.setOrientationId(row.get("orientationId", Integer.class));
+		dto.setOrientationName(row.get("orientationName", String.class));
+		dto.setOrientationStartDate(row.get("orientationStartDate", Date.class));
+		dto.setOrientationEndDate(row.get("orientationEndDate", Date.class));
+		dto.setOrientationFee(row.get("orientationFee", Float.class));
 
 		// --- Parents ---
-		List<ParentDetails> parents = parentDetailsRepository.findByStudentAcademicDetails(academic);
-
-		for (ParentDetails p : parents) {
-
-			if (p.getStudentRelation().getRelationId() == 1) { // Father
-				dto.setFatherName(p.getName());
-				dto.setFatherMobile(p.getMobileNo());
-				dto.setFatherEmail(p.getEmail());
-				dto.setFatherOccupationName(p.getOccupation());
-
-				if (p.getSector() != null) {
-					dto.setFatherSectorId(p.getSector().getOccupation_sector_id());
-					dto.setFatherSectorName(p.getSector().getSector_name());
-				}
-
-			} else if (p.getStudentRelation().getRelationId() == 2) { // Mother
-
-				dto.setMotherName(p.getName());
-				dto.setMotherMobile(p.getMobileNo());
-				dto.setMotherEmail(p.getEmail());
-				dto.setMotherOccupationName(p.getOccupation());
-
-				if (p.getSector() != null) {
-					dto.setMotherSectorId(p.getSector().getOccupation_sector_id());
-					dto.setMotherSectorName(p.getSector().getSector_name());
-				}
-			}
+		if (row.get("fatherId") != null) {
+			dto.setFatherName(row.get("fatherName", String.class));
+			dto.setFatherMobile(row.get("fatherMobile", Long.class));
+			dto.setFatherEmail(row.get("fatherEmail", String.class));
+			dto.setFatherOccupationName(row.get("fatherOccupation", String.class));
+			dto.setFatherSectorId(row.get("fatherSectorId", Integer.class));
+			dto.setFatherSectorName(row.get("fatherSectorName", String.class));
+		}
+		if (row.get("motherId") != null) {
+			dto.setMotherName(row.get("motherName", String.class));
+			dto.setMotherMobile(row.get("motherMobile", Long.class));
+			dto.setMotherEmail(row.get("motherEmail", String.class));
+			dto.setMotherOccupationName(row.get("motherOccupation", String.class));
+			dto.setMotherSectorId(row.get("motherSectorId", Integer.class));
+			dto.setMotherSectorName(row.get("motherSectorName", String.class));
 		}
 
 		// --- Address ---
-		studentAddressRepository.findByStudentAcademicDetails(academic).ifPresent(address -> {
-			dto.setDoorNo(address.getHouse_no());
-			dto.setStreet(address.getStreet());
-			dto.setArea(address.getArea());
-			dto.setLandmark(address.getLandmark());
-			dto.setPincode(address.getPostalCode());
-
-			if (address.getState() != null) {
-				dto.setAddressStateId(address.getState().getStateId());
-				dto.setAddressStateName(address.getState().getStateName());
+		if (row.get("addressId") != null) {
+			dto.setDoorNo(row.get("doorNo", String.class));
+			dto.setStreet(row.get("street", String.class));
+			dto.setArea(row.get("area", String.class));
+			dto.setLandmark(row.get("landmark", String.class));
+			dto.setPincode(row.get("pincode", Integer.class));
+			dto.setAddressStateId(row.get("addressStateId", Integer.class));
+			dto.setAddressStateName(row.get("addressStateName", String.class));
+			dto.setAddressDistrictId(row.get("addressDistrictId", Integer.class));
+			dto.setAddressDistrictName(row.get("addressDistrictName", String.class));
+			dto.setAddressCityId(row.get("addressCityId", Integer.class));
+			dto.setAddressCityName(row.get("addressCityName", String.class));
+			dto.setAddressMandalId(row.get("addressMandalId", Integer.class));
+			dto.setAddressMandalName(row.get("addressMandalName", String.class));
+		}
+
+		// 2. Siblings and concessions
+		Set<Integer> seenSiblings = new HashSet<>();
+		Set<Integer> seenConcessions = new HashSet<>();
+
+		for (Tuple t : siblingsAndConcessions) {
+
+			// --- Siblings ---
+			Integer siblingId = t.get("siblingId", Integer.class);
+			if (siblingId != null && seenSiblings.add(siblingId)) {
+				StudentApplicationSingleDTO.SiblingItem item = new StudentApplicationSingleDTO.SiblingItem();
+
+				item.setFullName(t.get("siblingName", String.class));
+				item.setSchoolName(t.get("siblingSchool", String.class));
+				item.setClassId(t.get("siblingClassId", Integer.class));
+				item.setClassName(t.get("siblingClassName", String.class));
+				item.setRelationId(t.get("relationId", Integer.class));
+				item.setRelationName(t.get("relationName", String.class));
+
+				dto.getSiblings().add(item);
 			}
-			if (address.getDistrict() != null) {
-				dto.setAddressDistrictId(address.getDistrict().getDistrictId());
-				dto.setAddressDistrictName(address.getDistrict().getDistrictName());
-			}
-			if (address.getCity() != null) {
-				dto.setAddressCityId(address.getCity().getCityId());
-				dto.setAddressCityName(address.getCity().getCityName());
-			}
-			if (address.getMandal() != null) {
-				dto.setAddressMandalId(address.getMandal().getMandal_id());
-				dto.setAddressMandalName(address.getMandal().getMandal_name());
-			}
-		});
-
-		// --- Siblings ---
-		siblingRepository.findByStudentAcademicDetails(academic).forEach(s -> {
-			StudentApplicationSingleDTO.SiblingItem item = new StudentApplicationSingleDTO.SiblingItem();
 
-			item.setFullName(s.getSibling_name());
-			item.setSchoolName(s.getSibling_school());
+			// --- Concessions ---
+			Integer concessionId = t.get("concessionId", Integer.class);
+			if (concessionId != null && seenConcessions.add(concessionId)) {
+				StudentApplicationSingleDTO.ConcessionItem item = new StudentApplicationSingleDTO.ConcessionItem();
+
+				item.setAmount(t.get("amount", Float.class));
+				item.setComments(t.get("comments", String.class));
+				item.setConcessionTypeId(t.get("concessionTypeId", Integer.class));
+				item.setConcessionTypeName(t.get("concessionTypeName", String.class));
+				item.setReasonId(t.get("reasonId", Integer.class));
+				item.setReasonName(t.get("reasonName", String.class));
+
+				// Given By / Authorized By / Referred By
+				Integer givenBy = t.get("givenById", Integer.class);
+				if (givenBy != null && givenBy > 0) {
+					item.setGivenById(givenBy);
+					item.setGivenByName(ApplicationDetailsReader.fullName(t.get("givenByFirstName", String.class),
+							t.get("givenByLastName", String.class)));
+				}
+				Integer authorizedBy = t.get("authorizedById", Integer.class);
+				if (authorizedBy != null && authorizedBy > 0) {
+					item.setAuthorizedById(authorizedBy);
+					item.setAuthorizedByName(ApplicationDetailsReader.fullName(
+							t.get("authorizedByFirstName", String.class), t.get("authorizedByLastName", String.class)));
+				}
+				Integer referredBy = t.get("referredById", Integer.class);
+				if (referredBy != null && referredBy > 0) {
+					item.setConcReferedBy(referredBy);
+					item.setConcReferedByName(ApplicationDetailsReader.fullName(
+							t.get("referredByFirstName", String.class), t.get("referredByLastName", String.class)));
+				}
 
-			if (s.getStudentClass() != null) {
-				item.setClassId(s.getStudentClass().getClassId());
-				item.setClassName(s.getStudentClass().getClassName());
+				dto.getConcessions().add(item);
 			}
-			if (s.getStudentRelation() != null) {
-				item.setRelationId(s.getStudentRelation().getRelationId());
-				item.setRelationName(s.getStudentRelation().getRelationType());
-			}
-
-			dto.getSiblings().add(item);
-		});
-
-		// --- Concessions ---
-		concessionRepository.findByStudAdmsId(academic.getStud_adms_id())
-	    .forEach(c -> {
-
-	        StudentApplicationSingleDTO.ConcessionItem item =
-	                new StudentApplicationSingleDTO.ConcessionItem();
-
-	        // Amount + Comments
-	        item.setAmount(c.getConc_amount());
-	        item.setComments(c.getComments());
-
-	        // Type
-	        if (c.getConcessionType() != null) {
-	            item.setConcessionTypeId(c.getConcessionType().getConcTypeId());
-	            item.setConcessionTypeName(c.getConcessionType().getConc_type());
-	        }
-
-	        // Reason
-	        if (c.getConcessionReason() != null) {
-	            item.setReasonId(c.getConcessionReason().getConc_reason_id());
-	            item.setReasonName(c.getConcessionReason().getConc_reason());
-	        }
-
-	        // Posted By Fields
-	     // Given By
-	        if (c.getConc_issued_by() > 0) {
-	            item.setGivenById(c.getConc_issued_by());
-	            employeeRepository.findById(c.getConc_issued_by()).ifPresent(emp -> {
-	                item.setGivenByName(emp.getFirst_name() +
-	                   (emp.getLast_name() != null ? " " + emp.getLast_name() : ""));
-	            });
-	        }
-
-	        // Authorized By
-	        if (c.getConc_authorised_by() > 0) {
-	            item.setAuthorizedById(c.getConc_authorised_by());
-	            employeeRepository.findById(c.getConc_authorised_by()).ifPresent(emp -> {
-	                item.setAuthorizedByName(emp.getFirst_name() +
-	                   (emp.getLast_name() != null ? " " + emp.getLast_name() : ""));
-	            });
-	        }
-
-	        // Referred By
-	        if (c.getConc_referred_by() > 0) {
-	            item.setConcReferedBy(c.getConc_referred_by());
-	            employeeRepository.findById(c.getConc_referred_by()).ifPresent(emp -> {
-	                item.setConcReferedByName(emp.getFirst_name() +
-	                   (emp.getLast_name() != null ? " " + emp.getLast_name() : ""));
-	            });
-	        }
-
-
-	        dto.getConcessions().add(item);
-	    });
+		}
 
 		return dto;
 	}
@@ -1441,6 +1412,351 @@ public class ApplicationFastSale {
 		return "Application Sale updated successfully for Admission Number: " + studAdmsNo;
 	}
 
+	// ApplicationSale - college - partial update
+	/**
+	 * PATCH variant of {@link #updateApplicationSale}: compares the form with
+	 * what is stored and writes only what differs. Child rows are loaded only
+	 * when the form carries fields for them, unchanged rows are left alone
+	 * (entities are @DynamicUpdate, so a changed row updates only its changed
+	 * columns) and new rows are inserted only when they get a value.
+	 *
+	 * The student's version is the optimistic check for the whole
+	 * application: a stale {@code version} in the form is rejected, and any
+	 * change (to the student row or a child row) moves it on. Returns the new
+	 * version.
+	 */
+	@Transactional
+	public int patchApplicationSale(Long studAdmsNo, StudentApplicationUpdateDTO formData) {
+
+		StudentAcademicDetails academic = studentAcademicDetailsRepository.findByStudAdmsNo(studAdmsNo)
+				.orElseThrow(() -> new EntityNotFoundException("Student not found: " + studAdmsNo));
+
+		if (formData.getVersion() != null && formData.getVersion() != academic.getVersion()) {
+			throw new ObjectOptimisticLockingFailureException(StudentAcademicDetails.class, studAdmsNo);
+		}
+
+		boolean academicChanged = patchAcademic(academic, formData);
+		boolean childChanged = patchPersonal(academic, formData);
+		childChanged |= patchOrientation(academic, formData);
+		childChanged |= patchParents(academic, formData);
+		childChanged |= patchSiblings(academic, formData.getSiblings());
+		childChanged |= patchConcessions(academic, formData.getConcessions());
+		childChanged |= patchAddress(academic, formData.getAddressDetails());
+
+		if (childChanged && !academicChanged) {
+			entityManager.lock(academic, LockModeType.OPTIMISTIC_FORCE_INCREMENT);
+		}
+		// Flush here so the returned version is the one committed
+		entityManager.flush();
+		return academic.getVersion();
+	}
+
+	private boolean patchAcademic(StudentAcademicDetails a, StudentApplicationUpdateDTO f) {
+		boolean changed = false;
+
+		changed |= assign(f.getFirstName(), a.getFirst_name(), a::setFirst_name);
+		changed |= assign(f.getLastName(), a.getLast_name(), a::setLast_name);
+		changed |= assign(f.getApaarNo(), a.getApaar_no(), a::setApaar_no);
+		changed |= assign(f.getAppSaleDate(), a.getApp_sale_date(), a::setApp_sale_date);
+		changed |= assign(f.getProReceiptNo() != null ? f.getProReceiptNo().intValue() : null, a.getPro_receipt_no(),
+				a::setPro_receipt_no);
+		changed |= assign(f.getAdmissionReferredBy(), a.getAdmission_referred_by(), a::setAdmission_referred_by);
+		changed |= assign(f.getHallTicketNumber(), a.getHt_no(), a::setHt_no);
+		changed |= assign(f.getScoreAppNo(), a.getScore_app_no(), a::setScore_app_no);
+		changed |= assign(f.getScoreMarks(), a.getScore_marks(), a::setScore_marks);
+		changed |= assign(f.getSchoolName(), a.getPre_school_name(), a::setPre_school_name);
+
+		if (differs(f.getAcademicYearId(), idOf(a.getAcademicYear(), AcademicYear::getAcdcYearId)))
+			changed |= assign(referenceDataRegistry.reference(AcademicYear.class, f.getAcademicYearId()),
+					a::setAcademicYear);
+		if (differs(f.getQuotaId(), idOf(a.getQuota(), Quota::getQuota_id)))
+			changed |= assign(referenceDataRegistry.reference(Quota.class, f.getQuotaId()), a::setQuota);
+		if (differs(f.getGenderId(), idOf(a.getGender(), Gender::getGender_id)))
+			changed |= assign(referenceDataRegistry.reference(Gender.class, f.getGenderId()), a::setGender);
+		if (differs(f.getAppTypeId(), idOf(a.getAdmissionType(), AdmissionType::getAdms_type_id)))
+			changed |= assign(referenceDataRegistry.reference(AdmissionType.class, f.getAppTypeId()),
+					a::setAdmissionType);
+		if (differs(f.getStudentTypeId(), idOf(a.getStudentType(), StudentType::getStud_type_id)))
+			changed |= assign(referenceDataRegistry.reference(StudentType.class, f.getStudentTypeId()),
+					a::setStudentType);
+		if (differs(f.getSchoolStateId(), idOf(a.getState(), State::getStateId)))
+			changed |= assign(referenceDataRegistry.reference(State.class, f.getSchoolStateId()), a::setState);
+		if (differs(f.getSchoolDistrictId(), idOf(a.getDistrict(), District::getDistrictId)))
+			changed |= assign(referenceDataRegistry.reference(District.class, f.getSchoolDistrictId()),
+					a::setDistrict);
+		if (differs(f.getClassId(), idOf(a.getStudentClass(), StudentClass::getClassId)))
+			changed |= assign(referenceDataRegistry.reference(StudentClass.class, f.getClassId()),
+					a::setStudentClass);
+		if (differs(f.getBranchId(), idOf(a.getCampus(), Campus::getCampusId)))
+			changed |= assign(campusRepository.findById(f.getBranchId()), a::setCampus);
+
+		return changed;
+	}
+
+	private boolean patchPersonal(StudentAcademicDetails academic, StudentApplicationUpdateDTO f) {
+		if (f.getAadharCardNo() == null && f.getDob() == null && !positive(f.getCasteId())
+				&& !positive(f.getReligionId()) && !positive(f.getBloodGroupId()) && !positive(f.getFoodTypeId())) {
+			return false;
+		}
+		StudentPersonalDetails p = personalDetailsRepository.findByStudentAcademicDetails(academic).orElse(null);
+		boolean isNew = p == null;
+		if (isNew) {
+			p = new StudentPersonalDetails();
+			p.setStudentAcademicDetails(academic);
+		}
+		boolean changed = false;
+
+		changed |= assign(f.getAadharCardNo(), p.getStud_aadhaar_no(), p::setStud_aadhaar_no);
+		changed |= assign(f.getDob(), p.getDob(), p::setDob);
+		if (differs(f.getCasteId(), idOf(p.getCaste(), Caste::getCaste_id)))
+			changed |= assign(referenceDataRegistry.reference(Caste.class, f.getCasteId()), p::setCaste);
+		if (differs(f.getReligionId(), idOf(p.getReligion(), Religion::getReligion_id)))
+			changed |= assign(referenceDataRegistry.reference(Religion.class, f.getReligionId()), p::setReligion);
+		if (differs(f.getBloodGroupId(), idOf(p.getBloodGroup(), BloodGroup::getBlood_group_id)))
+			changed |= assign(referenceDataRegistry.reference(BloodGroup.class, f.getBloodGroupId()),
+					p::setBloodGroup);
+		if (differs(f.getFoodTypeId(), idOf(p.getFoodType(), FoodType::getFood_type_id)))
+			changed |= assign(referenceDataRegistry.reference(FoodType.class, f.getFoodTypeId()), p::setFoodType);
+
+		if (changed && isNew) {
+			personalDetailsRepository.save(p);
+		}
+		return changed;
+	}
+
+	private boolean patchOrientation(StudentAcademicDetails academic, StudentApplicationUpdateDTO f) {
+		if (!positive(f.getOrientationId())) {
+			return false;
+		}
+		StudentOrientationDetails o = orientationDetailsRepository.findByStudentAcademicDetails(academic)
+				.orElse(null);
+		if (o != null && o.getOrientation() != null
+				&& f.getOrientationId().equals(o.getOrientation().getOrientationId())) {
+			return false;
+		}
+		Optional<Orientation> orientation = orientationRepository.findById(f.getOrientationId());
+		if (orientation.isEmpty()) {
+			return false;
+		}
+		if (o == null) {
+			o = new StudentOrientationDetails();
+			o.setStudentAcademicDetails(academic);
+			o.setOrientation(orientation.get());
+			orientationDetailsRepository.save(o);
+		} else {
+			o.setOrientation(orientation.get());
+		}
+		return true;
+	}
+
+	private boolean patchParents(StudentAcademicDetails academic, StudentApplicationUpdateDTO f) {
+		boolean fatherSent = f.getFatherName() != null || f.getFatherMobileNo() != null || f.getFatherEmail() != null
+				|| f.getFatherSectorId() != null || f.getFatherOccupationId() != null;
+		boolean motherSent = f.getMotherName() != null || f.getMotherMobileNo() != null || f.getMotherEmail() != null
+				|| f.getMotherSectorId() != null || f.getMotherOccupationId() != null;
+		if (!fatherSent && !motherSent) {
+			return false;
+		}
+		List<ParentDetails> parents = parentDetailsRepository.findByStudentAcademicDetails(academic);
+		boolean changed = false;
+		if (fatherSent) {
+			changed |= patchParent(academic, parents, 1, f.getFatherName(), f.getFatherMobileNo(),
+					f.getFatherEmail(), f.getFatherSectorId(), f.getFatherOccupationId(), f.getCreatedBy());
+		}
+		if (motherSent) {
+			changed |= patchParent(academic, parents, 2, f.getMotherName(), f.getMotherMobileNo(),
+					f.getMotherEmail(), f.getMotherSectorId(), f.getMotherOccupationId(), f.getCreatedBy());
+		}
+		return changed;
+	}
+
+	private boolean patchParent(StudentAcademicDetails academic, List<ParentDetails> parents, int relationId,
+			String name, Long mobile, String email, Integer sectorId, Integer occupationId, Integer createdBy) {
+		ParentDetails p = parents.stream()
+				.filter(x -> x.getStudentRelation() != null && x.getStudentRelation().getRelationId() == relationId)
+				.findFirst().orElse(null);
+		boolean isNew = p == null;
+		if (isNew) {
+			p = new ParentDetails();
+			p.setStudentAcademicDetails(academic);
+			p.setStudentRelation(referenceDataRegistry.reference(StudentRelation.class, relationId)
+					.orElseThrow(() -> new EntityNotFoundException("Relation " + relationId + " missing")));
+			if (createdBy != null) {
+				p.setCreated_by(createdBy);
+			}
+		}
+		boolean changed = false;
+
+		changed |= assign(name, p.getName(), p::setName);
+		changed |= assign(mobile, p.getMobileNo(), p::setMobileNo);
+		changed |= assign(email, p.getEmail(), p::setEmail);
+		if (differs(sectorId, idOf(p.getSector(), Sector::getOccupation_sector_id)))
+			changed |= assign(referenceDataRegistry.reference(Sector.class, sectorId), p::setSector);
+		if (positive(occupationId)) {
+			// Occupation is stored by name on ParentDetails
+			String occupation = referenceDataRegistry.find(Occupation.class, occupationId)
+					.map(Occupation::getOccupation_name).orElse(null);
+			changed |= assign(occupation, p.getOccupation(), p::setOccupation);
+		}
+
+		if (changed && isNew) {
+			parentDetailsRepository.save(p);
+		}
+		return changed;
+	}
+
+	private boolean patchSiblings(StudentAcademicDetails academic, List<SiblingDTO> siblings) {
+		if (siblings == null || siblings.isEmpty()) {
+			return false;
+		}
+		// Matched by name, as in updateApplicationSale
+		Map<String, Sibling> existing = siblingRepository.findByStudentAcademicDetails(academic).stream()
+				.filter(s -> s.getSibling_name() != null)
+				.collect(Collectors.toMap(Sibling::getSibling_name, Function.identity(), (a, b) -> a));
+		boolean changed = false;
+
+		for (SiblingDTO s : siblings) {
+			Sibling sib = s.getFullName() != null ? existing.get(s.getFullName()) : null;
+			boolean isNew = sib == null;
+			if (isNew) {
+				sib = new Sibling();
+				sib.setStudentAcademicDetails(academic);
+				if (s.getCreatedBy() != null) {
+					sib.setCreated_by(s.getCreatedBy());
+				}
+			}
+			boolean rowChanged = false;
+
+			rowChanged |= assign(s.getFullName(), sib.getSibling_name(), sib::setSibling_name);
+			rowChanged |= assign(s.getSchoolName(), sib.getSibling_school(), sib::setSibling_school);
+			if (differs(s.getRelationTypeId(), idOf(sib.getStudentRelation(), StudentRelation::getRelationId)))
+				rowChanged |= assign(referenceDataRegistry.reference(StudentRelation.class, s.getRelationTypeId()),
+						sib::setStudentRelation);
+			if (differs(s.getClassId(), idOf(sib.getStudentClass(), StudentClass::getClassId)))
+				rowChanged |= assign(referenceDataRegistry.reference(StudentClass.class, s.getClassId()),
+						sib::setStudentClass);
+			if (differs(s.getGenderId(), idOf(sib.getGender(), Gender::getGender_id)))
+				rowChanged |= assign(referenceDataRegistry.reference(Gender.class, s.getGenderId()), sib::setGender);
+
+			if (rowChanged && isNew) {
+				siblingRepository.save(sib);
+				existing.put(sib.getSibling_name(), sib);
+			}
+			changed |= rowChanged;
+		}
+		return changed;
+	}
+
+	private boolean patchConcessions(StudentAcademicDetails academic, List<ConcessionConfirmationDTO> concessions) {
+		if (concessions == null || concessions.isEmpty()) {
+			return false;
+		}
+		// Matched by concession type, as in updateApplicationSale
+		Map<Integer, StudentConcessionType> existing = concessionRepository
+				.findByStudAdmsId(academic.getStud_adms_id()).stream().filter(c -> c.getConcessionType() != null)
+				.collect(Collectors.toMap(c -> c.getConcessionType().getConcTypeId(), Function.identity(),
+						(a, b) -> a));
+		boolean changed = false;
+
+		for (ConcessionConfirmationDTO c : concessions) {
+			StudentConcessionType conc = c.getConcessionTypeId() != null ? existing.get(c.getConcessionTypeId())
+					: null;
+			boolean isNew = conc == null;
+			if (isNew) {
+				conc = new StudentConcessionType();
+				conc.setStudAdmsId(academic.getStud_adms_id());
+				conc.setAcademicYear(academic.getAcademicYear());
+				if (c.getCreatedBy() != null) {
+					conc.setCreated_by(c.getCreatedBy());
+				}
+			}
+			boolean rowChanged = false;
+
+			if (differs(c.getConcessionTypeId(), idOf(conc.getConcessionType(), ConcessionType::getConcTypeId)))
+				rowChanged |= assign(referenceDataRegistry.reference(ConcessionType.class, c.getConcessionTypeId()),
+						conc::setConcessionType);
+			rowChanged |= assign(c.getConcessionAmount(), conc.getConc_amount(), conc::setConc_amount);
+			rowChanged |= assign(c.getComments(), conc.getComments(), conc::setComments);
+			if (differs(c.getReasonId(), idOf(conc.getConcessionReason(), ConcessionReason::getConc_reason_id)))
+				rowChanged |= assign(referenceDataRegistry.reference(ConcessionReason.class, c.getReasonId()),
+						conc::setConcessionReason);
+			rowChanged |= assign(c.getConcReferedBy(), conc.getConc_referred_by(), conc::setConc_referred_by);
+			rowChanged |= assign(c.getGivenById(), conc.getConc_issued_by(), conc::setConc_issued_by);
+			rowChanged |= assign(c.getAuthorizedById(), conc.getConc_authorised_by(), conc::setConc_authorised_by);
+
+			if (rowChanged && isNew) {
+				concessionRepository.save(conc);
+				if (conc.getConcessionType() != null) {
+					existing.put(conc.getConcessionType().getConcTypeId(), conc);
+				}
+			}
+			changed |= rowChanged;
+		}
+		return changed;
+	}
+
+	private boolean patchAddress(StudentAcademicDetails academic, AddressDetailsDTO ad) {
+		if (ad == null) {
+			return false;
+		}
+		StudentAddress address = studentAddressRepository.findByStudentAcademicDetails(academic).orElse(null);
+		boolean isNew = address == null;
+		if (isNew) {
+			address = new StudentAddress();
+			address.setStudentAcademicDetails(academic);
+			address.setCreated_by(ad.getCreatedBy());
+		}
+		boolean changed = false;
+
+		changed |= assign(ad.getDoorNo(), address.getHouse_no(), address::setHouse_no);
+		changed |= assign(ad.getStreet(), address.getStreet(), address::setStreet);
+		changed |= assign(ad.getLandmark(), address.getLandmark(), address::setLandmark);
+		changed |= assign(ad.getArea(), address.getArea(), address::setArea);
+		changed |= assign(ad.getPincode(), address.getPostalCode(), address::setPostalCode);
+		if (differs(ad.getStateId(), idOf(address.getState(), State::getStateId)))
+			changed |= assign(referenceDataRegistry.reference(State.class, ad.getStateId()), address::setState);
+		if (differs(ad.getCityId(), idOf(address.getCity(), City::getCityId)))
+			changed |= assign(referenceDataRegistry.reference(City.class, ad.getCityId()), address::setCity);
+		if (differs(ad.getMandalId(), idOf(address.getMandal(), Mandal::getMandal_id)))
+			changed |= assign(referenceDataRegistry.reference(Mandal.class, ad.getMandalId()), address::setMandal);
+		if (differs(ad.getDistrictId(), idOf(address.getDistrict(), District::getDistrictId)))
+			changed |= assign(referenceDataRegistry.reference(District.class, ad.getDistrictId()),
+					address::setDistrict);
+
+		if (changed && isNew) {
+			studentAddressRepository.save(address);
+		}
+		return changed;
+	}
+
+	// Sets a plain column when the form sends a different value
+	private static <T> boolean assign(T incoming, T current, Consumer<T> setter) {
+		if (incoming == null || incoming.equals(current)) {
+			return false;
+		}
+		setter.accept(incoming);
+		return true;
+	}
+
+	// Sets an association when the looked-up row exists
+	private static <T> boolean assign(Optional<T> row, Consumer<T> setter) {
+		row.ifPresent(setter);
+		return row.isPresent();
+	}
+
+	// A lookup id from the form (null / 0 mean "not sent") that is not the current one
+	private static boolean differs(Integer incoming, Integer current) {
+		return positive(incoming) && !incoming.equals(current);
+	}
+
+	private static boolean positive(Integer id) {
+		return id != null && id > 0;
+	}
+
+	private static <E> Integer idOf(E row, Function<E, Integer> id) {
+		return row != null ? id.apply(row) : null;
+	}
+
 	// Application confirmation - college
 	@Transactional
 	public String confirmCollegeEnrollment(StudentCollegeConfirmationDto formData) {
@@ -1471,11 +1787,16 @@ public class ApplicationFastSale {
 
 		// City & Course mapping... (Placeholders)
 
+		// Counted once, on the move into status 1
+		boolean wasConfirmed = academicDetails.getStatus() != null && academicDetails.getStatus().getStatus_id() == 1;
 		Status defaultStatus = statusRepository.findById(1)
 				.orElseThrow(() -> new EntityNotFoundException("Default Status (ID: 2) not found"));
 		academicDetails.setStatus(defaultStatus);
 
 		StudentAcademicDetails savedAcademicDetails = studentAcademicDetailsRepository.save(academicDetails);
+		if (!wasConfirmed) {
+			counterOutbox.recordConfirmation(savedAcademicDetails);
+		}
 
 		// 3. Save/Update Concession Details (Concession logic remains the same)
 
@@ -9,6 +9,7 @@ import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.function.Function;
+import java.util.function.Supplier;
 //import java.util.logging.Logger;
 import java.util.stream.Collectors;
 
@@ -32,15 +33,24 @@ import com.application.dto.SiblingDTO;
 import com.application.dto.StudentConfirmationDTO;
 import com.application.entity.AcademicYear;
 import com.application.entity.BloodGroup;
+import com.application.entity.CampusSchoolType;
+import com.application.entity.Caste;
+import com.application.entity.City;
 import com.application.entity.CmpsOrientationBatchFeeView;
 import com.application.entity.ConcessionReason;
+import com.application.entity.ConcessionType;
 import com.application.entity.District;
 import com.application.entity.FoodType;
 import com.application.entity.Gender;
+import com.application.entity.OrgBank;
+import com.application.entity.OrgBankBranch;
 import com.application.entity.Orientation;
 import com.application.entity.ParentDetails;
 import com.application.entity.ParentOccupationView;
 import com.application.entity.PaymentDetails;
+import com.application.entity.PaymentMode;
+import com.application.entity.Religion;
+import com.application.entity.Sector;
 import com.application.entity.Sibling;
 import com.application.entity.State;
 import com.application.entity.Status;
@@ -100,6 +110,7 @@ public class ApplicationNewConfirmationService {
     // --- AUTOWIRE ALL NECESSARY REPOSITORIES ---
     // (Make sure all these are autowired at the top of your class)
     @Autowired private StudentAcademicDetailsRepository academicRepo;
+    @Autowired private CounterOutbox counterOutbox;
     @Autowired private StudentPersonalDetailsRepository personalRepo;
     @Autowired private StudentOrientationDetailsRepository orientationRepo;
     @Autowired private ParentDetailsRepository parentRepo;
@@ -137,6 +148,7 @@ public class ApplicationNewConfirmationService {
     @Autowired private CasteRepository casteRepository;
     @Autowired private ReligionRepository religionRepository;
     @Autowired private SectorRepository sectorRepository;
+    @Autowired private ReferenceDataRegistry referenceDataRegistry;
  
     
     
@@ -287,6 +299,34 @@ public class ApplicationNewConfirmationService {
         StudentAcademicDetails student = academicRepo.findByStudAdmsNo(dto.getStudAdmsNo())
             .orElseThrow(() -> new EntityNotFoundException("Student not found with Admission No: " + dto.getStudAdmsNo()));
  
+        applyConfirmation(student, dto, new ConfirmationRows(
+                () -> personalRepo.findByStudentAcademicDetails(student),
+                () -> orientationRepo.findByStudentAcademicDetails(student),
+                () -> parentRepo.findByStudentAcademicDetails(student),
+                () -> siblingRepo.findByStudentAcademicDetails(student),
+                () -> concessionRepo.findByStudAdmsId(student.getStud_adms_id())));
+        return student;
+    }
+
+    /**
+     * Existing child rows of one student. The single confirmation reads them
+     * on demand; {@link BulkConfirmationService} hands in rows it prefetched
+     * for the whole batch.
+     */
+    record ConfirmationRows(
+            Supplier<Optional<StudentPersonalDetails>> personal,
+            Supplier<Optional<StudentOrientationDetails>> orientation,
+            Supplier<List<ParentDetails>> parents,
+            Supplier<List<Sibling>> siblings,
+            Supplier<List<StudentConcessionType>> concessions) {
+    }
+
+    /**
+     * Applies one confirmation to a loaded student inside the caller's
+     * transaction. Lookup rows come from the {@link ReferenceDataRegistry}.
+     */
+    void applyConfirmation(StudentAcademicDetails student, StudentConfirmationDTO dto, ConfirmationRows rows) {
+ 
         // --- 2. Update Academic Details ---
         student.setHt_no(dto.getHtNo());
         student.setApp_conf_date(dto.getAppConfDate());
@@ -298,18 +338,20 @@ public class ApplicationNewConfirmationService {
             student.setScore_marks(dto.getMarks());
         }
         
-        Status activeStatus = statusRepo.findById(1)
+        // Counted once, on the move into status 1
+        boolean wasConfirmed = student.getStatus() != null && student.getStatus().getStatus_id() == 1;
+        Status activeStatus = referenceDataRegistry.reference(Status.class, 1)
             .orElseThrow(() -> new EntityNotFoundException("Status 'Active' (ID: 1) not found"));
         student.setStatus(activeStatus);
  
         if (dto.getSchoolStateId() != null) {
-            stateRepo.findById(dto.getSchoolStateId()).ifPresent(student::setState);
+            referenceDataRegistry.reference(State.class, dto.getSchoolStateId()).ifPresent(student::setState);
         }
         if (dto.getSchoolDistrictId() != null) {
-            districtRepo.findById(dto.getSchoolDistrictId()).ifPresent(student::setDistrict);
+            referenceDataRegistry.reference(District.class, dto.getSchoolDistrictId()).ifPresent(student::setDistrict);
         }
         if (dto.getSchoolTypeId() != null) {
-            schoolTypeRepo.findById(dto.getSchoolTypeId()).ifPresent(student::setPreCampusSchoolType);
+            referenceDataRegistry.reference(CampusSchoolType.class, dto.getSchoolTypeId()).ifPresent(student::setPreCampusSchoolType);
         }
         
         if (dto.getLanguages() != null && !dto.getLanguages().isEmpty()) {
@@ -320,28 +362,31 @@ public class ApplicationNewConfirmationService {
 
         }
         academicRepo.save(student);
+        if (!wasConfirmed) {
+            counterOutbox.recordConfirmation(student);
+        }
  
         // --- 3. Update Personal Details ---
-        StudentPersonalDetails personalDetails = personalRepo.findByStudentAcademicDetails(student)
+        StudentPersonalDetails personalDetails = rows.personal().get()
             .orElse(new StudentPersonalDetails());
         personalDetails.setStudentAcademicDetails(student);
         
         if (dto.getFoodTypeId() != null) {
-            foodTypeRepo.findById(dto.getFoodTypeId()).ifPresent(personalDetails::setFoodType);
+            referenceDataRegistry.reference(FoodType.class, dto.getFoodTypeId()).ifPresent(personalDetails::setFoodType);
         }
         if (dto.getBloodGroupId() != null) {
-            bloodGroupRepo.findById(dto.getBloodGroupId()).ifPresent(personalDetails::setBloodGroup);
+            referenceDataRegistry.reference(BloodGroup.class, dto.getBloodGroupId()).ifPresent(personalDetails::setBloodGroup);
         }
         if(dto.getCasteId() !=null) {
-        	casteRepository.findById(dto.getCasteId()).ifPresent(personalDetails::setCaste);
+        	referenceDataRegistry.reference(Caste.class, dto.getCasteId()).ifPresent(personalDetails::setCaste);
         }
         if(dto.getReligionId() !=null) {
-        	religionRepository.findById(dto.getReligionId()).ifPresent(personalDetails::setReligion);
+        	referenceDataRegistry.reference(Religion.class, dto.getReligionId()).ifPresent(personalDetails::setReligion);
         }
         personalRepo.save(personalDetails);
  
         // --- 4. Update Orientation Details ---
-        StudentOrientationDetails orientationDetails = orientationRepo.findByStudentAcademicDetails(student)
+        StudentOrientationDetails orientationDetails = rows.orientation().get()
             .orElse(new StudentOrientationDetails());
         orientationDetails.setStudentAcademicDetails(student);
         
@@ -366,8 +411,7 @@ public class ApplicationNewConfirmationService {
             
             // 1. Fetch existing parents and put them in a Map for easy lookup
             // We use the RelationType ID as the unique key (e.g., 1=Father, 2=Mother)
-        	Map<Integer, ParentDetails> existingParentsMap = parentRepo
-        		    .findByStudentAcademicDetails(student)
+        	Map<Integer, ParentDetails> existingParentsMap = rows.parents().get()
         		    .stream()
         		    .filter(p -> p.getStudentRelation() != null)  // also fix getter name here
         		    .collect(Collectors.toMap(
@@ -388,7 +432,7 @@ public class ApplicationNewConfirmationService {
                     parent.setStudentAcademicDetails(student);
                     parent.setCreated_by(parentDto.getCreatedBy());
                     if (parentDto.getRelationTypeId() != null) {
-                        relationRepo.findById(parentDto.getRelationTypeId()).ifPresent(parent::setStudentRelation);
+                        referenceDataRegistry.reference(StudentRelation.class, parentDto.getRelationTypeId()).ifPresent(parent::setStudentRelation);
                     }
                 }
                 
@@ -398,7 +442,7 @@ public class ApplicationNewConfirmationService {
                 parent.setEmail(parentDto.getEmail());
                 if (parentDto.getSectorId() != null) {
                     // Assuming you have a SectorRepository injected as 'sectorRepo'
-                    sectorRepository.findById(parentDto.getSectorId()).ifPresent(parent::setSector);
+                    referenceDataRegistry.reference(Sector.class, parentDto.getSectorId()).ifPresent(parent::setSector);
                 }
                 if (parentDto.getOccupation() != null) {
                     if ("OTHERS".equalsIgnoreCase(parentDto.getOccupation())) {
@@ -424,7 +468,7 @@ public class ApplicationNewConfirmationService {
             
             // 1. Fetch existing siblings and put them in a Map by Full Name
             // This is a fragile key, but it's the only one we have.
-            Map<String, Sibling> existingSiblingsMap = siblingRepo.findByStudentAcademicDetails(student)
+            Map<String, Sibling> existingSiblingsMap = rows.siblings().get()
                 .stream()
                 .filter(s -> s.getSibling_name() != null)
                 .collect(Collectors.toMap(Sibling::getSibling_name, Function.identity(), (first, second) -> first)); // Handle duplicates
@@ -445,13 +489,13 @@ public class ApplicationNewConfirmationService {
                 // 4. Update all fields
                 sibling.setSibling_school(siblingDto.getSchoolName());
                 if (siblingDto.getRelationTypeId() != null) {
-                    relationRepo.findById(siblingDto.getRelationTypeId()).ifPresent(sibling::setStudentRelation);
+                    referenceDataRegistry.reference(StudentRelation.class, siblingDto.getRelationTypeId()).ifPresent(sibling::setStudentRelation);
                 }
                 if (siblingDto.getClassId() != null) {
-                    classRepo.findById(siblingDto.getClassId()).ifPresent(sibling::setStudentClass);
+                    referenceDataRegistry.reference(StudentClass.class, siblingDto.getClassId()).ifPresent(sibling::setStudentClass);
                 }
                 if (siblingDto.getGenderId() != null) {
-                    genderRepo.findById(siblingDto.getGenderId()).ifPresent(sibling::setGender);
+                    referenceDataRegistry.reference(Gender.class, siblingDto.getGenderId()).ifPresent(sibling::setGender);
                 }
                 siblingRepo.save(sibling);
             }
@@ -467,7 +511,7 @@ public class ApplicationNewConfirmationService {
             // We use ConcessionType ID as the key.
             // WARNING: This assumes a student only has ONE of each concession type.
             Map<Integer, StudentConcessionType> existingConcessionsMap =
-                concessionRepo.findByStudAdmsId(student.getStud_adms_id())
+                rows.concessions().get()
                 .stream()
                 .filter(c -> c.getConcessionType() != null)
                 .collect(Collectors.toMap(
@@ -476,7 +520,7 @@ public class ApplicationNewConfirmationService {
                     (first, second) -> first // Handle duplicates
                 ));
  
-            AcademicYear currentYear = academicYearRepo.findById(student.getAcademicYear().getAcdcYearId())
+            AcademicYear currentYear = referenceDataRegistry.reference(AcademicYear.class, student.getAcademicYear().getAcdcYearId())
                 .orElseThrow(() -> new EntityNotFoundException("Academic Year not found"));
  
             for (ConcessionConfirmationDTO concDto : dto.getConcessions()) {
@@ -492,7 +536,7 @@ public class ApplicationNewConfirmationService {
                     concession.setCreated_by(concDto.getCreatedBy());
                     concession.setCreated_Date(LocalDateTime.now()); // Set create date
                     if (concDto.getConcessionTypeId() != null) {
-                        concessionTypeRepo.findById(concDto.getConcessionTypeId()).ifPresent(concession::setConcessionType);
+                        referenceDataRegistry.reference(ConcessionType.class, concDto.getConcessionTypeId()).ifPresent(concession::setConcessionType);
                     }
                 }
  
@@ -501,7 +545,7 @@ public class ApplicationNewConfirmationService {
                 concession.setComments(concDto.getComments());
                 
                 if (concDto.getReasonId() != null) {
-                    concessionReasonRepo.findById(concDto.getReasonId()).ifPresent(concession::setConcessionReason);
+                    referenceDataRegistry.reference(ConcessionReason.class, concDto.getReasonId()).ifPresent(concession::setConcessionReason);
                 }
                 
                 concession.setConc_referred_by(concDto.getConcReferedBy());
@@ -540,7 +584,7 @@ public class ApplicationNewConfirmationService {
  
 		    // Set the PaymentMode (e.g., Cash, DD, Cheque)
 		    if (paymentDTO.getPaymentModeId() != null) {
-		        paymentModeRepo.findById(paymentDTO.getPaymentModeId())
+		        referenceDataRegistry.reference(PaymentMode.class, paymentDTO.getPaymentModeId())
 		            .ifPresent(paymentDetails::setPaymenMode);
 		    }
 		        student.setStatus(activeStatus);
@@ -581,15 +625,15 @@ public class ApplicationNewConfirmationService {
 		                transaction.setOrg_id(paymentDTO.getOrganisationId());
 		            }
 		            if (paymentDTO.getBankId() != null) {
-		                orgBankRepo.findById(paymentDTO.getBankId()).ifPresent(transaction::setOrgBank);
+		                referenceDataRegistry.reference(OrgBank.class, paymentDTO.getBankId()).ifPresent(transaction::setOrgBank);
 		            }
 		            if (paymentDTO.getBranchId() != null) {
-		                orgBankBranchRepo.findById(paymentDTO.getBranchId()).ifPresent(transaction::setOrgBankBranch);
+		                referenceDataRegistry.reference(OrgBankBranch.class, paymentDTO.getBranchId()).ifPresent(transaction::setOrgBankBranch);
 		            }
 		            transaction.setIfsc_code(paymentDTO.getIfscCode());
 		            
 		            if (paymentDTO.getCityId() != null) {
-		                cityRepo.findById(paymentDTO.getCityId()).ifPresent(transaction::setCity);
+		                referenceDataRegistry.reference(City.class, paymentDTO.getCityId()).ifPresent(transaction::setCity);
 		            }
 		            
 		        } else if (paymentModeId == CHEQUE_PAYMENT_ID) {
@@ -599,14 +643,14 @@ public class ApplicationNewConfirmationService {
 		                transaction.setOrg_id(paymentDTO.getOrganisationId());
 		            }
 		            if (paymentDTO.getCityId() != null) {
-		                cityRepo.findById(paymentDTO.getCityId()).ifPresent(transaction::setCity);
+		                referenceDataRegistry.reference(City.class, paymentDTO.getCityId()).ifPresent(transaction::setCity);
 		            }
 		            // Assuming Cheque also uses Bank and Branch, based on your UI and entity
 		            if (paymentDTO.getBankId() != null) {
-		                orgBankRepo.findById(paymentDTO.getBankId()).ifPresent(transaction::setOrgBank);
+		                referenceDataRegistry.reference(OrgBank.class, paymentDTO.getBankId()).ifPresent(transaction::setOrgBank);
 		            }
 		            if (paymentDTO.getBranchId() != null) {
-		                orgBankBranchRepo.findById(paymentDTO.getBranchId()).ifPresent(transaction::setOrgBankBranch);
+		                referenceDataRegistry.reference(OrgBankBranch.class, paymentDTO.getBranchId()).ifPresent(transaction::setOrgBankBranch);
 		            }
 		        }
  
@@ -614,6 +658,5 @@ public class ApplicationNewConfirmationService {
 		        studentApplicationTransactionRepo.save(transaction);
 		    }
 		}
-        return student;
     }
 }
\ No newline at end of file
@@ -0,0 +1,61 @@
+package com.application.service;
+
+import org.springframework.beans.factory.ObjectProvider;
+
+import com.application.entity.AppStatus;
+import com.application.entity.BalanceTrack;
+import com.application.entity.StudentAcademicDetails;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+
+/**
+ * JPA listener on BalanceTrack, StudentAcademicDetails and AppStatus; forwards
+ * writes to the {@link ApplicationAvailabilityMap} (and sales, written or
+ * deleted, to the {@link AdmissionNumberFilter}). Resolved lazily like
+ * {@link DistributionIndexListener}.
+ */
+public class AvailabilityMapListener {
+
+	private final ObjectProvider<ApplicationAvailabilityMap> availabilityMap;
+	private final ObjectProvider<AdmissionNumberFilter> admissionNumberFilter;
+
+	public AvailabilityMapListener(ObjectProvider<ApplicationAvailabilityMap> availabilityMap,
+			ObjectProvider<AdmissionNumberFilter> admissionNumberFilter) {
+		this.availabilityMap = availabilityMap;
+		this.admissionNumberFilter = admissionNumberFilter;
+	}
+
+	@PostPersist
+	@PostUpdate
+	public void afterWrite(Object entity) {
+		if (entity instanceof StudentAcademicDetails s) {
+			AdmissionNumberFilter filter = admissionNumberFilter.getIfAvailable();
+			if (filter != null) {
+				filter.onSaleWritten(s);
+			}
+		}
+		ApplicationAvailabilityMap map = availabilityMap.getIfAvailable();
+		if (map == null) {
+			return;
+		}
+		if (entity instanceof BalanceTrack b) {
+			map.onBalanceWritten(b);
+		} else if (entity instanceof StudentAcademicDetails s) {
+			map.onSaleWritten(s);
+		} else if (entity instanceof AppStatus a) {
+			map.onStatusWritten(a);
+		}
+	}
+
+	@PostRemove
+	public void afterRemove(Object entity) {
+		if (entity instanceof StudentAcademicDetails s) {
+			AdmissionNumberFilter filter = admissionNumberFilter.getIfAvailable();
+			if (filter != null) {
+				filter.onSaleRemoved(s);
+			}
+		}
+	}
+}
@@ -0,0 +1,339 @@
+package com.application.service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.application.dto.AppSeriesDTO;
+import com.application.dto.HolderBalancePreviewDTO;
+import com.application.entity.AdminApp;
+import com.application.entity.BalanceTrack;
+import com.application.repository.AcademicYearRepository;
+import com.application.repository.AdminAppRepository;
+import com.application.repository.AppIssuedTypeRepository;
+import com.application.repository.BalanceTrackRepository;
+import com.application.repository.DistributionRepository;
+import com.application.repository.EmployeeRepository;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Applies the balance effect of a distribution as range deltas on
+ * sce_app_balance_trk instead of soft-deleting and re-inserting every row a
+ * holder owns.
+ *
+ * - receive: the holder gains [from, to]; rows touching it are merged into one
+ * - release: the holder loses [from, to]; rows are shrunk, split or deactivated
+ *
+ * Only the rows overlapping or adjacent to the range are read and written, so
+ * the cost of a distribution no longer depends on how many packets the holder
+ * already owns. CO/Admin holders (an AdminApp master row exists) keep their
+ * single "master minus distributed" row.
+ */
+@Service
+@RequiredArgsConstructor
+public class BalanceDeltaEngine {
+
+	private final BalanceTrackRepository balanceTrackRepository;
+	private final DistributionRepository distributionRepository;
+	private final AdminAppRepository adminAppRepository;
+	private final EmployeeRepository employeeRepository;
+	private final AcademicYearRepository academicYearRepository;
+	private final AppIssuedTypeRepository appIssuedTypeRepository;
+
+	/**
+	 * Holder gains [from, to]. Overlapping/adjacent rows collapse into one row.
+	 */
+	@Transactional
+	public void receive(int empId, int academicYearId, int typeId, Float amount, int from, int to, int createdBy) {
+		if (from > to || refreshIfAdmin(empId, academicYearId, typeId, amount, createdBy)) {
+			return;
+		}
+		receiveRange(empId, academicYearId, typeId, amount, from, to, createdBy);
+	}
+
+	/**
+	 * Holder loses [from, to]. Each overlapping row is shrunk, split in two or
+	 * deactivated.
+	 */
+	@Transactional
+	public void release(int empId, int academicYearId, int typeId, Float amount, int from, int to, int createdBy) {
+		if (from > to || refreshIfAdmin(empId, academicYearId, typeId, amount, createdBy)) {
+			return;
+		}
+		releaseRange(empId, academicYearId, amount, from, to, createdBy);
+	}
+
+	private void receiveRange(int empId, int academicYearId, int typeId, Float amount, int from, int to,
+			int createdBy) {
+		List<BalanceTrack> touching = balanceTrackRepository.findActiveBalancesByEmpAndAmountInRange(academicYearId,
+				empId, amount, from - 1, to + 1);
+
+		if (touching.isEmpty()) {
+			BalanceTrack row = newBalanceRow(empId, academicYearId, typeId, createdBy, amount);
+			setRange(row, from, to);
+			balanceTrackRepository.save(row);
+			return;
+		}
+
+		// MERGE: keep the first row, widen it, retire the rest
+		BalanceTrack keep = touching.get(0);
+		int mergedFrom = Math.min(from, keep.getAppFrom());
+		int mergedTo = to;
+		for (BalanceTrack b : touching) {
+			mergedTo = Math.max(mergedTo, b.getAppTo());
+		}
+		for (int i = 1; i < touching.size(); i++) {
+			BalanceTrack other = touching.get(i);
+			other.setIsActive(0);
+			balanceTrackRepository.save(other);
+		}
+		setRange(keep, mergedFrom, mergedTo);
+		balanceTrackRepository.save(keep);
+	}
+
+	private void releaseRange(int empId, int academicYearId, Float amount, int from, int to, int createdBy) {
+		List<BalanceTrack> overlapping = balanceTrackRepository.findActiveBalancesByEmpAndAmountInRange(academicYearId,
+				empId, amount, from, to);
+
+		for (BalanceTrack b : overlapping) {
+			boolean keepsLeft = b.getAppFrom() < from;
+			boolean keepsRight = b.getAppTo() > to;
+
+			if (!keepsLeft && !keepsRight) {
+				// Fully recalled
+				b.setIsActive(0);
+			} else if (keepsLeft && keepsRight) {
+				// SPLIT: this row keeps the left part, a new row takes the right part
+				BalanceTrack right = newBalanceRow(empId, academicYearId, b.getIssuedByType().getAppIssuedId(),
+						createdBy, amount);
+				setRange(right, to + 1, b.getAppTo());
+				balanceTrackRepository.save(right);
+				setRange(b, b.getAppFrom(), from - 1);
+			} else if (keepsLeft) {
+				setRange(b, b.getAppFrom(), from - 1);
+			} else {
+				setRange(b, to + 1, b.getAppTo());
+			}
+			balanceTrackRepository.save(b);
+		}
+	}
+
+	/**
+	 * Moves [from, to] between two holders; a no-op when both are the same.
+	 */
+	@Transactional
+	public void transfer(Integer fromEmpId, int fromTypeId, Integer toEmpId, int toTypeId, int academicYearId,
+			Float amount, int from, int to, int createdBy) {
+		if (fromEmpId != null && fromEmpId.equals(toEmpId)) {
+			return;
+		}
+		if (fromEmpId != null) {
+			release(fromEmpId, academicYearId, fromTypeId, amount, from, to, createdBy);
+		}
+		if (toEmpId != null) {
+			receive(toEmpId, academicYearId, toTypeId, amount, from, to, createdBy);
+		}
+	}
+
+	/**
+	 * Batch form used by bulk distribution: all ranges one holder lost and gained
+	 * in the transaction, applied in one go. Adjacent ranges are coalesced first,
+	 * so a run of contiguous packets costs a single release/receive.
+	 */
+	@Transactional
+	public void applyDeltas(int empId, int academicYearId, int typeId, Float amount, List<int[]> released,
+			List<int[]> received, int createdBy) {
+		if (refreshIfAdmin(empId, academicYearId, typeId, amount, createdBy)) {
+			return;
+		}
+		for (int[] r : coalesce(released)) {
+			releaseRange(empId, academicYearId, amount, r[0], r[1], createdBy);
+		}
+		for (int[] r : coalesce(received)) {
+			receiveRange(empId, academicYearId, typeId, amount, r[0], r[1], createdBy);
+		}
+	}
+
+	/**
+	 * Issuers only need attention when they are a CO/Admin: their balance is
+	 * derived from the master allocation. Intermediaries are covered by the
+	 * release/receive deltas.
+	 */
+	@Transactional
+	public void refreshIssuer(int empId, int academicYearId, int typeId, Float amount, int createdBy) {
+		refreshIfAdmin(empId, academicYearId, typeId, amount, createdBy);
+	}
+
+	/**
+	 * PRO (campus) balances are one row per PRO and amount, rebuilt from the
+	 * PRO's active distributions: their count and min / max app number.
+	 */
+	@Transactional
+	public void rebuildPro(int proId, int academicYearId, int typeId, Float amount, int createdBy) {
+		BalanceTrack balance = balanceTrackRepository.findActiveBalanceByProAndAmount(academicYearId, proId, amount)
+				.orElseGet(() -> {
+					BalanceTrack nb = new BalanceTrack();
+					nb.setIssuedToProId(proId);
+					nb.setAcademicYear(academicYearRepository.getReferenceById(academicYearId));
+					nb.setIssuedByType(appIssuedTypeRepository.getReferenceById(typeId));
+					nb.setIsActive(1);
+					nb.setCreatedBy(createdBy);
+					nb.setAmount(amount);
+					return nb;
+				});
+
+		int totalReceived = distributionRepository
+				.sumTotalAppCountByIssuedToProIdAndAmount(proId, academicYearId, amount).orElse(0);
+		if (totalReceived > 0) {
+			balance.setAppFrom(distributionRepository.findMinAppStartNoByIssuedToProId(proId, academicYearId).orElse(0));
+			balance.setAppTo(distributionRepository.findMaxAppEndNoByIssuedToProId(proId, academicYearId).orElse(0));
+			balance.setAppAvblCnt(totalReceived);
+		} else {
+			balance.setAppFrom(0);
+			balance.setAppTo(0);
+			balance.setAppAvblCnt(0);
+		}
+		balanceTrackRepository.save(balance);
+	}
+
+	/**
+	 * Read-only counterpart of {@link #applyDeltas} used by dry runs: the
+	 * holder's series before and after losing {@code released} and gaining
+	 * {@code received}. Pass either an employee or a PRO id. For a CO/Admin the
+	 * ranges do not matter; {@code distributedDelta} is the change in what they
+	 * have distributed.
+	 */
+	@Transactional(readOnly = true)
+	public HolderBalancePreviewDTO preview(Integer empId, Integer proId, int academicYearId, Float amount,
+			List<int[]> released, List<int[]> received, int distributedDelta) {
+		HolderBalancePreviewDTO dto = new HolderBalancePreviewDTO();
+		dto.setEmpId(empId);
+		dto.setProId(proId);
+		dto.setAcademicYearId(academicYearId);
+		dto.setAmount(amount);
+		dto.setReleased(toSeries(coalesce(released)));
+		dto.setReceived(toSeries(coalesce(received)));
+
+		Optional<AdminApp> adminApp = empId != null
+				? adminAppRepository.findByEmpAndYearAndAmount(empId, academicYearId, amount)
+				: Optional.empty();
+		if (adminApp.isPresent()) {
+			AdminApp master = adminApp.get();
+			int totalDistributed = distributionRepository
+					.sumTotalAppCountByCreatedByAndAmount(empId, academicYearId, amount).orElse(0);
+			List<AppSeriesDTO> masterSeries = toSeries(
+					List.of(new int[] { master.getAppFromNo(), master.getAppToNo() }));
+			dto.setAdmin(true);
+			dto.setCurrentSeries(masterSeries);
+			dto.setResultingSeries(masterSeries);
+			dto.setCurrentCount(master.getTotalApp() - totalDistributed);
+			dto.setResultingCount(master.getTotalApp() - totalDistributed - distributedDelta);
+			return dto;
+		}
+
+		List<BalanceTrack> rows = empId != null
+				? balanceTrackRepository.findActiveBalancesByEmpAndAmount(academicYearId, empId, amount)
+				: balanceTrackRepository.findActiveBalancesByProAndYear(academicYearId, proId).stream()
+						.filter(b -> Objects.equals(b.getAmount(), amount)).toList();
+
+		AppNumberBitmap held = new AppNumberBitmap();
+		int count = 0;
+		for (BalanceTrack b : rows) {
+			if (b.getAppAvblCnt() > 0 && b.getAppFrom() > 0 && b.getAppFrom() <= b.getAppTo()) {
+				held.addRange(b.getAppFrom(), b.getAppTo());
+				count += b.getAppAvblCnt();
+			}
+		}
+		dto.setCurrentSeries(toSeries(held.runs()));
+		dto.setCurrentCount(count);
+
+		// Same order as applyDeltas: releases first, then receives
+		AppNumberBitmap after = held.copy();
+		long change = 0;
+		for (int[] r : coalesce(released)) {
+			change -= after.count(r[0], r[1]);
+			AppNumberBitmap cut = new AppNumberBitmap();
+			cut.addRange(r[0], r[1]);
+			after.removeAll(cut);
+		}
+		for (int[] r : coalesce(received)) {
+			change += (r[1] - r[0] + 1) - after.count(r[0], r[1]);
+			after.addRange(r[0], r[1]);
+		}
+		dto.setResultingSeries(toSeries(after.runs()));
+		dto.setResultingCount((int) (count + change));
+		return dto;
+	}
+
+	// --- CO / ADMIN (The Source): Master Allocation - Total Distributed ---
+	private boolean refreshIfAdmin(int empId, int academicYearId, int typeId, Float amount, int createdBy) {
+		Optional<AdminApp> adminApp = adminAppRepository.findByEmpAndYearAndAmount(empId, academicYearId, amount);
+		if (adminApp.isEmpty()) {
+			return false;
+		}
+		AdminApp master = adminApp.get();
+
+		// Admins act as a single bucket, so we fetch/create just one row
+		List<BalanceTrack> balances = balanceTrackRepository.findActiveBalancesByEmpAndAmount(academicYearId, empId,
+				amount);
+		BalanceTrack balance = balances.isEmpty() ? newBalanceRow(empId, academicYearId, typeId, createdBy, amount)
+				: balances.get(0);
+
+		int totalDistributed = distributionRepository
+				.sumTotalAppCountByCreatedByAndAmount(empId, academicYearId, amount).orElse(0);
+
+		balance.setAppFrom(master.getAppFromNo());
+		balance.setAppTo(master.getAppToNo());
+		balance.setAppAvblCnt(master.getTotalApp() - totalDistributed);
+		balanceTrackRepository.save(balance);
+		return true;
+	}
+
+	private BalanceTrack newBalanceRow(int empId, int academicYearId, int typeId, int createdBy, Float amount) {
+		BalanceTrack nb = new BalanceTrack();
+		nb.setEmployee(employeeRepository.getReferenceById(empId));
+		nb.setAcademicYear(academicYearRepository.getReferenceById(academicYearId));
+		nb.setIssuedByType(appIssuedTypeRepository.getReferenceById(typeId));
+		nb.setIssuedToProId(null); // Strict Validation: It's an Employee
+		nb.setAmount(amount);
+		nb.setAppAvblCnt(0);
+		nb.setIsActive(1);
+		nb.setCreatedBy(createdBy);
+		return nb;
+	}
+
+	private static List<int[]> coalesce(List<int[]> ranges) {
+		List<int[]> sorted = new ArrayList<>(ranges);
+		sorted.sort(Comparator.comparingInt(r -> r[0]));
+		List<int[]> merged = new ArrayList<>();
+		for (int[] r : sorted) {
+			int[] last = merged.isEmpty() ? null : merged.get(merged.size() - 1);
+			if (last != null && r[0] <= last[1] + 1) {
+				last[1] = Math.max(last[1], r[1]);
+			} else {
+				merged.add(new int[] { r[0], r[1] });
+			}
+		}
+		return merged;
+	}
+
+	private static List<AppSeriesDTO> toSeries(List<int[]> ranges) {
+		List<AppSeriesDTO> series = new ArrayList<>();
+		for (int[] r : ranges) {
+			series.add(new AppSeriesDTO(r[0] + " - " + r[1], r[0], r[1]));
+		}
+		return series;
+	}
+
+	private static void setRange(BalanceTrack b, int from, int to) {
+		b.setAppFrom(from);
+		b.setAppTo(to);
+		b.setAppAvblCnt(to - from + 1);
+	}
+}
@@ -0,0 +1,48 @@
+package com.application.service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * The k first items of a stream under an order, without sorting the stream:
+ * a heap of at most k items with the current worst on top, so each offer is
+ * O(log k) and memory stays O(k).
+ */
+final class BoundedRanking<T> {
+
+	private final int k;
+	private final Comparator<? super T> order;
+	private final PriorityQueue<T> heap;
+
+	/**
+	 * @param order best first
+	 */
+	BoundedRanking(int k, Comparator<? super T> order) {
+		this.k = k;
+		this.order = order;
+		this.heap = new PriorityQueue<>(Math.max(1, k), order.reversed());
+	}
+
+	void offer(T item) {
+		if (k <= 0) {
+			return;
+		}
+		if (heap.size() < k) {
+			heap.add(item);
+		} else if (order.compare(item, heap.peek()) < 0) {
+			heap.poll();
+			heap.add(item);
+		}
+	}
+
+	/**
+	 * Kept items, best first.
+	 */
+	List<T> toList() {
+		List<T> items = new ArrayList<>(heap);
+		items.sort(order);
+		return items;
+	}
+}
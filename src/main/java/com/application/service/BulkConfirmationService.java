@@ -0,0 +1,306 @@
+package com.application.service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.application.dto.BulkConfirmationReportDTO;
+import com.application.dto.BulkConfirmationResultDTO;
+import com.application.dto.StudentConfirmationDTO;
+import com.application.entity.Orientation;
+import com.application.entity.OrientationBatch;
+import com.application.entity.ParentDetails;
+import com.application.entity.Sibling;
+import com.application.entity.StudentAcademicDetails;
+import com.application.entity.StudentConcessionType;
+import com.application.entity.StudentOrientationDetails;
+import com.application.entity.StudentPersonalDetails;
+import com.application.repository.OrientationBatchRepository;
+import com.application.repository.OrientationRepository;
+import com.application.repository.ParentDetailsRepository;
+import com.application.repository.SiblingRepository;
+import com.application.repository.StudentAcademicDetailsRepository;
+import com.application.repository.StudentConcessionTypeRepository;
+import com.application.repository.StudentOrientationDetailsRepository;
+import com.application.repository.StudentPersonalDetailsRepository;
+import com.application.service.ApplicationNewConfirmationService.ConfirmationRows;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
+/**
+ * School confirmation for many students in one request (campuses confirm
+ * whole batches after the entrance results).
+ *
+ * The list is handled in chunks of {@code confirmation-batch.chunk-size}, one
+ * transaction per chunk:
+ * 1. prefetch: the chunk's students in one IN query by studAdmsNo, then their
+ *    personal / orientation / parent / sibling / concession rows (one IN
+ *    query each) and the orientations and batches they reference
+ * 2. apply each confirmation through
+ *    {@link ApplicationNewConfirmationService#applyConfirmation}, which takes
+ *    its lookup rows from the {@link ReferenceDataRegistry}
+ * 3. flush once, so inserts and updates go out as JDBC batches
+ * 4. if that transaction fails, replay the chunk one student per
+ *    transaction so only the bad confirmations are rejected
+ *
+ * Unknown or repeated admission numbers and unknown orientations are
+ * rejected before the write. Every student gets a result; earlier chunks
+ * stay committed.
+ */
+@Service
+public class BulkConfirmationService {
+
+	private static final Logger logger = LoggerFactory.getLogger(BulkConfirmationService.class);
+
+	@PersistenceContext
+	private EntityManager entityManager;
+
+	private final ApplicationNewConfirmationService confirmationService;
+	private final StudentAcademicDetailsRepository academicRepo;
+	private final StudentPersonalDetailsRepository personalRepo;
+	private final StudentOrientationDetailsRepository orientationRepo;
+	private final ParentDetailsRepository parentRepo;
+	private final SiblingRepository siblingRepo;
+	private final StudentConcessionTypeRepository concessionRepo;
+	private final OrientationRepository orientationMasterRepo;
+	private final OrientationBatchRepository orientationBatchRepo;
+	private final TransactionTemplate writeTx;
+
+	@Value("${confirmation-batch.chunk-size:200}")
+	private int chunkSize;
+
+	@Value("${confirmation-batch.max-size:5000}")
+	private int maxSize;
+
+	public BulkConfirmationService(ApplicationNewConfirmationService confirmationService,
+			StudentAcademicDetailsRepository academicRepo, StudentPersonalDetailsRepository personalRepo,
+			StudentOrientationDetailsRepository orientationRepo, ParentDetailsRepository parentRepo,
+			SiblingRepository siblingRepo, StudentConcessionTypeRepository concessionRepo,
+			OrientationRepository orientationMasterRepo, OrientationBatchRepository orientationBatchRepo,
+			PlatformTransactionManager transactionManager) {
+		this.confirmationService = confirmationService;
+		this.academicRepo = academicRepo;
+		this.personalRepo = personalRepo;
+		this.orientationRepo = orientationRepo;
+		this.parentRepo = parentRepo;
+		this.siblingRepo = siblingRepo;
+		this.concessionRepo = concessionRepo;
+		this.orientationMasterRepo = orientationMasterRepo;
+		this.orientationBatchRepo = orientationBatchRepo;
+		this.writeTx = new TransactionTemplate(transactionManager);
+	}
+
+	public BulkConfirmationReportDTO confirmAll(List<StudentConfirmationDTO> confirmations) {
+		if (confirmations == null || confirmations.isEmpty()) {
+			throw new IllegalArgumentException("At least one confirmation must be provided.");
+		}
+		if (confirmations.size() > maxSize) {
+			throw new IllegalArgumentException(
+					"At most " + maxSize + " confirmations per request (got " + confirmations.size() + ")");
+		}
+		LocalDateTime startedAt = LocalDateTime.now();
+		long start = System.nanoTime();
+		Run run = new Run(confirmations.size());
+
+		List<Item> chunk = new ArrayList<>(chunkSize);
+		for (int i = 0; i < confirmations.size(); i++) {
+			StudentConfirmationDTO dto = confirmations.get(i);
+			Long no = dto != null ? dto.getStudAdmsNo() : null;
+			if (no == null) {
+				run.fail(i, null, "Admission Number must be provided.");
+			} else if (!run.seen.add(no)) {
+				run.fail(i, no, "Admission Number " + no + " appears more than once in this request");
+			} else {
+				chunk.add(new Item(i, dto));
+			}
+			if (chunk.size() >= chunkSize) {
+				processChunk(chunk, run);
+				chunk = new ArrayList<>(chunkSize);
+			}
+		}
+		if (!chunk.isEmpty()) {
+			processChunk(chunk, run);
+		}
+
+		long elapsed = Duration.ofNanos(System.nanoTime() - start).toMillis();
+		logger.info("Bulk confirmation: {} requested, {} confirmed, {} failed in {} chunks, {} ms",
+				confirmations.size(), run.confirmed, run.failed, run.chunks, elapsed);
+		return new BulkConfirmationReportDTO(startedAt, LocalDateTime.now(), elapsed, confirmations.size(),
+				run.confirmed, run.failed, run.chunks, run.replayedChunks, Arrays.asList(run.results));
+	}
+
+	// ---------------------------------------------------------
+	// Chunk
+	// ---------------------------------------------------------
+
+	private void processChunk(List<Item> chunk, Run run) {
+		run.chunks++;
+		List<Item> applied;
+		try {
+			applied = writeTx.execute(status -> {
+				List<Item> ok = applyChunk(chunk, run);
+				entityManager.flush();
+				return ok;
+			});
+		} catch (RuntimeException e) {
+			logger.info("Bulk confirmation chunk {} failed as a batch ({}); replaying per student", run.chunks,
+					rootMessage(e));
+			run.discardRejections(chunk);
+			replay(chunk, run);
+			return;
+		}
+		applied.forEach(item -> run.succeed(item.index(), item.dto().getStudAdmsNo()));
+	}
+
+	/**
+	 * Prefetches the chunk and applies every confirmation that passes the
+	 * checks; returns the applied items, records the rejected ones.
+	 */
+	private List<Item> applyChunk(List<Item> chunk, Run run) {
+		Set<Long> numbers = chunk.stream().map(i -> i.dto().getStudAdmsNo()).collect(Collectors.toSet());
+		Map<Long, StudentAcademicDetails> students = academicRepo.findByStudAdmsNoIn(numbers).stream()
+				.collect(Collectors.toMap(StudentAcademicDetails::getStudAdmsNo, Function.identity(), (a, b) -> a));
+		if (students.isEmpty()) {
+			chunk.forEach(item -> run.reject(item, notFound(item)));
+			return List.of();
+		}
+
+		Map<Integer, StudentPersonalDetails> personal = new HashMap<>();
+		personalRepo.findByStudentAcademicDetailsIn(students.values())
+				.forEach(p -> personal.putIfAbsent(p.getStudentAcademicDetails().getStud_adms_id(), p));
+		Map<Integer, StudentOrientationDetails> orientation = new HashMap<>();
+		orientationRepo.findByStudentAcademicDetailsIn(students.values())
+				.forEach(o -> orientation.putIfAbsent(o.getStudentAcademicDetails().getStud_adms_id(), o));
+		Map<Integer, List<ParentDetails>> parents = parentRepo.findByStudentAcademicDetailsIn(students.values())
+				.stream().collect(Collectors.groupingBy(p -> p.getStudentAcademicDetails().getStud_adms_id()));
+		Map<Integer, List<Sibling>> siblings = siblingRepo.findByStudentAcademicDetailsIn(students.values())
+				.stream().collect(Collectors.groupingBy(s -> s.getStudentAcademicDetails().getStud_adms_id()));
+		Map<Integer, List<StudentConcessionType>> concessions = concessionRepo
+				.findByStudAdmsIdIn(students.values().stream().map(StudentAcademicDetails::getStud_adms_id).toList())
+				.stream().collect(Collectors.groupingBy(StudentConcessionType::getStudAdmsId));
+
+		// Loaded into the persistence context, so the per-student findById calls do not query
+		Set<Integer> orientationIds = new HashSet<>();
+		Set<Integer> batchIds = new HashSet<>();
+		for (Item item : chunk) {
+			if (item.dto().getOrientationId() != null) {
+				orientationIds.add(item.dto().getOrientationId());
+			}
+			if (item.dto().getOrientationBatchId() != null) {
+				batchIds.add(item.dto().getOrientationBatchId());
+			}
+		}
+		Set<Integer> knownOrientations = orientationMasterRepo.findAllById(orientationIds).stream()
+				.map(Orientation::getOrientationId).collect(Collectors.toSet());
+		List<OrientationBatch> batches = orientationBatchRepo.findAllById(batchIds);
+		logger.debug("Bulk confirmation chunk {}: {} students, {} orientation batches prefetched", run.chunks,
+				students.size(), batches.size());
+
+		List<Item> applied = new ArrayList<>(chunk.size());
+		for (Item item : chunk) {
+			StudentConfirmationDTO dto = item.dto();
+			StudentAcademicDetails student = students.get(dto.getStudAdmsNo());
+			if (student == null) {
+				run.reject(item, notFound(item));
+				continue;
+			}
+			if (dto.getOrientationId() != null && !knownOrientations.contains(dto.getOrientationId())) {
+				run.reject(item, "Orientation not found for ID: " + dto.getOrientationId());
+				continue;
+			}
+			int id = student.getStud_adms_id();
+			confirmationService.applyConfirmation(student, dto, new ConfirmationRows(
+					() -> Optional.ofNullable(personal.get(id)),
+					() -> Optional.ofNullable(orientation.get(id)),
+					() -> parents.getOrDefault(id, List.of()),
+					() -> siblings.getOrDefault(id, List.of()),
+					() -> concessions.getOrDefault(id, List.of())));
+			applied.add(item);
+		}
+		return applied;
+	}
+
+	private void replay(List<Item> chunk, Run run) {
+		run.replayedChunks++;
+		for (Item item : chunk) {
+			try {
+				writeTx.executeWithoutResult(status -> confirmationService.saveOrUpdateConfirmation(item.dto()));
+				run.succeed(item.index(), item.dto().getStudAdmsNo());
+			} catch (RuntimeException e) {
+				run.fail(item.index(), item.dto().getStudAdmsNo(), rootMessage(e));
+			}
+		}
+	}
+
+	private static String notFound(Item item) {
+		return "Student not found with Admission No: " + item.dto().getStudAdmsNo();
+	}
+
+	private static String rootMessage(Throwable e) {
+		Throwable root = e;
+		while (root.getCause() != null && root.getCause() != root) {
+			root = root.getCause();
+		}
+		return root.getMessage() != null ? root.getMessage() : root.getClass().getSimpleName();
+	}
+
+	// ---------------------------------------------------------
+
+	private record Item(int index, StudentConfirmationDTO dto) {
+	}
+
+	private static final class Run {
+		private final Set<Long> seen = new HashSet<>();
+		private final BulkConfirmationResultDTO[] results;
+		private int confirmed;
+		private int failed;
+		private int chunks;
+		private int replayedChunks;
+
+		Run(int size) {
+			this.results = new BulkConfirmationResultDTO[size];
+		}
+
+		void succeed(int index, Long studAdmsNo) {
+			confirmed++;
+			results[index] = new BulkConfirmationResultDTO(index, studAdmsNo, true, "Confirmed");
+		}
+
+		void fail(int index, Long studAdmsNo, String message) {
+			failed++;
+			results[index] = new BulkConfirmationResultDTO(index, studAdmsNo, false, message);
+		}
+
+		// Rejected inside the chunk transaction; final only if that transaction commits
+		void reject(Item item, String message) {
+			fail(item.index(), item.dto().getStudAdmsNo(), message);
+		}
+
+		// The chunk rolled back: its rejections are redone by the per-student replay
+		void discardRejections(List<Item> chunk) {
+			for (Item item : chunk) {
+				if (results[item.index()] != null) {
+					failed--;
+					results[item.index()] = null;
+				}
+			}
+		}
+	}
+}
@@ -1,7 +1,9 @@
 package com.application.service;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
-import java.util.Optional;
+import java.util.Objects;
 import java.util.stream.Collectors;
 
 import org.springframework.beans.factory.annotation.Autowired;
@@ -12,15 +14,13 @@ import org.springframework.transaction.annotation.Transactional;
 
 import com.application.dto.AppNumberRangeDTO;
 import com.application.dto.DgmToCampusFormDTO;
+import com.application.dto.DistributionPreviewDTO;
 import com.application.dto.GenericDropdownDTO;
-import com.application.entity.AdminApp;
-import com.application.entity.BalanceTrack;
 import com.application.entity.CampusProView;
 import com.application.entity.Distribution;
 import com.application.entity.District;
 import com.application.entity.UserAdminView;
 import com.application.repository.AcademicYearRepository;
-import com.application.repository.AdminAppRepository;
 import com.application.repository.AppIssuedTypeRepository;
 import com.application.repository.BalanceTrackRepository;
 import com.application.repository.CampaignRepository;
@@ -55,15 +55,24 @@ public class CampusService {
 	@Autowired
 	UserAdminViewRepository userAdminViewRepository;
 
-	@Autowired
-	private AdminAppRepository adminAppRepository;
-
 	@Autowired
 	private ZonalAccountantRepository zonalAccountantRepository;
 
 	@Autowired
 	private DgmRepository dgmRepository;
 
+	@Autowired
+	private BalanceDeltaEngine balanceDeltaEngine;
+
+	@Autowired
+	private DistributionLockManager distributionLockManager;
+
+	@Autowired
+	private DistributionBatchPlanner distributionBatchPlanner;
+
+	@Autowired
+	private DistributionRangeIndex distributionRangeIndex;
+
 	public CampusService(AcademicYearRepository academicYearRepository, StateRepository stateRepository,
 			DistrictRepository districtRepository, CityRepository cityRepository, CampusRepository campusRepository,
 			CampaignRepository campaignRepository, AppIssuedTypeRepository appIssuedTypeRepository,
@@ -223,58 +232,23 @@ public class CampusService {
 		return highestPriorityTypeId;
 	}
 
+	/**
+	 * Every overlapped distribution is split and the balance deltas applied by
+	 * the batch planner, the same engine {@link #previewDgmToCampusForm} runs.
+	 */
 	@Transactional
-    public void submitDgmToCampusForm(@NonNull DgmToCampusFormDTO formDto) {
-        int dgmUserId = formDto.getUserId();
-        int dgmUserTypeId = getDgmUserTypeId(dgmUserId);
-
-        // -------------------------------------------------------
-        // STEP 1: CHECK FOR OVERLAPS (This was missing!)
-        // -------------------------------------------------------
-        int startNo = Integer.parseInt(formDto.getApplicationNoFrom());
-        int endNo = Integer.parseInt(formDto.getApplicationNoTo());
-
-        // 1. Find conflicts
-        List<Distribution> overlappingDists = distributionRepository.findOverlappingDistributions(
-                formDto.getAcademicYearId(), startNo, endNo);
-
-        // 2. Execute the Split/Recall Logic
-        if (!overlappingDists.isEmpty()) {
-            // This call removes the warning and fixes the logic!
-            handleOverlappingDistributions(overlappingDists, formDto);
-        }
-        // -------------------------------------------------------
-
-        // 2. Create and Map Basic Fields
-        Distribution distribution = new Distribution();
-        mapDtoToDistribution(distribution, formDto, dgmUserTypeId); 
-        
-        // 3. Lookup Receiver
-        CampusProView receiver = campusProViewRepository.findByEmp_id(formDto.getReceiverId())
-                .orElseThrow(() -> new RuntimeException("Receiver not found"));
-
-        // 4. Traffic Switch
-        if (receiver.getIsOurEmp() == 1) {
-            distribution.setIssued_to_emp_id(receiver.getCmps_emp_id());
-            distribution.setIssued_to_pro_id(null); 
-        } else {
-            distribution.setIssued_to_pro_id(receiver.getCmps_emp_id()); 
-            distribution.setIssued_to_emp_id(null);
-        }
-
-        // 5. Save and Flush
-        Distribution savedDist = distributionRepository.saveAndFlush(distribution);
-
-        // 6. Recalculate Balances
-        int stateId = savedDist.getState().getStateId(); 
-        Float amount = formDto.getApplication_Amount(); 
-
-        // A. Update Issuer
-        recalculateBalanceForEmployee(dgmUserId, formDto.getAcademicYearId(), stateId, dgmUserTypeId, dgmUserId, amount);
-        
-        // B. Update Receiver
-        addStockToReceiver(savedDist, formDto.getAcademicYearId(), formDto.getIssuedToTypeId(), dgmUserId, amount);
-    }
+	public void submitDgmToCampusForm(@NonNull DgmToCampusFormDTO formDto) {
+		int dgmUserId = formDto.getUserId();
+		int dgmUserTypeId = getDgmUserTypeId(dgmUserId);
+		CampusProView receiver = campusProViewRepository.findByEmp_id(formDto.getReceiverId())
+				.orElseThrow(() -> new RuntimeException("Receiver not found"));
+
+		// Range and holder locks, the split, one flush and the balance changes
+		distributionBatchPlanner.apply(List.of(toPacket(formDto, dgmUserTypeId, receiver)), dgmUserId, false);
+
+		balanceDeltaEngine.refreshIssuer(dgmUserId, formDto.getAcademicYearId(), dgmUserTypeId,
+				formDto.getApplication_Amount(), dgmUserId);
+	}
 
 	private Integer getIssuerZoneId(int issuerId, int issuerTypeId) {
 		// If Issuer is Zonal Accountant (Type 2)
@@ -309,70 +283,120 @@ public class CampusService {
 		return null;
 	}
 
-	private void recalculateBalanceForPro(int proId, int academicYearId, int stateId, int typeId, int createdBy, Float amount) {
-
-	    // 1. Find existing PRO balance
-	    BalanceTrack balance = balanceTrackRepository.findActiveBalanceByProAndAmount(academicYearId, proId, amount)
-	            .orElseGet(() -> {
-	                BalanceTrack nb = new BalanceTrack();
-	                nb.setIssuedToProId(proId);
-	                nb.setEmployee(null); 
-	                nb.setAcademicYear(academicYearRepository.findById(academicYearId).orElseThrow());
-	                nb.setIssuedByType(appIssuedTypeRepository.findById(typeId).orElseThrow());
-	                nb.setIsActive(1);
-	                nb.setCreatedBy(createdBy);
-	                nb.setAmount(amount);
-	                return nb;
-	            });
-
-	    // 2. Calculate Totals from Distribution Table
-	    // This query returns '7' correctly
-	    Integer totalReceived = distributionRepository
-	            .sumTotalAppCountByIssuedToProIdAndAmount(proId, academicYearId, amount).orElse(0);
-
-	    // 3. Set Ranges AND Count
-	    if (totalReceived > 0) {
-	        // These two lines worked (that's why you see 111-117)
-	        balance.setAppFrom(
-	                distributionRepository.findMinAppStartNoByIssuedToProId(proId, academicYearId).orElse(0));
-	        balance.setAppTo(
-	                distributionRepository.findMaxAppEndNoByIssuedToProId(proId, academicYearId).orElse(0));
-	        
-	        // --- THIS IS THE MISSING LINE ---
-	        balance.setAppAvblCnt(totalReceived); 
-	        // --------------------------------
-	        
-	    } else {
-	        balance.setAppFrom(0);
-	        balance.setAppTo(0);
-	        balance.setAppAvblCnt(0);
-	    }
+	@Transactional
+	public void updateDgmToCampusForm(@NonNull Integer distributionId, @NonNull DgmToCampusFormDTO formDto) {
+		Distribution existingDistribution = distributionRepository.findById(distributionId)
+				.orElseThrow(() -> new RuntimeException("Distribution record not found for ID: " + distributionId));
+		int newStart = Integer.parseInt(formDto.getApplicationNoFrom());
+		int newEnd = Integer.parseInt(formDto.getApplicationNoTo());
+		distributionLockManager.lockForUpdate(existingDistribution, newStart, newEnd);
+
+		int dgmUserId = formDto.getUserId();
+		int dgmUserTypeId = getDgmUserTypeId(dgmUserId);
+		CampusProView newReceiver = campusProViewRepository.findByEmp_id(formDto.getReceiverId())
+				.orElseThrow(() -> new RuntimeException("New Receiver not found"));
+		checkSchoolTransfer(formDto, dgmUserId, dgmUserTypeId, newReceiver);
+
+		Distribution newDist = newDistribution(formDto, dgmUserTypeId, newReceiver);
+
+		// Everyone whose balance this update can touch (read under the range lock)
+		List<Distribution> overlappingDists = distributionRangeIndex
+				.findOverlappingDistributions(formDto.getAcademicYearId(), newStart, newEnd);
+		List<Distribution> touched = new ArrayList<>(overlappingDists);
+		touched.add(existingDistribution);
+		distributionLockManager.lockHolders(touched, Arrays.asList(dgmUserId, newDist.getIssued_to_emp_id()),
+				Arrays.asList(newDist.getIssued_to_pro_id()));
+
+		// Inactivate old, create new + remainders, apply balance deltas (issuer included)
+		distributionBatchPlanner.execute(
+				planUpdate(existingDistribution, newDist, formDto, dgmUserTypeId, overlappingDists), dgmUserId);
+	}
 
-	    balanceTrackRepository.save(balance);
+	/**
+	 * Dry run of {@link #submitDgmToCampusForm}: the split and the balance
+	 * deltas are worked out by the batch planner (every overlap is split, as
+	 * there). Nothing is written.
+	 */
+	@Transactional(readOnly = true)
+	public DistributionPreviewDTO previewDgmToCampusForm(@NonNull DgmToCampusFormDTO formDto) {
+		int dgmUserId = formDto.getUserId();
+		int dgmUserTypeId = getDgmUserTypeId(dgmUserId);
+		CampusProView receiver = campusProViewRepository.findByEmp_id(formDto.getReceiverId())
+				.orElseThrow(() -> new RuntimeException("Receiver not found"));
+
+		return distributionBatchPlanner.preview(distributionBatchPlanner
+				.plan(List.of(toPacket(formDto, dgmUserTypeId, receiver)), false)
+				.withIssuer(dgmUserId, formDto.getAcademicYearId(), dgmUserTypeId, formDto.getApplication_Amount()));
 	}
 
-	@Transactional
-	public void updateDgmToCampusForm(@NonNull Integer distributionId, @NonNull DgmToCampusFormDTO formDto) {
-	    System.out.println("--- LOG: START updateDgmToCampusForm ---");
-	    System.out.println("--- LOG: Dist ID: " + distributionId + ", User ID: " + formDto.getUserId() + 
-	                       ", Target Range: " + formDto.getApplicationNoFrom() + "-" + formDto.getApplicationNoTo());
-
-	    // 1. Fetch Existing Record
-	    Distribution existingDistribution = distributionRepository.findById(distributionId)
-	            .orElseThrow(() -> new RuntimeException("Distribution record not found for ID: " + distributionId));
-
-	    // 2. Extract Critical Data
-	    Float originalAmount = existingDistribution.getAmount();
-	    int stateId = existingDistribution.getState().getStateId();
-	    int dgmUserId = formDto.getUserId();
-	    int academicYearId = formDto.getAcademicYearId();
-	    int dgmUserTypeId = getDgmUserTypeId(dgmUserId);
-
-	    // 3. Resolve New Receiver
-	    CampusProView newReceiver = campusProViewRepository.findByEmp_id(formDto.getReceiverId())
-	            .orElseThrow(() -> new RuntimeException("New Receiver not found"));
-
-	    // School Validation
+	/**
+	 * Dry run of {@link #updateDgmToCampusForm}. PRO balances, which the update
+	 * rebuilds from their distributions, are shown as range deltas. Nothing is
+	 * written.
+	 */
+	@Transactional(readOnly = true)
+	public DistributionPreviewDTO previewUpdateDgmToCampusForm(@NonNull Integer distributionId,
+			@NonNull DgmToCampusFormDTO formDto) {
+		Distribution existingDistribution = distributionRepository.findById(distributionId)
+				.orElseThrow(() -> new RuntimeException("Distribution record not found for ID: " + distributionId));
+		int dgmUserId = formDto.getUserId();
+		int dgmUserTypeId = getDgmUserTypeId(dgmUserId);
+		CampusProView newReceiver = campusProViewRepository.findByEmp_id(formDto.getReceiverId())
+				.orElseThrow(() -> new RuntimeException("New Receiver not found"));
+		checkSchoolTransfer(formDto, dgmUserId, dgmUserTypeId, newReceiver);
+
+		Distribution newDist = newDistribution(formDto, dgmUserTypeId, newReceiver);
+		List<Distribution> overlappingDists = distributionRangeIndex.findOverlappingDistributions(
+				formDto.getAcademicYearId(), newDist.getAppStartNo(), newDist.getAppEndNo());
+		return distributionBatchPlanner
+				.preview(planUpdate(existingDistribution, newDist, formDto, dgmUserTypeId, overlappingDists));
+	}
+
+	// The form's distribution, held by the receiver's employee or PRO column
+	private Distribution newDistribution(DgmToCampusFormDTO formDto, int dgmUserTypeId, CampusProView receiver) {
+		Distribution distribution = new Distribution();
+		mapDtoToDistribution(distribution, formDto, dgmUserTypeId);
+		if (receiver.getIsOurEmp() == 1) {
+			distribution.setIssued_to_emp_id(receiver.getCmps_emp_id());
+			distribution.setIssued_to_pro_id(null);
+		} else {
+			distribution.setIssued_to_pro_id(receiver.getCmps_emp_id());
+			distribution.setIssued_to_emp_id(null);
+		}
+		return distribution;
+	}
+
+	private DistributionBatchPlanner.Packet toPacket(DgmToCampusFormDTO formDto, int dgmUserTypeId,
+			CampusProView receiver) {
+		Distribution distribution = newDistribution(formDto, dgmUserTypeId, receiver);
+		return new DistributionBatchPlanner.Packet(formDto.getAcademicYearId(), distribution.getAppStartNo(),
+				distribution.getAppEndNo(), formDto.getRange(), formDto.getApplication_Amount(),
+				distribution.getIssued_to_emp_id(), formDto.getIssuedToTypeId(), formDto.getUserId(), distribution);
+	}
+
+	private DistributionBatchPlanner.Plan planUpdate(Distribution existingDistribution, Distribution newDist,
+			DgmToCampusFormDTO formDto, int dgmUserTypeId, List<Distribution> overlappingDists) {
+		Float originalAmount = existingDistribution.getAmount();
+		newDist.setAmount(originalAmount);
+
+		// Other packets are only split when the range or the holder changes
+		boolean isChanging = !Objects.equals(existingDistribution.getIssued_to_emp_id(), newDist.getIssued_to_emp_id())
+				|| !Objects.equals(existingDistribution.getIssued_to_pro_id(), newDist.getIssued_to_pro_id())
+				|| existingDistribution.getAppStartNo() != newDist.getAppStartNo()
+				|| existingDistribution.getAppEndNo() != newDist.getAppEndNo();
+		List<Distribution> others = !isChanging ? List.of()
+				: overlappingDists.stream()
+						.filter(d -> !d.getAppDistributionId().equals(existingDistribution.getAppDistributionId()))
+						.toList();
+
+		return distributionBatchPlanner
+				.planUpdate(existingDistribution, newDist, formDto.getIssuedToTypeId(), others)
+				.withIssuer(formDto.getUserId(), formDto.getAcademicYearId(), dgmUserTypeId, originalAmount);
+	}
+
+	// PRO balances are derived from their distributions, so they are rebuilt once the plan is written
+	private void checkSchoolTransfer(DgmToCampusFormDTO formDto, int dgmUserId, int dgmUserTypeId,
+	        CampusProView newReceiver) {
 	    if (dgmUserTypeId != 1) { 
 	        String category = formDto.getCategory();
 	        if (category != null && category.trim().equalsIgnoreCase("SCHOOL")) {
@@ -383,266 +407,10 @@ public class CampusService {
 	            }
 	        }
 	    }
-
-	    // Determine New IDs
-	    Integer newEmpId = (newReceiver.getIsOurEmp() == 1) ? newReceiver.getCmps_emp_id() : null;
-	    Integer newProId = (newReceiver.getIsOurEmp() == 0) ? newReceiver.getCmps_emp_id() : null;
-
-	    // Identify Changes
-	    Integer oldEmpId = existingDistribution.getIssued_to_emp_id();
-	    Integer oldProId = existingDistribution.getIssued_to_pro_id();
-	    boolean isRecipientChanging = !java.util.Objects.equals(oldEmpId, newEmpId) || !java.util.Objects.equals(oldProId, newProId);
-
-	    int oldStart = (int) existingDistribution.getAppStartNo();
-	    int oldEnd = (int) existingDistribution.getAppEndNo();
-	    int newStart = Integer.parseInt(formDto.getApplicationNoFrom());
-	    int newEnd = Integer.parseInt(formDto.getApplicationNoTo());
-	    boolean isRangeChanging = oldStart != newStart || oldEnd != newEnd;
-
-	    System.out.println("--- LOG: Range Changing? " + isRangeChanging + " (" + oldStart + "->" + newStart + ")");
-	    System.out.println("--- LOG: Recipient Changing? " + isRecipientChanging);
-
-	    // -------------------------------------------------------
-	    // STEP 6: CHECK OVERLAPS (THE FIX LOGIC)
-	    // -------------------------------------------------------
-	    boolean isIssuerRebuilt = false; // Flag to track if we already fixed 4818
-
-	    if (isRangeChanging || isRecipientChanging) {
-	        System.out.println("--- LOG: Checking for overlaps...");
-	        List<Distribution> overlappingDists = distributionRepository.findOverlappingDistributions(
-	                academicYearId, newStart, newEnd);
-	        
-	        // Filter out self
-	        List<Distribution> others = overlappingDists.stream()
-	            .filter(d -> !d.getAppDistributionId().equals(distributionId))
-	            .toList();
-
-	        System.out.println("--- LOG: Found " + others.size() + " overlapping distributions (excluding self).");
-
-	        if (!others.isEmpty()) {
-	            // FIX: Capture the boolean return value!
-	            isIssuerRebuilt = handleOverlappingDistributions(others, formDto);
-	        }
-	    }
-	    
-	    System.out.println("--- LOG: isIssuerRebuilt flag is: " + isIssuerRebuilt);
-
-	    // -------------------------------------------------------
-	    // STEP 7: EXECUTE UPDATE
-	    // -------------------------------------------------------
-	    
-	    // A. Inactivate Old
-	    existingDistribution.setIsActive(0);
-	    distributionRepository.saveAndFlush(existingDistribution);
-
-	    // B. Create New
-	    Distribution newDist = new Distribution();
-	    mapDtoToDistribution(newDist, formDto, dgmUserTypeId);
-	    newDist.setIssued_to_emp_id(newEmpId);
-	    newDist.setIssued_to_pro_id(newProId);
-	    newDist.setAmount(originalAmount); 
-	    distributionRepository.saveAndFlush(newDist);
-
-	    // 8. Handle Remainders (For Shrinking/Shifting)
-	    if (isRangeChanging) {
-	        if (oldStart < newStart) {
-	            System.out.println("--- LOG: Creating standard start remainder.");
-	            createAndSaveRemainder(existingDistribution, oldStart, newStart - 1);
-	        }
-	        if (oldEnd > newEnd) {
-	            System.out.println("--- LOG: Creating standard end remainder.");
-	            createAndSaveRemainder(existingDistribution, newEnd + 1, oldEnd);
-	        }
-	    }
-
-	    // -------------------------------------------------------
-	    // STEP 9: RECALCULATE BALANCES
-	    // -------------------------------------------------------
-
-	    // A. Issuer (4818) - THE CRITICAL FIX
-	    if (!isIssuerRebuilt) {
-	        System.out.println("--- LOG: Performing Standard Issuer Recalculation (Flag was FALSE)");
-	        recalculateBalanceForEmployee(dgmUserId, academicYearId, stateId, dgmUserTypeId, dgmUserId, originalAmount);
-	    } else {
-	        System.out.println("--- LOG: SKIPPING Issuer Recalculation (Flag was TRUE) - Balance 4818 is safe.");
-	    }
-
-	    // B. New Receiver
-	    if (newProId != null) {
-	        recalculateBalanceForPro(newProId, academicYearId, stateId, formDto.getIssuedToTypeId(), dgmUserId, originalAmount);
-	    } else if (newEmpId != null) {
-	        // Use smart addStockToReceiver here
-	        addStockToReceiver(newDist, academicYearId, formDto.getIssuedToTypeId(), dgmUserId, originalAmount);
-	    }
-
-	    // C. Old Receiver (If changed)
-	    if (isRecipientChanging || isRangeChanging) {
-	        if (oldEmpId != null) {
-	            recalculateBalanceForEmployee(oldEmpId, academicYearId, stateId, existingDistribution.getIssuedToType().getAppIssuedId(), dgmUserId, originalAmount);
-	        }
-	        if (oldProId != null) {
-	            recalculateBalanceForPro(oldProId, academicYearId, stateId, existingDistribution.getIssuedToType().getAppIssuedId(), dgmUserId, originalAmount);
-	        }
-	    }
-	    
-	    System.out.println("--- LOG: END updateDgmToCampusForm ---");
 	}
 
 	// --- PRIVATE HELPER METHODS ---
 
-	// CHANGE: Return type must be boolean
-	private boolean handleOverlappingDistributions(List<Distribution> overlappingDists, DgmToCampusFormDTO request) {
-	    System.out.println("--- LOG: Inside handleOverlappingDistributions ---");
-	    System.out.println("--- LOG: Request User ID: " + request.getUserId());
-	    
-	    boolean issuerRebuilt = false; 
-	    int reqStart = Integer.parseInt(request.getApplicationNoFrom());
-	    int reqEnd = Integer.parseInt(request.getApplicationNoTo());
-
-	    for (Distribution oldDist : overlappingDists) {
-	        Integer oldHolderId = null;
-	        boolean isPro = false;
-	        
-	        if (oldDist.getIssued_to_emp_id() != null) {
-	            oldHolderId = oldDist.getIssued_to_emp_id();
-	        } else if (oldDist.getIssued_to_pro_id() != null) {
-	            oldHolderId = oldDist.getIssued_to_pro_id();
-	            isPro = true;
-	        }
-
-	        System.out.println("--- LOG: Processing Overlap. Old Holder ID: " + oldHolderId + ", IsPro: " + isPro);
-
-	        // 2. Inactivate OLD
-	        oldDist.setIsActive(0);
-	        distributionRepository.saveAndFlush(oldDist); 
-
-	        // 3. Split Logic
-	        int oldStart = oldDist.getAppStartNo();
-	        int oldEnd = oldDist.getAppEndNo();
-
-	        if (oldStart < reqStart) {
-	            System.out.println("--- LOG: Creating Start Remainder: " + oldStart + " to " + (reqStart - 1));
-	            createAndSaveRemainder(oldDist, oldStart, reqStart - 1);
-	        }
-	        if (oldEnd > reqEnd) {
-	            System.out.println("--- LOG: Creating End Remainder: " + (reqEnd + 1) + " to " + oldEnd);
-	            createAndSaveRemainder(oldDist, reqEnd + 1, oldEnd);
-	        }
-
-	        // 4. Recalculate Victim's Balance
-	        if (isPro) {
-	            recalculateBalanceForPro(oldHolderId, request.getAcademicYearId(), 
-	                    oldDist.getState().getStateId(), oldDist.getIssuedToType().getAppIssuedId(), 
-	                    request.getUserId(), oldDist.getAmount());
-	        } else {
-	            System.out.println("--- LOG: Rebuilding Balance for Emp ID: " + oldHolderId);
-	            
-	            rebuildBalancesFromDistributions(oldHolderId, request.getAcademicYearId(), 
-	                    oldDist.getIssuedToType().getAppIssuedId(), request.getUserId(), oldDist.getAmount());
-
-	            // --- CRITICAL FIX HERE: Use .equals() instead of == ---
-	            if (oldHolderId != null && oldHolderId.equals(request.getUserId())) {
-	                System.out.println("--- LOG: MATCH FOUND! Issuer " + oldHolderId + " was rebuilt.");
-	                issuerRebuilt = true; 
-	            } else {
-	                System.out.println("--- LOG: No Match. OldHolder: " + oldHolderId + " vs RequestUser: " + request.getUserId());
-	            }
-	        }
-	    }
-	    
-	    System.out.println("--- LOG: Exiting handleOverlappingDistributions. Returns: " + issuerRebuilt);
-	    return issuerRebuilt;
-	}
-	// REVISED recalculateBalanceForEmployee for CampusService
-	// REVISED recalculateBalanceForEmployee in DgmService
-private void recalculateBalanceForEmployee(int employeeId, int academicYearId, int stateId, int typeId, int createdBy, Float amount) {
-        
-        // 1. CHECK: Is this a CO/Admin? (Check Master Table)
-        Optional<AdminApp> adminApp = adminAppRepository.findByEmpAndYearAndAmount(
-                employeeId, academicYearId, amount);
-
-        if (adminApp.isPresent()) {
-            // CASE A: CO / ADMIN (Source Logic)
-            AdminApp master = adminApp.get();
-            
-            List<BalanceTrack> balances = balanceTrackRepository.findActiveBalancesByEmpAndAmount(
-                    academicYearId, employeeId, amount);
-            
-            BalanceTrack balance;
-            if (balances.isEmpty()) {
-                balance = createNewBalanceTrack(employeeId, academicYearId, typeId, createdBy);
-                balance.setAmount(amount);
-                balance.setEmployee(employeeRepository.findById(employeeId).orElseThrow());
-                balance.setIssuedToProId(null); 
-            } else {
-                balance = balances.get(0); 
-            }
-
-            int totalDistributed = distributionRepository.sumTotalAppCountByCreatedByAndAmount(
-                    employeeId, academicYearId, amount).orElse(0);
-            
-            balance.setAppFrom(master.getAppFromNo());
-            balance.setAppTo(master.getAppToNo());
-            balance.setAppAvblCnt(master.getTotalApp() - totalDistributed);
-            
-            balanceTrackRepository.save(balance);
-        
-        } else {
-            // CASE B: INTERMEDIARY (DGM/Zone) -> REBUILD LOGIC
-            // This fixes the issue where sender balance wasn't updating correctly for gaps
-            rebuildBalancesFromDistributions(employeeId, academicYearId, typeId, createdBy, amount);
-        }
-    }
-	
-private void rebuildBalancesFromDistributions(int empId, int acYearId, int typeId, int createdBy, Float amount) {
-    System.out.println("--- LOG: Inside rebuildBalancesFromDistributions for Emp: " + empId);
-
-    // 1. Fetch Active Distributions (IGNORING AMOUNT IN SQL)
-    // This fixes the bug where "2000.0" != "2000" in the database
-    List<Distribution> allHoldings = distributionRepository.findActiveHoldingsForEmp(empId, acYearId);
-    
-    System.out.println("--- LOG: Raw active holdings found: " + allHoldings.size());
-
-    // 2. Filter by Amount in Java (Safe Float Comparison)
-    List<Distribution> holdings = allHoldings.stream()
-            .filter(d -> Math.abs(d.getAmount() - amount) < 0.01) // Tolerates tiny differences
-            .toList();
-
-    System.out.println("--- LOG: Holdings after Amount filter: " + holdings.size());
-    
-    // 3. Fetch Current Balance Tracks to wipe them clean
-    // (We keep the DB query here as is, or you can relax it too if needed, but usually the issue is finding the source distribution)
-    List<BalanceTrack> currentBalances = balanceTrackRepository.findActiveBalancesByEmpAndAmount(
-            acYearId, empId, amount);
-
-    System.out.println("--- LOG: Found " + currentBalances.size() + " existing balance tracks to deactivate.");
-
-    // 4. Deactivate old balances
-    for (BalanceTrack b : currentBalances) {
-        b.setIsActive(0);
-        balanceTrackRepository.save(b);
-    }
-    
-    // 5. Create NEW Balance Tracks
-    if (holdings.isEmpty()) {
-        System.out.println("--- LOG: WARNING! No holdings found. User balance will be 0.");
-    }
-
-    for (Distribution dist : holdings) {
-        System.out.println("--- LOG: Creating NEW Balance Track for range: " + dist.getAppStartNo() + "-" + dist.getAppEndNo());
-        
-        // Pass 'false' because this method is specifically for Employees
-        BalanceTrack nb = createNewBalanceTrack(empId, acYearId, dist.getIssuedByType().getAppIssuedId(), createdBy, false);
-        
-        nb.setAmount(amount);
-        nb.setAppFrom((int) dist.getAppStartNo());
-        nb.setAppTo((int) dist.getAppEndNo());
-        nb.setAppAvblCnt(dist.getTotalAppCount());
-        
-        balanceTrackRepository.save(nb);
-    }
-}
-
 	private void mapDtoToDistribution(Distribution distribution, DgmToCampusFormDTO formDto, int issuedById) {
 		int appNoFrom = Integer.parseInt(formDto.getApplicationNoFrom());
 		int appNoTo = Integer.parseInt(formDto.getApplicationNoTo());
@@ -687,130 +455,4 @@ private void rebuildBalancesFromDistributions(int empId, int acYearId, int typeI
 		distribution.setIsActive(1);
 		distribution.setCreated_by(formDto.getUserId());
 	}
-	
-	
-
-	private void mapExistingToNewDistribution(Distribution newDist, Distribution oldDist) {
-		newDist.setAcademicYear(oldDist.getAcademicYear());
-		newDist.setState(oldDist.getState());
-		newDist.setDistrict(oldDist.getDistrict());
-		newDist.setCity(oldDist.getCity());
-		newDist.setZone(oldDist.getZone());
-		newDist.setCampus(oldDist.getCampus());
-		newDist.setIssuedByType(oldDist.getIssuedByType());
-		newDist.setIssuedToType(oldDist.getIssuedToType());
-		newDist.setIssued_to_emp_id(oldDist.getIssued_to_emp_id());
-		newDist.setAppStartNo(oldDist.getAppStartNo());
-		newDist.setAppEndNo(oldDist.getAppEndNo());
-		newDist.setTotalAppCount(oldDist.getTotalAppCount());
-		newDist.setIssueDate(oldDist.getIssueDate());
-		newDist.setIsActive(1);
-		newDist.setCreated_by(oldDist.getCreated_by());
-	}
-
-	private BalanceTrack createNewBalanceTrack(int employeeId, int academicYearId, int typeId, int createdBy) {
-		BalanceTrack nb = new BalanceTrack();
-		// Basic setup only, specific IDs set by caller
-		nb.setAcademicYear(academicYearRepository.findById(academicYearId).orElseThrow());
-		nb.setIssuedByType(appIssuedTypeRepository.findById(typeId).orElseThrow());
-		nb.setAppAvblCnt(0);
-		nb.setIsActive(1);
-		nb.setCreatedBy(createdBy);
-		return nb;
-	}
-
-	// FIX: Renamed to match the loop call, added start/end args, added saveAndFlush
-    private void createAndSaveRemainder(Distribution originalDist, int start, int end) {
-        Distribution remainder = new Distribution();
-        mapExistingToNewDistribution(remainder, originalDist);
-
-        // CRITICAL: Copy EXACTLY who had it before (whether Employee OR Pro)
-        remainder.setIssued_to_emp_id(originalDist.getIssued_to_emp_id());
-        remainder.setIssued_to_pro_id(originalDist.getIssued_to_pro_id());
-
-        // Set the specific split range
-        remainder.setAppStartNo(start);
-        remainder.setAppEndNo(end);
-        remainder.setTotalAppCount((end - start) + 1);
-        
-        remainder.setIsActive(1);
-        remainder.setAmount(originalDist.getAmount()); // Keep Amount
-
-        // CRITICAL: Force DB to write NOW so recalculateBalance sees it
-        distributionRepository.saveAndFlush(remainder);
-    }
-
-	// Smart Method to Add Stock (Handles Gaps & Receiver Type)
-    private void addStockToReceiver(Distribution savedDist, int academicYearId, int typeId, int createdBy, Float amount) {
-        int newStart = savedDist.getAppStartNo();
-        int newEnd = savedDist.getAppEndNo();
-        int newCount = savedDist.getTotalAppCount();
-        int targetEnd = newStart - 1;
-        
-        boolean isPro = (savedDist.getIssued_to_pro_id() != null);
-        Integer receiverId = isPro ? savedDist.getIssued_to_pro_id() : savedDist.getIssued_to_emp_id();
-
-        if (receiverId == null) return;
-
-        List<BalanceTrack> existingDuplicates;
-        
-        // FIX: Distinguish between Pro and Emp repo calls to prevent ID collisions
-        if (isPro) {
-            // Assuming you have this method or a generic find that works for both by column
-            existingDuplicates = balanceTrackRepository.findActiveBalancesByProAndAmount(academicYearId, receiverId, amount);
-        } else {
-            existingDuplicates = balanceTrackRepository.findActiveBalancesByEmpAndAmount(academicYearId, receiverId, amount);
-        }
-        
-        for (BalanceTrack b : existingDuplicates) {
-            if (b.getAppFrom() == newStart && b.getAppTo() == newEnd) {
-                System.out.println("--- LOG: Duplicate balance detected. Skipping creation.");
-                return; 
-            }
-        }
-
-        Optional<BalanceTrack> mergeableRow;
-        if (isPro) {
-            mergeableRow = balanceTrackRepository.findMergeableRowForPro(academicYearId, receiverId, amount, targetEnd);
-        } else {
-            mergeableRow = balanceTrackRepository.findMergeableRowForEmployee(academicYearId, receiverId, amount, targetEnd);
-        }
-
-        if (mergeableRow.isPresent()) {
-            BalanceTrack existing = mergeableRow.get();
-            existing.setAppTo(newEnd);
-            existing.setAppAvblCnt(existing.getAppAvblCnt() + newCount);
-            balanceTrackRepository.save(existing);
-        } else {
-            BalanceTrack newRow = createNewBalanceTrack(receiverId, academicYearId, typeId, createdBy, isPro);
-            newRow.setAmount(amount);
-            newRow.setAppFrom(newStart);
-            newRow.setAppTo(newEnd);
-            newRow.setAppAvblCnt(newCount);
-            balanceTrackRepository.save(newRow);
-        }
-    }
-
-	// Helper to create the empty object correctly based on type
-	private BalanceTrack createNewBalanceTrack(int id, int acYear, int typeId, int createdBy, boolean isPro) {
-		BalanceTrack nb = new BalanceTrack();
-		nb.setAcademicYear(academicYearRepository.findById(acYear).orElseThrow());
-		nb.setIssuedByType(appIssuedTypeRepository.findById(typeId).orElseThrow());
-		nb.setIsActive(1);
-		nb.setCreatedBy(createdBy);
-
-		if (isPro) {
-			nb.setIssuedToProId(id);
-			nb.setEmployee(null); // DB Constraint satisfied (nullable)
-		} else {
-			nb.setEmployee(employeeRepository.findById(id).orElseThrow());
-			nb.setIssuedToProId(null);
-		}
-		return nb;
-	}
-	
-	// Overload for Employees (Defaults isPro = false)
-    private BalanceTrack createNewBalanceTrack_(int employeeId, int academicYearId, int typeId, int createdBy) {
-        return createNewBalanceTrack(employeeId, academicYearId, typeId, createdBy, false);
-    }
-}
\ No newline at end of file
+}
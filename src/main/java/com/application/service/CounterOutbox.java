@@ -0,0 +1,364 @@
+package com.application.service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.application.entity.CounterOutboxEvent;
+import com.application.entity.Distribution;
+import com.application.entity.StudentAcademicDetails;
+import com.application.repository.CounterOutboxEventRepository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
+/**
+ * Transactional outbox for the dashboard counters in sce_user_app_sold
+ * (UserAppSold.sold) and sce_app_stats_trk (AppStatusTrack sold / confirmed /
+ * damaged / available).
+ *
+ * Sale, confirmation and damage writes call {@code record*}, which adds one
+ * small row to sce_counter_outbox in the caller's transaction - nothing else
+ * happens on the request path. Every {@code counter-outbox.relay-ms} the relay
+ * claims up to {@code counter-outbox.batch-size} events (FOR UPDATE SKIP
+ * LOCKED, so several nodes can run it), folds them into one delta per counter
+ * row and applies the deltas and the delete in one transaction:
+ * - SOLD:      UserAppSold rows whose range holds the number get sold + 1;
+ *              AppStatusTrack rows of every holder of the number get
+ *              appSold + 1, appAvailable - 1
+ * - CONFIRMED: holders' AppStatusTrack rows get appConfirmed + 1
+ * - DAMAGED:   holders' AppStatusTrack rows get appDamaged + 1, appAvailable - 1
+ *
+ * Holders are the employees / PROs of the active distributions covering the
+ * number in that academic year. An employee's row is matched on emp_id; a
+ * PRO (issued_to_pro_id is a campus id) on the campus row without an
+ * employee. Events are grouped into runs of contiguous numbers per year, and
+ * each run reads only the ranges overlapping it (distributions through
+ * {@link DistributionRangeIndex}), so a batch never scans the rows between
+ * scattered numbers. Events that match no counter row are dropped.
+ * Applied deltas are handed to {@link AnalyticsCube} after commit.
+ */
+@Service
+public class CounterOutbox {
+
+	private static final Logger logger = LoggerFactory.getLogger(CounterOutbox.class);
+
+	private static final String CLAIM = "SELECT outbox_id, event_type, app_no, acdc_year_id "
+			+ "FROM sce_application.sce_counter_outbox ORDER BY outbox_id LIMIT :limit FOR UPDATE SKIP LOCKED";
+
+	private static final String DELETE = "DELETE FROM sce_application.sce_counter_outbox WHERE outbox_id IN (:ids)";
+
+	@PersistenceContext
+	private EntityManager entityManager;
+
+	private final CounterOutboxEventRepository counterOutboxEventRepository;
+	private final DistributionRangeIndex distributionRangeIndex;
+	private final AnalyticsCube analyticsCube;
+	private final TransactionTemplate transactionTemplate;
+
+	@Value("${counter-outbox.enabled:true}")
+	private boolean enabled;
+
+	@Value("${counter-outbox.batch-size:500}")
+	private int batchSize;
+
+	private record Event(String type, int appNo, int academicYearId) {
+	}
+
+	// holderId is an emp_id, or a campus id for PRO holders
+	private record HolderYear(int holderId, int academicYearId) {
+	}
+
+	public CounterOutbox(CounterOutboxEventRepository counterOutboxEventRepository,
+			DistributionRangeIndex distributionRangeIndex, AnalyticsCube analyticsCube,
+			PlatformTransactionManager transactionManager) {
+		this.counterOutboxEventRepository = counterOutboxEventRepository;
+		this.distributionRangeIndex = distributionRangeIndex;
+		this.analyticsCube = analyticsCube;
+		this.transactionTemplate = new TransactionTemplate(transactionManager);
+	}
+
+	// ---------------------------------------------------------
+	// Write side (inside the caller's transaction)
+	// ---------------------------------------------------------
+
+	public void recordSale(StudentAcademicDetails sale) {
+		record(CounterOutboxEvent.SOLD, sale.getStudAdmsNo(), yearOf(sale));
+	}
+
+	public void recordConfirmation(StudentAcademicDetails student) {
+		record(CounterOutboxEvent.CONFIRMED, student.getStudAdmsNo(), yearOf(student));
+	}
+
+	public void recordDamage(int appNo) {
+		record(CounterOutboxEvent.DAMAGED, (long) appNo, null);
+	}
+
+	private void record(String type, Long appNo, Integer academicYearId) {
+		if (!enabled || appNo == null) {
+			return;
+		}
+		counterOutboxEventRepository.save(new CounterOutboxEvent(null, type, appNo, academicYearId, LocalDateTime.now()));
+	}
+
+	private static Integer yearOf(StudentAcademicDetails student) {
+		return student.getAcademicYear() != null ? student.getAcademicYear().getAcdcYearId() : null;
+	}
+
+	// ---------------------------------------------------------
+	// Relay
+	// ---------------------------------------------------------
+
+	@Scheduled(initialDelayString = "${counter-outbox.relay-ms:5000}", fixedDelayString = "${counter-outbox.relay-ms:5000}")
+	public void relay() {
+		if (!enabled) {
+			return;
+		}
+		int total = 0;
+		try {
+			while (true) {
+				Integer claimed = analyticsCube.applyingDeltas(() -> transactionTemplate.execute(status -> relayBatch()));
+				total += claimed;
+				if (claimed < batchSize) {
+					break;
+				}
+			}
+		} catch (RuntimeException e) {
+			// The failed batch rolled back and stays queued for the next run
+			logger.warn("Counter outbox relay failed after {} events: {}", total, e.getMessage());
+		}
+		if (total > 0) {
+			logger.info("Counter outbox: applied {} events", total);
+		}
+	}
+
+	private int relayBatch() {
+		@SuppressWarnings("unchecked")
+		List<Object[]> rows = entityManager.createNativeQuery(CLAIM).setParameter("limit", batchSize).getResultList();
+		if (rows.isEmpty()) {
+			return 0;
+		}
+
+		List<Long> ids = new ArrayList<>();
+		List<Event> events = new ArrayList<>();
+		for (Object[] r : rows) {
+			ids.add(((Number) r[0]).longValue());
+			long appNo = ((Number) r[2]).longValue();
+			Integer yearId = r[3] != null ? Integer.valueOf(((Number) r[3]).intValue()) : resolveYear(appNo);
+			if (yearId != null && appNo >= 0 && appNo <= Integer.MAX_VALUE) {
+				events.add(new Event((String) r[1], (int) appNo, yearId));
+			}
+		}
+
+		if (!events.isEmpty()) {
+			applyUserAppSold(events);
+			applyAppStatusTrack(events);
+		}
+		if (events.size() < rows.size()) {
+			logger.debug("Counter outbox: {} events without an academic year dropped", rows.size() - events.size());
+		}
+
+		entityManager.createNativeQuery(DELETE).setParameter("ids", ids).executeUpdate();
+		return rows.size();
+	}
+
+	private Integer resolveYear(long appNo) {
+		return distributionRangeIndex.findProDistributionForAdmissionNumber(appNo)
+				.map(d -> d.getAcademicYear() != null ? d.getAcademicYear().getAcdcYearId() : null)
+				.orElse(null);
+	}
+
+	private void applyUserAppSold(List<Event> events) {
+		List<Event> sold = events.stream().filter(e -> CounterOutboxEvent.SOLD.equals(e.type())).toList();
+		Map<Long, Integer> deltas = new HashMap<>();
+		for (Run run : runs(sold)) {
+			List<Object[]> ranges = entityManager.createQuery("SELECT u.userAppSold, u.rangeStartNo, u.rangeEndNo "
+					+ "FROM UserAppSold u WHERE u.isActive = 1 AND u.acdcYearId = :yearId "
+					+ "AND u.rangeStartNo <= :endNo AND u.rangeEndNo >= :startNo", Object[].class)
+					.setParameter("yearId", run.academicYearId())
+					.setParameter("startNo", (long) run.startNo())
+					.setParameter("endNo", (long) run.endNo())
+					.getResultList();
+			for (Object[] r : ranges) {
+				int count = run.count(((Number) r[1]).longValue(), ((Number) r[2]).longValue());
+				if (count > 0) {
+					deltas.merge(((Number) r[0]).longValue(), count, Integer::sum);
+				}
+			}
+		}
+		deltas.forEach((id, delta) -> {
+			entityManager
+					.createQuery("UPDATE UserAppSold u SET u.sold = COALESCE(u.sold, 0) + :delta WHERE u.userAppSold = :id")
+					.setParameter("delta", delta).setParameter("id", id).executeUpdate();
+			analyticsCube.onUserAppSoldDelta(id, delta);
+		});
+	}
+
+	private void applyAppStatusTrack(List<Event> events) {
+		// Per holder and year: sold, confirmed, damaged
+		Map<HolderYear, int[]> employees = new HashMap<>();
+		Map<HolderYear, int[]> campuses = new HashMap<>();
+		for (Run run : runs(events)) {
+			for (Distribution d : distributionRangeIndex.findOverlappingDistributions(run.academicYearId(),
+					run.startNo(), run.endNo())) {
+				int[] counts = run.countByType(d.getAppStartNo(), d.getAppEndNo());
+				if (d.getIssued_to_emp_id() != null) {
+					add(employees, new HolderYear(d.getIssued_to_emp_id(), run.academicYearId()), counts);
+				}
+				if (d.getIssued_to_pro_id() != null) {
+					add(campuses, new HolderYear(d.getIssued_to_pro_id(), run.academicYearId()), counts);
+				}
+			}
+		}
+
+		if (!employees.isEmpty()) {
+			applyTrackDeltas(entityManager.createQuery("SELECT t.appStatsTrkId, t.employee.emp_id, "
+					+ "t.academicYear.acdcYearId FROM AppStatusTrack t WHERE t.isActive = 1 "
+					+ "AND t.employee.emp_id IN :holderIds AND t.academicYear.acdcYearId IN :years", Object[].class)
+					.setParameter("holderIds", holderIds(employees))
+					.setParameter("years", years(events))
+					.getResultList(), employees);
+		}
+		// A PRO holder is a campus (issued_to_pro_id is a campus id): its row is the campus's own
+		if (!campuses.isEmpty()) {
+			applyTrackDeltas(entityManager.createQuery("SELECT t.appStatsTrkId, t.campus.campusId, "
+					+ "t.academicYear.acdcYearId FROM AppStatusTrack t WHERE t.isActive = 1 AND t.employee IS NULL "
+					+ "AND t.campus.campusId IN :holderIds AND t.academicYear.acdcYearId IN :years", Object[].class)
+					.setParameter("holderIds", holderIds(campuses))
+					.setParameter("years", years(events))
+					.getResultList(), campuses);
+		}
+	}
+
+	// Rows are [appStatsTrkId, holder id, academic year id]
+	private void applyTrackDeltas(List<Object[]> tracks, Map<HolderYear, int[]> counts) {
+		for (Object[] t : tracks) {
+			int[] c = counts.get(new HolderYear(((Number) t[1]).intValue(), ((Number) t[2]).intValue()));
+			if (c == null) {
+				continue;
+			}
+			entityManager.createQuery("UPDATE AppStatusTrack t SET t.appSold = t.appSold + :sold, "
+					+ "t.appConfirmed = t.appConfirmed + :confirmed, t.appDamaged = t.appDamaged + :damaged, "
+					+ "t.appAvailable = t.appAvailable - :used WHERE t.appStatsTrkId = :id")
+					.setParameter("sold", c[0])
+					.setParameter("confirmed", c[1])
+					.setParameter("damaged", c[2])
+					.setParameter("used", c[0] + c[2])
+					.setParameter("id", ((Number) t[0]).intValue())
+					.executeUpdate();
+			analyticsCube.onAppStatusTrackDelta(((Number) t[0]).intValue(), c[0], c[1], c[2], -(c[0] + c[2]));
+		}
+	}
+
+	private static void add(Map<HolderYear, int[]> counts, HolderYear key, int[] delta) {
+		if (delta[0] + delta[1] + delta[2] == 0) {
+			return;
+		}
+		int[] c = counts.computeIfAbsent(key, k -> new int[3]);
+		for (int i = 0; i < c.length; i++) {
+			c[i] += delta[i];
+		}
+	}
+
+	private static Set<Integer> holderIds(Map<HolderYear, int[]> counts) {
+		Set<Integer> ids = new HashSet<>();
+		counts.keySet().forEach(k -> ids.add(k.holderId()));
+		return ids;
+	}
+
+	private static Set<Integer> years(List<Event> events) {
+		Set<Integer> years = new HashSet<>();
+		events.forEach(e -> years.add(e.academicYearId()));
+		return years;
+	}
+
+	// ---------------------------------------------------------
+	// Runs: events of one year whose numbers are contiguous
+	// ---------------------------------------------------------
+
+	/**
+	 * Sorted by number; a number may repeat (e.g. sold and confirmed in the
+	 * same batch).
+	 */
+	private record Run(int academicYearId, List<Event> events) {
+
+		int startNo() {
+			return events.get(0).appNo();
+		}
+
+		int endNo() {
+			return events.get(events.size() - 1).appNo();
+		}
+
+		int count(long fromNo, long toNo) {
+			return firstAbove(toNo) - firstAtLeast(fromNo);
+		}
+
+		// [sold, confirmed, damaged] among the events numbered fromNo..toNo
+		int[] countByType(long fromNo, long toNo) {
+			int[] counts = new int[3];
+			for (int i = firstAtLeast(fromNo), end = firstAbove(toNo); i < end; i++) {
+				switch (events.get(i).type()) {
+				case CounterOutboxEvent.SOLD -> counts[0]++;
+				case CounterOutboxEvent.CONFIRMED -> counts[1]++;
+				case CounterOutboxEvent.DAMAGED -> counts[2]++;
+				default -> {
+				}
+				}
+			}
+			return counts;
+		}
+
+		private int firstAtLeast(long no) {
+			int lo = 0;
+			int hi = events.size();
+			while (lo < hi) {
+				int mid = (lo + hi) >>> 1;
+				if (events.get(mid).appNo() < no) {
+					lo = mid + 1;
+				} else {
+					hi = mid;
+				}
+			}
+			return lo;
+		}
+
+		private int firstAbove(long no) {
+			return no >= Integer.MAX_VALUE ? events.size() : firstAtLeast(no + 1);
+		}
+	}
+
+	private static List<Run> runs(List<Event> events) {
+		List<Event> sorted = new ArrayList<>(events);
+		sorted.sort(Comparator.comparingInt(Event::academicYearId).thenComparingInt(Event::appNo));
+		List<Run> runs = new ArrayList<>();
+		List<Event> current = new ArrayList<>();
+		for (Event e : sorted) {
+			if (!current.isEmpty()) {
+				Event last = current.get(current.size() - 1);
+				if (last.academicYearId() != e.academicYearId() || (long) e.appNo() > (long) last.appNo() + 1) {
+					runs.add(new Run(last.academicYearId(), current));
+					current = new ArrayList<>();
+				}
+			}
+			current.add(e);
+		}
+		if (!current.isEmpty()) {
+			runs.add(new Run(current.get(0).academicYearId(), current));
+		}
+		return runs;
+	}
+}
@@ -0,0 +1,287 @@
+package com.application.service;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.application.dto.DailySnapshotPointDTO;
+import com.application.dto.YearOverYearDTO;
+import com.application.entity.DailySalesSnapshot;
+import com.application.repository.AppStatusTrackRepository;
+import com.application.repository.DailySalesSnapshotRepository;
+import com.application.repository.UserAppSoldRepository;
+
+/**
+ * Daily snapshots of the sales counters per hierarchy node, so "same date
+ * last year" and trends are lookups instead of fact-table scans.
+ *
+ * A scheduled capture ({@code daily-snapshot.cron}, late in the day) writes
+ * one sce_daily_sales_snapshot row per node for the latest academic year: ALL
+ * with the dashboard card totals, and every zone, DGM and campus with what its
+ * analytics show ({@link AnalyticsCube}, or one GROUP BY query per level until
+ * it is loaded). Re-capturing a date replaces its rows. The last
+ * {@code daily-snapshot.retention-days} days are also kept in memory as one
+ * sorted series per node, loaded at startup; a lookup for a day without a row
+ * takes the latest one at most {@code daily-snapshot.match-window-days}
+ * earlier. History starts with the first capture; earlier days cannot be
+ * rebuilt from the current counters.
+ */
+@Service
+public class DailySnapshotStore {
+
+	private static final Logger logger = LoggerFactory.getLogger(DailySnapshotStore.class);
+
+	// sce_user_app_sold entity ids of the levels
+	private static final int ZONE = 2;
+	private static final int DGM = 3;
+	private static final int CAMPUS = 4;
+
+	private final AnalyticsCube analyticsCube;
+	private final AppStatusTrackRepository appStatusTrackRepository;
+	private final UserAppSoldRepository userAppSoldRepository;
+	private final DailySalesSnapshotRepository snapshotRepository;
+	private final TransactionTemplate transactionTemplate;
+	private final TransactionTemplate readOnlyTx;
+
+	@Value("${daily-snapshot.enabled:true}")
+	private boolean enabled;
+
+	@Value("${daily-snapshot.retention-days:800}")
+	private int retentionDays;
+
+	@Value("${daily-snapshot.match-window-days:3}")
+	private int matchWindowDays;
+
+	// (level, ref id) -> epoch day -> point
+	private final Map<SeriesKey, NavigableMap<Long, DailySnapshotPointDTO>> series = new ConcurrentHashMap<>();
+
+	private record SeriesKey(String level, int refId) {
+	}
+
+	public DailySnapshotStore(AnalyticsCube analyticsCube, AppStatusTrackRepository appStatusTrackRepository,
+			UserAppSoldRepository userAppSoldRepository, DailySalesSnapshotRepository snapshotRepository,
+			PlatformTransactionManager transactionManager) {
+		this.analyticsCube = analyticsCube;
+		this.appStatusTrackRepository = appStatusTrackRepository;
+		this.userAppSoldRepository = userAppSoldRepository;
+		this.snapshotRepository = snapshotRepository;
+		this.transactionTemplate = new TransactionTemplate(transactionManager);
+		this.readOnlyTx = new TransactionTemplate(transactionManager);
+		this.readOnlyTx.setReadOnly(true);
+	}
+
+	@EventListener(ApplicationReadyEvent.class)
+	public void load() {
+		if (!enabled) {
+			return;
+		}
+		try {
+			LocalDate from = LocalDate.now().minusDays(retentionDays);
+			List<DailySalesSnapshot> rows = readOnlyTx
+					.execute(status -> snapshotRepository.findBySnapshotDateGreaterThanEqual(from));
+			rows.forEach(this::index);
+			logger.info("Daily snapshots: {} rows of {} nodes loaded", rows.size(), series.size());
+		} catch (RuntimeException e) {
+			logger.warn("Daily snapshots could not be loaded; lookups return nothing until the next capture", e);
+		}
+	}
+
+	@Scheduled(cron = "${daily-snapshot.cron:0 55 23 * * *}")
+	public void scheduledCapture() {
+		if (enabled) {
+			capture(LocalDate.now());
+		}
+	}
+
+	/**
+	 * Captures (or re-captures) the counters of {@code date} from the current
+	 * state; returns the number of rows written.
+	 */
+	public synchronized int capture(LocalDate date) {
+		Integer yearId = analyticsCube.latestYearId().orElseGet(appStatusTrackRepository::findLatestYearId);
+		if (yearId == null) {
+			logger.info("Daily snapshot {}: no academic year in sce_app_stats_trk; skipped", date);
+			return 0;
+		}
+		LocalDate oldest = date.minusDays(retentionDays);
+		List<DailySalesSnapshot> rows = transactionTemplate.execute(status -> {
+			List<DailySalesSnapshot> built = collect(date, yearId);
+			snapshotRepository.deleteBySnapshotDate(date);
+			snapshotRepository.deleteBySnapshotDateBefore(oldest);
+			return snapshotRepository.saveAll(built);
+		});
+
+		Set<SeriesKey> captured = new HashSet<>();
+		for (DailySalesSnapshot row : rows) {
+			captured.add(index(row));
+		}
+		series.forEach((key, points) -> {
+			if (!captured.contains(key)) {
+				points.remove(date.toEpochDay());
+			}
+			points.headMap(oldest.toEpochDay()).clear();
+		});
+		logger.info("Daily snapshot {}: {} rows for academic year {}", date, rows.size(), yearId);
+		return rows.size();
+	}
+
+	// ---------------------------------------------------------
+	// Lookups (level ALL / ZONE / DGM / CAMPUS, id 0 for ALL)
+	// ---------------------------------------------------------
+
+	/**
+	 * The node on {@code date}, or on the latest captured day at most
+	 * match-window-days before it.
+	 */
+	public Optional<DailySnapshotPointDTO> at(String level, int refId, LocalDate date) {
+		NavigableMap<Long, DailySnapshotPointDTO> points = series.get(new SeriesKey(normalize(level), refId));
+		if (points == null) {
+			return Optional.empty();
+		}
+		Map.Entry<Long, DailySnapshotPointDTO> entry = points.floorEntry(date.toEpochDay());
+		if (entry == null || date.toEpochDay() - entry.getKey() > matchWindowDays) {
+			return Optional.empty();
+		}
+		return Optional.of(entry.getValue());
+	}
+
+	public Optional<DailySnapshotPointDTO> sameDateLastYear(String level, int refId) {
+		return at(level, refId, LocalDate.now().minusYears(1));
+	}
+
+	public YearOverYearDTO yearOverYear(String level, int refId, LocalDate date) {
+		return new YearOverYearDTO(normalize(level), refId, at(level, refId, date).orElse(null),
+				at(level, refId, date.minusYears(1)).orElse(null));
+	}
+
+	/**
+	 * Captured days of the node from {@code from} to {@code to}, oldest first.
+	 */
+	public List<DailySnapshotPointDTO> trend(String level, int refId, LocalDate from, LocalDate to) {
+		NavigableMap<Long, DailySnapshotPointDTO> points = series.get(new SeriesKey(normalize(level), refId));
+		if (points == null || from.isAfter(to)) {
+			return List.of();
+		}
+		return new ArrayList<>(points.subMap(from.toEpochDay(), true, to.toEpochDay(), true).values());
+	}
+
+	private static String normalize(String level) {
+		return level == null ? DailySalesSnapshot.ALL : level.trim().toUpperCase(Locale.ROOT);
+	}
+
+	// ---------------------------------------------------------
+	// Capture
+	// ---------------------------------------------------------
+
+	private List<DailySalesSnapshot> collect(LocalDate date, int yearId) {
+		LocalDateTime now = LocalDateTime.now();
+		List<DailySalesSnapshot> rows = new ArrayList<>();
+
+		// ALL: the dashboard card values of the year, as getMetricCards
+		AnalyticsCube.StatusTotals totals = analyticsCube.statusTotals().orElse(null);
+		Object[] year = totals != null ? totals.year(yearId) : appStatusTrackRepository.getTotalsByYear(yearId).get(0);
+		Long withPro = totals != null ? totals.withPro(yearId) : appStatusTrackRepository.getWithProByYear(yearId);
+		DailySalesSnapshot all = snapshot(date, DailySalesSnapshot.ALL, 0, yearId, now);
+		all.setTotalApp(count(year[0]));
+		all.setAppSold(count(year[1]));
+		all.setAppConfirmed(count(year[2]));
+		all.setAppAvailable(count(year[3]));
+		all.setAppIssued(count(year[4]));
+		all.setAppDamaged(count(year[5]));
+		all.setAppUnavailable(count(year[6]));
+		all.setWithPro(count(withPro));
+		rows.add(all);
+
+		collectLevel(rows, date, DailySalesSnapshot.ZONE, ZONE, yearId, now);
+		collectLevel(rows, date, DailySalesSnapshot.DGM, DGM, yearId, now);
+		collectLevel(rows, date, DailySalesSnapshot.CAMPUS, CAMPUS, yearId, now);
+		return rows;
+	}
+
+	// One row per id: status counters [id, total, sold, confirmed, available, unavailable, damaged, issued]
+	// merged with [id, issued, sold, withPro]
+	private void collectLevel(List<DailySalesSnapshot> rows, LocalDate date, String level, int entityId, int yearId,
+			LocalDateTime now) {
+		Map<Integer, DailySalesSnapshot> byId = new LinkedHashMap<>();
+		List<Object[]> metrics = analyticsCube.metricsByLevel(entityId, yearId).orElseGet(() -> switch (entityId) {
+		case ZONE -> appStatusTrackRepository.getZoneMetricsByYear(yearId);
+		case DGM -> appStatusTrackRepository.getEmployeeMetricsByYear(yearId);
+		default -> appStatusTrackRepository.getCampusMetricsByYear(yearId);
+		});
+		for (Object[] r : metrics) {
+			DailySalesSnapshot s = byId.computeIfAbsent(((Number) r[0]).intValue(),
+					id -> snapshot(date, level, id, yearId, now));
+			s.setTotalApp(count(r[1]));
+			s.setAppSold(count(r[2]));
+			s.setAppConfirmed(count(r[3]));
+			s.setAppAvailable(count(r[4]));
+			s.setAppUnavailable(count(r[5]));
+			s.setAppDamaged(count(r[6]));
+			s.setAppIssued(count(r[7]));
+		}
+		List<Object[]> sold = analyticsCube.soldByLevel(entityId, yearId).orElseGet(() -> switch (entityId) {
+		case ZONE -> userAppSoldRepository.getZoneSoldByYear(yearId);
+		case DGM -> userAppSoldRepository.getDgmSoldByYear(yearId);
+		default -> userAppSoldRepository.getCampusSoldByYear(yearId);
+		});
+		for (Object[] r : sold) {
+			DailySalesSnapshot s = byId.computeIfAbsent(((Number) r[0]).intValue(),
+					id -> snapshot(date, level, id, yearId, now));
+			s.setIssued(count(r[1]));
+			s.setSold(count(r[2]));
+			s.setWithPro(count(r[3]));
+		}
+		rows.addAll(byId.values());
+	}
+
+	private static DailySalesSnapshot snapshot(LocalDate date, String level, int refId, int yearId,
+			LocalDateTime now) {
+		DailySalesSnapshot s = new DailySalesSnapshot();
+		s.setSnapshotDate(date);
+		s.setLevelCode(level);
+		s.setRefId(refId);
+		s.setAcdcYearId(yearId);
+		s.setTotalApp(0L);
+		s.setAppSold(0L);
+		s.setAppConfirmed(0L);
+		s.setAppAvailable(0L);
+		s.setAppUnavailable(0L);
+		s.setAppDamaged(0L);
+		s.setAppIssued(0L);
+		s.setCapturedAt(now);
+		return s;
+	}
+
+	private SeriesKey index(DailySalesSnapshot s) {
+		SeriesKey key = new SeriesKey(s.getLevelCode(), s.getRefId());
+		series.computeIfAbsent(key, k -> new ConcurrentSkipListMap<>()).put(s.getSnapshotDate().toEpochDay(),
+				new DailySnapshotPointDTO(s.getSnapshotDate(), s.getAcdcYearId(), s.getTotalApp(), s.getAppSold(),
+						s.getAppConfirmed(), s.getAppAvailable(), s.getAppUnavailable(), s.getAppDamaged(),
+						s.getAppIssued(), s.getIssued(), s.getSold(), s.getWithPro()));
+		return key;
+	}
+
+	private static long count(Object value) {
+		return value != null ? ((Number) value).longValue() : 0L;
+	}
+}
@@ -1,18 +1,22 @@
 package com.application.service;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import com.application.dto.AppSeriesDTO;
+import com.application.dto.DistributionPreviewDTO;
 import com.application.dto.FormSubmissionDTO;
 import com.application.dto.GenericDropdownDTO;
 import com.application.dto.LocationAutoFillDTO;
-import com.application.entity.AdminApp;
-import com.application.entity.BalanceTrack;
 import com.application.entity.Campus;
 import com.application.entity.City;
 import com.application.entity.Dgm;
@@ -51,6 +55,9 @@ public class DgmService {
 	private final UserAdminViewRepository userAdminViewRepository;
 	private final ZonalAccountantRepository zonalAccountantRepository;
 	private final AdminAppRepository adminAppRepository;
+	private final BalanceDeltaEngine balanceDeltaEngine;
+	private final DistributionBatchPlanner distributionBatchPlanner;
+	private final DistributionLockManager distributionLockManager;
 
 	// --- Dropdown and Helper Methods with Caching ---
 //    @Cacheable("academicYears")
@@ -345,313 +352,124 @@ public LocationAutoFillDTO getAutoPopulateData(int empId, String category) {
 
 	@Transactional
     public void submitForm(@NonNull FormSubmissionDTO formDto) {
-        int issuerUserId = formDto.getUserId(); 
-        int receiverEmpId = formDto.getDgmEmployeeId(); 
-
-        // 1. AUTO-DETECT TYPES (Backend Logic)
-        int issuedById = getRoleTypeIdByEmpId(issuerUserId);   // Who is sending?
-        int issuedToId = getRoleTypeIdByEmpId(receiverEmpId);  // Who is receiving?
-
-        // 2. Check Overlaps
-        int startNo = Integer.parseInt(formDto.getApplicationNoFrom());
-        int endNo = Integer.parseInt(formDto.getApplicationNoTo());
-        List<Distribution> overlappingDists = distributionRepository.findOverlappingDistributions(
-                formDto.getAcademicYearId(), startNo, endNo);
+        submitFormsBulk(List.of(formDto));
+    }
 
-        if (!overlappingDists.isEmpty()) {
-            handleOverlappingDistributions(overlappingDists, formDto);
+    /**
+     * Dry run of {@link #submitForm}: what would be split, created and moved
+     * between balances. Nothing is written.
+     */
+	@Transactional(readOnly = true)
+    public DistributionPreviewDTO previewForm(@NonNull FormSubmissionDTO formDto) {
+        return previewFormsBulk(List.of(formDto));
+    }
+	
+	@Transactional
+    public int submitFormsBulk(@NonNull List<FormSubmissionDTO> forms) {
+        Map<Integer, Integer> roleTypeIds = new HashMap<>();
+        List<DistributionBatchPlanner.Packet> packets = toPackets(forms, roleTypeIds);
+
+        // Same rule as before: a DGM's own overlapping stock is not recalled
+        distributionBatchPlanner.apply(packets, forms.get(0).getUserId(), true);
+
+        // Issuers (CO/Admin balances) once per issuer/year/amount
+        Set<String> refreshed = new HashSet<>();
+        for (FormSubmissionDTO formDto : forms) {
+            if (refreshed.add(formDto.getUserId() + ":" + formDto.getAcademicYearId() + ":" + formDto.getApplication_Amount())) {
+                balanceDeltaEngine.refreshIssuer(formDto.getUserId(), formDto.getAcademicYearId(),
+                        roleTypeIds.get(formDto.getUserId()), formDto.getApplication_Amount(), formDto.getUserId());
+            }
         }
+        return packets.size();
+    }
 
-        // 3. Create & Map (Pass BOTH types now)
-        Distribution distribution = new Distribution();
-        mapDtoToDistribution(distribution, formDto, issuedById, issuedToId);
-        
-        distribution.setIssued_to_emp_id(receiverEmpId);
-        distribution.setIssued_to_pro_id(null);
+	@Transactional(readOnly = true)
+    public DistributionPreviewDTO previewFormsBulk(@NonNull List<FormSubmissionDTO> forms) {
+        Map<Integer, Integer> roleTypeIds = new HashMap<>();
+        DistributionBatchPlanner.Plan plan = distributionBatchPlanner.plan(toPackets(forms, roleTypeIds), true);
+        for (FormSubmissionDTO formDto : forms) {
+            plan.withIssuer(formDto.getUserId(), formDto.getAcademicYearId(), roleTypeIds.get(formDto.getUserId()),
+                    formDto.getApplication_Amount());
+        }
+        return distributionBatchPlanner.preview(plan);
+    }
 
-        // 4. Save & Flush
-        Distribution savedDist = distributionRepository.saveAndFlush(distribution);
+    // Role lookups once per distinct employee (types are detected here, not trusted from the frontend)
+    private List<DistributionBatchPlanner.Packet> toPackets(List<FormSubmissionDTO> forms,
+            Map<Integer, Integer> roleTypeIds) {
+        if (forms.isEmpty()) {
+            throw new IllegalArgumentException("No distributions supplied.");
+        }
 
-        // 5. Recalculate Balances
-        int stateId = savedDist.getState().getStateId();
-        Float amount = formDto.getApplication_Amount();
+        List<DistributionBatchPlanner.Packet> packets = new ArrayList<>();
+        for (FormSubmissionDTO formDto : forms) {
+            int issuerUserId = formDto.getUserId();
+            int receiverEmpId = formDto.getDgmEmployeeId();
+            int issuedById = roleTypeIds.computeIfAbsent(issuerUserId, this::getRoleTypeIdByEmpId);
+            int issuedToId = roleTypeIds.computeIfAbsent(receiverEmpId, this::getRoleTypeIdByEmpId);
+
+            Distribution distribution = new Distribution();
+            mapDtoToDistribution(distribution, formDto, issuedById, issuedToId);
+            distribution.setIssued_to_emp_id(receiverEmpId);
+            distribution.setIssued_to_pro_id(null);
+            if (formDto.getRange() == 0) {
+                distribution.setTotalAppCount(distribution.getAppEndNo() - distribution.getAppStartNo() + 1);
+            }
 
-        // A. Update Issuer
-        recalculateBalanceForEmployee(issuerUserId, formDto.getAcademicYearId(), stateId, issuedById, issuerUserId, amount);
-        
-        // B. Update Receiver (Pass the calculated issuedToId)
-        addStockToReceiver(savedDist, formDto.getAcademicYearId(), issuedToId, issuerUserId, amount);
+            packets.add(new DistributionBatchPlanner.Packet(formDto.getAcademicYearId(), distribution.getAppStartNo(),
+                    distribution.getAppEndNo(), formDto.getRange(), formDto.getApplication_Amount(), receiverEmpId,
+                    issuedToId, issuerUserId, distribution));
+        }
+        return packets;
     }
-	
+
 	@Transactional
     public void updateForm(@NonNull Integer distributionId, @NonNull FormSubmissionDTO formDto) {
         
         // 1. Fetch Existing Record
         Distribution existingDistribution = distributionRepository.findById(distributionId)
                 .orElseThrow(() -> new RuntimeException("Distribution record not found with ID: " + distributionId));
+        distributionLockManager.lockForUpdate(existingDistribution, Integer.parseInt(formDto.getApplicationNoFrom()),
+                Integer.parseInt(formDto.getApplicationNoTo()));
+        distributionLockManager.lockHolders(List.of(existingDistribution), formDto.getUserId(),
+                formDto.getDgmEmployeeId());
 
-        // 2. Extract Immutable Data (Preserve Amount & State!)
-        Float originalAmount = existingDistribution.getAmount(); 
-        int issuerId = formDto.getUserId();
-        int academicYearId = formDto.getAcademicYearId();
-        int stateId = existingDistribution.getState().getStateId();
+        // 2. Archive old, save new + remainders, apply balance deltas (issuer included)
+        distributionBatchPlanner.execute(planUpdate(existingDistribution, formDto), formDto.getUserId());
+    }
 
-        // 3. Identify Changes
-        int oldReceiverId = existingDistribution.getIssued_to_emp_id();
-        int newReceiverId = formDto.getDgmEmployeeId();
-        boolean isRecipientChanging = oldReceiverId != newReceiverId;
+    /**
+     * Dry run of {@link #updateForm}. Nothing is written.
+     */
+	@Transactional(readOnly = true)
+    public DistributionPreviewDTO previewUpdate(@NonNull Integer distributionId, @NonNull FormSubmissionDTO formDto) {
+        Distribution existingDistribution = distributionRepository.findById(distributionId)
+                .orElseThrow(() -> new RuntimeException("Distribution record not found with ID: " + distributionId));
+        return distributionBatchPlanner.preview(planUpdate(existingDistribution, formDto));
+    }
 
-        int oldStart = (int) existingDistribution.getAppStartNo();
-        int oldEnd = (int) existingDistribution.getAppEndNo();
-        int newStart = Integer.parseInt(formDto.getApplicationNoFrom());
-        int newEnd = Integer.parseInt(formDto.getApplicationNoTo());
-        boolean isRangeChanging = oldStart != newStart || oldEnd != newEnd;
+    private DistributionBatchPlanner.Plan planUpdate(Distribution existingDistribution, FormSubmissionDTO formDto) {
+        // Preserve Amount & State of the existing packet
+        Float originalAmount = existingDistribution.getAmount();
+        int issuerId = formDto.getUserId();
+        int newReceiverId = formDto.getDgmEmployeeId();
 
-        // 4. AUTO-DETECT TYPES (Backend Logic)
-        // We calculate these from the UserAdminView, we do NOT trust the frontend.
+        // We calculate the types from the UserAdminView, we do NOT trust the frontend.
         int issuedById = getRoleTypeIdByEmpId(issuerId);
-        int issuedToId = getRoleTypeIdByEmpId(newReceiverId); // <--- Calculated Here
-
-        // -------------------------------------------------------
-        // STEP 5: ARCHIVE OLD & SAVE NEW
-        // -------------------------------------------------------
-
-        // A. Inactivate Old (Flush to ensure DB sees it as inactive immediately)
-        existingDistribution.setIsActive(0);
-        distributionRepository.saveAndFlush(existingDistribution);
+        int issuedToId = getRoleTypeIdByEmpId(newReceiverId);
 
-        // B. Create New Record
         Distribution newDist = new Distribution();
-        // Map basic fields (Date, Zone, etc.)
         mapDtoToDistribution(newDist, formDto, issuedById, issuedToId);
-        
-        // OVERRIDE with correct Logic:
         newDist.setIssued_to_emp_id(newReceiverId); // DGM is always Employee
         newDist.setIssued_to_pro_id(null);
         newDist.setAmount(originalAmount); // CRITICAL: Preserve Original Amount
 
-        distributionRepository.saveAndFlush(newDist); // Flush new record
-
-        // -------------------------------------------------------
-        // STEP 6: HANDLE REMAINDERS (If Range Shrank)
-        // -------------------------------------------------------
-        if (isRangeChanging) {
-            // Leftover BEFORE the new range -> Stays with OLD Receiver
-            if (oldStart < newStart) {
-                createAndSaveRemainder(existingDistribution, oldStart, newStart - 1);
-            }
-            // Leftover AFTER the new range -> Stays with OLD Receiver
-            if (oldEnd > newEnd) {
-                createAndSaveRemainder(existingDistribution, newEnd + 1, oldEnd);
-            }
-        }
-
-        // -------------------------------------------------------
-        // STEP 7: RECALCULATE BALANCES
-        // -------------------------------------------------------
-
-        // A. Update Issuer (Zone Officer or CO)
-        recalculateBalanceForEmployee(issuerId, academicYearId, stateId, issuedById, issuerId, originalAmount);
-
-        // B. Update New Receiver (DGM)
-        // We use the calculated 'issuedToId' variable here
-        recalculateBalanceForEmployee(
-            newReceiverId, 
-            academicYearId, 
-            stateId, 
-            issuedToId, // <--- FIX: Using local variable
-            issuerId, 
-            originalAmount
-        );
-
-        // C. Update Old Receiver (If changed)
-        if (isRecipientChanging) {
-            // We must find the Type ID of the old receiver to call the method correctly
-            // Use LIST check to avoid crashes
-            java.util.List<BalanceTrack> oldBalances = balanceTrackRepository.findActiveBalancesByEmpAndAmount(academicYearId, oldReceiverId, originalAmount);
-            
-            if (!oldBalances.isEmpty()) {
-                 BalanceTrack oldBalance = oldBalances.get(0);
-                 int oldTypeId = oldBalance.getIssuedByType().getAppIssuedId();
-                 
-                 recalculateBalanceForEmployee(oldReceiverId, academicYearId, stateId, oldTypeId, issuerId, originalAmount);
-            }
-        }
-    }
-
-	// ---------------------------------------------------------
-	// Smart Gap Detection Logic
-	// ---------------------------------------------------------
-	private void addStockToReceiver(Distribution savedDist, int academicYearId, int typeId, int createdBy, Float amount) {
-        int newStart = savedDist.getAppStartNo();
-        int newEnd = savedDist.getAppEndNo();
-        int newCount = savedDist.getTotalAppCount();
-        int targetEnd = newStart - 1;
-        int receiverId = savedDist.getIssued_to_emp_id(); // DGM is Employee
-
-        Optional<BalanceTrack> mergeableRow = balanceTrackRepository.findMergeableRowForEmployee(
-                academicYearId, receiverId, amount, targetEnd);
-
-        if (mergeableRow.isPresent()) {
-            // MERGE
-            BalanceTrack existing = mergeableRow.get();
-            existing.setAppTo(newEnd);
-            existing.setAppAvblCnt(existing.getAppAvblCnt() + newCount);
-            balanceTrackRepository.save(existing);
-        } else {
-            // NEW ROW
-            BalanceTrack newRow = createNewBalanceTrack(receiverId, academicYearId, typeId, createdBy);
-            newRow.setAmount(amount);
-            newRow.setAppFrom(newStart);
-            newRow.setAppTo(newEnd);
-            newRow.setAppAvblCnt(newCount);
-            balanceTrackRepository.save(newRow);
-        }
-    }
-
-	private BalanceTrack createNewBalanceTrack(int id, int acYear, int typeId, int createdBy, boolean isPro) {
-		BalanceTrack nb = new BalanceTrack();
-		nb.setAcademicYear(academicYearRepository.findById(acYear).orElseThrow());
-		nb.setIssuedByType(appIssuedTypeRepository.findById(typeId).orElseThrow());
-		nb.setIsActive(1);
-		nb.setCreatedBy(createdBy);
-
-		// Strict Validation logic
-		if (isPro) {
-			nb.setIssuedToProId(id);
-			nb.setEmployee(null); // DB allows null now
-		} else {
-			nb.setEmployee(employeeRepository.findById(id).orElseThrow());
-			nb.setIssuedToProId(null);
-		}
-		return nb;
-	}
-
-	private void createAndSaveRemainder(Distribution originalDist, int start, int end) {
-        Distribution remainder = new Distribution();
-        mapExistingToNewDistribution(remainder, originalDist);
-        remainder.setIssued_to_emp_id(originalDist.getIssued_to_emp_id());
-        remainder.setAppStartNo(start);
-        remainder.setAppEndNo(end);
-        remainder.setTotalAppCount((end - start) + 1);
-        remainder.setIsActive(1);
-        remainder.setAmount(originalDist.getAmount());
-        distributionRepository.saveAndFlush(remainder);
+        return distributionBatchPlanner.planUpdate(existingDistribution, newDist, issuedToId, List.of())
+                .withIssuer(issuerId, formDto.getAcademicYearId(), issuedById, originalAmount);
     }
 
 	// --- PRIVATE HELPER METHODS ---
 
-	/**
-	 * Revised to use inactivation and insertion instead of update/delete.
-	 */
-	private void handleOverlappingDistributions(List<Distribution> overlappingDists, FormSubmissionDTO request) {
-        int newStart = Integer.parseInt(request.getApplicationNoFrom());
-        int newEnd = Integer.parseInt(request.getApplicationNoTo());
-
-        for (Distribution oldDist : overlappingDists) {
-            int oldReceiverId = oldDist.getIssued_to_emp_id();
-            if (oldReceiverId == request.getDgmEmployeeId()) continue;
-
-            // Inactivate
-            oldDist.setIsActive(0);
-            distributionRepository.saveAndFlush(oldDist); 
-
-            int oldStart = oldDist.getAppStartNo();
-            int oldEnd = oldDist.getAppEndNo();
-            
-            if (oldStart < newStart) createAndSaveRemainder(oldDist, oldStart, newStart - 1);
-            if (oldEnd > newEnd) createAndSaveRemainder(oldDist, newEnd + 1, oldEnd);
-            
-            // Recalculate Balance for Victim
-            recalculateBalanceForEmployee(
-                oldReceiverId, 
-                request.getAcademicYearId(), 
-                oldDist.getState().getStateId(),
-                oldDist.getIssuedToType().getAppIssuedId(), 
-                request.getUserId(),
-                oldDist.getAmount()
-            );
-        }
-    }
-
-	// 2. Recalculate Logic (Updated for Amount & AdminApp)
-private void recalculateBalanceForEmployee(int employeeId, int academicYearId, int stateId, int typeId, int createdBy, Float amount) {
-        
-        // 1. CHECK: Is this a CO/Admin? (Check Master Table)
-        Optional<AdminApp> adminApp = adminAppRepository.findByEmpAndYearAndAmount(
-                employeeId, academicYearId, amount);
-
-        if (adminApp.isPresent()) {
-            // --- CASE A: CO / ADMIN (The Source) ---
-            AdminApp master = adminApp.get();
-            
-            // FIX: Handle LIST return type
-            List<BalanceTrack> balances = balanceTrackRepository.findActiveBalancesByEmpAndAmount(
-                    academicYearId, employeeId, amount);
-            
-            BalanceTrack balance;
-            if (balances.isEmpty()) {
-                balance = createNewBalanceTrack(employeeId, academicYearId, typeId, createdBy);
-                balance.setAmount(amount);
-            } else {
-                // Admins act as a single bucket, so we pick the first one
-                balance = balances.get(0); 
-            }
-
-            int totalDistributed = distributionRepository.sumTotalAppCountByCreatedByAndAmount(
-                    employeeId, academicYearId, amount).orElse(0);
-            
-            balance.setAppFrom(master.getAppFromNo());
-            balance.setAppTo(master.getAppToNo());
-            balance.setAppAvblCnt(master.getTotalApp() - totalDistributed);
-            
-            balanceTrackRepository.save(balance);
-        
-        } else {
-            // --- CASE B: INTERMEDIARIES (Zone/DGM) ---
-            // Rebuilds rows to match gaps exactly
-        	rebuildBalancesFromDistributions(
-        	        employeeId, 
-        	        academicYearId, 
-        	        typeId, 
-        	        createdBy, 
-        	        amount // <--- Ensure you convert Float to Double here
-        	    );
-        }
-    }
-
-//--- HELPER: Rebuild Balance Rows (Preserves Gaps) ---
-// This deletes old balance rows and creates new ones based on what is currently held in Distribution table
-private void rebuildBalancesFromDistributions(int empId, int acYearId, int typeId, int createdBy, Float amount) {
-    
-    // 1. Get ALL Active Distributions currently HELD by this user
-    List<Distribution> holdings = distributionRepository.findActiveByIssuedToEmpIdAndAmountOrderByStart(
-            empId, acYearId, amount);
-
-    // 2. Get CURRENT Active Balance Rows for this amount
-    List<BalanceTrack> currentBalances = balanceTrackRepository.findActiveBalancesByEmpAndAmount(
-            acYearId, empId, amount);
-
-    // 3. STRATEGY: Soft Delete OLD rows, Insert NEW rows
-    
-    // A. Mark old rows as inactive (Clear the slate)
-    for (BalanceTrack b : currentBalances) {
-        b.setIsActive(0);
-        balanceTrackRepository.save(b);
-    }
-    
-    // B. Create new rows for every active distribution held (Mirroring reality)
-    for (Distribution dist : holdings) {
-        BalanceTrack nb = createNewBalanceTrack(empId, acYearId, typeId, createdBy);
-        
-        nb.setAmount(amount);
-        nb.setAppFrom((int) dist.getAppStartNo());
-        nb.setAppTo((int) dist.getAppEndNo());
-        nb.setAppAvblCnt(dist.getTotalAppCount());
-        
-        balanceTrackRepository.save(nb);
-    }
-}
 	/**
 	 * Helper to create a new active Distribution record based on an existing one
 	 * but setting the new IssuedToEmpId (the old receiver) and setting IsActive=1.
@@ -728,16 +546,4 @@ private void rebuildBalancesFromDistributions(int empId, int acYearId, int typeI
 	       newDist.setCreated_by(oldDist.getCreated_by());
 	    }
 
-	private BalanceTrack createNewBalanceTrack(int employeeId, int academicYearId, int typeId, int createdBy) {
-        BalanceTrack nb = new BalanceTrack();
-        nb.setEmployee(employeeRepository.findById(employeeId).orElseThrow());
-        nb.setAcademicYear(academicYearRepository.findById(academicYearId).orElseThrow());
-        nb.setIssuedByType(appIssuedTypeRepository.findById(typeId).orElseThrow());
-        nb.setAppAvblCnt(0);
-        nb.setIsActive(1);
-        nb.setCreatedBy(createdBy);
-        nb.setIssuedToProId(null); // Strict Validation for Employee
-        return nb;
-    }
-
 }
@@ -0,0 +1,427 @@
+package com.application.service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.application.dto.DistributionPreviewDTO;
+import com.application.dto.DistributionPreviewRowDTO;
+import com.application.dto.HolderBalancePreviewDTO;
+import com.application.entity.Distribution;
+import com.application.repository.DistributionRepository;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Applies a whole batch of distributions in one transaction.
+ *
+ * Packets are first checked against each other in memory, then every active
+ * distribution they overlap is split once (however many packets hit it), all
+ * Distribution rows are written with a single flush, and the balance deltas are
+ * folded per holder so each holder's BalanceTrack rows are touched once.
+ *
+ * The work is split into {@link #plan} (pure, in memory) and {@link #execute}
+ * (writes), so a dry run ({@link #preview}) goes through the same splitting
+ * and delta logic as the real write.
+ */
+@Service
+@RequiredArgsConstructor
+public class DistributionBatchPlanner {
+
+	private final DistributionRepository distributionRepository;
+	private final BalanceDeltaEngine balanceDeltaEngine;
+	private final DistributionLockManager distributionLockManager;
+	private final DistributionRangeIndex distributionRangeIndex;
+
+	/**
+	 * One assignment of the batch. {@code distribution} is the fully mapped,
+	 * not yet saved row for it.
+	 */
+	@Data
+	@AllArgsConstructor
+	public static class Packet {
+		private int academicYearId;
+		private int startNo;
+		private int endNo;
+		private int range;
+		private Float amount;
+		private Integer receiverEmpId;
+		private int receiverTypeId;
+		private int issuerId;
+		private Distribution distribution;
+	}
+
+	private record HolderKey(boolean pro, int holderId, int academicYearId, Float amount) {
+	}
+
+	/**
+	 * Cross-checks the packets of one batch; all problems are reported together.
+	 * A batch has one issuer, who is recorded as the modifier of every balance
+	 * row it touches.
+	 */
+	public void validate(List<Packet> packets) {
+		List<String> errors = new ArrayList<>();
+
+		Set<Integer> issuers = packets.stream().map(Packet::getIssuerId).collect(Collectors.toCollection(TreeSet::new));
+		if (issuers.size() > 1) {
+			errors.add("Packets come from different issuers " + issuers + "; submit one batch per issuer");
+		}
+
+		for (int i = 0; i < packets.size(); i++) {
+			Packet p = packets.get(i);
+			if (p.getStartNo() <= 0 || p.getEndNo() < p.getStartNo()) {
+				errors.add("Packet #" + (i + 1) + ": invalid range " + p.getStartNo() + "-" + p.getEndNo());
+			} else if (p.getRange() != 0 && p.getRange() != p.getEndNo() - p.getStartNo() + 1) {
+				errors.add("Packet #" + (i + 1) + ": range " + p.getRange() + " does not match "
+						+ p.getStartNo() + "-" + p.getEndNo());
+			}
+		}
+
+		Map<Integer, List<Integer>> byYear = new LinkedHashMap<>();
+		for (int i = 0; i < packets.size(); i++) {
+			byYear.computeIfAbsent(packets.get(i).getAcademicYearId(), y -> new ArrayList<>()).add(i);
+		}
+		for (List<Integer> indexes : byYear.values()) {
+			indexes.sort(Comparator.comparingInt(i -> packets.get(i).getStartNo()));
+			for (int k = 1; k < indexes.size(); k++) {
+				Packet prev = packets.get(indexes.get(k - 1));
+				Packet next = packets.get(indexes.get(k));
+				if (next.getStartNo() <= prev.getEndNo()) {
+					errors.add("Packets #" + (indexes.get(k - 1) + 1) + " and #" + (indexes.get(k) + 1)
+							+ " overlap (" + prev.getStartNo() + "-" + prev.getEndNo() + " / " + next.getStartNo()
+							+ "-" + next.getEndNo() + ")");
+				}
+			}
+		}
+
+		if (!errors.isEmpty()) {
+			throw new IllegalArgumentException("Bulk distribution rejected: " + String.join("; ", errors));
+		}
+	}
+
+	/**
+	 * Splits/recalls existing stock, saves all rows and applies balance deltas.
+	 *
+	 * @param keepReceiverOwnStock when true an existing distribution already held
+	 *                             by the packet's receiver is left untouched (DGM
+	 *                             behaviour); otherwise every overlap is split
+	 *                             (Zone behaviour)
+	 */
+	@Transactional
+	public void apply(List<Packet> packets, int modifierId, boolean keepReceiverOwnStock) {
+		validate(packets);
+
+		// 0. Lock every range bucket of the batch in one pass
+		Map<Integer, List<int[]>> rangesByYear = new LinkedHashMap<>();
+		for (Packet p : packets) {
+			rangesByYear.computeIfAbsent(p.getAcademicYearId(), y -> new ArrayList<>())
+					.add(new int[] { p.getStartNo(), p.getEndNo() });
+		}
+		distributionLockManager.lockRanges(rangesByYear);
+
+		// 1-3. Work out the splits and deltas (overlaps are read under the range lock)
+		Plan plan = plan(packets, keepReceiverOwnStock);
+
+		// ...then lock every holder the batch can touch
+		Set<Integer> holderEmpIds = new TreeSet<>();
+		for (Packet p : packets) {
+			holderEmpIds.add(p.getIssuerId());
+			if (p.getReceiverEmpId() != null) {
+				holderEmpIds.add(p.getReceiverEmpId());
+			}
+		}
+		List<Integer> holderProIds = packets.stream().map(p -> p.getDistribution().getIssued_to_pro_id())
+				.filter(Objects::nonNull).toList();
+		distributionLockManager.lockHolders(plan.deactivated, holderEmpIds, holderProIds);
+
+		// 4-5. Write it
+		execute(plan, modifierId);
+	}
+
+	/**
+	 * Computes what {@link #apply} would do for the packets without writing
+	 * anything: the overlapped rows to deactivate, the remainders and new rows,
+	 * and the ranges each holder loses and gains. Takes no locks.
+	 */
+	public Plan plan(List<Packet> packets, boolean keepReceiverOwnStock) {
+		validate(packets);
+		Plan plan = new Plan();
+
+		// 1. Collect every active distribution the batch overlaps (once each)
+		Map<Integer, Distribution> overlapped = new LinkedHashMap<>();
+		for (Packet p : packets) {
+			for (Distribution d : distributionRangeIndex.findOverlappingDistributions(p.getAcademicYearId(),
+					p.getStartNo(), p.getEndNo())) {
+				overlapped.putIfAbsent(d.getAppDistributionId(), d);
+			}
+		}
+
+		// 2. Split each overlapped distribution around all packets that hit it
+		for (Distribution old : overlapped.values()) {
+			int yearId = old.getAcademicYear().getAcdcYearId();
+			List<int[]> hits = packets.stream()
+					.filter(p -> p.getAcademicYearId() == yearId && p.getStartNo() <= old.getAppEndNo()
+							&& p.getEndNo() >= old.getAppStartNo())
+					.filter(p -> !keepReceiverOwnStock
+							|| !Objects.equals(p.getReceiverEmpId(), old.getIssued_to_emp_id()))
+					.map(p -> new int[] { p.getStartNo(), p.getEndNo() }).collect(Collectors.toList());
+			if (!hits.isEmpty()) {
+				split(plan, old, hits);
+			}
+		}
+
+		// 3. New rows
+		for (Packet p : packets) {
+			Distribution d = p.getDistribution();
+			plan.newRows.add(d);
+			if (p.getReceiverEmpId() != null) {
+				plan.receive(new HolderKey(false, p.getReceiverEmpId(), p.getAcademicYearId(), p.getAmount()),
+						p.getReceiverTypeId(), p.getStartNo(), p.getEndNo());
+			} else if (d.getIssued_to_pro_id() != null) {
+				plan.receive(new HolderKey(true, d.getIssued_to_pro_id(), p.getAcademicYearId(), p.getAmount()),
+						p.getReceiverTypeId(), p.getStartNo(), p.getEndNo());
+			}
+		}
+		return plan;
+	}
+
+	/**
+	 * Plan for re-distributing one existing packet: the packet is replaced by
+	 * {@code replacement}, whatever it no longer covers stays with the old
+	 * holder as remainders, and {@code others} (active rows overlapping the new
+	 * range) are split around it. The old holder hands over only what moved; a
+	 * holder keeping the packet gains only the numbers outside the old range.
+	 */
+	public Plan planUpdate(Distribution existing, Distribution replacement, int receiverTypeId,
+			List<Distribution> others) {
+		Plan plan = new Plan();
+		int newStart = replacement.getAppStartNo();
+		int newEnd = replacement.getAppEndNo();
+		int oldStart = existing.getAppStartNo();
+		int oldEnd = existing.getAppEndNo();
+
+		for (Distribution other : others) {
+			split(plan, other, List.of(new int[] { newStart, newEnd }));
+		}
+
+		plan.deactivated.add(existing);
+		plan.newRows.add(replacement);
+		if (oldStart < newStart) {
+			plan.remainders.add(remainderOf(existing, oldStart, newStart - 1));
+		}
+		if (oldEnd > newEnd) {
+			plan.remainders.add(remainderOf(existing, newEnd + 1, oldEnd));
+		}
+
+		HolderKey newHolder = holderOf(replacement, existing.getAcademicYear().getAcdcYearId());
+		if (newHolder == null) {
+			return plan;
+		}
+		if (!newHolder.equals(holderOf(existing, newHolder.academicYearId()))) {
+			plan.release(existing, Math.max(oldStart, newStart), Math.min(oldEnd, newEnd));
+			plan.receive(newHolder, receiverTypeId, newStart, newEnd);
+		} else {
+			if (newStart < oldStart) {
+				plan.receive(newHolder, receiverTypeId, newStart, Math.min(newEnd, oldStart - 1));
+			}
+			if (newEnd > oldEnd) {
+				plan.receive(newHolder, receiverTypeId, Math.max(newStart, oldEnd + 1), newEnd);
+			}
+		}
+		return plan;
+	}
+
+	/**
+	 * Writes a plan: deactivates and saves all rows with one flush, then applies
+	 * the balance deltas once per employee holder and rebuilds the balance of
+	 * every PRO the plan touches from its distributions.
+	 */
+	@Transactional
+	public void execute(Plan plan, int modifierId) {
+		List<Distribution> writes = new ArrayList<>();
+		for (Distribution old : plan.deactivated) {
+			old.setIsActive(0);
+			writes.add(old);
+		}
+		writes.addAll(plan.remainders);
+		writes.addAll(plan.newRows);
+
+		// One flush for the whole plan (JDBC batched)
+		distributionRepository.saveAll(writes);
+		distributionRepository.flush();
+
+		// Balances: once per holder
+		for (Map.Entry<HolderKey, Integer> holder : plan.holderTypes.entrySet()) {
+			HolderKey key = holder.getKey();
+			if (key.pro()) {
+				balanceDeltaEngine.rebuildPro(key.holderId(), key.academicYearId(), holder.getValue(), key.amount(),
+						modifierId);
+				continue;
+			}
+			balanceDeltaEngine.applyDeltas(key.holderId(), key.academicYearId(), holder.getValue(), key.amount(),
+					plan.released.getOrDefault(key, List.of()), plan.received.getOrDefault(key, List.of()),
+					modifierId);
+		}
+	}
+
+	/**
+	 * Describes a plan without writing it: the rows that would be deactivated
+	 * and created, and every holder's series before and after.
+	 */
+	@Transactional(readOnly = true)
+	public DistributionPreviewDTO preview(Plan plan) {
+		List<DistributionPreviewRowDTO> deactivated = new ArrayList<>();
+		for (Distribution d : plan.deactivated) {
+			deactivated.add(previewRow(d, "DEACTIVATED"));
+		}
+		List<DistributionPreviewRowDTO> created = new ArrayList<>();
+		for (Distribution d : plan.newRows) {
+			created.add(previewRow(d, "NEW"));
+		}
+		for (Distribution d : plan.remainders) {
+			created.add(previewRow(d, "REMAINDER"));
+		}
+
+		List<HolderBalancePreviewDTO> balances = new ArrayList<>();
+		for (HolderKey key : plan.holderTypes.keySet()) {
+			List<int[]> released = plan.released.getOrDefault(key, List.of());
+			List<int[]> received = plan.received.getOrDefault(key, List.of());
+			balances.add(key.pro()
+					? balanceDeltaEngine.preview(null, key.holderId(), key.academicYearId(), key.amount(), released,
+							received, 0)
+					: balanceDeltaEngine.preview(key.holderId(), null, key.academicYearId(), key.amount(), released,
+							received, plan.distributedDelta(key)));
+		}
+		return new DistributionPreviewDTO(deactivated, created, balances);
+	}
+
+	// Deactivates old and keeps the parts outside the hits ({start, end}) with its holder
+	private void split(Plan plan, Distribution old, List<int[]> hits) {
+		List<int[]> sorted = new ArrayList<>(hits);
+		sorted.sort(Comparator.comparingInt(r -> r[0]));
+
+		plan.deactivated.add(old);
+		int cursor = old.getAppStartNo();
+		for (int[] hit : sorted) {
+			if (hit[0] > cursor) {
+				plan.remainders.add(remainderOf(old, cursor, hit[0] - 1));
+			}
+			plan.release(old, Math.max(old.getAppStartNo(), hit[0]), Math.min(old.getAppEndNo(), hit[1]));
+			cursor = Math.max(cursor, hit[1] + 1);
+		}
+		if (cursor <= old.getAppEndNo()) {
+			plan.remainders.add(remainderOf(old, cursor, old.getAppEndNo()));
+		}
+	}
+
+	private static HolderKey holderOf(Distribution d, int academicYearId) {
+		if (d.getIssued_to_emp_id() != null) {
+			return new HolderKey(false, d.getIssued_to_emp_id(), academicYearId, d.getAmount());
+		}
+		if (d.getIssued_to_pro_id() != null) {
+			return new HolderKey(true, d.getIssued_to_pro_id(), academicYearId, d.getAmount());
+		}
+		return null;
+	}
+
+	private static DistributionPreviewRowDTO previewRow(Distribution d, String kind) {
+		return new DistributionPreviewRowDTO(d.getAppDistributionId(), kind, d.getAppStartNo(), d.getAppEndNo(),
+				d.getAppEndNo() - d.getAppStartNo() + 1, d.getIssued_to_emp_id(), d.getIssued_to_pro_id(),
+				d.getAmount());
+	}
+
+	/**
+	 * Everything one write changes, worked out before anything is written.
+	 * {@link #execute} writes it, {@link #preview} describes it.
+	 */
+	public static final class Plan {
+		private final List<Distribution> deactivated = new ArrayList<>();
+		private final List<Distribution> remainders = new ArrayList<>();
+		private final List<Distribution> newRows = new ArrayList<>();
+		private final Map<HolderKey, List<int[]>> released = new LinkedHashMap<>();
+		private final Map<HolderKey, List<int[]>> received = new LinkedHashMap<>();
+		private final Map<HolderKey, Integer> holderTypes = new LinkedHashMap<>();
+
+		/**
+		 * Adds the issuer, so a CO/Admin issuer's "master minus distributed"
+		 * balance is refreshed (or previewed) with the rest.
+		 */
+		public Plan withIssuer(int empId, int academicYearId, int typeId, Float amount) {
+			holderTypes.putIfAbsent(new HolderKey(false, empId, academicYearId, amount), typeId);
+			return this;
+		}
+
+		private void release(Distribution old, int from, int to) {
+			HolderKey victim = holderOf(old, old.getAcademicYear().getAcdcYearId());
+			if (victim == null || from > to) {
+				return;
+			}
+			released.computeIfAbsent(victim, k -> new ArrayList<>()).add(new int[] { from, to });
+			holderTypes.putIfAbsent(victim, old.getIssuedToType().getAppIssuedId());
+		}
+
+		private void receive(HolderKey holder, int typeId, int from, int to) {
+			if (from > to) {
+				return;
+			}
+			received.computeIfAbsent(holder, k -> new ArrayList<>()).add(new int[] { from, to });
+			holderTypes.put(holder, typeId);
+		}
+
+		// Change in what the employee has distributed (active rows they created), for CO/Admin balances
+		private int distributedDelta(HolderKey key) {
+			int delta = 0;
+			for (Distribution d : remainders) {
+				delta += createdBy(d, key) ? d.getTotalAppCount() : 0;
+			}
+			for (Distribution d : newRows) {
+				delta += createdBy(d, key) ? d.getTotalAppCount() : 0;
+			}
+			for (Distribution d : deactivated) {
+				delta -= createdBy(d, key) ? d.getTotalAppCount() : 0;
+			}
+			return delta;
+		}
+
+		private static boolean createdBy(Distribution d, HolderKey key) {
+			return d.getCreated_by() == key.holderId() && Objects.equals(d.getAmount(), key.amount())
+					&& d.getAcademicYear() != null && d.getAcademicYear().getAcdcYearId() == key.academicYearId();
+		}
+	}
+
+	private Distribution remainderOf(Distribution old, int start, int end) {
+		Distribution remainder = new Distribution();
+		remainder.setAcademicYear(old.getAcademicYear());
+		remainder.setState(old.getState());
+		remainder.setDistrict(old.getDistrict());
+		remainder.setCity(old.getCity());
+		remainder.setZone(old.getZone());
+		remainder.setCampus(old.getCampus());
+		remainder.setIssuedByType(old.getIssuedByType());
+		remainder.setIssuedToType(old.getIssuedToType());
+		remainder.setCreated_by(old.getCreated_by());
+		remainder.setIssueDate(old.getIssueDate());
+		remainder.setAmount(old.getAmount());
+
+		// Stays with whoever held it before (Employee OR Pro)
+		remainder.setIssued_to_emp_id(old.getIssued_to_emp_id());
+		remainder.setIssued_to_pro_id(old.getIssued_to_pro_id());
+
+		remainder.setAppStartNo(start);
+		remainder.setAppEndNo(end);
+		remainder.setTotalAppCount((end - start) + 1);
+		remainder.setIsActive(1);
+		return remainder;
+	}
+}
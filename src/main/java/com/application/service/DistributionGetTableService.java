@@ -1,131 +1,241 @@
 package com.application.service;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import com.application.dto.DistributionGetTableDTO;
-import com.application.entity.Campaign;
-import com.application.entity.Dgm;
-import com.application.entity.Distribution;
 import com.application.repository.CampaignRepository;
 import com.application.repository.DgmRepository;
-import com.application.repository.DistributionRepository;
- 
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+
 @Service
 public class DistributionGetTableService {
- 
-    @Autowired
-    private DistributionRepository distributionRepository;
- 
+
+    private static final int MAX_PAGE_SIZE = 1000;
+
+    // Sortable columns; every sort is made unique with the distribution id so it can be used as a keyset
+    private static final Map<String, String> SORT_COLUMNS = Map.of(
+            "id", "d.appDistributionId",
+            "startNo", "d.appStartNo");
+
+    // Flat row: distribution columns plus the names the table shows, all from one query
+    private static final String TABLE_QUERY =
+            "SELECT d.appDistributionId, d.appStartNo, d.appEndNo, d.totalAppCount, d.amount, d.isActive, "
+            + "d.created_by, d.issued_to_emp_id, ibt.appIssuedId, itt.appIssuedId, ci.cityId, st.stateId, "
+            + "z.zoneId, di.districtId, c.campusId, d.issueDate, ay.acdcYearId, "
+            + "e.emp_id, e.first_name, e.last_name, c.campusName, z.zoneName, di.districtName, ci.cityName, st.stateName "
+            + "FROM Distribution d "
+            + "JOIN d.issuedToType itt "
+            + "LEFT JOIN d.issuedByType ibt "
+            + "LEFT JOIN d.issuedToEmployee e "
+            + "LEFT JOIN d.city ci "
+            + "LEFT JOIN d.state st "
+            + "LEFT JOIN d.zone z "
+            + "LEFT JOIN d.district di "
+            + "LEFT JOIN d.campus c "
+            + "LEFT JOIN d.academicYear ay "
+            + "WHERE d.created_by = :empId AND itt.appIssuedId = :issuedToTypeId AND d.isActive = 1";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
     @Autowired
     private DgmRepository dgmRepository;
- 
+
     @Autowired
     private CampaignRepository campaignRepository;
-    
+
 //    @Cacheable(value = "distributionsByEmployee", key = "#empId")
     public List<DistributionGetTableDTO> getDistributionsByEmployeeAndIssuedToType(int empId, int issuedToTypeId) {
+        return getDistributionsByEmployeeAndIssuedToType(empId, issuedToTypeId, null, null, null, "id", "asc");
+    }
+
+    /**
+     * One projection query for the rows plus at most three batched lookups (DGM by zone, DGM by campus,
+     * campaign by campus), whatever the number of rows.
+     *
+     * Keyset pagination: pass the sort value and id of the last row of the previous page as
+     * {@code afterKey}/{@code afterId}; {@code size == null} returns every row.
+     */
+    @Transactional(readOnly = true)
+    public List<DistributionGetTableDTO> getDistributionsByEmployeeAndIssuedToType(int empId, int issuedToTypeId,
+            Integer size, Integer afterKey, Integer afterId, String sortBy, String direction) {
+
+        String sortColumn = SORT_COLUMNS.get(sortBy == null ? "id" : sortBy);
+        if (sortColumn == null) {
+            throw new IllegalArgumentException("Unsupported sort field: " + sortBy + ". Allowed: " + SORT_COLUMNS.keySet());
+        }
+        boolean descending = "desc".equalsIgnoreCase(direction);
+        if (!descending && direction != null && !"asc".equalsIgnoreCase(direction)) {
+            throw new IllegalArgumentException("Unsupported sort direction: " + direction);
+        }
+        if (size != null && (size <= 0 || size > MAX_PAGE_SIZE)) {
+            throw new IllegalArgumentException("Page size must be between 1 and " + MAX_PAGE_SIZE);
+        }
 
-        List<Distribution> distributions = 
-                distributionRepository.findByCreatedByAndIssuedToType(empId, issuedToTypeId);
-
- 
-        return distributions.stream().map(d -> {
-            DistributionGetTableDTO dto = new DistributionGetTableDTO();
- 
-            // Populate all fields from the Distribution entity
-            dto.setAppDistributionId(d.getAppDistributionId());
-            dto.setAppStartNo(d.getAppStartNo());
-            dto.setAppEndNo(d.getAppEndNo());
-            dto.setTotalAppCount(d.getTotalAppCount());
-            dto.setAmount(d.getAmount());
-            dto.setIsActive(d.getIsActive());
-            dto.setCreated_by(d.getCreated_by());
-            dto.setIssued_to_emp_id(d.getIssued_to_emp_id());
-            dto.setIssueDate(d.getIssueDate());
- 
-            // Handle related IDs from relationships
-            if (d.getIssuedByType() != null) dto.setIssued_by_type_id(d.getIssuedByType().getAppIssuedId());
-            if (d.getIssuedToType() != null) dto.setIssued_to_type_id(d.getIssuedToType().getAppIssuedId());
-            if (d.getCity() != null) dto.setCity_id(d.getCity().getCityId());
-            if (d.getState() != null) dto.setState_id(d.getState().getStateId());
-            if (d.getZone() != null) dto.setZone_id(d.getZone().getZoneId());
-            if (d.getDistrict() != null) dto.setDistrict_id(d.getDistrict().getDistrictId());
-            if (d.getCampus() != null) dto.setCmps_id(d.getCampus().getCampusId());
-            if (d.getAcademicYear() != null) dto.setAcdc_year_id(d.getAcademicYear().getAcdcYearId());
-            
-            // Derive the additional fields
-            String issuedToName = null;
-            if (d.getIssuedToEmployee() != null) {
-                issuedToName = d.getIssuedToEmployee().getFirst_name() + " " + d.getIssuedToEmployee().getLast_name();
-            } else if (d.getCampus() != null) {
-                issuedToName = d.getCampus().getCampusName();
-            } else if (d.getZone() != null) {
-                issuedToName = d.getZone().getZoneName();
-            } else if (d.getDistrict() != null) {
-                issuedToName = d.getDistrict().getDistrictName();
-            } else if (d.getCity() != null) {
-                issuedToName = d.getCity().getCityName();
-            } else if (d.getState() != null) {
-                issuedToName = d.getState().getStateName();
+        boolean byId = "d.appDistributionId".equals(sortColumn);
+        String cmp = descending ? "<" : ">";
+        String dir = descending ? " DESC" : " ASC";
+
+        StringBuilder jpql = new StringBuilder(TABLE_QUERY);
+        if (afterId != null) {
+            if (byId) {
+                jpql.append(" AND d.appDistributionId ").append(cmp).append(" :afterId");
+            } else {
+                if (afterKey == null) {
+                    throw new IllegalArgumentException("afterKey is required with afterId when sorting by " + sortBy);
+                }
+                jpql.append(" AND (").append(sortColumn).append(' ').append(cmp).append(" :afterKey OR (")
+                        .append(sortColumn).append(" = :afterKey AND d.appDistributionId ").append(cmp)
+                        .append(" :afterId))");
             }
-            dto.setIssuedToName(issuedToName);
- 
-            String zoneName = null;
-            if (d.getZone() != null) {
-                zoneName = d.getZone().getZoneName();
+        }
+        jpql.append(" ORDER BY ").append(sortColumn).append(dir);
+        if (!byId) {
+            jpql.append(", d.appDistributionId").append(dir);
+        }
+
+        TypedQuery<Object[]> query = entityManager.createQuery(jpql.toString(), Object[].class)
+                .setParameter("empId", empId)
+                .setParameter("issuedToTypeId", issuedToTypeId);
+        if (afterId != null) {
+            query.setParameter("afterId", afterId);
+            if (!byId) {
+                query.setParameter("afterKey", afterKey);
             }
-            dto.setZoneName(zoneName);
- 
-            String campusName = null;
-            if (d.getCampus() != null) {
-                campusName = d.getCampus().getCampusName();
+        }
+        if (size != null) {
+            query.setMaxResults(size);
+        }
+
+        List<DistributionGetTableDTO> rows;
+        try (Stream<Object[]> stream = query.getResultStream()) {
+            rows = stream.map(DistributionGetTableService::toDto).toList();
+        }
+        if (rows.isEmpty()) {
+            return rows;
+        }
+
+        // Batched lookups keyed by the distinct zones/campuses of this page
+        Set<Integer> zoneIds = new HashSet<>();
+        Set<Integer> campusIds = new HashSet<>();
+        Set<Integer> dgmCampusIds = new HashSet<>();
+        for (DistributionGetTableDTO dto : rows) {
+            if (dto.getZone_id() != 0) {
+                zoneIds.add(dto.getZone_id());
             }
-            dto.setCampusName(campusName);
- 
-            String dgmName = null;
-            // Find DGM name based on zone or campus ID from the distribution record
-            if (d.getZone() != null) {
-                List<Dgm> dgms = dgmRepository.findByZoneId(d.getZone().getZoneId());
-                if (!dgms.isEmpty() && dgms.get(0).getEmployee() != null) {
-                    Dgm dgm = dgms.get(0);
-                    dgmName = dgm.getEmployee().getFirst_name() + " " + dgm.getEmployee().getLast_name();
-                }
-            } else if (d.getCampus() != null) {
-                List<Dgm> dgms = dgmRepository.findByCampusId(d.getCampus().getCampusId());
-                if (!dgms.isEmpty() && dgms.get(0).getEmployee() != null) {
-                    Dgm dgm = dgms.get(0);
-                    dgmName = dgm.getEmployee().getFirst_name() + " " + dgm.getEmployee().getLast_name();
+            if (dto.getCmps_id() != 0) {
+                campusIds.add(dto.getCmps_id());
+                if (dto.getZone_id() == 0) {
+                    dgmCampusIds.add(dto.getCmps_id());
                 }
             }
-            dto.setDgmName(dgmName);
-            
-         // Add logic for campaign area name here
-            String campaignAreaName = null;
-            if (d.getCampus() != null) {
-                Campaign campaign = campaignRepository.findByCampus_CampusId(d.getCampus().getCampusId());
-                if (campaign != null) {
-                    campaignAreaName = campaign.getAreaName();
-                }
+        }
+
+        Map<Integer, String> dgmByZone = zoneIds.isEmpty() ? Map.of()
+                : firstDgmNames(dgmRepository.findDgmNamesByZoneIds(zoneIds));
+        Map<Integer, String> dgmByCampus = dgmCampusIds.isEmpty() ? Map.of()
+                : firstDgmNames(dgmRepository.findDgmNamesByCampusIds(dgmCampusIds));
+        Map<Integer, Object[]> campaignByCampus = campusIds.isEmpty() ? Map.of()
+                : firstPerKey(campaignRepository.findCampaignAreasByCampusIds(campusIds));
+
+        for (DistributionGetTableDTO dto : rows) {
+            // Find DGM name based on zone or campus ID from the distribution record
+            if (dto.getZone_id() != 0) {
+                dto.setDgmName(dgmByZone.get(dto.getZone_id()));
+            } else if (dto.getCmps_id() != 0) {
+                dto.setDgmName(dgmByCampus.get(dto.getCmps_id()));
             }
-            dto.setCampaignAreaName(campaignAreaName);
-            
-         // Logic for campaign area ID here
-            int campaignAreaId = 0; // Initialize with a default value
-            if (d.getCampus() != null) {
-                Campaign campaign = campaignRepository.findByCampus_CampusId(d.getCampus().getCampusId());
-                if (campaign != null) {
-                    campaignAreaId = campaign.getCampaignId();
-                }
+
+            Object[] campaign = dto.getCmps_id() != 0 ? campaignByCampus.get(dto.getCmps_id()) : null;
+            if (campaign != null) {
+                dto.setCampaignAreaId(campaign[1] != null ? ((Number) campaign[1]).intValue() : 0);
+                dto.setCampaignAreaName((String) campaign[2]);
             }
-            dto.setCampaignAreaId(campaignAreaId);
-            
-            return dto;
-        }).toList();
+        }
+        return rows;
     }
-}
- 
 
- 
- 
\ No newline at end of file
+    private static DistributionGetTableDTO toDto(Object[] r) {
+        DistributionGetTableDTO dto = new DistributionGetTableDTO();
+
+        dto.setAppDistributionId(intOf(r[0]));
+        dto.setAppStartNo(intOf(r[1]));
+        dto.setAppEndNo(intOf(r[2]));
+        dto.setTotalAppCount(intOf(r[3]));
+        if (r[4] != null) dto.setAmount(((Number) r[4]).floatValue());
+        dto.setIsActive(intOf(r[5]));
+        dto.setCreated_by(intOf(r[6]));
+        dto.setIssued_to_emp_id(intOf(r[7]));
+        dto.setIssued_by_type_id(intOf(r[8]));
+        dto.setIssued_to_type_id(intOf(r[9]));
+        dto.setCity_id(intOf(r[10]));
+        dto.setState_id(intOf(r[11]));
+        dto.setZone_id(intOf(r[12]));
+        dto.setDistrict_id(intOf(r[13]));
+        dto.setCmps_id(intOf(r[14]));
+        dto.setIssueDate((LocalDateTime) r[15]);
+        dto.setAcdc_year_id(intOf(r[16]));
+
+        String campusName = (String) r[20];
+        String zoneName = (String) r[21];
+
+        // Derive the additional fields
+        String issuedToName = null;
+        if (r[17] != null) {
+            issuedToName = r[18] + " " + r[19];
+        } else if (r[14] != null) {
+            issuedToName = campusName;
+        } else if (r[12] != null) {
+            issuedToName = zoneName;
+        } else if (r[13] != null) {
+            issuedToName = (String) r[22];
+        } else if (r[10] != null) {
+            issuedToName = (String) r[23];
+        } else if (r[11] != null) {
+            issuedToName = (String) r[24];
+        }
+        dto.setIssuedToName(issuedToName);
+        dto.setZoneName(zoneName);
+        dto.setCampusName(campusName);
+        return dto;
+    }
+
+    // Rows are [key, first_name, last_name] ordered so the first row per key is the DGM to show
+    private static Map<Integer, String> firstDgmNames(List<Object[]> rows) {
+        Map<Integer, String> names = new HashMap<>();
+        for (Map.Entry<Integer, Object[]> e : firstPerKey(rows).entrySet()) {
+            Object[] r = e.getValue();
+            if (r[1] != null || r[2] != null) {
+                names.put(e.getKey(), r[1] + " " + r[2]);
+            }
+        }
+        return names;
+    }
+
+    private static Map<Integer, Object[]> firstPerKey(Collection<Object[]> rows) {
+        Map<Integer, Object[]> first = new HashMap<>();
+        for (Object[] r : rows) {
+            if (r[0] != null) {
+                first.putIfAbsent(((Number) r[0]).intValue(), r);
+            }
+        }
+        return first;
+    }
+
+    private static int intOf(Object value) {
+        return value == null ? 0 : ((Number) value).intValue();
+    }
+}
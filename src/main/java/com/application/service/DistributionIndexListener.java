@@ -0,0 +1,32 @@
+package com.application.service;
+
+import org.springframework.beans.factory.ObjectProvider;
+
+import com.application.entity.Distribution;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostUpdate;
+
+/**
+ * JPA listener on {@link Distribution}; forwards every insert/update to the
+ * in-memory range index. Hibernate creates it through Spring's bean container,
+ * so the index is resolved lazily to stay clear of the EntityManagerFactory
+ * bootstrap.
+ */
+public class DistributionIndexListener {
+
+	private final ObjectProvider<DistributionRangeIndex> rangeIndex;
+
+	public DistributionIndexListener(ObjectProvider<DistributionRangeIndex> rangeIndex) {
+		this.rangeIndex = rangeIndex;
+	}
+
+	@PostPersist
+	@PostUpdate
+	public void afterWrite(Distribution distribution) {
+		DistributionRangeIndex index = rangeIndex.getIfAvailable();
+		if (index != null) {
+			index.onDistributionWritten(distribution);
+		}
+	}
+}
@@ -0,0 +1,243 @@
+package com.application.service;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.application.entity.Distribution;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
+/**
+ * Serialises distribution writes that can touch the same ledger rows, and only
+ * those.
+ *
+ * Two lock levels, always taken in this order inside one transaction:
+ * 1. range buckets - (academic year, app_no / bucketSize) for every bucket a
+ *    range spans; two writes whose ranges overlap always share a bucket
+ * 2. holders - every employee / PRO whose BalanceTrack rows the write will
+ *    change (issuer, receivers, holders of overlapped distributions)
+ *
+ * Each key is held twice: a striped in-process ReentrantLock (so threads of
+ * this node queue without holding a DB connection each) and a PostgreSQL
+ * transaction-level advisory lock (so other nodes are covered too). Both are
+ * released when the transaction completes. Within a level keys are acquired in
+ * sorted order; waits are bounded by {@code distribution.lock.timeout-ms}.
+ */
+@Service
+public class DistributionLockManager {
+
+	private static final long NS_RANGE = 1L;
+	private static final long NS_EMPLOYEE = 2L;
+	private static final long NS_PRO = 3L;
+
+	@PersistenceContext
+	private EntityManager entityManager;
+
+	@Value("${distribution.lock.enabled:true}")
+	private boolean enabled;
+
+	@Value("${distribution.lock.advisory-enabled:true}")
+	private boolean advisoryEnabled;
+
+	@Value("${distribution.lock.bucket-size:10000}")
+	private int bucketSize;
+
+	@Value("${distribution.lock.stripes:256}")
+	private int stripeCount;
+
+	@Value("${distribution.lock.timeout-ms:10000}")
+	private long timeoutMillis;
+
+	// Separate stripes per level so a range stripe can never wait behind a holder stripe
+	private ReentrantLock[] rangeStripes;
+	private ReentrantLock[] holderStripes;
+
+	@PostConstruct
+	void init() {
+		rangeStripes = newStripes(stripeCount);
+		holderStripes = newStripes(stripeCount);
+	}
+
+	/**
+	 * Level 1: locks every bucket touched by the given ranges ({start, end}
+	 * pairs) of one academic year.
+	 */
+	public void lockRanges(int academicYearId, List<int[]> ranges) {
+		lockRanges(Map.of(academicYearId, ranges));
+	}
+
+	/**
+	 * Level 1 for a batch spanning several academic years; all buckets are
+	 * acquired in one sorted pass.
+	 */
+	public void lockRanges(Map<Integer, List<int[]>> rangesByYear) {
+		if (!enabled) {
+			return;
+		}
+		Set<Long> keys = new TreeSet<>();
+		for (Map.Entry<Integer, List<int[]>> year : rangesByYear.entrySet()) {
+			for (int[] r : year.getValue()) {
+				int from = Math.min(r[0], r[1]);
+				int to = Math.max(r[0], r[1]);
+				for (long bucket = from / bucketSize; bucket <= to / bucketSize; bucket++) {
+					keys.add(key(NS_RANGE, ((long) year.getKey() << 24) | (bucket & 0xFFFFFFL)));
+				}
+			}
+		}
+		acquire(keys, rangeStripes);
+	}
+
+	public void lockRange(int academicYearId, int startNo, int endNo) {
+		lockRanges(academicYearId, List.of(new int[] { startNo, endNo }));
+	}
+
+	/**
+	 * Level 1 for an update: locks the existing packet's range and the new one,
+	 * then re-reads the packet so the caller works on the committed state.
+	 */
+	public void lockForUpdate(Distribution existing, int newStartNo, int newEndNo) {
+		if (!enabled) {
+			return;
+		}
+		lockRanges(existing.getAcademicYear().getAcdcYearId(),
+				List.of(new int[] { existing.getAppStartNo(), existing.getAppEndNo() },
+						new int[] { newStartNo, newEndNo }));
+		entityManager.refresh(existing);
+	}
+
+	/**
+	 * Level 2: locks the holders of the given distributions plus the extra
+	 * employee / PRO ids. Call once per transaction, after the range locks.
+	 */
+	public void lockHolders(Collection<Distribution> touched, Collection<Integer> empIds,
+			Collection<Integer> proIds) {
+		if (!enabled) {
+			return;
+		}
+		Set<Long> keys = new TreeSet<>();
+		for (Distribution d : touched) {
+			if (d.getIssued_to_emp_id() != null) {
+				keys.add(key(NS_EMPLOYEE, d.getIssued_to_emp_id()));
+			}
+			if (d.getIssued_to_pro_id() != null) {
+				keys.add(key(NS_PRO, d.getIssued_to_pro_id()));
+			}
+		}
+		for (Integer id : empIds) {
+			if (id != null) {
+				keys.add(key(NS_EMPLOYEE, id));
+			}
+		}
+		for (Integer id : proIds) {
+			if (id != null) {
+				keys.add(key(NS_PRO, id));
+			}
+		}
+		acquire(keys, holderStripes);
+	}
+
+	public void lockHolders(Collection<Distribution> touched, Integer... empIds) {
+		lockHolders(touched, Arrays.asList(empIds), List.of());
+	}
+
+	// ---------------------------------------------------------
+
+	private void acquire(Set<Long> keys, ReentrantLock[] stripes) {
+		if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+			throw new IllegalStateException("Distribution locks must be taken inside a transaction");
+		}
+		Held held = held();
+
+		Set<Long> fresh = new TreeSet<>(keys);
+		fresh.removeAll(held.keys);
+		if (fresh.isEmpty()) {
+			return;
+		}
+
+		// In-process: distinct stripes in index order
+		TreeMap<Integer, ReentrantLock> byIndex = new TreeMap<>();
+		for (Long k : fresh) {
+			int i = Math.floorMod(Long.hashCode(k * 0x9E3779B97F4A7C15L), stripes.length);
+			byIndex.putIfAbsent(i, stripes[i]);
+		}
+		for (ReentrantLock lock : byIndex.values()) {
+			try {
+				if (!lock.tryLock(timeoutMillis, TimeUnit.MILLISECONDS)) {
+					throw new RuntimeException("Application numbers are being distributed by another user. Please retry.");
+				}
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new RuntimeException("Interrupted while waiting for distribution lock", e);
+			}
+			held.stripes.push(lock);
+		}
+
+		// Cross-node: transaction-scoped advisory locks, released by PostgreSQL on commit/rollback
+		if (advisoryEnabled) {
+			if (!held.timeoutSet) {
+				entityManager.createNativeQuery("SELECT set_config('lock_timeout', :timeout, true)")
+						.setParameter("timeout", timeoutMillis + "ms").getSingleResult();
+				held.timeoutSet = true;
+			}
+			for (Long k : fresh) {
+				entityManager.createNativeQuery("SELECT 1 FROM pg_advisory_xact_lock(:key)").setParameter("key", k)
+						.getSingleResult();
+			}
+		}
+		held.keys.addAll(fresh);
+	}
+
+	private Held held() {
+		Held held = (Held) TransactionSynchronizationManager.getResource(this);
+		if (held == null) {
+			Held fresh = new Held();
+			TransactionSynchronizationManager.bindResource(this, fresh);
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+				@Override
+				public void afterCompletion(int status) {
+					TransactionSynchronizationManager.unbindResourceIfPossible(DistributionLockManager.this);
+					while (!fresh.stripes.isEmpty()) {
+						fresh.stripes.pop().unlock();
+					}
+				}
+			});
+			held = fresh;
+		}
+		return held;
+	}
+
+	private static long key(long namespace, long value) {
+		return (namespace << 56) | (value & 0xFFFFFFFFFFFFFFL);
+	}
+
+	private static ReentrantLock[] newStripes(int count) {
+		ReentrantLock[] stripes = new ReentrantLock[Math.max(1, count)];
+		for (int i = 0; i < stripes.length; i++) {
+			stripes[i] = new ReentrantLock();
+		}
+		return stripes;
+	}
+
+	private static final class Held {
+		private final Set<Long> keys = new HashSet<>();
+		private final Deque<ReentrantLock> stripes = new ArrayDeque<>();
+		private boolean timeoutSet;
+	}
+}
@@ -0,0 +1,319 @@
+package com.application.service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.application.dto.DistributionRangeDTO;
+import com.application.entity.Distribution;
+import com.application.repository.DistributionRepository;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * In-memory index of ACTIVE distribution ranges, one per academic year, used
+ * to find the PRO that owns an application number without a range scan.
+ *
+ * Active ranges of a year never overlap (every save splits/recalls whatever it
+ * overlaps), so a skip list keyed by app_start_no is an interval tree for our
+ * purposes: point-ownership lookups are a floor lookup, O(log n).
+ *
+ * The index is filled lazily per year from the DB, reloaded after
+ * {@code distribution.range-index.max-age-ms}, and kept current in between by
+ * {@link DistributionIndexListener}, which feeds every Distribution write of
+ * this node in. Changes are applied in afterCommit, which Spring runs for every
+ * synchronization before any afterCompletion, so they land before
+ * {@link DistributionLockManager} releases the transaction's locks. Writes made
+ * on other nodes show up at the next reload, so for ownership the index is only
+ * a shortcut: a hit is re-read by primary key and anything else (no owner,
+ * ambiguous owner, stale hit) is answered by the repository query.
+ *
+ * Overlap checks for writes ({@link #findOverlappingDistributions}, called
+ * under the range lock) are answered by the index only with
+ * {@code distribution.range-index.overlaps-enabled}, which is for single-node
+ * deployments: there every committed write reaches the index before its range
+ * lock is released, while another node's write would only be seen at the next
+ * reload. Otherwise, and whenever the current transaction has written
+ * distributions itself, they go to the DB. If a year ever contains overlapping
+ * active rows the index stops trusting that year.
+ */
+@Service
+@RequiredArgsConstructor
+public class DistributionRangeIndex {
+
+	private static final Logger logger = LoggerFactory.getLogger(DistributionRangeIndex.class);
+
+	private static final int PRO_ISSUED_TYPE_ID = 4;
+	private static final long INCONSISTENT_RETRY_MILLIS = 5 * 60 * 1000L;
+
+	private final DistributionRepository distributionRepository;
+
+	@Value("${distribution.range-index.enabled:true}")
+	private boolean enabled;
+
+	@Value("${distribution.range-index.max-age-ms:60000}")
+	private long maxAgeMillis;
+
+	@Value("${distribution.range-index.overlaps-enabled:false}")
+	private boolean overlapsEnabled;
+
+	private final Map<Integer, YearIndex> years = new ConcurrentHashMap<>();
+	private final Set<Integer> knownYearIds = ConcurrentHashMap.newKeySet();
+	private volatile long knownYearsLoadedAt = 0;
+
+	// ---------------------------------------------------------
+	// Queries (same contract as the DistributionRepository ones)
+	// ---------------------------------------------------------
+
+	public Optional<Distribution> findProDistributionForAdmissionNumber(long admissionNo) {
+		if (!enabled || admissionNo < Integer.MIN_VALUE || admissionNo > Integer.MAX_VALUE) {
+			return distributionRepository.findProDistributionForAdmissionNumber(admissionNo);
+		}
+
+		// Like the query, every academic year is searched; more than one owner is left to the DB
+		Integer distributionId = null;
+		for (Integer yearId : knownYearIds()) {
+			YearIndex index = yearIndex(yearId);
+			if (index == null || !index.consistent) {
+				return distributionRepository.findProDistributionForAdmissionNumber(admissionNo);
+			}
+			DistributionRangeDTO owner = index.owner((int) admissionNo);
+			if (owner != null && owner.getIssuedToTypeId() != null
+					&& owner.getIssuedToTypeId() == PRO_ISSUED_TYPE_ID) {
+				if (distributionId != null) {
+					return distributionRepository.findProDistributionForAdmissionNumber(admissionNo);
+				}
+				distributionId = owner.getDistributionId();
+			}
+		}
+
+		if (distributionId != null) {
+			Optional<Distribution> found = distributionRepository.findById(distributionId);
+			if (found.isPresent() && found.get().getIsActive() == 1 && found.get().getAppStartNo() <= admissionNo
+					&& found.get().getAppEndNo() >= admissionNo) {
+				return found;
+			}
+		}
+		// No owner here, or the index is behind a commit (of this or another node) - let the DB answer
+		return distributionRepository.findProDistributionForAdmissionNumber(admissionNo);
+	}
+
+	/**
+	 * Active distributions of the year overlapping [startNo, endNo]; same
+	 * contract as {@link DistributionRepository#findOverlappingDistributions}.
+	 * Call it under the range lock of that range.
+	 */
+	public List<Distribution> findOverlappingDistributions(int academicYearId, int startNo, int endNo) {
+		if (!enabled || !overlapsEnabled || TransactionSynchronizationManager.hasResource(this)) {
+			// This transaction's own uncommitted writes are not in the index yet
+			return distributionRepository.findOverlappingDistributions(academicYearId, startNo, endNo);
+		}
+		YearIndex index = yearIndex(academicYearId);
+		if (index == null || !index.consistent) {
+			return distributionRepository.findOverlappingDistributions(academicYearId, startNo, endNo);
+		}
+		List<Integer> ids = index.overlappingIds(startNo, endNo);
+		if (ids.isEmpty()) {
+			return List.of();
+		}
+
+		List<Distribution> found = new ArrayList<>(distributionRepository.findAllById(ids));
+		boolean current = found.size() == ids.size() && found.stream()
+				.allMatch(d -> d.getIsActive() == 1 && d.getAppStartNo() <= endNo && d.getAppEndNo() >= startNo);
+		if (!current) {
+			// Behind the DB (e.g. a row changed outside this node) - let the DB answer and start over
+			invalidateYear(academicYearId);
+			return distributionRepository.findOverlappingDistributions(academicYearId, startNo, endNo);
+		}
+		found.sort(Comparator.comparingInt(Distribution::getAppStartNo));
+		return found;
+	}
+
+	/**
+	 * Drops everything; the next lookup per year reloads from the DB.
+	 */
+	public void invalidateAll() {
+		years.clear();
+		knownYearIds.clear();
+		knownYearsLoadedAt = 0;
+	}
+
+	public void invalidateYear(int academicYearId) {
+		years.remove(academicYearId);
+	}
+
+	// ---------------------------------------------------------
+	// Write side (called from DistributionIndexListener)
+	// ---------------------------------------------------------
+
+	void onDistributionWritten(Distribution d) {
+		if (d.getAppDistributionId() == null || d.getAcademicYear() == null) {
+			return;
+		}
+		RangeChange change = new RangeChange(d.getAcademicYear().getAcdcYearId(),
+				new DistributionRangeDTO(d.getAppDistributionId(), d.getAppStartNo(), d.getAppEndNo(),
+						d.getIssuedToType() != null ? d.getIssuedToType().getAppIssuedId() : null),
+				d.getIsActive() == 1);
+
+		if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+			apply(List.of(change));
+			return;
+		}
+
+		@SuppressWarnings("unchecked")
+		Map<Integer, RangeChange> pending = (Map<Integer, RangeChange>) TransactionSynchronizationManager
+				.getResource(this);
+		if (pending == null) {
+			Map<Integer, RangeChange> buffer = new LinkedHashMap<>();
+			TransactionSynchronizationManager.bindResource(this, buffer);
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+				@Override
+				public void afterCommit() {
+					apply(buffer.values());
+				}
+
+				@Override
+				public void afterCompletion(int status) {
+					TransactionSynchronizationManager.unbindResourceIfPossible(DistributionRangeIndex.this);
+				}
+			});
+			pending = buffer;
+		}
+		// Last write per row wins (e.g. saved then deactivated in the same transaction)
+		pending.remove(change.range().getDistributionId());
+		pending.put(change.range().getDistributionId(), change);
+	}
+
+	private void apply(Collection<RangeChange> changes) {
+		if (!enabled) {
+			return;
+		}
+		// Removals first so a split's remainders never collide with the row they replace
+		for (RangeChange c : changes) {
+			years.computeIfPresent(c.academicYearId(), (y, index) -> {
+				index.remove(c.range().getDistributionId());
+				return index;
+			});
+		}
+		for (RangeChange c : changes) {
+			if (!c.active()) {
+				continue;
+			}
+			if (!knownYearIds.contains(c.academicYearId())) {
+				knownYearIds.add(c.academicYearId());
+			}
+			years.computeIfPresent(c.academicYearId(), (y, index) -> {
+				if (!index.put(c.range())) {
+					logger.warn("Distribution {} overlaps another active range in year {}; rebuilding index",
+							c.range().getDistributionId(), y);
+					return null;
+				}
+				return index;
+			});
+		}
+	}
+
+	// ---------------------------------------------------------
+	// Loading
+	// ---------------------------------------------------------
+
+	private YearIndex yearIndex(int academicYearId) {
+		YearIndex index = years.get(academicYearId);
+		long age = index != null ? System.currentTimeMillis() - index.loadedAt : 0;
+		if (index != null && (age > maxAgeMillis || (!index.consistent && age > INCONSISTENT_RETRY_MILLIS))) {
+			years.remove(academicYearId, index);
+			index = null;
+		}
+		if (index != null) {
+			return index;
+		}
+		try {
+			return years.computeIfAbsent(academicYearId, this::load);
+		} catch (RuntimeException e) {
+			logger.warn("Could not load distribution range index for year {}: {}", academicYearId, e.getMessage());
+			return null;
+		}
+	}
+
+	private YearIndex load(int academicYearId) {
+		YearIndex index = new YearIndex();
+		for (DistributionRangeDTO range : distributionRepository.findActiveRangesByAcademicYear(academicYearId)) {
+			if (!index.put(range)) {
+				logger.warn("Year {} has overlapping active distributions (id {}); range index disabled for it",
+						academicYearId, range.getDistributionId());
+				index.consistent = false;
+				break;
+			}
+		}
+		knownYearIds.add(academicYearId);
+		return index;
+	}
+
+	private Set<Integer> knownYearIds() {
+		if (System.currentTimeMillis() - knownYearsLoadedAt > maxAgeMillis) {
+			knownYearIds.addAll(distributionRepository.findActiveAcademicYearIds());
+			knownYearsLoadedAt = System.currentTimeMillis();
+		}
+		return knownYearIds;
+	}
+
+	private record RangeChange(int academicYearId, DistributionRangeDTO range, boolean active) {
+	}
+
+	static final class YearIndex {
+		private final ConcurrentSkipListMap<Integer, DistributionRangeDTO> byStart = new ConcurrentSkipListMap<>();
+		private final Map<Integer, Integer> startById = new ConcurrentHashMap<>();
+		private final long loadedAt = System.currentTimeMillis();
+		private volatile boolean consistent = true;
+
+		List<Integer> overlappingIds(int startNo, int endNo) {
+			List<Integer> ids = new ArrayList<>();
+			Map.Entry<Integer, DistributionRangeDTO> before = byStart.floorEntry(startNo);
+			if (before != null && before.getKey() < startNo && before.getValue().getAppEndNo() >= startNo) {
+				ids.add(before.getValue().getDistributionId());
+			}
+			for (DistributionRangeDTO range : byStart.subMap(startNo, true, endNo, true).values()) {
+				ids.add(range.getDistributionId());
+			}
+			return ids;
+		}
+
+		DistributionRangeDTO owner(int appNo) {
+			Map.Entry<Integer, DistributionRangeDTO> e = byStart.floorEntry(appNo);
+			return (e != null && e.getValue().getAppEndNo() >= appNo) ? e.getValue() : null;
+		}
+
+		synchronized boolean put(DistributionRangeDTO range) {
+			remove(range.getDistributionId());
+			for (Integer otherId : overlappingIds(range.getAppStartNo(), range.getAppEndNo())) {
+				if (!otherId.equals(range.getDistributionId())) {
+					return false;
+				}
+			}
+			byStart.put(range.getAppStartNo(), range);
+			startById.put(range.getDistributionId(), range.getAppStartNo());
+			return true;
+		}
+
+		synchronized void remove(Integer distributionId) {
+			Integer start = startById.remove(distributionId);
+			if (start != null) {
+				byStart.remove(start);
+			}
+		}
+	}
+}
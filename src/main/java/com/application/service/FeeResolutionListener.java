@@ -0,0 +1,38 @@
+package com.application.service;
+
+import org.springframework.beans.factory.ObjectProvider;
+
+import com.application.entity.BalanceTrack;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+
+/**
+ * JPA listener on Campus, Zone, CampusDetails, AdminApp and BalanceTrack;
+ * tells the {@link FeeResolutionTable} which snapshot a write touches.
+ * Resolved lazily like {@link DistributionIndexListener}.
+ */
+public class FeeResolutionListener {
+
+	private final ObjectProvider<FeeResolutionTable> feeResolutionTable;
+
+	public FeeResolutionListener(ObjectProvider<FeeResolutionTable> feeResolutionTable) {
+		this.feeResolutionTable = feeResolutionTable;
+	}
+
+	@PostPersist
+	@PostUpdate
+	@PostRemove
+	public void afterWrite(Object entity) {
+		FeeResolutionTable table = feeResolutionTable.getIfAvailable();
+		if (table == null) {
+			return;
+		}
+		if (entity instanceof BalanceTrack b) {
+			table.onBalanceWritten(b);
+		} else {
+			table.onFeeDataWritten();
+		}
+	}
+}
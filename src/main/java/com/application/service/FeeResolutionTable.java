@@ -0,0 +1,316 @@
+package com.application.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.application.entity.BalanceTrack;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
+/**
+ * In-memory answer to "which year, zone and fee does this application number
+ * get at this campus" for {@link StudentAdmissionService#getApplicationDetailsWithFee}.
+ *
+ * Two immutable snapshots, each swapped wholesale on reload:
+ * - fees: campus -> business type, zone name -> id, (campus, year) ->
+ *   CampusDetails.app_fee for SCHOOL campuses, and per year the sorted active
+ *   AdminApp ranges with their amount / fee for COLLEGE campuses
+ * - years: the sorted active PRO BalanceTrack ranges (issued type 4) with
+ *   their academic year, i.e. findActiveBalanceTrackByAppNoRange
+ *
+ * Range lookups are a binary search. {@link FeeResolutionListener} marks a
+ * snapshot stale once a write to its tables commits; until the next reload
+ * (every {@code fee-resolution.reload-ms} when stale, at the latest after
+ * {@code fee-resolution.max-age-ms}) {@link #resolve} returns empty and the
+ * caller uses the queries. Overlapping ranges, where the queries would pick
+ * or fail, are likewise left to the database.
+ */
+@Service
+public class FeeResolutionTable {
+
+	private static final Logger logger = LoggerFactory.getLogger(FeeResolutionTable.class);
+
+	private static final int PRO_ISSUED_TYPE_ID = 4;
+	private static final String SCHOOL = "SCHOOL";
+	private static final String COLLEGE = "COLLEGE";
+
+	@PersistenceContext
+	private EntityManager entityManager;
+
+	private final TransactionTemplate readOnlyTx;
+
+	@Value("${fee-resolution.enabled:true}")
+	private boolean enabled;
+
+	@Value("${fee-resolution.max-age-ms:600000}")
+	private long maxAgeMillis;
+
+	private volatile Fees fees;
+	private volatile Years years;
+	private volatile boolean feesStale = true;
+	private volatile boolean yearsStale = true;
+
+	/**
+	 * What the fee screen needs beyond the AppStatusTrackView row. Fees are
+	 * null where the query path would leave them null.
+	 */
+	public record Resolution(Integer zoneId, String businessTypeName, int academicYearId, String academicYear,
+			Float applicationFee, Float amount) {
+	}
+
+	private record CollegeFee(Float amount, Float applicationFee) {
+	}
+
+	private record ProRange(int from, int to, int academicYearId) {
+	}
+
+	private record Fees(Map<Integer, String> businessTypeByCampus, Map<String, Integer> zoneIdByName,
+			Map<Long, Float> schoolFees, Map<Integer, Ranges<CollegeFee>> collegeFeesByYear, long loadedAt) {
+	}
+
+	private record Years(Ranges<Integer> yearByAppNo, Map<Integer, String> yearNames, Map<Integer, ProRange> byTrackId,
+			long loadedAt) {
+	}
+
+	public FeeResolutionTable(PlatformTransactionManager transactionManager) {
+		this.readOnlyTx = new TransactionTemplate(transactionManager);
+		this.readOnlyTx.setReadOnly(true);
+	}
+
+	@EventListener(ApplicationReadyEvent.class)
+	public void load() {
+		refresh();
+	}
+
+	@Scheduled(initialDelayString = "${fee-resolution.reload-ms:2000}", fixedDelayString = "${fee-resolution.reload-ms:2000}")
+	public void refresh() {
+		if (!enabled) {
+			return;
+		}
+		long now = System.currentTimeMillis();
+		try {
+			if (feesStale || fees == null || now - fees.loadedAt() > maxAgeMillis) {
+				// Clear first: a write committing during the load marks it stale again
+				feesStale = false;
+				fees = readOnlyTx.execute(status -> loadFees());
+			}
+			if (yearsStale || years == null || now - years.loadedAt() > maxAgeMillis) {
+				yearsStale = false;
+				years = readOnlyTx.execute(status -> loadYears());
+			}
+		} catch (RuntimeException e) {
+			// Lookups fall back to the queries until a reload succeeds
+			feesStale = true;
+			yearsStale = true;
+			logger.warn("Fee resolution table not loaded: {}", e.getMessage());
+		}
+	}
+
+	/**
+	 * Year, zone and fees for an application number sold at the campus, or
+	 * empty when the table cannot answer with certainty (not loaded, stale,
+	 * unknown campus, number outside every PRO range, overlapping ranges).
+	 */
+	public Optional<Resolution> resolve(long applicationNo, int campusId, String zoneName) {
+		Fees f = fees;
+		Years y = years;
+		if (!enabled || f == null || y == null || feesStale || yearsStale || applicationNo < Integer.MIN_VALUE
+				|| applicationNo > Integer.MAX_VALUE) {
+			return Optional.empty();
+		}
+		int appNo = (int) applicationNo;
+
+		String businessTypeName = f.businessTypeByCampus().get(campusId);
+		Integer yearId = y.yearByAppNo().find(appNo);
+		if (businessTypeName == null || yearId == null || y.yearByAppNo().ambiguous) {
+			return Optional.empty();
+		}
+		Integer zoneId = zoneName == null || zoneName.isBlank() ? null
+				: f.zoneIdByName().get(zoneName.toLowerCase(Locale.ROOT));
+
+		Float applicationFee = null;
+		Float amount = null;
+		if (SCHOOL.equalsIgnoreCase(businessTypeName)) {
+			applicationFee = f.schoolFees().get(key(campusId, yearId));
+		} else if (COLLEGE.equalsIgnoreCase(businessTypeName)) {
+			Ranges<CollegeFee> ranges = f.collegeFeesByYear().get(yearId);
+			if (ranges != null && ranges.ambiguous) {
+				return Optional.empty();
+			}
+			CollegeFee fee = ranges != null ? ranges.find(appNo) : null;
+			if (fee != null) {
+				amount = fee.amount();
+				applicationFee = fee.applicationFee();
+			}
+		}
+		return Optional.of(new Resolution(zoneId, businessTypeName, yearId, y.yearNames().get(yearId),
+				applicationFee, amount));
+	}
+
+	// ---------------------------------------------------------
+	// Invalidation (called from FeeResolutionListener)
+	// ---------------------------------------------------------
+
+	void onFeeDataWritten() {
+		afterCommit(() -> feesStale = true);
+	}
+
+	void onBalanceWritten(BalanceTrack b) {
+		Years y = years;
+		ProRange known = y != null ? y.byTrackId().get(b.getAppBalanceTrkId()) : null;
+		boolean pro = b.getIssuedByType() != null && b.getIssuedByType().getAppIssuedId() == PRO_ISSUED_TYPE_ID;
+		if (known == null && !(pro && b.getIsActive() == 1)) {
+			// Neither in the table nor going into it
+			return;
+		}
+		if (known != null && pro && b.getIsActive() == 1 && b.getAcademicYear() != null
+				&& known.equals(new ProRange(b.getAppFrom(), b.getAppTo(), b.getAcademicYear().getAcdcYearId()))) {
+			// Only the available count moved
+			return;
+		}
+		afterCommit(() -> yearsStale = true);
+	}
+
+	private static void afterCommit(Runnable action) {
+		if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+			action.run();
+			return;
+		}
+		TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+			@Override
+			public void afterCommit() {
+				action.run();
+			}
+		});
+	}
+
+	// ---------------------------------------------------------
+	// Loading
+	// ---------------------------------------------------------
+
+	private Fees loadFees() {
+		Map<Integer, String> businessTypes = new HashMap<>();
+		for (Object[] r : entityManager.createQuery("SELECT c.campusId, b.businessTypeName FROM Campus c "
+				+ "JOIN c.businessType b", Object[].class).getResultList()) {
+			if (r[1] != null) {
+				businessTypes.put((Integer) r[0], (String) r[1]);
+			}
+		}
+
+		Map<String, Integer> zones = new HashMap<>();
+		for (Object[] r : entityManager.createQuery("SELECT z.zoneId, z.zoneName FROM Zone z", Object[].class)
+				.getResultList()) {
+			if (r[1] != null) {
+				zones.putIfAbsent(((String) r[1]).toLowerCase(Locale.ROOT), (Integer) r[0]);
+			}
+		}
+
+		Map<Long, Float> schoolFees = new HashMap<>();
+		for (Object[] r : entityManager.createQuery("SELECT d.campus.campusId, d.academicYear.acdcYearId, d.app_fee "
+				+ "FROM CampusDetails d", Object[].class).getResultList()) {
+			schoolFees.putIfAbsent(key((Integer) r[0], (Integer) r[1]), (Float) r[2]);
+		}
+
+		Map<Integer, List<Range<CollegeFee>>> college = new HashMap<>();
+		for (Object[] r : entityManager.createQuery("SELECT a.academicYear.acdcYearId, a.appFromNo, a.appToNo, "
+				+ "a.app_amount, a.app_fee FROM AdminApp a WHERE a.is_active = 1 AND a.appFromNo IS NOT NULL "
+				+ "AND a.appToNo IS NOT NULL", Object[].class).getResultList()) {
+			Integer fee = (Integer) r[4];
+			college.computeIfAbsent((Integer) r[0], k -> new ArrayList<>()).add(new Range<>((Integer) r[1],
+					(Integer) r[2], new CollegeFee(((Integer) r[3]).floatValue(), fee != null ? fee.floatValue() : null)));
+		}
+		Map<Integer, Ranges<CollegeFee>> collegeByYear = new HashMap<>();
+		college.forEach((yearId, list) -> collegeByYear.put(yearId, new Ranges<>(list)));
+
+		logger.info("Fee resolution table: {} campuses, {} school fees, {} college fee years loaded",
+				businessTypes.size(), schoolFees.size(), collegeByYear.size());
+		return new Fees(businessTypes, zones, schoolFees, collegeByYear, System.currentTimeMillis());
+	}
+
+	private Years loadYears() {
+		List<Range<Integer>> ranges = new ArrayList<>();
+		Map<Integer, ProRange> byTrackId = new HashMap<>();
+		for (Object[] r : entityManager.createQuery("SELECT b.appBalanceTrkId, b.appFrom, b.appTo, "
+				+ "b.academicYear.acdcYearId FROM BalanceTrack b WHERE b.isActive = 1 "
+				+ "AND b.issuedByType.appIssuedId = " + PRO_ISSUED_TYPE_ID, Object[].class).getResultList()) {
+			ProRange range = new ProRange((Integer) r[1], (Integer) r[2], (Integer) r[3]);
+			byTrackId.put((Integer) r[0], range);
+			ranges.add(new Range<>(range.from(), range.to(), range.academicYearId()));
+		}
+
+		Map<Integer, String> yearNames = new HashMap<>();
+		for (Object[] r : entityManager.createQuery("SELECT y.acdcYearId, y.academicYear FROM AcademicYear y",
+				Object[].class).getResultList()) {
+			yearNames.put((Integer) r[0], (String) r[1]);
+		}
+
+		Ranges<Integer> yearByAppNo = new Ranges<>(ranges);
+		if (yearByAppNo.ambiguous) {
+			logger.warn("Fee resolution table: active PRO balance ranges overlap; years resolved by query");
+		}
+		return new Years(yearByAppNo, yearNames, byTrackId, System.currentTimeMillis());
+	}
+
+	private static long key(int campusId, int academicYearId) {
+		return ((long) campusId << 32) | (academicYearId & 0xffffffffL);
+	}
+
+	// ---------------------------------------------------------
+
+	private record Range<T>(int from, int to, T value) {
+	}
+
+	/**
+	 * Sorted, immutable interval list. {@code ambiguous} when two ranges share
+	 * a number; {@link #find} is only meaningful otherwise.
+	 */
+	private static final class Ranges<T> {
+		private final int[] from;
+		private final int[] to;
+		private final List<T> values;
+		private final boolean ambiguous;
+
+		Ranges(List<Range<T>> ranges) {
+			List<Range<T>> sorted = new ArrayList<>(ranges);
+			sorted.sort(Comparator.comparingInt(Range::from));
+			from = new int[sorted.size()];
+			to = new int[sorted.size()];
+			values = new ArrayList<>(sorted.size());
+			boolean overlap = false;
+			for (int i = 0; i < sorted.size(); i++) {
+				from[i] = sorted.get(i).from();
+				to[i] = sorted.get(i).to();
+				values.add(sorted.get(i).value());
+				overlap |= i > 0 && from[i] <= to[i - 1];
+			}
+			ambiguous = overlap;
+		}
+
+		T find(int n) {
+			int i = Arrays.binarySearch(from, n);
+			if (i < 0) {
+				i = -i - 2;
+			}
+			return i >= 0 && n <= to[i] ? values.get(i) : null;
+		}
+	}
+}
@@ -0,0 +1,327 @@
+package com.application.service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.application.dto.LedgerCompactionReportDTO;
+import com.application.entity.BalanceTrack;
+import com.application.repository.BalanceTrackRepository;
+
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
+/**
+ * Background clean-up of the distribution ledger.
+ *
+ * 1. merge: active BalanceTrack rows of one employee, year and amount that
+ *    touch or overlap are folded into one row (CO/Admin bucket rows, whose
+ *    count does not match their range, are left alone)
+ * 2. archive: inactive Distribution and BalanceTrack rows of academic years
+ *    before the current one are moved to the *_arch tables
+ *    ({@link com.application.entity.DistributionArchive},
+ *    {@link com.application.entity.BalanceTrackArchive}), so active-range
+ *    queries stop scanning past them
+ *
+ * Every batch is its own short transaction with a statement timeout; merges
+ * take the same holder locks as distribution writes, archive batches skip rows
+ * locked by anyone else. Progress is logged per batch and kept in
+ * {@link #status()}. Runs started over the API go to a single dedicated
+ * thread, never the common pool.
+ */
+@Service
+public class LedgerCompactionJob {
+
+	private static final Logger logger = LoggerFactory.getLogger(LedgerCompactionJob.class);
+
+	private static final String SCHEMA = "sce_application";
+	private static final String DISTRIBUTION_TABLE = "sce_app_distrubution";
+	private static final String BALANCE_TABLE = "sce_app_balance_trk";
+	private static final String ARCHIVE_SUFFIX = "_arch";
+
+	// Holders with at least two active, range-exact rows that touch; keyset on (emp, year, amount)
+	private static final String MERGE_CANDIDATES = "SELECT DISTINCT a.emp_id, a.acdc_year_id, a.amount "
+			+ "FROM sce_application.sce_app_balance_trk a "
+			+ "JOIN sce_application.sce_app_balance_trk b ON b.emp_id = a.emp_id AND b.acdc_year_id = a.acdc_year_id "
+			+ "AND b.amount = a.amount AND b.is_active = 1 AND b.app_balance_trk_id <> a.app_balance_trk_id "
+			+ "AND b.app_from BETWEEN a.app_from AND a.app_to + 1 AND b.app_avbl_cnt = b.app_to - b.app_from + 1 "
+			+ "WHERE a.is_active = 1 AND a.emp_id IS NOT NULL AND a.app_avbl_cnt = a.app_to - a.app_from + 1 "
+			+ "AND (a.emp_id, a.acdc_year_id, a.amount) > (:lastEmp, :lastYear, :lastAmount) "
+			+ "ORDER BY 1, 2, 3 LIMIT :limit";
+
+	@PersistenceContext
+	private EntityManager entityManager;
+
+	private final TransactionTemplate transactionTemplate;
+	private final BalanceTrackRepository balanceTrackRepository;
+	private final DistributionLockManager distributionLockManager;
+
+	@Value("${ledger.compaction.enabled:true}")
+	private boolean enabled;
+
+	@Value("${ledger.compaction.batch-size:500}")
+	private int batchSize;
+
+	@Value("${ledger.compaction.holders-per-batch:50}")
+	private int holdersPerBatch;
+
+	@Value("${ledger.compaction.pause-ms:200}")
+	private long pauseMillis;
+
+	@Value("${ledger.compaction.statement-timeout-ms:5000}")
+	private long statementTimeoutMillis;
+
+	// 0 = the latest academic year that still has active distributions
+	@Value("${ledger.compaction.current-year-id:0}")
+	private int currentYearId;
+
+	private final ExecutorService executor = Executors.newSingleThreadExecutor(r -> {
+		Thread t = new Thread(r, "ledger-compaction");
+		t.setDaemon(true);
+		return t;
+	});
+
+	private final AtomicBoolean running = new AtomicBoolean();
+	private volatile LedgerCompactionReportDTO lastReport = new LedgerCompactionReportDTO("IDLE", null, null, null,
+			0, 0, 0, 0, 0, null);
+
+	public LedgerCompactionJob(PlatformTransactionManager transactionManager,
+			BalanceTrackRepository balanceTrackRepository, DistributionLockManager distributionLockManager) {
+		this.transactionTemplate = new TransactionTemplate(transactionManager);
+		this.balanceTrackRepository = balanceTrackRepository;
+		this.distributionLockManager = distributionLockManager;
+	}
+
+	@PreDestroy
+	void shutdown() {
+		executor.shutdownNow();
+	}
+
+	@Scheduled(cron = "${ledger.compaction.cron:0 30 2 * * *}")
+	public void scheduledRun() {
+		if (enabled) {
+			run();
+		}
+	}
+
+	/**
+	 * Starts a run in the background unless one is already going; returns the
+	 * current report either way.
+	 */
+	public LedgerCompactionReportDTO start() {
+		if (!running.get()) {
+			try {
+				executor.execute(this::run);
+			} catch (RejectedExecutionException e) {
+				logger.warn("Ledger compaction not started: shutting down");
+			}
+		}
+		return lastReport;
+	}
+
+	public LedgerCompactionReportDTO status() {
+		return lastReport;
+	}
+
+	public LedgerCompactionReportDTO run() {
+		if (!running.compareAndSet(false, true)) {
+			logger.info("Ledger compaction already running; skipped");
+			return lastReport;
+		}
+		LedgerCompactionReportDTO report = new LedgerCompactionReportDTO("RUNNING", LocalDateTime.now(), null, null,
+				0, 0, 0, 0, 0, null);
+		lastReport = report;
+		try {
+			mergeAdjacentBalances(report);
+
+			Integer beforeYearId = currentYearId > 0 ? Integer.valueOf(currentYearId) : detectCurrentYearId();
+			report.setArchiveBeforeYearId(beforeYearId);
+			if (beforeYearId != null) {
+				report.setDistributionsArchived(archive(DISTRIBUTION_TABLE, "app_distrubution_id", beforeYearId, report));
+				report.setBalancesArchived(archive(BALANCE_TABLE, "app_balance_trk_id", beforeYearId, report));
+			}
+			report.setStatus("COMPLETED");
+		} catch (RuntimeException e) {
+			logger.error("Ledger compaction failed after {} batches", report.getBatches(), e);
+			report.setStatus("FAILED");
+			report.setError(e.getMessage());
+		} finally {
+			report.setFinishedAt(LocalDateTime.now());
+			running.set(false);
+		}
+		logger.info("Ledger compaction {}: {} balance rows merged for {} holders, {} distributions and {} balances archived",
+				report.getStatus(), report.getBalanceRowsMerged(), report.getHoldersCompacted(),
+				report.getDistributionsArchived(), report.getBalancesArchived());
+		return report;
+	}
+
+	// ---------------------------------------------------------
+	// 1. Merge touching active balance rows
+	// ---------------------------------------------------------
+
+	private void mergeAdjacentBalances(LedgerCompactionReportDTO report) {
+		Object[] last = { 0, 0, -1f };
+		while (true) {
+			List<Object[]> holders = transactionTemplate.execute(status -> {
+				applyTimeouts();
+				@SuppressWarnings("unchecked")
+				List<Object[]> rows = entityManager.createNativeQuery(MERGE_CANDIDATES)
+						.setParameter("lastEmp", last[0]).setParameter("lastYear", last[1])
+						.setParameter("lastAmount", last[2]).setParameter("limit", holdersPerBatch).getResultList();
+				if (rows.isEmpty()) {
+					return rows;
+				}
+
+				List<Integer> empIds = new ArrayList<>();
+				for (Object[] r : rows) {
+					empIds.add(((Number) r[0]).intValue());
+				}
+				distributionLockManager.lockHolders(List.of(), empIds, List.of());
+
+				for (Object[] r : rows) {
+					int merged = mergeHolder(((Number) r[0]).intValue(), ((Number) r[1]).intValue(),
+							((Number) r[2]).floatValue());
+					if (merged > 0) {
+						report.setHoldersCompacted(report.getHoldersCompacted() + 1);
+						report.setBalanceRowsMerged(report.getBalanceRowsMerged() + merged);
+					}
+				}
+				return rows;
+			});
+
+			if (holders == null || holders.isEmpty()) {
+				return;
+			}
+			report.setBatches(report.getBatches() + 1);
+			logger.info("Ledger compaction: merged {} balance rows for {} holders so far",
+					report.getBalanceRowsMerged(), report.getHoldersCompacted());
+
+			Object[] tail = holders.get(holders.size() - 1);
+			last[0] = ((Number) tail[0]).intValue();
+			last[1] = ((Number) tail[1]).intValue();
+			last[2] = ((Number) tail[2]).floatValue();
+			if (holders.size() < holdersPerBatch) {
+				return;
+			}
+			pause();
+		}
+	}
+
+	// Re-read under the holder lock; returns how many rows were folded into a neighbour
+	private int mergeHolder(int empId, int academicYearId, Float amount) {
+		int merged = 0;
+		BalanceTrack keep = null;
+		for (BalanceTrack b : balanceTrackRepository.findActiveBalancesByEmpAndAmount(academicYearId, empId, amount)) {
+			if (b.getAppAvblCnt() != b.getAppTo() - b.getAppFrom() + 1) {
+				continue; // CO/Admin bucket row
+			}
+			if (keep != null && b.getAppFrom() <= keep.getAppTo() + 1) {
+				keep.setAppTo(Math.max(keep.getAppTo(), b.getAppTo()));
+				keep.setAppAvblCnt(keep.getAppTo() - keep.getAppFrom() + 1);
+				b.setIsActive(0);
+				balanceTrackRepository.save(b);
+				balanceTrackRepository.save(keep);
+				merged++;
+			} else {
+				keep = b;
+			}
+		}
+		return merged;
+	}
+
+	// ---------------------------------------------------------
+	// 2. Archive inactive rows of earlier years
+	// ---------------------------------------------------------
+
+	private Integer detectCurrentYearId() {
+		Object max = entityManager.createNativeQuery(
+				"SELECT MAX(acdc_year_id) FROM sce_application.sce_app_distrubution WHERE is_active = 1")
+				.getSingleResult();
+		return max == null ? null : ((Number) max).intValue();
+	}
+
+	private long archive(String table, String idColumn, int beforeYearId, LedgerCompactionReportDTO report) {
+		String source = SCHEMA + "." + table;
+		String archive = source + ARCHIVE_SUFFIX;
+		String columns = transactionTemplate.execute(status -> String.join(", ", commonColumns(table)));
+
+		// Move one batch: delete from the ledger and insert into the archive in one statement
+		String sql = "WITH moved AS (DELETE FROM " + source + " WHERE " + idColumn + " IN (SELECT " + idColumn
+				+ " FROM " + source + " WHERE is_active = 0 AND acdc_year_id < :yearId ORDER BY " + idColumn
+				+ " LIMIT :limit FOR UPDATE SKIP LOCKED) RETURNING " + columns + ") INSERT INTO " + archive + " ("
+				+ columns + ", archived_at) SELECT " + columns + ", now() FROM moved";
+
+		long total = 0;
+		while (true) {
+			Integer moved = transactionTemplate.execute(status -> {
+				applyTimeouts();
+				return entityManager.createNativeQuery(sql).setParameter("yearId", beforeYearId)
+						.setParameter("limit", batchSize).executeUpdate();
+			});
+			int count = moved == null ? 0 : moved;
+			total += count;
+			report.setBatches(report.getBatches() + 1);
+			logger.info("Ledger compaction: archived {} rows from {} so far", total, table);
+			if (count < batchSize) {
+				return total;
+			}
+			pause();
+		}
+	}
+
+	// Columns present in both the ledger table and its archive, in ledger order
+	private List<String> commonColumns(String table) {
+		List<String> source = columnsOf(table);
+		Set<String> archived = new HashSet<>(columnsOf(table + ARCHIVE_SUFFIX));
+		if (archived.isEmpty()) {
+			throw new IllegalStateException("Archive table " + SCHEMA + "." + table + ARCHIVE_SUFFIX + " does not exist");
+		}
+		source.retainAll(archived);
+		if (source.isEmpty()) {
+			throw new IllegalStateException("No columns to archive for " + table);
+		}
+		return source;
+	}
+
+	private List<String> columnsOf(String table) {
+		@SuppressWarnings("unchecked")
+		List<String> columns = entityManager.createNativeQuery("SELECT column_name FROM information_schema.columns "
+				+ "WHERE table_schema = :schema AND table_name = :table ORDER BY ordinal_position")
+				.setParameter("schema", SCHEMA).setParameter("table", table).getResultList();
+		return new ArrayList<>(columns);
+	}
+
+	// ---------------------------------------------------------
+
+	private void applyTimeouts() {
+		entityManager.createNativeQuery("SELECT set_config('statement_timeout', :timeout, true)")
+				.setParameter("timeout", statementTimeoutMillis + "ms").getSingleResult();
+	}
+
+	private void pause() {
+		if (pauseMillis <= 0) {
+			return;
+		}
+		try {
+			Thread.sleep(pauseMillis);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new RuntimeException("Ledger compaction interrupted", e);
+		}
+	}
+}
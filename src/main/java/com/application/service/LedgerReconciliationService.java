@@ -0,0 +1,387 @@
+package com.application.service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeSet;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.application.dto.AppSeriesDTO;
+import com.application.dto.LedgerDriftDTO;
+import com.application.dto.LedgerReconciliationReportDTO;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
+/**
+ * Checks that the balance ledger still matches what it is derived from:
+ *
+ * - employee / PRO: active BalanceTrack rows must cover exactly the numbers
+ *   of the active Distribution rows issued to them (per amount)
+ * - CO/Admin: one row spanning the AdminApp master range whose count is the
+ *   master total minus what they have distributed
+ * - sales: every number used by a StudentAcademicDetails row must belong to
+ *   some active distribution or master range of that year
+ *
+ * Work is split by academic year and then by holder on a dedicated fork-join
+ * pool. Each year streams the sources once with keyset-paged queries (in its
+ * own read-only transaction); holders are then compared in memory in
+ * parallel. Nothing is written - every drift carries the balance rows the
+ * holder should have.
+ */
+@Service
+public class LedgerReconciliationService {
+
+	private static final Logger logger = LoggerFactory.getLogger(LedgerReconciliationService.class);
+
+	private static final String DISTRIBUTIONS = "SELECT d.appDistributionId, d.issued_to_emp_id, d.issued_to_pro_id, "
+			+ "d.amount, d.appStartNo, d.appEndNo, d.created_by, d.totalAppCount FROM Distribution d "
+			+ "WHERE d.academicYear.acdcYearId = :yearId AND d.isActive = 1 AND d.appDistributionId > :after "
+			+ "ORDER BY d.appDistributionId";
+
+	private static final String BALANCES = "SELECT b.appBalanceTrkId, e.emp_id, b.issuedToProId, b.amount, "
+			+ "b.appFrom, b.appTo, b.appAvblCnt FROM BalanceTrack b LEFT JOIN b.employee e "
+			+ "WHERE b.academicYear.acdcYearId = :yearId AND b.isActive = 1 AND b.appBalanceTrkId > :after "
+			+ "ORDER BY b.appBalanceTrkId";
+
+	private static final String SALES = "SELECT s.studAdmsNo FROM StudentAcademicDetails s "
+			+ "WHERE s.academicYear.acdcYearId = :yearId AND s.studAdmsNo > :after ORDER BY s.studAdmsNo";
+
+	private static final String ADMIN_APPS = "SELECT e.emp_id, a.app_amount, a.app_fee, a.appFromNo, a.appToNo, "
+			+ "a.totalApp FROM AdminApp a JOIN a.employee e "
+			+ "WHERE a.academicYear.acdcYearId = :yearId AND a.is_active = 1";
+
+	@PersistenceContext
+	private EntityManager entityManager;
+
+	private final TransactionTemplate readOnlyTransaction;
+
+	@Value("${ledger.reconciliation.parallelism:4}")
+	private int parallelism;
+
+	@Value("${ledger.reconciliation.page-size:5000}")
+	private int pageSize;
+
+	private ForkJoinPool pool;
+
+	private record HolderKey(boolean pro, int holderId, Float amount) {
+	}
+
+	private record Master(int empId, int appAmount, Integer appFee, int from, int to, int total) {
+	}
+
+	public LedgerReconciliationService(PlatformTransactionManager transactionManager) {
+		this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+		this.readOnlyTransaction.setReadOnly(true);
+	}
+
+	@PostConstruct
+	void init() {
+		pool = new ForkJoinPool(Math.max(1, parallelism));
+	}
+
+	@PreDestroy
+	void shutdown() {
+		pool.shutdownNow();
+	}
+
+	/**
+	 * Reconciles one academic year, or every year with active ledger rows when
+	 * {@code academicYearId} is null.
+	 */
+	public LedgerReconciliationReportDTO reconcile(Integer academicYearId) {
+		LocalDateTime startedAt = LocalDateTime.now();
+		List<Integer> yearIds = academicYearId != null ? List.of(academicYearId) : activeYearIds();
+
+		List<YearResult> results;
+		try {
+			results = pool.submit(() -> yearIds.parallelStream().map(this::reconcileYear).toList()).get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new RuntimeException("Reconciliation interrupted", e);
+		} catch (ExecutionException e) {
+			throw new RuntimeException("Reconciliation failed: " + e.getCause().getMessage(), e.getCause());
+		}
+
+		LedgerReconciliationReportDTO report = new LedgerReconciliationReportDTO();
+		report.setStartedAt(startedAt);
+		report.setAcademicYearIds(yearIds);
+		List<LedgerDriftDTO> drifts = new ArrayList<>();
+		for (YearResult r : results) {
+			report.setDistributionsScanned(report.getDistributionsScanned() + r.distributions);
+			report.setBalancesScanned(report.getBalancesScanned() + r.balances);
+			report.setSalesScanned(report.getSalesScanned() + r.sales);
+			report.setHoldersChecked(report.getHoldersChecked() + r.holders);
+			drifts.addAll(r.drifts);
+		}
+		report.setDrifts(drifts);
+		report.setHoldersWithDrift((int) drifts.stream().filter(d -> d.getEmpId() != null || d.getProId() != null)
+				.count());
+		report.setFinishedAt(LocalDateTime.now());
+		report.setElapsedMillis(Duration.between(startedAt, report.getFinishedAt()).toMillis());
+		logger.info("Ledger reconciliation of years {}: {} holders checked, {} with drift, {} ms", yearIds,
+				report.getHoldersChecked(), report.getHoldersWithDrift(), report.getElapsedMillis());
+		return report;
+	}
+
+	private List<Integer> activeYearIds() {
+		return readOnlyTransaction.execute(status -> {
+			TreeSet<Integer> years = new TreeSet<>();
+			years.addAll(entityManager.createQuery(
+					"SELECT DISTINCT d.academicYear.acdcYearId FROM Distribution d WHERE d.isActive = 1", Integer.class)
+					.getResultList());
+			years.addAll(entityManager.createQuery(
+					"SELECT DISTINCT b.academicYear.acdcYearId FROM BalanceTrack b WHERE b.isActive = 1", Integer.class)
+					.getResultList());
+			return new ArrayList<>(years);
+		});
+	}
+
+	// ---------------------------------------------------------
+	// One academic year
+	// ---------------------------------------------------------
+
+	private YearResult reconcileYear(int yearId) {
+		YearResult result = new YearResult();
+		Map<HolderKey, Holder> holders = new HashMap<>();
+		Map<HolderKey, Long> distributedBy = new HashMap<>();
+		List<Master> masters = new ArrayList<>();
+		AppNumberBitmap issued = new AppNumberBitmap();
+		List<Long> orphanSales = new ArrayList<>();
+
+		readOnlyTransaction.executeWithoutResult(status -> {
+			scan(DISTRIBUTIONS, yearId, 0, r -> {
+				result.distributions++;
+				Float amount = floatOf(r[3]);
+				int from = intOf(r[4]);
+				int to = intOf(r[5]);
+				HolderKey key = r[1] != null ? new HolderKey(false, intOf(r[1]), amount)
+						: r[2] != null ? new HolderKey(true, intOf(r[2]), amount) : null;
+				if (key != null && from <= to) {
+					holders.computeIfAbsent(key, k -> new Holder()).expected.addRange(from, to);
+				}
+				if (from <= to) {
+					issued.addRange(from, to);
+				}
+				distributedBy.merge(new HolderKey(false, intOf(r[6]), amount), (long) intOf(r[7]), Long::sum);
+			});
+
+			scan(BALANCES, yearId, 0, r -> {
+				result.balances++;
+				HolderKey key = r[1] != null ? new HolderKey(false, intOf(r[1]), floatOf(r[3]))
+						: r[2] != null ? new HolderKey(true, intOf(r[2]), floatOf(r[3])) : null;
+				if (key == null) {
+					return;
+				}
+				holders.computeIfAbsent(key, k -> new Holder()).addRow(intOf(r[4]), intOf(r[5]), intOf(r[6]));
+			});
+
+			for (Object[] r : entityManager.createQuery(ADMIN_APPS, Object[].class).setParameter("yearId", yearId)
+					.getResultList()) {
+				masters.add(new Master(intOf(r[0]), intOf(r[1]), r[2] != null ? intOf(r[2]) : null, intOf(r[3]),
+						intOf(r[4]), intOf(r[5])));
+			}
+
+			scan(SALES, yearId, -1L, r -> {
+				result.sales++;
+				Long appNo = (Long) r[0];
+				if (appNo == null || appNo < 0 || appNo > Integer.MAX_VALUE) {
+					return;
+				}
+				int n = appNo.intValue();
+				if (!issued.contains(n) && masters.stream().noneMatch(m -> n >= m.from() && n <= m.to())) {
+					orphanSales.add(appNo);
+				}
+			});
+		});
+
+		// Admins are checked even when they have no balance row at all
+		for (Master m : masters) {
+			for (HolderKey key : holders.keySet().stream().filter(k -> !k.pro() && k.holderId() == m.empId()).toList()) {
+				if (matches(m, key.amount())) {
+					holders.get(key).master = m;
+				}
+			}
+			HolderKey own = new HolderKey(false, m.empId(), (float) m.appAmount());
+			holders.computeIfAbsent(own, k -> new Holder()).master = m;
+		}
+
+		// Holders are independent: compare them in parallel on the same pool
+		result.holders = holders.size();
+		result.drifts.addAll(holders.entrySet().parallelStream()
+				.map(e -> compare(yearId, e.getKey(), e.getValue(), distributedBy)).filter(Objects::nonNull)
+				.sorted(Comparator.comparing((LedgerDriftDTO d) -> d.getEmpId() != null ? d.getEmpId() : -1)
+						.thenComparing(d -> d.getProId() != null ? d.getProId() : -1))
+				.toList());
+
+		if (!orphanSales.isEmpty()) {
+			LedgerDriftDTO drift = new LedgerDriftDTO();
+			drift.setAcademicYearId(yearId);
+			drift.setIssues(List.of("SOLD_WITHOUT_STOCK: " + orphanSales.size()
+					+ " sold numbers are not in any active distribution or master range"));
+			AppNumberBitmap sold = new AppNumberBitmap();
+			orphanSales.forEach(n -> sold.add(n.intValue()));
+			drift.setExtra(toSeries(sold.runs()));
+			drift.setActualCount(orphanSales.size());
+			result.drifts.add(drift);
+		}
+		logger.info("Reconciled year {}: {} distributions, {} balance rows, {} sales, {} drifts", yearId,
+				result.distributions, result.balances, result.sales, result.drifts.size());
+		return result;
+	}
+
+	private LedgerDriftDTO compare(int yearId, HolderKey key, Holder h, Map<HolderKey, Long> distributedBy) {
+		List<String> issues = new ArrayList<>();
+		LedgerDriftDTO drift = new LedgerDriftDTO();
+		drift.setAcademicYearId(yearId);
+		drift.setEmpId(key.pro() ? null : key.holderId());
+		drift.setProId(key.pro() ? key.holderId() : null);
+		drift.setAmount(key.amount());
+		drift.setActualCount(h.actualCount);
+
+		if (h.master != null) {
+			// CO/Admin: single "master minus distributed" row
+			Master m = h.master;
+			long expected = m.total() - distributedBy.getOrDefault(key, 0L);
+			drift.setAdmin(true);
+			drift.setExpectedCount(expected);
+			if (h.rows != 1) {
+				issues.add("ADMIN_ROWS: " + h.rows + " active balance rows, expected 1");
+			}
+			if (h.actualCount != expected) {
+				issues.add("COUNT_MISMATCH: balance " + h.actualCount + ", master minus distributed " + expected);
+			}
+			if (h.rows == 1 && (h.minFrom != m.from() || h.maxTo != m.to())) {
+				issues.add("RANGE_MISMATCH: balance " + h.minFrom + "-" + h.maxTo + ", master " + m.from() + "-"
+						+ m.to());
+			}
+			drift.setProposedSeries(toSeries(List.of(new int[] { m.from(), m.to() })));
+			drift.setProposedCount(expected);
+		} else {
+			long expected = h.expected.size();
+			drift.setExpectedCount(expected);
+			if (h.actualCount != expected) {
+				issues.add("COUNT_MISMATCH: balance " + h.actualCount + ", active distributions " + expected);
+			}
+			// PRO rows built from min/max are not range-exact; only their counts can be compared
+			if (h.exactRows) {
+				AppNumberBitmap missing = h.expected.copy();
+				missing.removeAll(h.actual);
+				AppNumberBitmap extra = h.actual.copy();
+				extra.removeAll(h.expected);
+				if (missing.size() > 0) {
+					issues.add("MISSING_RANGES: " + missing.size() + " distributed numbers not in any balance row");
+					drift.setMissing(toSeries(missing.runs()));
+				}
+				if (extra.size() > 0) {
+					issues.add("EXTRA_RANGES: " + extra.size() + " balance numbers not distributed to the holder");
+					drift.setExtra(toSeries(extra.runs()));
+				}
+				if (h.exactLength > h.actual.size()) {
+					issues.add("OVERLAPPING_ROWS: " + (h.exactLength - h.actual.size())
+							+ " numbers are in more than one balance row");
+				}
+			}
+			drift.setProposedSeries(toSeries(h.expected.runs()));
+			drift.setProposedCount(expected);
+		}
+
+		if (issues.isEmpty()) {
+			return null;
+		}
+		drift.setIssues(issues);
+		return drift;
+	}
+
+	// ---------------------------------------------------------
+	// Keyset scan: the first selected column is the cursor
+	// ---------------------------------------------------------
+
+	private void scan(String jpql, int yearId, Object after, Consumer<Object[]> row) {
+		while (true) {
+			List<?> page = entityManager.createQuery(jpql).setParameter("yearId", yearId)
+					.setParameter("after", after).setMaxResults(pageSize).getResultList();
+			for (Object r : page) {
+				row.accept(r instanceof Object[] cols ? cols : new Object[] { r });
+			}
+			entityManager.clear();
+			if (page.size() < pageSize) {
+				return;
+			}
+			Object last = page.get(page.size() - 1);
+			after = last instanceof Object[] cols ? cols[0] : last;
+		}
+	}
+
+	private static boolean matches(Master m, Float amount) {
+		return amount != null && (amount == m.appAmount() || (m.appFee() != null && amount == m.appFee().floatValue()));
+	}
+
+	private static List<AppSeriesDTO> toSeries(List<int[]> runs) {
+		List<AppSeriesDTO> series = new ArrayList<>();
+		for (int[] r : runs) {
+			series.add(new AppSeriesDTO(r[0] + " - " + r[1], r[0], r[1]));
+		}
+		return series;
+	}
+
+	private static int intOf(Object value) {
+		return value == null ? 0 : ((Number) value).intValue();
+	}
+
+	private static Float floatOf(Object value) {
+		return value == null ? null : ((Number) value).floatValue();
+	}
+
+	private static final class Holder {
+		private final AppNumberBitmap expected = new AppNumberBitmap();
+		private final AppNumberBitmap actual = new AppNumberBitmap();
+		private Master master;
+		private int rows;
+		private long actualCount;
+		private long exactLength;
+		private boolean exactRows = true;
+		private int minFrom = Integer.MAX_VALUE;
+		private int maxTo = Integer.MIN_VALUE;
+
+		void addRow(int from, int to, int count) {
+			rows++;
+			actualCount += count;
+			minFrom = Math.min(minFrom, from);
+			maxTo = Math.max(maxTo, to);
+			if (from <= 0 || from > to) {
+				exactRows &= count == 0;
+				return;
+			}
+			if (count != to - from + 1) {
+				exactRows = false;
+			}
+			exactLength += to - from + 1;
+			actual.addRange(from, to);
+		}
+	}
+
+	private static final class YearResult {
+		private long distributions;
+		private long balances;
+		private long sales;
+		private long holders;
+		private final List<LedgerDriftDTO> drifts = new ArrayList<>();
+	}
+}
@@ -0,0 +1,252 @@
+package com.application.service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Consumer;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.application.dto.RateItemDTO;
+import com.application.dto.RateResponseDTO;
+import com.application.dto.RateSectionDTO;
+import com.application.repository.UserAppSoldRepository;
+
+/**
+ * Top and drop rated zones, DGMs and campuses by sold / issued of their
+ * active sce_user_app_sold rows, optionally for one academic year and
+ * amount.
+ *
+ * Rows are streamed through two {@link BoundedRanking} heaps of size k, so a
+ * board of n entities costs O(n log k) instead of two full sorts. Equal rates
+ * are ordered by the {@link TieBreak} rule, then by id.
+ *
+ * {@link #getRateData} ranks each zone / employee / campus id on its own.
+ * {@link #getNameGroupedRateData} keeps the original /top_drop_rate view,
+ * where entities with the same display name are summed into one row.
+ *
+ * With {@link AnalyticsCube} loaded, each (level, year, amount) board is kept
+ * in memory (at most {@code leaderboard.max-boards}) and its sold counts are
+ * updated in place from the cube's sold deltas; a cube rebuild drops them.
+ * Board builds and deltas share one lock, so a delta is either in the scan or
+ * applied to the board, never both. Without the cube the rows come from the
+ * *RateRows queries on every call.
+ */
+@Service
+public class PerformanceLeaderboard {
+
+	private final AnalyticsCube analyticsCube;
+	private final UserAppSoldRepository userAppSoldRepository;
+
+	// /top_drop_rate has always shown four per list
+	private static final int NAME_GROUPED_K = 4;
+
+	private final Object lock = new Object();
+	private final Map<BoardKey, Board> boards = new HashMap<>();
+
+	@Value("${leaderboard.default-k:4}")
+	private int defaultK;
+
+	@Value("${leaderboard.max-k:100}")
+	private int maxK;
+
+	@Value("${leaderboard.max-boards:64}")
+	private int maxBoards;
+
+	/**
+	 * Order of entities with the same rate.
+	 */
+	public enum TieBreak {
+		/** name ascending */
+		NAME,
+		/** more applications issued first */
+		ISSUED,
+		/** more applications sold first */
+		SOLD
+	}
+
+	private enum Level {
+		ZONE(2, "zone", "DISTRIBUTE_ZONE", "Application Drop Rate Zone Wise", "Top Rated Zones"),
+		DGM(3, "dgm", "DISTRIBUTE_DGM", "Application Drop Rate DGM Wise", "Top Rated DGMs"),
+		CAMPUS(4, "campus", "DISTRIBUTE_CAMPUS", "Application Drop Rate Campus Wise", "Top Rated Campuses");
+
+		private final int entityId;
+		private final String type;
+		private final String permission;
+		private final String dropTitle;
+		private final String topTitle;
+
+		Level(int entityId, String type, String permission, String dropTitle, String topTitle) {
+			this.entityId = entityId;
+			this.type = type;
+			this.permission = permission;
+			this.dropTitle = dropTitle;
+			this.topTitle = topTitle;
+		}
+	}
+
+	private record Entry(int id, String name, long issued, long sold, double rate) {
+
+		static Entry of(int id, String name, long issued, long sold) {
+			return new Entry(id, name, issued, sold, issued > 0 ? ((double) sold / issued) * 100 : 0);
+		}
+	}
+
+	private record BoardKey(int entityId, Integer academicYearId, Float amount) {
+	}
+
+	// id -> name, {issued, sold}
+	private record Board(Map<Integer, String> names, Map<Integer, long[]> counts) {
+	}
+
+	public PerformanceLeaderboard(AnalyticsCube analyticsCube, UserAppSoldRepository userAppSoldRepository) {
+		this.analyticsCube = analyticsCube;
+		this.userAppSoldRepository = userAppSoldRepository;
+	}
+
+	/**
+	 * One RateResponseDTO per level; k, year, amount and tie-break optional
+	 * (defaults: leaderboard.default-k, all years, all amounts, NAME).
+	 */
+	public List<RateResponseDTO> getRateData(Integer k, Integer academicYearId, Float amount, TieBreak tieBreak) {
+		return rank(Math.max(0, Math.min(k != null ? k : defaultK, maxK)), academicYearId, amount,
+				tieBreak != null ? tieBreak : TieBreak.NAME, false);
+	}
+
+	/**
+	 * Top / drop four per level over all years and amounts, with same-named
+	 * zones, DGMs or campuses summed into one row (equal rates by name).
+	 */
+	public List<RateResponseDTO> getNameGroupedRateData() {
+		return rank(NAME_GROUPED_K, null, null, TieBreak.NAME, true);
+	}
+
+	private List<RateResponseDTO> rank(int size, Integer academicYearId, Float amount, TieBreak tieBreak,
+			boolean groupByName) {
+		Comparator<Entry> ties = tieBreak(tieBreak);
+		Comparator<Entry> best = Comparator.comparingDouble(Entry::rate).reversed().thenComparing(ties);
+		Comparator<Entry> worst = Comparator.comparingDouble(Entry::rate).thenComparing(ties);
+
+		List<RateResponseDTO> result = new ArrayList<>();
+		for (Level level : Level.values()) {
+			BoundedRanking<Entry> top = new BoundedRanking<>(size, best);
+			BoundedRanking<Entry> drop = new BoundedRanking<>(size, worst);
+			Consumer<Entry> both = e -> {
+				top.offer(e);
+				drop.offer(e);
+			};
+			if (groupByName) {
+				Map<String, long[]> byName = new LinkedHashMap<>();
+				forEachEntry(level, academicYearId, amount, e -> {
+					long[] c = byName.computeIfAbsent(e.name(), n -> new long[2]);
+					c[0] += e.issued();
+					c[1] += e.sold();
+				});
+				byName.forEach((name, c) -> both.accept(Entry.of(0, name, c[0], c[1])));
+			} else {
+				forEachEntry(level, academicYearId, amount, both);
+			}
+			result.add(new RateResponseDTO(level.type, level.permission,
+					new RateSectionDTO(level.dropTitle, items(drop.toList())),
+					new RateSectionDTO(level.topTitle, items(top.toList()))));
+		}
+		return result;
+	}
+
+	private static Comparator<Entry> tieBreak(TieBreak rule) {
+		Comparator<Entry> byRule = switch (rule) {
+		case NAME -> Comparator.comparing(Entry::name, Comparator.nullsLast(Comparator.naturalOrder()));
+		case ISSUED -> Comparator.comparingLong(Entry::issued).reversed();
+		case SOLD -> Comparator.comparingLong(Entry::sold).reversed();
+		};
+		return byRule.thenComparingInt(Entry::id);
+	}
+
+	private static List<RateItemDTO> items(List<Entry> entries) {
+		return entries.stream().map(e -> new RateItemDTO(e.name(), e.rate())).toList();
+	}
+
+	private void forEachEntry(Level level, Integer academicYearId, Float amount,
+			Consumer<Entry> sink) {
+		BoardKey key = new BoardKey(level.entityId, academicYearId, amount);
+		synchronized (lock) {
+			Board board = boards.get(key);
+			if (board == null && analyticsCube.isReady()) {
+				board = analyticsCube.rateRows(level.entityId, academicYearId, amount).map(PerformanceLeaderboard::board)
+						.orElse(null);
+				if (board != null) {
+					if (boards.size() >= maxBoards) {
+						boards.clear();
+					}
+					boards.put(key, board);
+				}
+			}
+			if (board != null) {
+				Board b = board;
+				b.counts().forEach((id, c) -> sink.accept(Entry.of(id, b.names().get(id), c[0], c[1])));
+				return;
+			}
+		}
+		for (Object[] r : rateRows(level, academicYearId, amount)) {
+			sink.accept(Entry.of(((Number) r[0]).intValue(), (String) r[1], count(r[2]), count(r[3])));
+		}
+	}
+
+	private List<Object[]> rateRows(Level level, Integer academicYearId, Float amount) {
+		return switch (level) {
+		case ZONE -> userAppSoldRepository.getZoneRateRows(academicYearId, amount);
+		case DGM -> userAppSoldRepository.getDgmRateRows(academicYearId, amount);
+		case CAMPUS -> userAppSoldRepository.getCampusRateRows(academicYearId, amount);
+		};
+	}
+
+	private static Board board(List<Object[]> rows) {
+		Map<Integer, String> names = new HashMap<>();
+		Map<Integer, long[]> counts = new HashMap<>();
+		for (Object[] r : rows) {
+			int id = ((Number) r[0]).intValue();
+			names.put(id, (String) r[1]);
+			counts.put(id, new long[] { count(r[2]), count(r[3]) });
+		}
+		return new Board(names, counts);
+	}
+
+	private static long count(Object value) {
+		return value != null ? ((Number) value).longValue() : 0L;
+	}
+
+	// ---------------------------------------------------------
+	// Cube events
+	// ---------------------------------------------------------
+
+	/**
+	 * Applies {@code cubeUpdate} and the same sold delta to every cached board
+	 * the row falls in.
+	 */
+	void onSold(Runnable cubeUpdate, int entityId, int id, int academicYearId, float amount, int soldDelta) {
+		synchronized (lock) {
+			cubeUpdate.run();
+			boards.forEach((key, board) -> {
+				if (key.entityId() == entityId
+						&& (key.academicYearId() == null || key.academicYearId() == academicYearId)
+						&& (key.amount() == null || Objects.equals(key.amount(), amount))) {
+					long[] c = board.counts().get(id);
+					if (c != null) {
+						c[1] += soldDelta;
+					}
+				}
+			});
+		}
+	}
+
+	void onCubeRebuilt() {
+		synchronized (lock) {
+			boards.clear();
+		}
+	}
+}
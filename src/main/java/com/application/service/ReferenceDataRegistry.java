@@ -0,0 +1,178 @@
+package com.application.service;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.application.entity.AcademicYear;
+import com.application.entity.AdmissionType;
+import com.application.entity.BloodGroup;
+import com.application.entity.CampusSchoolType;
+import com.application.entity.Caste;
+import com.application.entity.City;
+import com.application.entity.ConcessionReason;
+import com.application.entity.ConcessionType;
+import com.application.entity.District;
+import com.application.entity.FoodType;
+import com.application.entity.Gender;
+import com.application.entity.Mandal;
+import com.application.entity.Occupation;
+import com.application.entity.OrgBank;
+import com.application.entity.OrgBankBranch;
+import com.application.entity.PaymentMode;
+import com.application.entity.Quota;
+import com.application.entity.Religion;
+import com.application.entity.Sector;
+import com.application.entity.State;
+import com.application.entity.Status;
+import com.application.entity.StudentClass;
+import com.application.entity.StudentRelation;
+import com.application.entity.StudentType;
+import com.application.entity.StudyType;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.PersistenceUnitUtil;
+
+/**
+ * In-process copy of the small lookup tables the sale / admission forms point
+ * at (gender, quota, class, status, state, city, bank, ...).
+ *
+ * Every table is read once at startup and again every
+ * {@code reference-data.refresh-ms}; {@link #refresh()} can also be called
+ * after a lookup table is edited. The write paths use {@link #reference} to
+ * attach a row by id: a known id becomes a Hibernate reference (no SQL, the
+ * foreign key is written on flush), an unknown id falls back to one find and
+ * is remembered if it exists. Absent ids give Optional.empty(), exactly like
+ * the repository findById calls they replace.
+ *
+ * Campus, orientation and employee rows change during the year and are not
+ * cached here.
+ */
+@Service
+public class ReferenceDataRegistry {
+
+	private static final Logger logger = LoggerFactory.getLogger(ReferenceDataRegistry.class);
+
+	private static final List<Class<?>> TYPES = List.of(AcademicYear.class, AdmissionType.class, BloodGroup.class,
+			CampusSchoolType.class, Caste.class, City.class, ConcessionReason.class, ConcessionType.class,
+			District.class, FoodType.class, Gender.class, Mandal.class, Occupation.class, OrgBank.class,
+			OrgBankBranch.class, PaymentMode.class, Quota.class, Religion.class, Sector.class, State.class,
+			Status.class, StudentClass.class, StudentRelation.class, StudentType.class, StudyType.class);
+
+	@PersistenceContext
+	private EntityManager entityManager;
+
+	@Value("${reference-data.enabled:true}")
+	private boolean enabled;
+
+	private final TransactionTemplate readOnlyTx;
+
+	// type -> id -> detached row; each inner map is replaced wholesale on refresh
+	private final Map<Class<?>, Map<Object, Object>> rows = new ConcurrentHashMap<>();
+
+	public ReferenceDataRegistry(PlatformTransactionManager transactionManager) {
+		this.readOnlyTx = new TransactionTemplate(transactionManager);
+		this.readOnlyTx.setReadOnly(true);
+	}
+
+	@EventListener(ApplicationReadyEvent.class)
+	public void load() {
+		refresh();
+	}
+
+	@Scheduled(initialDelayString = "${reference-data.refresh-ms:600000}", fixedDelayString = "${reference-data.refresh-ms:600000}")
+	public void refresh() {
+		if (!enabled) {
+			return;
+		}
+		for (Class<?> type : TYPES) {
+			try {
+				Map<Object, Object> byId = readOnlyTx.execute(status -> loadAll(type));
+				rows.put(type, byId);
+			} catch (RuntimeException e) {
+				// Keep the previous copy; misses still fall back to the database
+				logger.warn("Could not load reference data {}: {}", type.getSimpleName(), e.getMessage());
+			}
+		}
+		logger.info("Reference data loaded: {} tables", rows.size());
+	}
+
+	/**
+	 * Cached row for reading plain columns (names, codes). Associations of the
+	 * returned entity may not be initialised.
+	 */
+	public <T> Optional<T> find(Class<T> type, Integer id) {
+		if (id == null) {
+			return Optional.empty();
+		}
+		Map<Object, Object> byId = rows.get(type);
+		Object row = byId != null ? byId.get(id) : null;
+		if (row == null) {
+			row = miss(type, id);
+		}
+		return Optional.ofNullable(type.cast(row));
+	}
+
+	/**
+	 * Row to attach to an entity being saved. Must be called inside the
+	 * transaction that saves it.
+	 */
+	public <T> Optional<T> reference(Class<T> type, Integer id) {
+		if (id == null) {
+			return Optional.empty();
+		}
+		Map<Object, Object> byId = rows.get(type);
+		if (byId != null && byId.containsKey(id)) {
+			return Optional.of(entityManager.getReference(type, id));
+		}
+		T found = entityManager.find(type, id);
+		if (found != null) {
+			remember(type, id, found);
+		}
+		return Optional.ofNullable(found);
+	}
+
+	// ---------------------------------------------------------
+
+	private Map<Object, Object> loadAll(Class<?> type) {
+		PersistenceUnitUtil util = entityManager.getEntityManagerFactory().getPersistenceUnitUtil();
+		String entity = entityManager.getMetamodel().entity(type).getName();
+		Map<Object, Object> byId = new HashMap<>();
+		for (Object row : entityManager.createQuery("SELECT e FROM " + entity + " e", type).getResultList()) {
+			byId.put(util.getIdentifier(row), row);
+		}
+		return byId;
+	}
+
+	private Object miss(Class<?> type, Integer id) {
+		Object found = readOnlyTx.execute(status -> entityManager.find(type, id));
+		if (found != null) {
+			remember(type, id, found);
+		}
+		return found;
+	}
+
+	private void remember(Class<?> type, Object id, Object row) {
+		if (!enabled || !TYPES.contains(type)) {
+			return;
+		}
+		rows.compute(type, (t, old) -> {
+			Map<Object, Object> copy = old != null ? new HashMap<>(old) : new HashMap<>();
+			copy.put(id, row);
+			return copy;
+		});
+	}
+}
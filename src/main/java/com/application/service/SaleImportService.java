@@ -0,0 +1,523 @@
+package com.application.service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.application.dto.AddressDetailsDTO;
+import com.application.dto.PaymentDetailsDTO;
+import com.application.dto.SaleImportErrorDTO;
+import com.application.dto.SaleImportReportDTO;
+import com.application.dto.StudentAdmissionDTO;
+import com.application.dto.StudentFastSaleDTO;
+import com.application.entity.AcademicYear;
+import com.application.entity.AdmissionType;
+import com.application.entity.City;
+import com.application.entity.Distribution;
+import com.application.entity.District;
+import com.application.entity.Gender;
+import com.application.entity.Mandal;
+import com.application.entity.OrgBank;
+import com.application.entity.OrgBankBranch;
+import com.application.entity.PaymentMode;
+import com.application.entity.Quota;
+import com.application.entity.State;
+import com.application.entity.StudentClass;
+import com.application.entity.StudentType;
+import com.application.repository.CampusRepository;
+import com.application.repository.OrientationRepository;
+import com.application.repository.StudentAcademicDetailsRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Bulk import of sales recorded offline, as NDJSON (one JSON object per line)
+ * or CSV (header row; nested fields as {@code addressDetails.cityId},
+ * {@code paymentDetails.amount}, ...).
+ *
+ * The upload is read record by record and handled in chunks of
+ * {@code sale-import.chunk-size}; only the current chunk and the error report
+ * (capped at {@code sale-import.max-errors}) are held in memory.
+ * Per chunk:
+ * 1. validate in bulk - one query for admission numbers already sold, one each
+ *    for campus / orientation ids, PRO ownership from the distribution range
+ *    index, lookup ids from {@link ReferenceDataRegistry}. Duplicates within
+ *    the chunk are caught here; a number repeated from an earlier chunk is
+ *    already committed, so the sold-numbers query rejects it
+ * 2. write the valid records through the normal sale path in one transaction
+ * 3. if that transaction fails, replay the chunk one record per transaction so
+ *    only the bad records are rejected
+ *
+ * Every rejected record is reported with its line number (up to
+ * {@code sale-import.max-errors}); earlier chunks stay committed. A CSV that
+ * ends inside a quoted field is reported as a rejected last record and the
+ * import stops there with the report so far.
+ */
+@Service
+public class SaleImportService {
+
+	private static final Logger logger = LoggerFactory.getLogger(SaleImportService.class);
+
+	public enum Format {
+		NDJSON, CSV
+	}
+
+	private final ApplicationFastSale applicationFastSale;
+	private final StudentAdmissionService studentAdmissionService;
+	private final DistributionRangeIndex distributionRangeIndex;
+	private final ReferenceDataRegistry referenceDataRegistry;
+	private final StudentAcademicDetailsRepository studentAcademicDetailsRepository;
+	private final CampusRepository campusRepository;
+	private final OrientationRepository orientationRepository;
+	private final ObjectMapper objectMapper;
+	private final TransactionTemplate writeTx;
+	private final TransactionTemplate readOnlyTx;
+
+	@Value("${sale-import.chunk-size:500}")
+	private int chunkSize;
+
+	@Value("${sale-import.max-errors:1000}")
+	private int maxErrors;
+
+	public SaleImportService(ApplicationFastSale applicationFastSale, StudentAdmissionService studentAdmissionService,
+			DistributionRangeIndex distributionRangeIndex, ReferenceDataRegistry referenceDataRegistry,
+			StudentAcademicDetailsRepository studentAcademicDetailsRepository, CampusRepository campusRepository,
+			OrientationRepository orientationRepository, ObjectMapper objectMapper,
+			PlatformTransactionManager transactionManager) {
+		this.applicationFastSale = applicationFastSale;
+		this.studentAdmissionService = studentAdmissionService;
+		this.distributionRangeIndex = distributionRangeIndex;
+		this.referenceDataRegistry = referenceDataRegistry;
+		this.studentAcademicDetailsRepository = studentAcademicDetailsRepository;
+		this.campusRepository = campusRepository;
+		this.orientationRepository = orientationRepository;
+		this.objectMapper = objectMapper;
+		this.writeTx = new TransactionTemplate(transactionManager);
+		this.readOnlyTx = new TransactionTemplate(transactionManager);
+		this.readOnlyTx.setReadOnly(true);
+	}
+
+	public SaleImportReportDTO importFastSales(InputStream in, String format) {
+		return run(in, format, "FAST_SALE", StudentFastSaleDTO.class, SaleImportService::refs,
+				applicationFastSale::createFastSaleAdmission);
+	}
+
+	public SaleImportReportDTO importAdmissionSales(InputStream in, String format) {
+		return run(in, format, "ADMISSION", StudentAdmissionDTO.class, SaleImportService::refs,
+				studentAdmissionService::createAdmissionAndSale);
+	}
+
+	// ---------------------------------------------------------
+	// Driver
+	// ---------------------------------------------------------
+
+	private <T> SaleImportReportDTO run(InputStream in, String formatName, String kind, Class<T> type,
+			Function<T, Refs> refs, Consumer<T> writer) {
+		Format format = parseFormat(formatName);
+		LocalDateTime startedAt = LocalDateTime.now();
+		long start = System.nanoTime();
+		Run run = new Run();
+
+		try (BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+			RecordReader<T> records = format == Format.CSV ? new CsvReader<>(reader, type)
+					: new NdjsonReader<>(reader, type);
+			List<Parsed<T>> chunk = new ArrayList<>(chunkSize);
+			Parsed<T> next;
+			while ((next = records.next()) != null) {
+				run.records++;
+				if (next.error() != null) {
+					run.reject(next.line(), null, next.error());
+					continue;
+				}
+				chunk.add(next);
+				if (chunk.size() >= chunkSize) {
+					processChunk(chunk, refs, writer, run);
+					chunk = new ArrayList<>(chunkSize);
+				}
+			}
+			if (!chunk.isEmpty()) {
+				processChunk(chunk, refs, writer, run);
+			}
+		} catch (IOException e) {
+			throw new UncheckedIOException("Failed to read import stream", e);
+		}
+
+		long elapsed = Duration.ofNanos(System.nanoTime() - start).toMillis();
+		logger.info("Sale import {} ({}): {} records, {} imported, {} failed in {} chunks, {} ms", kind, format,
+				run.records, run.imported, run.failed, run.chunks, elapsed);
+		return new SaleImportReportDTO(kind, format.name(), startedAt, LocalDateTime.now(), elapsed, run.records,
+				run.imported, run.failed, run.chunks, run.replayedChunks, run.errorsTruncated, run.errors);
+	}
+
+	private <T> void processChunk(List<Parsed<T>> chunk, Function<T, Refs> refs, Consumer<T> writer, Run run) {
+		run.chunks++;
+		List<Parsed<T>> valid = readOnlyTx.execute(status -> validate(chunk, refs, run));
+		if (valid.isEmpty()) {
+			return;
+		}
+
+		try {
+			writeTx.executeWithoutResult(status -> valid.forEach(p -> writer.accept(p.record())));
+			run.imported += valid.size();
+			return;
+		} catch (RuntimeException e) {
+			logger.info("Sale import chunk {} failed as a batch ({}); replaying per record", run.chunks,
+					rootMessage(e));
+		}
+
+		run.replayedChunks++;
+		for (Parsed<T> p : valid) {
+			try {
+				writeTx.executeWithoutResult(status -> writer.accept(p.record()));
+				run.imported++;
+			} catch (RuntimeException e) {
+				run.reject(p.line(), refs.apply(p.record()).studAdmsNo(), rootMessage(e));
+			}
+		}
+	}
+
+	/**
+	 * Bulk checks for one chunk; returns the records that passed, reports the
+	 * rest.
+	 */
+	private <T> List<Parsed<T>> validate(List<Parsed<T>> chunk, Function<T, Refs> refs, Run run) {
+		Set<Long> numbers = new HashSet<>();
+		Set<Long> seen = new HashSet<>();
+		Set<Integer> campusIds = new HashSet<>();
+		Set<Integer> orientationIds = new HashSet<>();
+		for (Parsed<T> p : chunk) {
+			Refs r = refs.apply(p.record());
+			if (r.studAdmsNo() != null) {
+				numbers.add(r.studAdmsNo());
+			}
+			if (r.branchId() != null) {
+				campusIds.add(r.branchId());
+			}
+			if (r.orientationId() != null) {
+				orientationIds.add(r.orientationId());
+			}
+		}
+		Set<Long> used = numbers.isEmpty() ? Set.of()
+				: new HashSet<>(studentAcademicDetailsRepository.findUsedAdmissionNumbersIn(numbers));
+		Set<Integer> campuses = campusIds.isEmpty() ? Set.of()
+				: new HashSet<>(campusRepository.findExistingIds(campusIds));
+		Set<Integer> orientations = orientationIds.isEmpty() ? Set.of()
+				: new HashSet<>(orientationRepository.findExistingIds(orientationIds));
+
+		List<Parsed<T>> valid = new ArrayList<>(chunk.size());
+		for (Parsed<T> p : chunk) {
+			Refs r = refs.apply(p.record());
+			List<String> problems = new ArrayList<>();
+			Long no = r.studAdmsNo();
+
+			if (no == null) {
+				problems.add("Admission Number must be provided.");
+			} else if (!seen.add(no)) {
+				problems.add("Admission Number " + no + " appears more than once in this import");
+			} else if (used.contains(no)) {
+				problems.add("Admission Number " + no + " has already been sold");
+			} else {
+				Optional<Distribution> owner = distributionRangeIndex.findProDistributionForAdmissionNumber(no);
+				if (owner.isEmpty()) {
+					problems.add("No PRO has been assigned for Admission Number: " + no);
+				} else if (owner.get().getIssuedToEmployee() == null) {
+					problems.add("A PRO has not been linked to the distribution for Admission Number: " + no);
+				}
+			}
+
+			if (r.classId() == null || referenceDataRegistry.find(StudentClass.class, r.classId()).isEmpty()) {
+				problems.add("Invalid Class ID: " + r.classId());
+			}
+			if (r.branchId() == null || !campuses.contains(r.branchId())) {
+				problems.add("Invalid Branch ID: " + r.branchId());
+			}
+			if (r.orientationId() != null && !orientations.contains(r.orientationId())) {
+				problems.add("Invalid Orientation ID: " + r.orientationId());
+			}
+			checkRef(problems, "Academic Year", AcademicYear.class, r.academicYearId());
+			checkRef(problems, "Gender", Gender.class, r.genderId());
+			checkRef(problems, "Quota", Quota.class, r.quotaId());
+			checkRef(problems, "Admission Type", AdmissionType.class, r.appTypeId());
+			checkRef(problems, "Student Type", StudentType.class, r.studentTypeId());
+
+			AddressDetailsDTO address = r.address();
+			if (address != null) {
+				checkRef(problems, "State", State.class, address.getStateId());
+				checkRef(problems, "City", City.class, address.getCityId());
+				checkRef(problems, "Mandal", Mandal.class, address.getMandalId());
+				checkRef(problems, "District", District.class, address.getDistrictId());
+			}
+			PaymentDetailsDTO payment = r.payment();
+			if (payment != null) {
+				checkRef(problems, "Payment Mode", PaymentMode.class, payment.getPaymentModeId());
+				checkRef(problems, "Bank", OrgBank.class, payment.getBankId());
+				checkRef(problems, "Bank Branch", OrgBankBranch.class, payment.getBranchId());
+				checkRef(problems, "Payment City", City.class, payment.getCityId());
+			}
+
+			if (problems.isEmpty()) {
+				valid.add(p);
+			} else {
+				run.reject(p.line(), no, String.join("; ", problems));
+			}
+		}
+		return valid;
+	}
+
+	private void checkRef(List<String> problems, String label, Class<?> type, Integer id) {
+		if (id != null && referenceDataRegistry.find(type, id).isEmpty()) {
+			problems.add("Invalid " + label + " ID: " + id);
+		}
+	}
+
+	// ---------------------------------------------------------
+	// Record fields the validation needs, for both DTO shapes
+	// ---------------------------------------------------------
+
+	private record Refs(Long studAdmsNo, Integer academicYearId, Integer genderId, Integer quotaId,
+			Integer appTypeId, Integer studentTypeId, Integer classId, Integer branchId, Integer orientationId,
+			AddressDetailsDTO address, PaymentDetailsDTO payment) {
+	}
+
+	private static Refs refs(StudentFastSaleDTO d) {
+		return new Refs(d.getStudAdmsNo(), d.getAcademicYearId(), d.getGenderId(), d.getQuotaId(), d.getAppTypeId(),
+				d.getStudentTypeId(), d.getClassId(), d.getBranchId(), d.getOrientationId(), d.getAddressDetails(),
+				d.getPaymentDetails());
+	}
+
+	private static Refs refs(StudentAdmissionDTO d) {
+		return new Refs(d.getStudAdmsNo(), d.getAcademicYearId(), d.getGenderId(), d.getQuotaId(), d.getAppTypeId(),
+				d.getStudentTypeId(), d.getClassId(), d.getBranchId(), d.getOrientationId(), d.getAddressDetails(),
+				d.getPaymentDetails());
+	}
+
+	// ---------------------------------------------------------
+	// Streaming readers
+	// ---------------------------------------------------------
+
+	private record Parsed<T>(long line, T record, String error) {
+	}
+
+	private interface RecordReader<T> {
+		// null at end of input
+		Parsed<T> next() throws IOException;
+	}
+
+	private final class NdjsonReader<T> implements RecordReader<T> {
+		private final BufferedReader reader;
+		private final Class<T> type;
+		private long line;
+
+		NdjsonReader(BufferedReader reader, Class<T> type) {
+			this.reader = reader;
+			this.type = type;
+		}
+
+		@Override
+		public Parsed<T> next() throws IOException {
+			String text;
+			while ((text = reader.readLine()) != null) {
+				line++;
+				if (text.isBlank()) {
+					continue;
+				}
+				try {
+					return new Parsed<>(line, objectMapper.readValue(text, type), null);
+				} catch (JsonProcessingException e) {
+					return new Parsed<>(line, null, "Unreadable record: " + e.getOriginalMessage());
+				}
+			}
+			return null;
+		}
+	}
+
+	private final class CsvReader<T> implements RecordReader<T> {
+		private final BufferedReader reader;
+		private final Class<T> type;
+		private final long[] line = new long[1];
+		private List<String[]> header;
+
+		CsvReader(BufferedReader reader, Class<T> type) {
+			this.reader = reader;
+			this.type = type;
+		}
+
+		@Override
+		public Parsed<T> next() throws IOException {
+			if (header == null) {
+				List<String> names;
+				try {
+					names = readCsvRecord(reader, line);
+				} catch (MalformedCsvException e) {
+					return new Parsed<>(1, null, e.getMessage());
+				}
+				if (names == null) {
+					return null;
+				}
+				header = new ArrayList<>(names.size());
+				for (int i = 0; i < names.size(); i++) {
+					String name = names.get(i).trim();
+					if (i == 0 && name.startsWith("\uFEFF")) {
+						name = name.substring(1);
+					}
+					header.add(name.split("\\."));
+				}
+			}
+			List<String> fields;
+			long first;
+			do {
+				first = line[0] + 1;
+				try {
+					fields = readCsvRecord(reader, line);
+				} catch (MalformedCsvException e) {
+					// The rest of the input was swallowed by the open quote; the next read ends the import
+					return new Parsed<>(first, null, e.getMessage());
+				}
+				if (fields == null) {
+					return null;
+				}
+			} while (fields.size() == 1 && fields.get(0).isBlank());
+
+			if (fields.size() > header.size()) {
+				return new Parsed<>(first, null,
+						"Record has " + fields.size() + " fields, header has " + header.size());
+			}
+			Map<String, Object> root = new LinkedHashMap<>();
+			for (int i = 0; i < fields.size(); i++) {
+				String value = fields.get(i).trim();
+				if (value.isEmpty()) {
+					continue;
+				}
+				put(root, header.get(i), value);
+			}
+			try {
+				return new Parsed<>(first, objectMapper.convertValue(root, type), null);
+			} catch (IllegalArgumentException e) {
+				return new Parsed<>(first, null, "Unreadable record: " + rootMessage(e));
+			}
+		}
+
+		@SuppressWarnings("unchecked")
+		private void put(Map<String, Object> root, String[] path, String value) {
+			Map<String, Object> node = root;
+			for (int i = 0; i < path.length - 1; i++) {
+				node = (Map<String, Object>) node.computeIfAbsent(path[i], k -> new LinkedHashMap<String, Object>());
+			}
+			node.put(path[path.length - 1], value);
+		}
+	}
+
+	/**
+	 * One RFC 4180 record: comma separated, double-quoted fields may contain
+	 * commas, doubled quotes and line breaks. Null at end of input; a quoted
+	 * field still open at end of input throws {@link MalformedCsvException}.
+	 */
+	private static List<String> readCsvRecord(BufferedReader reader, long[] line) throws IOException {
+		String text = reader.readLine();
+		if (text == null) {
+			return null;
+		}
+		line[0]++;
+		List<String> fields = new ArrayList<>();
+		StringBuilder field = new StringBuilder();
+		boolean quoted = false;
+		while (true) {
+			for (int i = 0; i < text.length(); i++) {
+				char c = text.charAt(i);
+				if (quoted) {
+					if (c != '"') {
+						field.append(c);
+					} else if (i + 1 < text.length() && text.charAt(i + 1) == '"') {
+						field.append('"');
+						i++;
+					} else {
+						quoted = false;
+					}
+				} else if (c == '"') {
+					quoted = true;
+				} else if (c == ',') {
+					fields.add(field.toString());
+					field.setLength(0);
+				} else {
+					field.append(c);
+				}
+			}
+			if (!quoted) {
+				break;
+			}
+			text = reader.readLine();
+			if (text == null) {
+				throw new MalformedCsvException("Unterminated quoted field: input ends at line " + line[0]);
+			}
+			line[0]++;
+			field.append('\n');
+		}
+		fields.add(field.toString());
+		return fields;
+	}
+
+	private static final class MalformedCsvException extends IOException {
+		MalformedCsvException(String message) {
+			super(message);
+		}
+	}
+
+	// ---------------------------------------------------------
+
+	private static Format parseFormat(String name) {
+		try {
+			return Format.valueOf(name.trim().toUpperCase(Locale.ROOT));
+		} catch (RuntimeException e) {
+			throw new IllegalArgumentException("Unsupported import format: " + name + " (use ndjson or csv)");
+		}
+	}
+
+	private static String rootMessage(Throwable e) {
+		Throwable root = e;
+		while (root.getCause() != null && root.getCause() != root) {
+			root = root.getCause();
+		}
+		return root.getMessage() != null ? root.getMessage() : root.getClass().getSimpleName();
+	}
+
+	private final class Run {
+		private final List<SaleImportErrorDTO> errors = new ArrayList<>();
+		private long records;
+		private long imported;
+		private long failed;
+		private int chunks;
+		private int replayedChunks;
+		private boolean errorsTruncated;
+
+		void reject(long line, Long studAdmsNo, String message) {
+			failed++;
+			if (errors.size() < maxErrors) {
+				errors.add(new SaleImportErrorDTO(line, studAdmsNo, message));
+			} else {
+				errorsTruncated = true;
+			}
+		}
+	}
+}
@@ -0,0 +1,284 @@
+package com.application.service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.application.dto.SalesRollupNodeDTO;
+import com.application.repository.AppStatusTrackRepository;
+import com.application.repository.UserAppSoldRepository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
+/**
+ * Zone -> DGM -> campus rollup of the sales counters.
+ *
+ * The tree comes from the active sce_dgm rows (zone, DGM employee, campus)
+ * plus the active sce_zone_acct rows (which zone a zonal accountant looks
+ * at); it is loaded once and reloaded after {@code sales-hierarchy.max-age-ms}.
+ * Per request the campus counters of one academic year are read once
+ * ({@link AnalyticsCube}, or two GROUP BY campus queries until it is loaded)
+ * and summed bottom-up in one post-order traversal. A node carries its whole
+ * subtree, so drilling from a zone into its DGMs and campuses needs no further
+ * call. A campus listed under two DGMs of a zone is counted once in the zone.
+ */
+@Service
+public class SalesHierarchyService {
+
+	// Counter slots per campus
+	private static final int ISSUED = 0;
+	private static final int SOLD = 1;
+	private static final int TOTAL_APP = 2;
+	private static final int APP_SOLD = 3;
+	private static final int APP_CONFIRMED = 4;
+	private static final int APP_AVAILABLE = 5;
+	private static final int APP_ISSUED = 6;
+	private static final int APP_DAMAGED = 7;
+	private static final int APP_UNAVAILABLE = 8;
+	private static final int SLOTS = 9;
+
+	@PersistenceContext
+	private EntityManager entityManager;
+
+	private final AnalyticsCube analyticsCube;
+	private final AppStatusTrackRepository appStatusTrackRepository;
+	private final UserAppSoldRepository userAppSoldRepository;
+	private final TransactionTemplate readOnlyTx;
+
+	@Value("${sales-hierarchy.max-age-ms:600000}")
+	private long maxAgeMillis;
+
+	private volatile Tree tree;
+
+	private record CampusLeaf(int id, String name) {
+	}
+
+	private record DgmBranch(int empId, String name, List<CampusLeaf> campuses) {
+	}
+
+	private record ZoneBranch(int id, String name, Map<Integer, DgmBranch> dgms) {
+	}
+
+	private record Tree(Map<Integer, ZoneBranch> zones, Map<Integer, Integer> zoneOfAccountant,
+			Map<Integer, List<DgmBranch>> branchesOfDgm, long loadedAt) {
+	}
+
+	public SalesHierarchyService(AnalyticsCube analyticsCube, AppStatusTrackRepository appStatusTrackRepository,
+			UserAppSoldRepository userAppSoldRepository, PlatformTransactionManager transactionManager) {
+		this.analyticsCube = analyticsCube;
+		this.appStatusTrackRepository = appStatusTrackRepository;
+		this.userAppSoldRepository = userAppSoldRepository;
+		this.readOnlyTx = new TransactionTemplate(transactionManager);
+		this.readOnlyTx.setReadOnly(true);
+	}
+
+	// ---------------------------------------------------------
+	// Queries (academicYearId null = latest year of sce_app_stats_trk)
+	// ---------------------------------------------------------
+
+	/**
+	 * Every zone with its DGMs and campuses.
+	 */
+	public SalesRollupNodeDTO getAll(Integer academicYearId) {
+		Tree t = tree();
+		int yearId = resolveYear(academicYearId);
+		Map<Integer, long[]> counters = campusCounters(yearId);
+		Set<Integer> covered = new HashSet<>();
+		SalesRollupNodeDTO root = node("ALL", null, "All Zones", yearId);
+		for (ZoneBranch zone : t.zones().values()) {
+			root.getChildren().add(zoneNode(zone, yearId, counters, covered));
+		}
+		fill(root, covered, counters);
+		return root;
+	}
+
+	public Optional<SalesRollupNodeDTO> getZone(int zoneId, Integer academicYearId) {
+		ZoneBranch zone = tree().zones().get(zoneId);
+		if (zone == null) {
+			return Optional.empty();
+		}
+		int yearId = resolveYear(academicYearId);
+		return Optional.of(zoneNode(zone, yearId, campusCounters(yearId), new HashSet<>()));
+	}
+
+	/**
+	 * The subtree an employee looks at: their zone for a zonal accountant,
+	 * their campuses for a DGM (across zones when they have several).
+	 */
+	public Optional<SalesRollupNodeDTO> getForEmployee(int empId, Integer academicYearId) {
+		Tree t = tree();
+		Integer zoneId = t.zoneOfAccountant().get(empId);
+		if (zoneId != null && t.zones().containsKey(zoneId)) {
+			return getZone(zoneId, academicYearId);
+		}
+		List<DgmBranch> branches = t.branchesOfDgm().get(empId);
+		if (branches == null) {
+			return Optional.empty();
+		}
+		int yearId = resolveYear(academicYearId);
+		Map<Integer, long[]> counters = campusCounters(yearId);
+		if (branches.size() == 1) {
+			return Optional.of(dgmNode(branches.get(0), yearId, counters, new HashSet<>()));
+		}
+		List<CampusLeaf> campuses = new ArrayList<>();
+		branches.forEach(b -> campuses.addAll(b.campuses()));
+		return Optional.of(dgmNode(new DgmBranch(empId, branches.get(0).name(), campuses), yearId, counters,
+				new HashSet<>()));
+	}
+
+	// ---------------------------------------------------------
+	// Bottom-up traversal
+	// ---------------------------------------------------------
+
+	private SalesRollupNodeDTO zoneNode(ZoneBranch zone, int yearId, Map<Integer, long[]> counters,
+			Set<Integer> parentCovered) {
+		SalesRollupNodeDTO node = node("ZONE", zone.id(), zone.name(), yearId);
+		Set<Integer> covered = new HashSet<>();
+		for (DgmBranch dgm : zone.dgms().values()) {
+			node.getChildren().add(dgmNode(dgm, yearId, counters, covered));
+		}
+		fill(node, covered, counters);
+		parentCovered.addAll(covered);
+		return node;
+	}
+
+	private SalesRollupNodeDTO dgmNode(DgmBranch dgm, int yearId, Map<Integer, long[]> counters,
+			Set<Integer> parentCovered) {
+		SalesRollupNodeDTO node = node("DGM", dgm.empId(), dgm.name(), yearId);
+		Set<Integer> covered = new HashSet<>();
+		for (CampusLeaf campus : dgm.campuses()) {
+			if (covered.add(campus.id())) {
+				SalesRollupNodeDTO leaf = node("CAMPUS", campus.id(), campus.name(), yearId);
+				fill(leaf, Set.of(campus.id()), counters);
+				node.getChildren().add(leaf);
+			}
+		}
+		fill(node, covered, counters);
+		parentCovered.addAll(covered);
+		return node;
+	}
+
+	private static SalesRollupNodeDTO node(String level, Integer id, String name, int yearId) {
+		SalesRollupNodeDTO node = new SalesRollupNodeDTO();
+		node.setLevel(level);
+		node.setId(id);
+		node.setName(name);
+		node.setAcademicYearId(yearId);
+		return node;
+	}
+
+	private static void fill(SalesRollupNodeDTO node, Set<Integer> campusIds, Map<Integer, long[]> counters) {
+		long[] sum = new long[SLOTS];
+		for (Integer campusId : campusIds) {
+			long[] c = counters.get(campusId);
+			if (c != null) {
+				for (int i = 0; i < SLOTS; i++) {
+					sum[i] += c[i];
+				}
+			}
+		}
+		node.setIssued(sum[ISSUED]);
+		node.setSold(sum[SOLD]);
+		node.setSoldPercent(sum[ISSUED] > 0 ? Math.min(100.0, sum[SOLD] * 100.0 / sum[ISSUED]) : 0.0);
+		node.setTotalApp(sum[TOTAL_APP]);
+		node.setAppSold(sum[APP_SOLD]);
+		node.setAppConfirmed(sum[APP_CONFIRMED]);
+		node.setAppAvailable(sum[APP_AVAILABLE]);
+		node.setAppIssued(sum[APP_ISSUED]);
+		node.setAppDamaged(sum[APP_DAMAGED]);
+		node.setAppUnavailable(sum[APP_UNAVAILABLE]);
+		node.setCampusCount(campusIds.size());
+	}
+
+	// ---------------------------------------------------------
+	// Counters and tree
+	// ---------------------------------------------------------
+
+	private int resolveYear(Integer academicYearId) {
+		if (academicYearId != null) {
+			return academicYearId;
+		}
+		Integer latest = analyticsCube.latestYearId().orElseGet(appStatusTrackRepository::findLatestYearId);
+		return latest != null ? latest : 0;
+	}
+
+	private Map<Integer, long[]> campusCounters(int yearId) {
+		Map<Integer, long[]> counters = new HashMap<>();
+		List<Object[]> sold = analyticsCube.issuedAndSoldByCampus(yearId)
+				.orElseGet(() -> userAppSoldRepository.getCampusIssuedAndSoldByYear(yearId));
+		for (Object[] r : sold) {
+			long[] c = counters.computeIfAbsent(((Number) r[0]).intValue(), k -> new long[SLOTS]);
+			c[ISSUED] = count(r[1]);
+			c[SOLD] = count(r[2]);
+		}
+		List<Object[]> status = analyticsCube.appStatusByCampus(yearId)
+				.orElseGet(() -> appStatusTrackRepository.getCampusTotalsByYear(yearId));
+		for (Object[] r : status) {
+			long[] c = counters.computeIfAbsent(((Number) r[0]).intValue(), k -> new long[SLOTS]);
+			for (int i = 0; i < 7; i++) {
+				c[TOTAL_APP + i] = count(r[1 + i]);
+			}
+		}
+		return counters;
+	}
+
+	private static long count(Object value) {
+		return value != null ? ((Number) value).longValue() : 0L;
+	}
+
+	private Tree tree() {
+		Tree t = tree;
+		if (t != null && System.currentTimeMillis() - t.loadedAt() <= maxAgeMillis) {
+			return t;
+		}
+		synchronized (this) {
+			t = tree;
+			if (t == null || System.currentTimeMillis() - t.loadedAt() > maxAgeMillis) {
+				t = readOnlyTx.execute(status -> loadTree());
+				tree = t;
+			}
+			return t;
+		}
+	}
+
+	private Tree loadTree() {
+		Map<Integer, ZoneBranch> zones = new TreeMap<>();
+		Map<Integer, List<DgmBranch>> branchesOfDgm = new HashMap<>();
+		for (Object[] r : entityManager.createQuery("SELECT z.zoneId, z.zoneName, e.emp_id, e.first_name, e.last_name, "
+				+ "c.campusId, c.campusName FROM Dgm d JOIN d.zone z JOIN d.employee e JOIN d.campus c "
+				+ "WHERE d.isActive = 1 ORDER BY z.zoneId, e.emp_id, c.campusId", Object[].class).getResultList()) {
+			int zoneId = ((Number) r[0]).intValue();
+			int empId = ((Number) r[2]).intValue();
+			ZoneBranch zone = zones.computeIfAbsent(zoneId,
+					k -> new ZoneBranch(zoneId, (String) r[1], new LinkedHashMap<>()));
+			DgmBranch dgm = zone.dgms().computeIfAbsent(empId, k -> {
+				DgmBranch b = new DgmBranch(empId, r[3] + " " + r[4], new ArrayList<>());
+				branchesOfDgm.computeIfAbsent(empId, e -> new ArrayList<>()).add(b);
+				return b;
+			});
+			dgm.campuses().add(new CampusLeaf(((Number) r[5]).intValue(), (String) r[6]));
+		}
+
+		Map<Integer, Integer> zoneOfAccountant = new HashMap<>();
+		for (Object[] r : entityManager.createQuery("SELECT e.emp_id, z.zoneId, z.zoneName FROM ZonalAccountant za "
+				+ "JOIN za.employee e JOIN za.zone z WHERE za.isActive = 1", Object[].class).getResultList()) {
+			int zoneId = ((Number) r[1]).intValue();
+			zoneOfAccountant.put(((Number) r[0]).intValue(), zoneId);
+			// A zone without DGMs still shows up, empty
+			zones.computeIfAbsent(zoneId, k -> new ZoneBranch(zoneId, (String) r[2], new LinkedHashMap<>()));
+		}
+		return new Tree(zones, zoneOfAccountant, branchesOfDgm, System.currentTimeMillis());
+	}
+}
@@ -2,16 +2,20 @@ package com.application.service;
  
 import java.time.LocalDate;
 import java.util.Collections;
+import java.util.Date;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
+import org.hibernate.Hibernate;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import com.application.config.ParallelReads;
 import com.application.dto.AddressDetailsDTO;
 import com.application.dto.AddressDetailsNewDTO;
 import com.application.dto.ApplicationDetailsDTO;
@@ -32,18 +36,28 @@ import com.application.dto.StudentAdmissionDTO;
 import com.application.dto.StudentSaleDTO;
 import com.application.entity.AcademicYear;
 import com.application.entity.AdminApp;
+import com.application.entity.AdmissionType;
 import com.application.entity.AppStatusTrackView;
 import com.application.entity.BalanceTrack;
 import com.application.entity.BusinessType;
 import com.application.entity.Campus;
 import com.application.entity.CampusDetails;
+import com.application.entity.City;
 import com.application.entity.CmpsOrientation;
 import com.application.entity.CmpsOrientationBatchFeeView;
 import com.application.entity.Distribution;
+import com.application.entity.District;
 import com.application.entity.Employee;
+import com.application.entity.Gender;
+import com.application.entity.Mandal;
+import com.application.entity.OrgBank;
+import com.application.entity.OrgBankBranch;
 import com.application.entity.OrganizationBankDetails;
 import com.application.entity.ParentDetails;
 import com.application.entity.PaymentDetails;
+import com.application.entity.PaymentMode;
+import com.application.entity.Quota;
+import com.application.entity.State;
 import com.application.entity.Status;
 import com.application.entity.StudentAcademicDetails;
 import com.application.entity.StudentAddress;
@@ -52,8 +66,10 @@ import com.application.entity.StudentClass;
 import com.application.entity.StudentOrientationDetails;
 import com.application.entity.StudentPersonalDetails;
 import com.application.entity.StudentRelation;
+import com.application.entity.StudentType;
 import com.application.entity.StudyType;
 import com.application.entity.Zone;
+import com.application.exception.ApplicationAlreadyExistsException;
 import com.application.repository.AcademicYearRepository;
 import com.application.repository.AdminAppRepository;
 import com.application.repository.AdmissionTypeRepository;
@@ -103,6 +119,7 @@ import com.application.repository.StudyTypeRepository;
 import com.application.repository.ZoneRepository;
 
 import jakarta.persistence.EntityNotFoundException;
+import jakarta.persistence.Tuple;
 
 @Service
 public class StudentAdmissionService {
@@ -149,6 +166,7 @@ public class StudentAdmissionService {
     @Autowired private CampusSchoolTypeRepository campusSchoolTypeReposirtory;
     @Autowired private StudentRelationRepository studentRelationRepo;
     @Autowired private DistributionRepository distributionRepo; // Injected the new repository
+    @Autowired private DistributionRangeIndex distributionRangeIndex;
     @Autowired private PinCodeRepository pinCodeRepository;
     @Autowired private StudentOrientationDetailsRepository orientationDetailsRepo;
     @Autowired private AppStatusTrackViewRepository appStatusTrackViewRepository;
@@ -160,6 +178,12 @@ public class StudentAdmissionService {
     @Autowired private PreSchoolDetailsRepository preSchoolDetailsRepository;
     @Autowired private CollegeMasterRepository collegeMasterRepository;
     @Autowired private LanguageRepository languageRepository;
+    @Autowired private ReferenceDataRegistry referenceDataRegistry;
+    @Autowired private AdmissionNumberFilter admissionNumberFilter;
+    @Autowired private ApplicationDetailsReader applicationDetailsReader;
+    @Autowired private CounterOutbox counterOutbox;
+    @Autowired private FeeResolutionTable feeResolutionTable;
+    @Autowired private ParallelReads parallelReads;
 
 
     StudentAdmissionService(CampusDetailsRepository campusDetailsRepository) {
@@ -449,7 +473,8 @@ public class StudentAdmissionService {
                 .orElseThrow(() -> new RuntimeException("Campus not found for ID: " + campusId));
     }
     
-    @Transactional(readOnly = true)
+    // No method-level transaction: each read takes its own connection, so the fan-out below
+    // does not hold one idle while the forks wait for theirs (see ParallelReads)
 public CampusAndZoneDTO getApplicationDetailsWithFee(long applicationNo) {
     logger.info("Fetching details with fee for Application No: {}", applicationNo);
 
@@ -467,11 +492,46 @@ public CampusAndZoneDTO getApplicationDetailsWithFee(long applicationNo) {
     }
     logger.debug("Found Status Track: CampusId={}, CampusName='{}', ZoneName='{}'", campusId, campusName, zoneName);
 
-    // 2. Fetch Zone ID using Zone Name
-    Integer zoneId = getZoneIdByName(zoneName);
+    // 2-5 from memory when the fee resolution table can answer; the queries below otherwise
+    Optional<FeeResolutionTable.Resolution> resolved = feeResolutionTable.resolve(applicationNo, campusId, zoneName);
+    if (resolved.isPresent()) {
+        FeeResolutionTable.Resolution r = resolved.get();
+        CampusAndZoneDTO dto = new CampusAndZoneDTO();
+        dto.setApplicationNo(applicationNo);
+        dto.setCampusId(campusId);
+        dto.setCampusName(campusName);
+        dto.setZoneId(r.zoneId());
+        dto.setZoneName(zoneName);
+        dto.setAcademicYearId(r.academicYearId());
+        dto.setAcademicYear(r.academicYear());
+        dto.setApplicationFee(r.applicationFee());
+        dto.setAmount(r.amount());
+        logger.debug("Resolved details with fee for Application No: {} from the fee resolution table", applicationNo);
+        return dto;
+    }
+
+    // 2-4. Zone, campus and balance range depend only on the status row: read them side by side
+    Integer zoneId;
+    Optional<Campus> campusOpt;
+    Optional<BalanceTrack> balanceTrackOpt;
+    try (ParallelReads.Scope scope = parallelReads.open()) {
+        Supplier<Integer> zoneRead = scope.fork(() -> getZoneIdByName(zoneName));
+        Supplier<Optional<Campus>> campusRead = scope.fork(() -> {
+            // Business type is lazy: load it before the read's transaction ends
+            Optional<Campus> found = campusRepo.findById(campusId);
+            found.ifPresent(c -> Hibernate.initialize(c.getBusinessType()));
+            return found;
+        });
+        Supplier<Optional<BalanceTrack>> balanceRead = scope
+                .fork(() -> balanceTrackRepository.findActiveBalanceTrackByAppNoRange(applicationNo));
+        scope.join();
+        zoneId = zoneRead.get();
+        campusOpt = campusRead.get();
+        balanceTrackOpt = balanceRead.get();
+    }
 
-    // 3. Fetch Campus to get Business Type
-    Campus campus = campusRepo.findById(campusId)
+    // 3. Campus gives the Business Type
+    Campus campus = campusOpt
             .orElseThrow(() -> new EntityNotFoundException("Campus entity not found for ID: " + campusId));
 
     BusinessType businessType = campus.getBusinessType();
@@ -482,9 +542,8 @@ public CampusAndZoneDTO getApplicationDetailsWithFee(long applicationNo) {
     String businessTypeName = businessType.getBusinessTypeName();
     logger.debug("Found Campus: BusinessType='{}'", businessTypeName);
 
-    // 4. Fetch Academic Year from BalanceTrack
-    logger.debug("Fetching Academic Year from BalanceTrack for App No: {}", applicationNo);
-    BalanceTrack balanceTrack = balanceTrackRepository.findActiveBalanceTrackByAppNoRange(applicationNo)
+    // 4. Academic Year from BalanceTrack
+    BalanceTrack balanceTrack = balanceTrackOpt
             .orElseThrow(() -> new EntityNotFoundException(
                     "BalanceTrack record covering Application No: " + applicationNo + " not found. Cannot determine Academic Year."));
 
@@ -597,8 +656,11 @@ public CampusAndZoneDTO getApplicationDetailsWithFee(long applicationNo) {
     	if (admissionNumberNumeric == null) {
     	    throw new IllegalArgumentException("Admission Number must be provided.");
     	}
+    	if (admissionNumberFilter.isUsed(formData.getAcademicYearId(), admissionNumberNumeric)) {
+    	    throw new ApplicationAlreadyExistsException("Admission Number " + admissionNumberNumeric + " has already been used.");
+    	}
  
-    	Distribution distribution = distributionRepo.findProDistributionForAdmissionNumber(admissionNumberNumeric)
+    	Distribution distribution = distributionRangeIndex.findProDistributionForAdmissionNumber(admissionNumberNumeric)
     	        .orElseThrow(() -> new EntityNotFoundException(
     	            "No PRO has been assigned for Admission Number: " + admissionNumberNumeric
     	        ));
@@ -615,7 +677,7 @@ public CampusAndZoneDTO getApplicationDetailsWithFee(long applicationNo) {
 		// ... (all the code from Part 1 is correct) ...
  
 		if (formData.getAcademicYearId() != null) {
-			academicYearRepository.findById(formData.getAcademicYearId()).ifPresent(academicDetails::setAcademicYear);
+			referenceDataRegistry.reference(AcademicYear.class, formData.getAcademicYearId()).ifPresent(academicDetails::setAcademicYear);
 		}
  
 		academicDetails.setStudAdmsNo(formData.getStudAdmsNo());
@@ -632,18 +694,18 @@ public CampusAndZoneDTO getApplicationDetailsWithFee(long applicationNo) {
 		    academicDetails.setAdmission_referred_by(formData.getAdmissionReferedBy());
  
 		if (formData.getGenderId() != null)
-			genderRepo.findById(formData.getGenderId()).ifPresent(academicDetails::setGender);
+			referenceDataRegistry.reference(Gender.class, formData.getGenderId()).ifPresent(academicDetails::setGender);
 		if (formData.getAppTypeId() != null)
-			admissionTypeRepo.findById(formData.getAppTypeId()).ifPresent(academicDetails::setAdmissionType);
+			referenceDataRegistry.reference(AdmissionType.class, formData.getAppTypeId()).ifPresent(academicDetails::setAdmissionType);
 		if (formData.getStudentTypeId() != null)
-			studentTypeRepo.findById(formData.getStudentTypeId()).ifPresent(academicDetails::setStudentType);
+			referenceDataRegistry.reference(StudentType.class, formData.getStudentTypeId()).ifPresent(academicDetails::setStudentType);
 		if (formData.getQuotaId() != null)
-			quotaRepo.findById(formData.getQuotaId()).ifPresent(academicDetails::setQuota);
+			referenceDataRegistry.reference(Quota.class, formData.getQuotaId()).ifPresent(academicDetails::setQuota);
 //		if (formData.getBranchTypeId() != null) {
 //			schoolTypeRepo.findById(formData.getBranchTypeId()).ifPresent(academicDetails::setCampusSchoolType);
 //		}
 		
-		StudentClass studentClass = classRepo.findById(formData.getClassId())
+		StudentClass studentClass = referenceDataRegistry.reference(StudentClass.class, formData.getClassId())
 				.orElseThrow(() -> new EntityNotFoundException("Invalid Class ID: " + formData.getClassId()));
 		academicDetails.setStudentClass(studentClass);
  
@@ -655,15 +717,16 @@ public CampusAndZoneDTO getApplicationDetailsWithFee(long applicationNo) {
 		academicDetails.setEmployee(pro);
  
 		// --- FIX 1 (from previous step) ---
-		StudyType defaultStudyType = studyTypeRepo.findById(1)
+		StudyType defaultStudyType = referenceDataRegistry.reference(StudyType.class, 1)
 				.orElseThrow(() -> new EntityNotFoundException("Default StudyType (ID: 1) not found"));
 		academicDetails.setStudyType(defaultStudyType);
  
-		Status defaultStatus = statusRepo.findById(2)
+		Status defaultStatus = referenceDataRegistry.reference(Status.class, 2)
 				.orElseThrow(() -> new EntityNotFoundException("Default Status (ID: 1) not found"));
 		academicDetails.setStatus(defaultStatus);
  
 		StudentAcademicDetails savedAcademicDetails = academicDetailsRepo.save(academicDetails);
+		counterOutbox.recordSale(savedAcademicDetails);
  
 		// --- 2. Save Personal Details ---
 		StudentPersonalDetails personalDetails = new StudentPersonalDetails();
@@ -691,7 +754,7 @@ public CampusAndZoneDTO getApplicationDetailsWithFee(long applicationNo) {
 		// --- 4. Save Parent Details ---
 		if (formData.getFatherName() != null || formData.getFatherMobileNo() != null) {
  
-			StudentRelation fatherRelation = relationTypeRepo.findById(1) // Assuming 1 = Father
+			StudentRelation fatherRelation = referenceDataRegistry.reference(StudentRelation.class, 1) // Assuming 1 = Father
 					.orElseThrow(() -> new EntityNotFoundException("StudentRelation 'Father' (ID: 1) not found"));
  
 			ParentDetails parent = new ParentDetails();
@@ -718,17 +781,17 @@ public CampusAndZoneDTO getApplicationDetailsWithFee(long applicationNo) {
             address.setLandmark(addressDTO.getLandmark());
             address.setArea(addressDTO.getArea());
             if (addressDTO.getPincode() != null) address.setPostalCode(addressDTO.getPincode());
-            if (addressDTO.getStateId()!= null) stateRepo.findById(addressDTO.getStateId()).ifPresent(address::setState);
-            if (addressDTO.getCityId() != null) cityRepo.findById(addressDTO.getCityId()).ifPresent(address::setCity);
-            if (addressDTO.getMandalId() != null) mandalRepo.findById(addressDTO.getMandalId()).ifPresent(address::setMandal);
-            if (addressDTO.getDistrictId() != null) districtRepo.findById(addressDTO.getDistrictId()).ifPresent(address::setDistrict);
+            if (addressDTO.getStateId()!= null) referenceDataRegistry.reference(State.class, addressDTO.getStateId()).ifPresent(address::setState);
+            if (addressDTO.getCityId() != null) referenceDataRegistry.reference(City.class, addressDTO.getCityId()).ifPresent(address::setCity);
+            if (addressDTO.getMandalId() != null) referenceDataRegistry.reference(Mandal.class, addressDTO.getMandalId()).ifPresent(address::setMandal);
+            if (addressDTO.getDistrictId() != null) referenceDataRegistry.reference(District.class, addressDTO.getDistrictId()).ifPresent(address::setDistrict);
             
             // --- FIX 1: Use the 'createdBy' from the AddressDetailsDTO ---
             address.setCreated_by(addressDTO.getCreatedBy());
             
             // --- FIX 2: SET DEFAULT VALUE FOR 'NOT NULL' STATE FIELD ---
             // TODO: Confirm the default State ID (e.g., 1) from your 'state' table.
-//            State defaultState = stateRepo.findById(1) // Assuming 1 = "Not Applicable" or a default state
+//            State defaultState = referenceDataRegistry.reference(State.class, 1) // Assuming 1 = "Not Applicable" or a default state
 //                    .orElseThrow(() -> new EntityNotFoundException("Default State (ID: 1) not found"));
 //            address.setState(defaultState);
             // --- END FIX ---
@@ -761,7 +824,7 @@ public CampusAndZoneDTO getApplicationDetailsWithFee(long applicationNo) {
  
 		    // Set the PaymentMode (e.g., Cash, DD, Cheque)
 		    if (paymentDTO.getPaymentModeId() != null) {
-		        paymentModeRepo.findById(paymentDTO.getPaymentModeId())
+		        referenceDataRegistry.reference(PaymentMode.class, paymentDTO.getPaymentModeId())
 		            .ifPresent(paymentDetails::setPaymenMode);
 		    }
  
@@ -800,15 +863,15 @@ public CampusAndZoneDTO getApplicationDetailsWithFee(long applicationNo) {
 		                transaction.setOrg_id(paymentDTO.getOrganisationId());
 		            }
 		            if (paymentDTO.getBankId() != null) {
-		                orgBankRepo.findById(paymentDTO.getBankId()).ifPresent(transaction::setOrgBank);
+		                referenceDataRegistry.reference(OrgBank.class, paymentDTO.getBankId()).ifPresent(transaction::setOrgBank);
 		            }
 		            if (paymentDTO.getBranchId() != null) {
-		                orgBankBranchRepo.findById(paymentDTO.getBranchId()).ifPresent(transaction::setOrgBankBranch);
+		                referenceDataRegistry.reference(OrgBankBranch.class, paymentDTO.getBranchId()).ifPresent(transaction::setOrgBankBranch);
 		            }
 		            transaction.setIfsc_code(paymentDTO.getIfscCode());
 		            
 		            if (paymentDTO.getCityId() != null) {
-		                cityRepo.findById(paymentDTO.getCityId()).ifPresent(transaction::setCity);
+		                referenceDataRegistry.reference(City.class, paymentDTO.getCityId()).ifPresent(transaction::setCity);
 		            }
 		            
 		        } else if (paymentModeId == CHEQUE_PAYMENT_ID) {
@@ -818,14 +881,14 @@ public CampusAndZoneDTO getApplicationDetailsWithFee(long applicationNo) {
 		                transaction.setOrg_id(paymentDTO.getOrganisationId());
 		            }
 		            if (paymentDTO.getCityId() != null) {
-		                cityRepo.findById(paymentDTO.getCityId()).ifPresent(transaction::setCity);
+		                referenceDataRegistry.reference(City.class, paymentDTO.getCityId()).ifPresent(transaction::setCity);
 		            }
 		            // Assuming Cheque also uses Bank and Branch, based on your UI and entity
 		            if (paymentDTO.getBankId() != null) {
-		                orgBankRepo.findById(paymentDTO.getBankId()).ifPresent(transaction::setOrgBank);
+		                referenceDataRegistry.reference(OrgBank.class, paymentDTO.getBankId()).ifPresent(transaction::setOrgBank);
 		            }
 		            if (paymentDTO.getBranchId() != null) {
-		                orgBankBranchRepo.findById(paymentDTO.getBranchId()).ifPresent(transaction::setOrgBankBranch);
+		                referenceDataRegistry.reference(OrgBankBranch.class, paymentDTO.getBranchId()).ifPresent(transaction::setOrgBankBranch);
 		            }
 		        }
  
@@ -849,8 +912,11 @@ public CampusAndZoneDTO getApplicationDetailsWithFee(long applicationNo) {
     	if (admissionNumberNumeric == null) {
     	    throw new IllegalArgumentException("Admission Number must be provided.");
     	}
+    	if (admissionNumberFilter.isUsed(formData.getAcademicYearId(), admissionNumberNumeric)) {
+    	    throw new ApplicationAlreadyExistsException("Admission Number " + admissionNumberNumeric + " has already been used.");
+    	}
 
-    	Distribution distribution = distributionRepo.findProDistributionForAdmissionNumber(admissionNumberNumeric)
+    	Distribution distribution = distributionRangeIndex.findProDistributionForAdmissionNumber(admissionNumberNumeric)
     	        .orElseThrow(() -> new EntityNotFoundException(
     	            "No PRO has been assigned for Admission Number: " + admissionNumberNumeric
     	        ));
@@ -912,6 +978,7 @@ public CampusAndZoneDTO getApplicationDetailsWithFee(long applicationNo) {
 		academicDetails.setStatus(defaultStatus);
  
 		StudentAcademicDetails savedAcademicDetails = academicDetailsRepo.save(academicDetails);
+		counterOutbox.recordSale(savedAcademicDetails);
  
 		// --- 2. Save Personal Details ---
 		StudentPersonalDetails personalDetails = new StudentPersonalDetails();
@@ -987,148 +1054,83 @@ public CampusAndZoneDTO getApplicationDetailsWithFee(long applicationNo) {
 	}
 	
 	public ApplicationDetailsDTO getApplicationDetailsByAdmissionNo(Long studAdmsNo) {
-        // 1. Fetch the main academic record
-        StudentAcademicDetails student = academicDetailsRepo.findByStudAdmsNo(studAdmsNo)
+        // 1. Fetch the academic record with personal, orientation fee, father and address (one query)
+        Tuple row = applicationDetailsReader.findDetail(studAdmsNo)
             .orElseThrow(() -> new EntityNotFoundException("Student not found with Admission No: " + studAdmsNo));
 
-        // 2. Fetch related records (handle possibility of them being null)
-        Optional<StudentPersonalDetails> personalOpt = personalDetailsRepo.findByStudentAcademicDetails(student);
-        Optional<StudentOrientationDetails> orientationOpt = orientationDetailsRepo.findByStudentAcademicDetails(student);
-        // Assuming Father has relationTypeId = 1
-        Optional<ParentDetails> fatherOpt = parentDetailsRepo.findByStudentAcademicDetailsAndStudentRelationRelationId(student, 1);
-        Optional<StudentAddress> addressOpt = addressRepo.findByStudentAcademicDetails(student);
-
-        // 3. Create the main DTO
+        // 2. Create the main DTO
         ApplicationDetailsDTO detailsDTO = new ApplicationDetailsDTO();
 
-        // 4. Map Academic Details
-        detailsDTO.setFirstName(student.getFirst_name());
-        detailsDTO.setLastName(student.getLast_name());
-        detailsDTO.setApaarNo(student.getApaar_no());
-        detailsDTO.setProReceiptNo((long) student.getPro_receipt_no());
-        if (student.getGender() != null) {
-            detailsDTO.setGenderId(student.getGender().getGender_id());
-            detailsDTO.setGenderName(student.getGender().getGenderName());
-        }
-        // Assuming admissionReferredBy on academicDetails is the ID/Name String? Adjust if it's an object.
-        // detailsDTO.setAdmissionReferredById(...); // Map based on how referred by is stored
-        String referredBy = student.getAdmission_referred_by();
+        // 3. Map Academic Details
+        detailsDTO.setFirstName(row.get("firstName", String.class));
+        detailsDTO.setLastName(row.get("lastName", String.class));
+        detailsDTO.setApaarNo(row.get("apaarNo", String.class));
+        detailsDTO.setProReceiptNo(row.get("proReceiptNo", Integer.class).longValue());
+        detailsDTO.setGenderId(row.get("genderId", Integer.class));
+        detailsDTO.setGenderName(row.get("genderName", String.class));
+
+        String referredBy = row.get("referredBy", String.class);
 
         if (referredBy != null && !referredBy.trim().isEmpty()) {
             try {
-                Integer empId = Integer.valueOf(referredBy);
-                detailsDTO.setAdmissionReferredById(empId);
-
-                employeeRepo.findById(empId).ifPresentOrElse(emp -> {
-                    detailsDTO.setAdmissionReferredByName(
-                        emp.getFirst_name() + (emp.getLast_name() != null ? " " + emp.getLast_name() : "")
-                    );
-                }, () -> detailsDTO.setAdmissionReferredByName(referredBy));
-
+                detailsDTO.setAdmissionReferredById(Integer.valueOf(referredBy));
+                String fullName = ApplicationDetailsReader.fullName(row.get("referrerFirstName", String.class),
+                        row.get("referrerLastName", String.class));
+                detailsDTO.setAdmissionReferredByName(fullName != null ? fullName : referredBy);
             } catch (NumberFormatException e) {
             	detailsDTO.setAdmissionReferredById(null);
             	detailsDTO.setAdmissionReferredByName(referredBy);
             }
         }
 
-        if (student.getQuota() != null) {
-            detailsDTO.setQuotaId(student.getQuota().getQuota_id());
-            detailsDTO.setQuotaName(student.getQuota().getQuota_name());
+        detailsDTO.setQuotaId(row.get("quotaId", Integer.class));
+        detailsDTO.setQuotaName(row.get("quotaName", String.class));
+        detailsDTO.setAcademicYearId(row.get("academicYearId", Integer.class));
+        detailsDTO.setAcademicYearValue(row.get("academicYearName", String.class));
+        detailsDTO.setBranchId(row.get("campusId", Integer.class));
+        detailsDTO.setBranchName(row.get("campusName", String.class));
+        detailsDTO.setCityId(row.get("cityId", Integer.class));
+        detailsDTO.setCityName(row.get("cityName", String.class));
+        detailsDTO.setStudentTypeId(row.get("studentTypeId", Integer.class));
+        detailsDTO.setStudentTypeName(row.get("studentTypeName", String.class));
+        detailsDTO.setJoiningClassId(row.get("classId", Integer.class));
+        detailsDTO.setJoiningClassName(row.get("className", String.class));
+        detailsDTO.setAdmissionTypeId(row.get("admissionTypeId", Integer.class));
+        detailsDTO.setAdmissionTypeName(row.get("admissionTypeName", String.class));
+
+        // 4. Map Personal Details
+        detailsDTO.setDob(row.get("dob", Date.class));
+        detailsDTO.setAadharCardNo(row.get("aadharNo", Long.class));
+
+        // 5. Map Orientation Details (fee of the earliest batch for campus + class)
+        detailsDTO.setOrientationId(row.get("orientationId", Integer.class));
+        detailsDTO.setOrientationName(row.get("orientationName", String.class));
+        detailsDTO.setOrientationFee(row.get("orientationFee", Float.class));
+
+        // 6. Map Parent Details (Father only for this DTO)
+        if (row.get("fatherId") != null) {
+            detailsDTO.setParentInfo(new ParentSummaryDTO(row.get("fatherName", String.class),
+                    row.get("fatherMobile", Long.class)));
         }
-        if (student.getAcademicYear() != null) {
-            detailsDTO.setAcademicYearId(student.getAcademicYear().getAcdcYearId());
-            detailsDTO.setAcademicYearValue(student.getAcademicYear().getAcademicYear());       
-            }
-        if (student.getCampus() != null) {
-        	detailsDTO.setBranchId(student.getCampus().getCampusId());
-        	detailsDTO.setBranchName(student.getCampus().getCampusName());
-
-            if (student.getCampus().getCity() != null) {
-            	detailsDTO.setCityId(student.getCampus().getCity().getCityId());
-            	detailsDTO.setCityName(student.getCampus().getCity().getCityName());
-            }
-        }
-        if (student.getStudentType() != null) {
-            detailsDTO.setStudentTypeId(student.getStudentType().getStud_type_id());
-            detailsDTO.setStudentTypeName(student.getStudentType().getStud_type()); // Use Lombok's generated getter
-            }
-        if (student.getStudentClass() != null) {
-            detailsDTO.setJoiningClassId(student.getStudentClass().getClassId());
-            detailsDTO.setJoiningClassName(student.getStudentClass().getClassName());
-        }
-//         if (student.getCampusSchoolType() != null) { //	 Assuming this is Branch Type
-//             detailsDTO.setBranchTypeId(student.getCampusSchoolType().getSchool_type_id());
-//             detailsDTO.setBranchTypeName(student.getCampusSchoolType().getSchool_type_name());
-//         }
-        if (student.getAdmissionType() != null) {
-            detailsDTO.setAdmissionTypeId(student.getAdmissionType().getAdms_type_id());
-            detailsDTO.setAdmissionTypeName(student.getAdmissionType().getAdms_type_name());
-        }
-
-        // 5. Map Personal Details
-        personalOpt.ifPresent(personal -> {
-            detailsDTO.setDob(personal.getDob());
-            detailsDTO.setAadharCardNo(personal.getStud_aadhaar_no());
-        });
-
-        // 6. Map Orientation Details (including Orientation Name and City if applicable)
-        orientationOpt.ifPresent(orientation -> {
-            if (orientation.getOrientation() != null) {
-                detailsDTO.setOrientationId(orientation.getOrientation().getOrientationId());
-                detailsDTO.setOrientationName(orientation.getOrientation().getOrientation_name());
-            }
-
-            // ⭐ NEW: Fetch orientation fee only
-            Integer orientationId = orientation.getOrientation() != null
-                    ? orientation.getOrientation().getOrientationId() : null;
 
-            Integer cmpsId = student.getCampus() != null
-                    ? student.getCampus().getCampusId() : null;
-
-            Integer classId = student.getStudentClass() != null
-                    ? student.getStudentClass().getClassId() : null;
-
-            if (orientationId != null && cmpsId != null && classId != null) {
-            	cmpsOrientationBatchFeeViewRepo
-                        .findSingleBestBatchDetails(orientationId, cmpsId, classId)
-                        .ifPresent(feeView -> {
-                            detailsDTO.setOrientationFee(feeView.getOrientationFee()); // ⭐ Only fee
-                        });
-            }
-        });
-
-        // 7. Map Parent Details (Father only for this DTO)
-        fatherOpt.ifPresent(father -> {
-            detailsDTO.setParentInfo(new ParentSummaryDTO(father.getName(), father.getMobileNo()));
-        });
-
-        // 8. Map Address Details
-        addressOpt.ifPresent(address -> {
+        // 7. Map Address Details (state comes from the address district)
+        if (row.get("addressId") != null) {
             AddressDetailsNewDTO addressDTO = new AddressDetailsNewDTO();
-            addressDTO.setDoorNo(address.getHouse_no());
-            addressDTO.setStreet(address.getStreet());
-            addressDTO.setLandmark(address.getLandmark());
-            addressDTO.setArea(address.getArea());
-            addressDTO.setPincode(address.getPostalCode());
-            if (address.getDistrict() != null) {
-                addressDTO.setDistrictId(address.getDistrict().getDistrictId());
-                addressDTO.setDistrictName(address.getDistrict().getDistrictName());
-
-                if (address.getDistrict().getState() != null) {
-                    addressDTO.setStateId(address.getDistrict().getState().getStateId());
-                    addressDTO.setStateName(address.getDistrict().getState().getStateName());
-                }
-            }
-            if (address.getMandal() != null) {
-                addressDTO.setMandalId(address.getMandal().getMandal_id());
-                addressDTO.setMandalName(address.getMandal().getMandal_name());
-            }
-            if (address.getCity() != null) {
-                addressDTO.setCityId(address.getCity().getCityId());
-                addressDTO.setCityName(address.getCity().getCityName());
-            }
+            addressDTO.setDoorNo(row.get("doorNo", String.class));
+            addressDTO.setStreet(row.get("street", String.class));
+            addressDTO.setLandmark(row.get("landmark", String.class));
+            addressDTO.setArea(row.get("area", String.class));
+            addressDTO.setPincode(row.get("pincode", Integer.class));
+            addressDTO.setDistrictId(row.get("addressDistrictId", Integer.class));
+            addressDTO.setDistrictName(row.get("addressDistrictName", String.class));
+            addressDTO.setStateId(row.get("addressDistrictStateId", Integer.class));
+            addressDTO.setStateName(row.get("addressDistrictStateName", String.class));
+            addressDTO.setMandalId(row.get("addressMandalId", Integer.class));
+            addressDTO.setMandalName(row.get("addressMandalName", String.class));
+            addressDTO.setCityId(row.get("addressCityId", Integer.class));
+            addressDTO.setCityName(row.get("addressCityName", String.class));
             detailsDTO.setAddressDetails(addressDTO);
-        });
+        }
 
         return detailsDTO;
     }
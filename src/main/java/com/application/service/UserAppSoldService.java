@@ -1,7 +1,6 @@
 package com.application.service;
 
 import java.util.ArrayList;
-import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
@@ -12,9 +11,7 @@ import org.springframework.stereotype.Service;
 import com.application.dto.GraphBarDTO;
 import com.application.dto.GraphResponseDTO;
 import com.application.dto.PerformanceDTO;
-import com.application.dto.RateItemDTO;
 import com.application.dto.RateResponseDTO;
-import com.application.dto.RateSectionDTO;
 import com.application.dto.UserAppSoldDTO;
 import com.application.entity.AcademicYear;
 import com.application.entity.UserAppSold;
@@ -28,6 +25,8 @@ public class UserAppSoldService {
     private UserAppSoldRepository userAppSoldRepository;
     @Autowired
     private AcademicYearRepository academicYearRepository;
+    @Autowired
+    private PerformanceLeaderboard performanceLeaderboard;
 
     private UserAppSoldDTO convertToDto(UserAppSold userAppSold) {
         UserAppSoldDTO dto = new UserAppSoldDTO();
@@ -130,78 +129,7 @@ public class UserAppSoldService {
 //    
     
     public List<RateResponseDTO> getAllRateData() {
-        List<RateResponseDTO> result = new ArrayList<>();
-
-        // Zone
-        result.add(buildResponse(
-                "zone",
-                "DISTRIBUTE_ZONE",
-                "Application Drop Rate Zone Wise",
-                "Top Rated Zones",
-                userAppSoldRepository.getZoneWiseRates()
-        ));
-
-        // DGM
-        result.add(buildResponse(
-                "dgm",
-                "DISTRIBUTE_DGM",
-                "Application Drop Rate DGM Wise",
-                "Top Rated DGMs",
-                userAppSoldRepository.getDgmWiseRates()
-        ));
-
-        // Campus
-        result.add(buildResponse(
-                "campus",
-                "DISTRIBUTE_CAMPUS",
-                "Application Drop Rate Campus Wise",
-                "Top Rated Campuses",
-                userAppSoldRepository.getCampusWiseRates()
-        ));
-
-        return result;
-    }
-
-    private RateResponseDTO buildResponse(
-            String type,
-            String permission,
-            String dropTitle,
-            String topTitle,
-            List<Object[]> raw
-    ) {
-
-        List<RateItemDTO> items = new ArrayList<>();
-
-        for (Object[] row : raw) {
-            String name = (String) row[0];
-            long issued = (Long) row[1];
-            long sold = (Long) row[2];
-
-            double percent = 0;
-
-            if (issued > 0) {
-                percent = ((double) sold / issued) * 100;
-            }
-
-            items.add(new RateItemDTO(name, percent));
-        }
-
-        List<RateItemDTO> topRated = items.stream()
-                .sorted((a, b) -> Double.compare(b.getRate(), a.getRate()))
-                .limit(4)
-                .toList();
-
-        List<RateItemDTO> dropRated = items.stream()
-                .sorted(Comparator.comparingDouble(RateItemDTO::getRate))
-                .limit(4)
-                .toList();
-
-        return new RateResponseDTO(
-                type,
-                permission,
-                new RateSectionDTO(dropTitle, dropRated),
-                new RateSectionDTO(topTitle, topRated)
-        );
+        return performanceLeaderboard.getNameGroupedRateData();
     }
     
     public GraphResponseDTO generateYearWiseIssuedSoldPercentage() {
@@ -1,9 +1,13 @@
 package com.application.service;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
-import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 import org.springframework.beans.factory.annotation.Autowired;
@@ -11,18 +15,16 @@ import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import com.application.dto.DistributionPreviewDTO;
 import com.application.dto.DistributionRequestDTO;
 import com.application.dto.EmployeesDto;
 import com.application.entity.AcademicYear;
-import com.application.entity.AdminApp;
-import com.application.entity.BalanceTrack;
 import com.application.entity.City;
 import com.application.entity.Distribution;
 import com.application.entity.State;
 import com.application.entity.ZonalAccountant;
 import com.application.entity.Zone;
 import com.application.repository.AcademicYearRepository;
-import com.application.repository.AdminAppRepository;
 import com.application.repository.AppIssuedTypeRepository;
 import com.application.repository.BalanceTrackRepository;
 import com.application.repository.CampusProViewRepository;
@@ -48,9 +50,13 @@ public class ZoneService {
 	private final DistributionRepository distributionRepository;
 	private final ZonalAccountantRepository zonalAccountantRepository;
 	@Autowired
-	private AdminAppRepository adminAppRepository;
-	@Autowired
 	private CampusProViewRepository campusProViewRepository;
+	@Autowired
+	private DistributionBatchPlanner distributionBatchPlanner;
+	@Autowired
+	private DistributionLockManager distributionLockManager;
+	@Autowired
+	private BalanceDeltaEngine balanceDeltaEngine;
 
 	public ZoneService(AcademicYearRepository academicYearRepository, StateRepository stateRepository,
 			CityRepository cityRepository, ZoneRepository zoneRepository,
@@ -117,19 +123,89 @@ public class ZoneService {
 
 	@Transactional
 	public void saveDistribution(@NonNull DistributionRequestDTO request) {
+		// Same path as the bulk save: overlaps are split and balances applied by the planner
+		distributionBatchPlanner.apply(List.of(toPacket(request)), request.getCreatedBy(), false);
+		refreshIssuers(List.of(request));
+	}
 
-		validateEmployeeExists(request.getCreatedBy(), "Issuer");
+	/**
+	 * Dry run of {@link #saveDistribution}: what would be split, created and
+	 * moved between balances. Nothing is written.
+	 */
+	@Transactional(readOnly = true)
+	public DistributionPreviewDTO previewDistribution(@NonNull DistributionRequestDTO request) {
+		return preview(List.of(toPacket(request)), List.of(request));
+	}
 
-		List<Distribution> overlappingDists = distributionRepository.findOverlappingDistributions(
-				request.getAcademicYearId(), request.getAppStartNo(), request.getAppEndNo());
+	@Transactional
+	public int saveDistributionsBulk(@NonNull List<DistributionRequestDTO> requests) {
+		List<DistributionBatchPlanner.Packet> packets = toPackets(requests);
+		distributionBatchPlanner.apply(packets, requests.get(0).getCreatedBy(), false);
+		refreshIssuers(requests);
+		return packets.size();
+	}
+
+	@Transactional(readOnly = true)
+	public DistributionPreviewDTO previewDistributionsBulk(@NonNull List<DistributionRequestDTO> requests) {
+		return preview(toPackets(requests), requests);
+	}
 
-		if (!overlappingDists.isEmpty()) {
-			handleOverlappingDistributions(overlappingDists, request);
+	// Issuers (CO/Admin balances) once per issuer/year/amount
+	private void refreshIssuers(List<DistributionRequestDTO> requests) {
+		Set<String> refreshed = new HashSet<>();
+		for (DistributionRequestDTO request : requests) {
+			if (refreshed.add(request.getCreatedBy() + ":" + request.getAcademicYearId() + ":"
+					+ request.getApplication_Amount())) {
+				balanceDeltaEngine.refreshIssuer(request.getCreatedBy(), request.getAcademicYearId(),
+						request.getIssuedByTypeId(), request.getApplication_Amount(), request.getCreatedBy());
+			}
 		}
+	}
 
-		ZonalAccountant receiver = zonalAccountantRepository.findByEmployeeEmpId(request.getIssuedToEmpId())
-				.orElseThrow(() -> new RuntimeException(
-						"Receiver not found for Employee ID: " + request.getIssuedToEmpId()));
+	private DistributionPreviewDTO preview(List<DistributionBatchPlanner.Packet> packets,
+			List<DistributionRequestDTO> requests) {
+		DistributionBatchPlanner.Plan plan = distributionBatchPlanner.plan(packets, false);
+		for (DistributionRequestDTO request : requests) {
+			plan.withIssuer(request.getCreatedBy(), request.getAcademicYearId(), request.getIssuedByTypeId(),
+					request.getApplication_Amount());
+		}
+		return distributionBatchPlanner.preview(plan);
+	}
+
+	private List<DistributionBatchPlanner.Packet> toPackets(List<DistributionRequestDTO> requests) {
+		if (requests.isEmpty()) {
+			throw new IllegalArgumentException("No distributions supplied.");
+		}
+
+		Set<Integer> checkedIssuers = new HashSet<>();
+		Map<Integer, ZonalAccountant> receivers = new HashMap<>();
+		List<DistributionBatchPlanner.Packet> packets = new ArrayList<>();
+
+		for (DistributionRequestDTO request : requests) {
+			if (checkedIssuers.add(request.getCreatedBy())) {
+				validateEmployeeExists(request.getCreatedBy(), "Issuer");
+			}
+			ZonalAccountant receiver = receivers.computeIfAbsent(request.getIssuedToEmpId(), this::findReceiver);
+			packets.add(toPacket(request, receiver));
+		}
+		return packets;
+	}
+
+	private DistributionBatchPlanner.Packet toPacket(DistributionRequestDTO request) {
+		validateEmployeeExists(request.getCreatedBy(), "Issuer");
+		return toPacket(request, findReceiver(request.getIssuedToEmpId()));
+	}
+
+	private ZonalAccountant findReceiver(int empId) {
+		return zonalAccountantRepository.findByEmployeeEmpId(empId)
+				.orElseThrow(() -> new RuntimeException("Receiver not found for Employee ID: " + empId));
+	}
+
+	private DistributionBatchPlanner.Packet toPacket(DistributionRequestDTO request, ZonalAccountant receiver) {
+		if (receiver.getIsActive() != 1) {
+			throw new RuntimeException("Transaction Failed: The selected Receiver " + request.getIssuedToEmpId()
+					+ " is Inactive.");
+		}
 
 		// Optional: You can log a warning if the Zone doesn't match what the UI sent
 		if (receiver.getZone().getZoneId() != request.getZoneId()) {
@@ -137,10 +213,6 @@ public class ZoneService {
 					+ request.getIssuedToEmpId() + " is actually in Zone " + receiver.getZone().getZoneId());
 		}
 
-		if (receiver.getIsActive() != 1) {
-			throw new RuntimeException("Transaction Failed: The selected Receiver is Inactive.");
-		}
-
 		Distribution newDistribution = new Distribution();
 		mapDtoToDistribution(newDistribution, request); // Helper to map basic fields (State, Zone, Dates, etc.)
 
@@ -156,26 +228,14 @@ public class ZoneService {
 		} else {
 			throw new RuntimeException("Invalid Receiver: No Employee or Campus linked to this Zonal Accountant.");
 		}
-
-		// Set Fee/Amount
-		newDistribution.setAmount(request.getApplication_Amount());
-
-		// Save to DB
-		Distribution savedDist = distributionRepository.saveAndFlush(newDistribution);
-
-		recalculateBalanceForEmployee(savedDist.getIssued_to_emp_id(), request.getAcademicYearId(),
-				request.getStateId(), request.getIssuedToTypeId(), request.getCreatedBy(),
-				request.getApplication_Amount());
-
-		// B. Update Receiver's Balance
-		if (savedDist.getIssued_to_emp_id() != null) {
-			addStockToReceiver(savedDist.getIssued_to_emp_id(), request.getAcademicYearId(),
-					request.getIssuedToTypeId(), request.getCreatedBy(), request.getApplication_Amount(),
-					request.getAppStartNo(), // Pass Start
-					request.getAppEndNo(), // Pass End
-					request.getRange() // Pass Count
-			);
+		if (request.getRange() == 0) {
+			newDistribution.setTotalAppCount(request.getAppEndNo() - request.getAppStartNo() + 1);
 		}
+
+		return new DistributionBatchPlanner.Packet(request.getAcademicYearId(), request.getAppStartNo(),
+				request.getAppEndNo(), request.getRange(), request.getApplication_Amount(),
+				newDistribution.getIssued_to_emp_id(), request.getIssuedToTypeId(), request.getCreatedBy(),
+				newDistribution);
 	}
 
 	@Transactional
@@ -185,227 +245,54 @@ public class ZoneService {
 		validateEmployeeExists(request.getCreatedBy(), "Issuer");
 		Distribution existingDist = distributionRepository.findById(distributionId)
 				.orElseThrow(() -> new RuntimeException("Record not found"));
+		distributionLockManager.lockForUpdate(existingDist, request.getAppStartNo(), request.getAppEndNo());
 
-		Float originalAmount = existingDist.getAmount(); // Keep amount!
+		// 2. Resolve New Receiver
+		Integer newTargetId = resolveUpdateTarget(request);
+		distributionLockManager.lockHolders(List.of(existingDist), request.getCreatedBy(), newTargetId);
+
+		// 3-6. Inactivate old, create new + remainders, apply balance deltas (issuer included)
+		distributionBatchPlanner.execute(planUpdate(existingDist, request, newTargetId), request.getCreatedBy());
+	}
 
-		// 2. Resolve New Receiver (Zone Service always targets Employee column)
-		// (Assuming you updated your Repo to use findByEmployeeEmpId)
+	/**
+	 * Dry run of {@link #updateDistribution}. Nothing is written.
+	 */
+	@Transactional(readOnly = true)
+	public DistributionPreviewDTO previewUpdate(int distributionId, @NonNull DistributionRequestDTO request) {
+		validateEmployeeExists(request.getCreatedBy(), "Issuer");
+		Distribution existingDist = distributionRepository.findById(distributionId)
+				.orElseThrow(() -> new RuntimeException("Record not found"));
+		return distributionBatchPlanner.preview(planUpdate(existingDist, request, resolveUpdateTarget(request)));
+	}
+
+	private Integer resolveUpdateTarget(DistributionRequestDTO request) {
+		// Zone Service always targets Employee column
 		ZonalAccountant newReceiver = zonalAccountantRepository.findByEmployeeEmpId(request.getIssuedToEmpId())
 				.orElseThrow(() -> new RuntimeException("New Receiver not found"));
 
 		// Determine Target ID (Logic: always grab the emp_id, even for campuses)
-		Integer newTargetId;
 		if (newReceiver.getEmployee() != null) {
-			newTargetId = newReceiver.getEmployee().getEmp_id();
-		} else {
-			newTargetId = campusProViewRepository.findEmployeeIdsByCampusId(newReceiver.getCampus().getCampusId())
-					.stream().findFirst().orElseThrow(() -> new RuntimeException("No valid ID found for Campus"));
+			return newReceiver.getEmployee().getEmp_id();
 		}
+		return campusProViewRepository.findEmployeeIdsByCampusId(newReceiver.getCampus().getCampusId()).stream()
+				.findFirst().orElseThrow(() -> new RuntimeException("No valid ID found for Campus"));
+	}
 
-		// 3. Inactivate Old
-		existingDist.setIsActive(0);
-		distributionRepository.saveAndFlush(existingDist);
+	private DistributionBatchPlanner.Plan planUpdate(Distribution existingDist, DistributionRequestDTO request,
+			Integer newTargetId) {
+		Float originalAmount = existingDist.getAmount(); // Keep amount!
 
-		// 4. Create New
 		Distribution newDist = new Distribution();
 		mapDtoToDistribution(newDist, request);
-
 		newDist.setIssued_to_emp_id(newTargetId);
 		newDist.setIssued_to_pro_id(null); // Zone service keeps this null
 		newDist.setAmount(originalAmount); // Preserve Amount
 
-		distributionRepository.saveAndFlush(newDist);
-
-		// 5. Handle Remainders
-		int oldStart = (int) existingDist.getAppStartNo();
-		int oldEnd = (int) existingDist.getAppEndNo();
-
-		if (oldStart != request.getAppStartNo() || oldEnd != request.getAppEndNo()) {
-			if (oldStart < request.getAppStartNo()) {
-				createAndSaveRemainder(existingDist, oldStart, request.getAppStartNo() - 1);
-			}
-			if (oldEnd > request.getAppEndNo()) {
-				createAndSaveRemainder(existingDist, request.getAppEndNo() + 1, oldEnd);
-			}
-		}
-
-		// 6. Recalculate Balances
-		int acYear = existingDist.getAcademicYear().getAcdcYearId();
-		int stateId = existingDist.getState().getStateId();
-
-		// A. Issuer
-		recalculateBalanceForEmployee(request.getCreatedBy(), acYear, stateId, request.getIssuedByTypeId(),
-				request.getCreatedBy(), originalAmount);
-
-		// B. New Receiver
-		recalculateBalanceForEmployee(newTargetId, acYear, stateId, request.getIssuedToTypeId(), request.getCreatedBy(),
-				originalAmount);
-
-		// C. Old Receiver (If changed)
-		Integer oldId = existingDist.getIssued_to_emp_id();
-		if (oldId != null && (!Objects.equals(oldId, newTargetId)
-				|| (oldStart != request.getAppStartNo() || oldEnd != request.getAppEndNo()))) {
-			recalculateBalanceForEmployee(oldId, acYear, stateId, existingDist.getIssuedToType().getAppIssuedId(),
-					request.getCreatedBy(), originalAmount);
-		}
-	}
-
-	private void createAndSaveRemainder(Distribution originalDist, int start, int end) {
-		Distribution remainder = new Distribution();
-
-		// Copy standard fields
-		remainder.setAcademicYear(originalDist.getAcademicYear());
-		remainder.setState(originalDist.getState());
-		remainder.setCity(originalDist.getCity());
-		remainder.setZone(originalDist.getZone());
-		remainder.setDistrict(originalDist.getDistrict());
-		remainder.setIssuedByType(originalDist.getIssuedByType());
-		remainder.setIssuedToType(originalDist.getIssuedToType());
-		remainder.setCreated_by(originalDist.getCreated_by());
-		remainder.setIssueDate(originalDist.getIssueDate() != null ? originalDist.getIssueDate() : LocalDateTime.now());
-		remainder.setAmount(originalDist.getAmount());
-		remainder.setIssued_to_emp_id(originalDist.getIssued_to_emp_id());
-		remainder.setIssued_to_pro_id(originalDist.getIssued_to_pro_id());
-
-		// Set New Range
-		remainder.setAppStartNo(start);
-		remainder.setAppEndNo(end);
-		remainder.setTotalAppCount((end - start) + 1);
-		remainder.setIsActive(1); // Active
-
-		distributionRepository.saveAndFlush(remainder);
-	}
-
-	private void handleOverlappingDistributions(List<Distribution> overlappingDists, DistributionRequestDTO request) {
-		int reqStart = request.getAppStartNo();
-		int reqEnd = request.getAppEndNo();
-
-		for (Distribution oldDist : overlappingDists) {
-
-			// 1. Identify the "Old Holder" (The Victim)
-			Integer oldHolderId;
-			boolean isPro = false;
-
-			if (oldDist.getIssued_to_pro_id() != null) {
-				oldHolderId = oldDist.getIssued_to_pro_id();
-				isPro = true;
-			} else if (oldDist.getIssued_to_emp_id() != null) {
-				oldHolderId = oldDist.getIssued_to_emp_id();
-				isPro = false;
-			} else {
-				continue;
-			}
-
-			// [DELETED] The check that skipped self-updates is gone.
-			// We process EVERY overlap to ensure the old record is deactivated.
-
-			// 2. Inactivate OLD (Soft Delete)
-			oldDist.setIsActive(0);
-
-			// CRITICAL: Flush so the database knows this is now 0
-			distributionRepository.saveAndFlush(oldDist);
-
-			int oldStart = oldDist.getAppStartNo();
-			int oldEnd = oldDist.getAppEndNo();
-
-			// 3. Create "Before" Split (Remainder)
-			if (oldStart < reqStart) {
-				createAndSaveRemainder(oldDist, oldStart, reqStart - 1);
-			}
-
-			// 4. Create "After" Split (Remainder)
-			if (oldEnd > reqEnd) {
-				createAndSaveRemainder(oldDist, reqEnd + 1, oldEnd);
-			}
-
-			// 5. Recalculate Balance for the OLD HOLDER (The Victim)
-			// We use the Old Distribution's metadata (State, Type, Amount)
-			int acYear = request.getAcademicYearId();
-			int stateId = oldDist.getState().getStateId();
-			int typeId = oldDist.getIssuedToType().getAppIssuedId();
-			int modifierId = request.getCreatedBy();
-			Float amount = oldDist.getAmount(); // Keep Original Amount
-
-			recalculateBalanceForEmployee(oldHolderId, acYear, stateId, typeId, modifierId, amount);
-		}
-	}
-
-	private void recalculateBalanceForEmployee(int employeeId, int academicYearId, int stateId, int typeId,
-			int createdBy, Float amount) {
-
-		// 1. CHECK: Is this a CO/Admin? (Check Master Table)
-		// We convert Float to Float for the repo call
-		Optional<AdminApp> adminApp = adminAppRepository.findByEmpAndYearAndAmount(employeeId, academicYearId, amount);
-
-		if (adminApp.isPresent()) {
-			// --- CASE A: CO / ADMIN (The Source) ---
-			// Logic: Master Allocation - Total Distributed
-
-			AdminApp master = adminApp.get();
-
-			// Admins usually have 1 giant balance row, so we fetch/create just one.
-			List<BalanceTrack> balances = balanceTrackRepository.findActiveBalancesByEmpAndAmount(academicYearId,
-					employeeId, amount);
-
-			BalanceTrack balance;
-			if (balances.isEmpty()) {
-				balance = createNewBalanceTrack(employeeId, academicYearId, typeId, createdBy);
-				balance.setAmount(amount);
-			} else {
-				balance = balances.get(0); // Use the existing one
-			}
-
-			// Calculate Total Distributed by Admin
-			int totalDistributed = distributionRepository
-					.sumTotalAppCountByCreatedByAndAmount(employeeId, academicYearId, amount).orElse(0);
-
-			// Update Logic
-			balance.setAppFrom(master.getAppFromNo()); // Start at Master Start
-			balance.setAppTo(master.getAppToNo());
-			balance.setAppAvblCnt(master.getTotalApp() - totalDistributed);
-
-			balanceTrackRepository.save(balance);
-
-		} else {
-			// --- CASE B: ZONE & DGM (The Intermediaries) ---
-			// They do NOT have a master table. They rely purely on what they HOLD.
-			// We call the helper to rebuild their balance rows to match their holdings.
-
-			rebuildBalancesFromDistributions(employeeId, academicYearId, typeId, createdBy, amount);
-		}
-	}
-
-	private void rebuildBalancesFromDistributions(int empId, int acYearId, int typeId, int createdBy, Float amount) {
-
-		// 1. Get ALL Active Distributions currently HELD by this user
-		// (Ordered by Start Number so it looks nice)
-		List<Distribution> holdings = distributionRepository.findActiveByIssuedToEmpIdAndAmountOrderByStart(empId,
-				acYearId, amount);
-
-		// 2. Get CURRENT Active Balance Rows for this amount
-		List<BalanceTrack> currentBalances = balanceTrackRepository.findActiveBalancesByEmpAndAmount(acYearId, empId,
-				amount);
-
-		// 3. STRATEGY: Soft Delete OLD rows, Insert NEW rows
-		// This effectively "Refreshes" the balance to match reality.
-
-		// A. Mark old rows as inactive
-		for (BalanceTrack b : currentBalances) {
-			b.setIsActive(0);
-			balanceTrackRepository.save(b);
-		}
-
-		// B. Create new rows for every active distribution held
-		for (Distribution dist : holdings) {
-			BalanceTrack nb = createNewBalanceTrack(empId, acYearId, typeId, createdBy);
-
-			nb.setAmount(amount);
-			nb.setAppFrom((int) dist.getAppStartNo());
-			nb.setAppTo((int) dist.getAppEndNo());
-			nb.setAppAvblCnt(dist.getTotalAppCount());
-
-			balanceTrackRepository.save(nb);
-		}
+		return distributionBatchPlanner
+				.planUpdate(existingDist, newDist, request.getIssuedToTypeId(), List.of())
+				.withIssuer(request.getCreatedBy(), existingDist.getAcademicYear().getAcdcYearId(),
+						request.getIssuedByTypeId(), originalAmount);
 	}
 
 	private Distribution createRemainderDistribution(Distribution originalDist, int receiverId) {
@@ -458,60 +345,9 @@ public class ZoneService {
 		return dto;
 	}
 
-	private BalanceTrack createNewBalanceTrack(int employeeId, int academicYearId, int typeId, int createdBy) {
-		BalanceTrack nb = new BalanceTrack();
-		nb.setEmployee(employeeRepository.findById(employeeId).orElseThrow());
-		nb.setAcademicYear(academicYearRepository.findById(academicYearId).orElseThrow());
-		nb.setIssuedByType(appIssuedTypeRepository.findById(typeId).orElseThrow());
-
-		nb.setIssuedToProId(null); // Strict Validation: It's an Employee
-		nb.setAppAvblCnt(0);
-		nb.setIsActive(1);
-		nb.setCreatedBy(createdBy);
-		return nb;
-	}
-
 	private void validateEmployeeExists(int employeeId, String role) {
 		if (employeeId <= 0 || !employeeRepository.existsById(employeeId)) {
 			throw new IllegalArgumentException(role + " employee not found or invalid ID: " + employeeId);
 		}
 	}
-
-	// This is SPECIFICALLY for adding new stock to a Receiver (Zone/DGM)
-	private void addStockToReceiver(int employeeId, int academicYearId, int typeId, int createdBy, Float amount,
-			int newStart, int newEnd, int newCount) {
-
-		// 1. Calculate the "Target End" (The number immediately before the new batch)
-		int targetEnd = newStart - 1;
-
-		// 2. Check if we can MERGE with an existing row
-		Optional<BalanceTrack> mergeableRow = balanceTrackRepository.findMergeableRowForEmployee(academicYearId,
-				employeeId, amount, targetEnd);
-
-		if (mergeableRow.isPresent()) {
-			// SCENARIO: CONTIGUOUS (1-50 exists, adding 51-100)
-			BalanceTrack existing = mergeableRow.get();
-
-			// Update the existing row
-			existing.setAppTo(newEnd); // Extend the range (50 -> 100)
-			existing.setAppAvblCnt(existing.getAppAvblCnt() + newCount); // Add count
-
-			balanceTrackRepository.save(existing);
-		} else {
-			// SCENARIO: DISTURBED / GAP (1-50 exists, adding 101-150)
-			// Create a BRAND NEW row
-			BalanceTrack newRow = createNewBalanceTrack(employeeId, academicYearId, typeId, createdBy);
-			newRow.setEmployee(employeeRepository.findById(employeeId).orElseThrow());
-			newRow.setIssuedToProId(null);
-			newRow.setAmount(amount);
-			newRow.setIsActive(1);
-
-			// Set the specific range for this packet
-			newRow.setAppFrom(newStart);
-			newRow.setAppTo(newEnd);
-			newRow.setAppAvblCnt(newCount);
-
-			balanceTrackRepository.save(newRow);
-		}
-	}
-}
\ No newline at end of file
+}
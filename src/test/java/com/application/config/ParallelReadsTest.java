@@ -0,0 +1,64 @@
+package com.application.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+import java.util.function.Supplier;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Where forks run: on the worker pool only when the caller holds no
+ * transaction (and so no pool connection).
+ */
+class ParallelReadsTest {
+
+	private ParallelReads parallelReads;
+
+	@BeforeEach
+	void setUp() {
+		parallelReads = new ParallelReads(mock(PlatformTransactionManager.class), 2, 10);
+		ReflectionTestUtils.setField(parallelReads, "enabled", true);
+		ReflectionTestUtils.setField(parallelReads, "timeoutMillis", 5_000L);
+	}
+
+	@AfterEach
+	void tearDown() {
+		TransactionSynchronizationManager.setActualTransactionActive(false);
+		TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+		parallelReads.destroy();
+	}
+
+	@Test
+	void forksRunOnWorkersOutsideATransaction() {
+		assertThat(forkedThreadName()).startsWith("parallel-read-");
+	}
+
+	@Test
+	void forksRunInlineInsideAReadOnlyTransaction() {
+		TransactionSynchronizationManager.setActualTransactionActive(true);
+		TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+		assertThat(forkedThreadName()).isEqualTo(Thread.currentThread().getName());
+	}
+
+	@Test
+	void forksRunInlineInsideAReadWriteTransaction() {
+		TransactionSynchronizationManager.setActualTransactionActive(true);
+
+		assertThat(forkedThreadName()).isEqualTo(Thread.currentThread().getName());
+	}
+
+	private String forkedThreadName() {
+		try (ParallelReads.Scope scope = parallelReads.open()) {
+			Supplier<String> name = scope.fork(() -> Thread.currentThread().getName());
+			scope.join();
+			return name.get();
+		}
+	}
+}
@@ -0,0 +1,165 @@
+package com.application.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.application.entity.AcademicYear;
+import com.application.entity.StudentAcademicDetails;
+import com.application.repository.AdminAppRepository;
+import com.application.repository.StudentAcademicDetailsRepository;
+
+/**
+ * The filter against mocked repositories and Redis: per-year keys and
+ * offsets, out-of-range numbers, and bits that follow commits and deletes.
+ */
+class AdmissionNumberFilterTest {
+
+	private static final int YEAR = 26;
+	private static final String KEY = "sale:used:26:1000";
+
+	private StudentAcademicDetailsRepository students;
+	private ValueOperations<String, String> redisValues;
+	private AdmissionNumberFilter filter;
+
+	@BeforeEach
+	@SuppressWarnings("unchecked")
+	void setUp() {
+		students = mock(StudentAcademicDetailsRepository.class);
+		List<Object[]> sold = new ArrayList<>();
+		sold.add(new Object[] { 1005L, YEAR });
+		sold.add(new Object[] { 99_999_999L, YEAR });
+		when(students.findAdmissionNumbersAfter(any(), any())).thenReturn(sold);
+		when(students.existsByStudAdmsNo(anyLong())).thenReturn(true);
+
+		AdminAppRepository adminApps = mock(AdminAppRepository.class);
+		List<Object[]> bounds = new ArrayList<>();
+		bounds.add(new Object[] { YEAR, 1000, 1999 });
+		when(adminApps.findActiveMasterBoundsByYear()).thenReturn(bounds);
+
+		StringRedisTemplate redis = mock(StringRedisTemplate.class);
+		redisValues = mock(ValueOperations.class);
+		when(redis.opsForValue()).thenReturn(redisValues);
+
+		filter = new AdmissionNumberFilter(students, adminApps, redis);
+		ReflectionTestUtils.setField(filter, "enabled", true);
+		ReflectionTestUtils.setField(filter, "redisEnabled", true);
+		ReflectionTestUtils.setField(filter, "redisKey", "sale:used");
+		ReflectionTestUtils.setField(filter, "pageSize", 100);
+		ReflectionTestUtils.setField(filter, "maxYearSpan", 1_000_000);
+		ReflectionTestUtils.setField(filter, "boundsMaxAgeMillis", 60_000L);
+		filter.load();
+	}
+
+	@AfterEach
+	void tearDown() {
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.clearSynchronization();
+		}
+	}
+
+	@Test
+	void numbersLoadedAtStartupAreHitsWithoutRedis() {
+		assertThat(filter.isUsed(YEAR, 1005L)).isTrue();
+
+		verify(redisValues, never()).getBit(anyString(), anyLong());
+	}
+
+	@Test
+	void numbersOutsideTheYearRangeAreNeitherLookedUpNorSet() {
+		assertThat(filter.isUsed(YEAR, 99_999_999L)).isFalse();
+		assertThat(filter.isUsed(YEAR, 999L)).isFalse();
+		assertThat(filter.isUsed(27, 1005L)).isFalse();
+
+		filter.onSaleWritten(sale(5_000_000_000L));
+
+		verify(redisValues, never()).getBit(anyString(), anyLong());
+		verify(redisValues, never()).setBit(anyString(), anyLong(), anyBoolean());
+	}
+
+	@Test
+	void redisBitsAreKeyedByYearAndRangeStart() {
+		when(redisValues.getBit(KEY, 42)).thenReturn(true);
+
+		assertThat(filter.isUsed(YEAR, 1042L)).isTrue();
+	}
+
+	@Test
+	void committedSaleSetsItsBitOnlyAfterCommit() {
+		TransactionSynchronizationManager.initSynchronization();
+		filter.onSaleWritten(sale(1010L));
+		verify(redisValues, never()).setBit(anyString(), anyLong(), anyBoolean());
+
+		complete(TransactionSynchronization.STATUS_COMMITTED);
+
+		verify(redisValues).setBit(KEY, 10, true);
+		assertThat(filter.isUsed(YEAR, 1010L)).isTrue();
+	}
+
+	@Test
+	void rolledBackSaleLeavesNoBit() {
+		TransactionSynchronizationManager.initSynchronization();
+		filter.onSaleWritten(sale(1010L));
+		complete(TransactionSynchronization.STATUS_ROLLED_BACK);
+
+		verify(redisValues, never()).setBit(anyString(), anyLong(), anyBoolean());
+		assertThat(filter.isUsed(YEAR, 1010L)).isFalse();
+	}
+
+	@Test
+	void deletedSaleClearsItsBit() {
+		TransactionSynchronizationManager.initSynchronization();
+		filter.onSaleRemoved(sale(1005L));
+		complete(TransactionSynchronization.STATUS_COMMITTED);
+
+		verify(redisValues).setBit(KEY, 5, false);
+		assertThat(filter.isUsed(YEAR, 1005L)).isFalse();
+	}
+
+	@Test
+	void hitWhoseSaleIsGoneIsClearedInsteadOfReported() {
+		when(students.existsByStudAdmsNo(1005L)).thenReturn(false);
+
+		assertThat(filter.isUsed(YEAR, 1005L)).isFalse();
+
+		verify(redisValues).setBit(KEY, 5, false);
+		assertThat(filter.isUsed(YEAR, 1005L)).isFalse();
+	}
+
+	private static StudentAcademicDetails sale(long admissionNo) {
+		AcademicYear year = new AcademicYear();
+		year.setAcdcYearId(YEAR);
+		StudentAcademicDetails sale = new StudentAcademicDetails();
+		sale.setStudAdmsNo(admissionNo);
+		sale.setAcademicYear(year);
+		return sale;
+	}
+
+	// What the transaction manager does on completion: afterCommit (commit only), then afterCompletion
+	private static void complete(int status) {
+		List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+		TransactionSynchronizationManager.clearSynchronization();
+		if (status == TransactionSynchronization.STATUS_COMMITTED) {
+			synchronizations.forEach(TransactionSynchronization::afterCommit);
+		}
+		synchronizations.forEach(s -> s.afterCompletion(status));
+	}
+}
@@ -0,0 +1,112 @@
+package com.application.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+class AppNumberBitmapTest {
+
+	private static final int CHUNK = 1 << 16;
+
+	@Test
+	void addRangeAcrossChunkEdgesCountsEveryNumberOnce() {
+		AppNumberBitmap bitmap = new AppNumberBitmap();
+		bitmap.addRange(CHUNK - 10, 3 * CHUNK + 9);
+
+		assertThat(bitmap.size()).isEqualTo(2L * CHUNK + 20);
+		assertThat(bitmap.contains(CHUNK - 11)).isFalse();
+		assertThat(bitmap.contains(CHUNK - 10)).isTrue();
+		assertThat(bitmap.contains(CHUNK)).isTrue();
+		assertThat(bitmap.contains(2 * CHUNK)).isTrue();
+		assertThat(bitmap.contains(3 * CHUNK + 9)).isTrue();
+		assertThat(bitmap.contains(3 * CHUNK + 10)).isFalse();
+		assertThat(bitmap.count(CHUNK - 5, CHUNK + 4)).isEqualTo(10);
+	}
+
+	@Test
+	void addRangeOverExistingNumbersDoesNotDoubleCount() {
+		AppNumberBitmap bitmap = new AppNumberBitmap();
+		bitmap.addRange(CHUNK + 100, CHUNK + 199);
+		bitmap.addRange(CHUNK, 2 * CHUNK - 1);
+
+		assertThat(bitmap.size()).isEqualTo(CHUNK);
+		assertThat(bitmap.runs()).containsExactly(new int[] { CHUNK, 2 * CHUNK - 1 });
+	}
+
+	@Test
+	void removeAllPunchesHolesAcrossChunks() {
+		AppNumberBitmap held = new AppNumberBitmap();
+		held.addRange(0, 2 * CHUNK - 1);
+		AppNumberBitmap sold = new AppNumberBitmap();
+		sold.add(CHUNK - 1);
+		sold.add(CHUNK);
+		sold.addRange(CHUNK + 10, CHUNK + 19);
+		sold.add(5 * CHUNK);
+
+		held.removeAll(sold);
+
+		assertThat(held.size()).isEqualTo(2L * CHUNK - 12);
+		assertThat(held.runs()).containsExactly(new int[] { 0, CHUNK - 2 }, new int[] { CHUNK + 1, CHUNK + 9 },
+				new int[] { CHUNK + 20, 2 * CHUNK - 1 });
+	}
+
+	@Test
+	void removingAWholeChunkDropsIt() {
+		AppNumberBitmap bitmap = new AppNumberBitmap();
+		bitmap.addRange(CHUNK, 2 * CHUNK - 1);
+		AppNumberBitmap all = bitmap.copy();
+
+		bitmap.removeAll(all);
+
+		assertThat(bitmap.size()).isZero();
+		assertThat(bitmap.nextSetBit(0)).isEqualTo(-1);
+		assertThat(bitmap.runs()).isEmpty();
+	}
+
+	@Test
+	void runsJoinAcrossChunkEdge() {
+		AppNumberBitmap bitmap = new AppNumberBitmap();
+		bitmap.addRange(CHUNK - 3, CHUNK + 2);
+		bitmap.add(7);
+
+		List<int[]> runs = bitmap.runs();
+
+		assertThat(runs).containsExactly(new int[] { 7, 7 }, new int[] { CHUNK - 3, CHUNK + 2 });
+		assertThat(bitmap.nextSetBit(8)).isEqualTo(CHUNK - 3);
+	}
+
+	@Test
+	void copyIsIndependentOfFullChunks() {
+		AppNumberBitmap original = new AppNumberBitmap();
+		original.addRange(0, CHUNK - 1);
+		AppNumberBitmap copy = original.copy();
+
+		copy.remove(42);
+		original.remove(43);
+
+		assertThat(original.contains(42)).isTrue();
+		assertThat(original.contains(43)).isFalse();
+		assertThat(copy.contains(42)).isFalse();
+		assertThat(copy.contains(43)).isTrue();
+		assertThat(original.size()).isEqualTo(CHUNK - 1);
+		assertThat(copy.size()).isEqualTo(CHUNK - 1);
+	}
+
+	@Test
+	void removingFromAFullChunkLeavesOtherFullChunksIntact() {
+		AppNumberBitmap a = new AppNumberBitmap();
+		a.addRange(0, CHUNK - 1);
+		AppNumberBitmap b = new AppNumberBitmap();
+		b.addRange(CHUNK, 2 * CHUNK - 1);
+
+		a.remove(0);
+
+		assertThat(b.contains(CHUNK)).isTrue();
+		assertThat(b.size()).isEqualTo(CHUNK);
+		a.add(0);
+		assertThat(a.size()).isEqualTo(CHUNK);
+		assertThat(a.runs()).containsExactly(new int[] { 0, CHUNK - 1 });
+	}
+}
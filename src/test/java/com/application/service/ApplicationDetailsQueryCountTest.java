@@ -0,0 +1,97 @@
+package com.application.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import com.application.config.ParallelReads;
+import com.application.dto.ApplicationDetailsDTO;
+import com.application.dto.StudentApplicationSingleDTO;
+import com.application.entity.StudentAcademicDetails;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Guards the fetch plan of the application detail screens: the single
+ * application view is two statements (detail row + siblings x concessions),
+ * the admission-number view one.
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({ ApplicationDetailsReader.class, ApplicationFastSale.class, StudentAdmissionService.class,
+		ParallelReads.class })
+class ApplicationDetailsQueryCountTest {
+
+	private static final long ADMISSION_NO = 2_500_001L;
+
+	@MockitoBean
+	private DistributionRangeIndex distributionRangeIndex;
+	@MockitoBean
+	private ReferenceDataRegistry referenceDataRegistry;
+	@MockitoBean
+	private AdmissionNumberFilter admissionNumberFilter;
+	@MockitoBean
+	private CounterOutbox counterOutbox;
+	@MockitoBean
+	private FeeResolutionTable feeResolutionTable;
+
+	@Autowired
+	private ApplicationFastSale applicationFastSale;
+
+	@Autowired
+	private StudentAdmissionService studentAdmissionService;
+
+	@Autowired
+	private EntityManager entityManager;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	private Statistics statistics;
+
+	@BeforeEach
+	void setUp() {
+		entityManager.createNativeQuery(
+				"CREATE SEQUENCE IF NOT EXISTS sce_student.sce_stud_acdc_detl_stud_adms_id_seq").executeUpdate();
+
+		StudentAcademicDetails student = new StudentAcademicDetails();
+		student.setStudAdmsNo(ADMISSION_NO);
+		student.setFirst_name("Ravi");
+		student.setLast_name("Kumar");
+		student.setPro_receipt_no(42);
+		student.setIs_active(1);
+		entityManager.persist(student);
+		entityManager.flush();
+		entityManager.clear();
+
+		statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		statistics.clear();
+	}
+
+	@Test
+	void singleApplicationDetailsRunsAtMostTwoStatements() {
+		StudentApplicationSingleDTO dto = applicationFastSale.getSingleApplicationDetails(ADMISSION_NO);
+
+		assertThat(dto.getFirstName()).isEqualTo("Ravi");
+		assertThat(statistics.getPrepareStatementCount()).isLessThanOrEqualTo(2);
+	}
+
+	@Test
+	void applicationDetailsByAdmissionNoRunsOneStatement() {
+		ApplicationDetailsDTO dto = studentAdmissionService.getApplicationDetailsByAdmissionNo(ADMISSION_NO);
+
+		assertThat(dto.getFirstName()).isEqualTo("Ravi");
+		assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+	}
+}
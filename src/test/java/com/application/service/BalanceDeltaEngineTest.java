@@ -0,0 +1,196 @@
+package com.application.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.application.entity.AcademicYear;
+import com.application.entity.AdminApp;
+import com.application.entity.AppIssuedType;
+import com.application.entity.BalanceTrack;
+import com.application.entity.Distribution;
+import com.application.entity.Employee;
+import com.application.repository.BalanceTrackRepository;
+
+import jakarta.persistence.EntityManager;
+
+/**
+ * Range deltas on sce_app_balance_trk: releases shrink, split or retire rows,
+ * receives merge touching rows, CO/Admin holders keep one master bucket.
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(BalanceDeltaEngine.class)
+class BalanceDeltaEngineTest {
+
+	private static final int YEAR = 26;
+	private static final int DGM_TYPE = 3;
+	private static final Float AMOUNT = 500f;
+
+	@Autowired
+	private BalanceDeltaEngine balanceDeltaEngine;
+
+	@Autowired
+	private BalanceTrackRepository balanceTrackRepository;
+
+	@Autowired
+	private EntityManager entityManager;
+
+	private int holderId;
+	private int adminId;
+
+	@BeforeEach
+	void setUp() {
+		entityManager.createNativeQuery("CREATE SEQUENCE IF NOT EXISTS sce_application.sce_app_balance_trk_id_seq")
+				.executeUpdate();
+		entityManager.createNativeQuery("CREATE SEQUENCE IF NOT EXISTS sce_application.sce_app_distribution_id_seq")
+				.executeUpdate();
+
+		AcademicYear year = new AcademicYear();
+		year.setAcdcYearId(YEAR);
+		year.setAcademicYear("2025-26");
+		entityManager.persist(year);
+		AppIssuedType type = new AppIssuedType();
+		type.setAppIssuedId(DGM_TYPE);
+		type.setTypeName("DGM");
+		entityManager.persist(type);
+
+		holderId = employee("Dgm").getEmp_id();
+		adminId = employee("Admin").getEmp_id();
+		entityManager.flush();
+	}
+
+	@Test
+	void releaseInTheMiddleSplitsTheRowInTwo() {
+		receive(holderId, 100, 199);
+
+		balanceDeltaEngine.release(holderId, YEAR, DGM_TYPE, AMOUNT, 140, 159, 1);
+
+		assertThat(activeRows(holderId)).extracting(BalanceTrack::getAppFrom, BalanceTrack::getAppTo,
+				BalanceTrack::getAppAvblCnt).containsExactly(tuple(100, 139, 40), tuple(160, 199, 40));
+	}
+
+	@Test
+	void releaseAtEitherEdgeShrinksTheRow() {
+		receive(holderId, 100, 199);
+
+		balanceDeltaEngine.release(holderId, YEAR, DGM_TYPE, AMOUNT, 100, 119, 1);
+		balanceDeltaEngine.release(holderId, YEAR, DGM_TYPE, AMOUNT, 190, 199, 1);
+
+		assertThat(activeRows(holderId)).extracting(BalanceTrack::getAppFrom, BalanceTrack::getAppTo,
+				BalanceTrack::getAppAvblCnt).containsExactly(tuple(120, 189, 70));
+		assertThat(balanceTrackRepository.count()).isEqualTo(1);
+	}
+
+	@Test
+	void releasingAWholeRowRetiresIt() {
+		receive(holderId, 100, 199);
+		receive(holderId, 300, 399);
+
+		balanceDeltaEngine.release(holderId, YEAR, DGM_TYPE, AMOUNT, 50, 250, 1);
+
+		assertThat(activeRows(holderId)).extracting(BalanceTrack::getAppFrom, BalanceTrack::getAppTo)
+				.containsExactly(tuple(300, 399));
+	}
+
+	@Test
+	void receiveMergesWithAdjacentRows() {
+		receive(holderId, 100, 199);
+		receive(holderId, 300, 399);
+
+		receive(holderId, 200, 299);
+
+		assertThat(activeRows(holderId)).extracting(BalanceTrack::getAppFrom, BalanceTrack::getAppTo,
+				BalanceTrack::getAppAvblCnt).containsExactly(tuple(100, 399, 300));
+		assertThat(balanceTrackRepository.count()).isEqualTo(2);
+	}
+
+	@Test
+	void receiveThatTouchesNothingAddsARow() {
+		receive(holderId, 100, 199);
+
+		receive(holderId, 201, 250);
+
+		assertThat(activeRows(holderId)).extracting(BalanceTrack::getAppFrom, BalanceTrack::getAppTo)
+				.containsExactly(tuple(100, 199), tuple(201, 250));
+	}
+
+	@Test
+	void applyDeltasCoalescesContiguousPackets() {
+		receive(holderId, 100, 399);
+
+		balanceDeltaEngine.applyDeltas(holderId, YEAR, DGM_TYPE, AMOUNT,
+				List.of(new int[] { 250, 299 }, new int[] { 200, 249 }),
+				List.of(new int[] { 500, 549 }, new int[] { 400, 449 }, new int[] { 450, 499 }), 1);
+
+		assertThat(activeRows(holderId)).extracting(BalanceTrack::getAppFrom, BalanceTrack::getAppTo,
+				BalanceTrack::getAppAvblCnt).containsExactly(tuple(100, 199, 100), tuple(300, 549, 250));
+	}
+
+	@Test
+	void adminHolderKeepsOneMasterMinusDistributedBucket() {
+		master(adminId, 1000, 1999);
+		distributed(adminId, 1000, 1299);
+
+		balanceDeltaEngine.refreshIssuer(adminId, YEAR, DGM_TYPE, AMOUNT, adminId);
+		// Range deltas on a CO/Admin only refresh the bucket
+		balanceDeltaEngine.release(adminId, YEAR, DGM_TYPE, AMOUNT, 1500, 1599, adminId);
+		distributed(adminId, 1300, 1399);
+		balanceDeltaEngine.applyDeltas(adminId, YEAR, DGM_TYPE, AMOUNT, List.of(new int[] { 1300, 1399 }),
+				List.of(), adminId);
+
+		assertThat(activeRows(adminId)).extracting(BalanceTrack::getAppFrom, BalanceTrack::getAppTo,
+				BalanceTrack::getAppAvblCnt).containsExactly(tuple(1000, 1999, 600));
+	}
+
+	private void receive(int empId, int from, int to) {
+		balanceDeltaEngine.receive(empId, YEAR, DGM_TYPE, AMOUNT, from, to, 1);
+	}
+
+	private List<BalanceTrack> activeRows(int empId) {
+		return balanceTrackRepository.findActiveBalancesByEmpAndAmount(YEAR, empId, AMOUNT);
+	}
+
+	private Employee employee(String name) {
+		Employee e = new Employee();
+		e.setFirst_name(name);
+		e.setIsActive(1);
+		entityManager.persist(e);
+		return e;
+	}
+
+	private void master(int empId, int from, int to) {
+		AdminApp master = new AdminApp();
+		master.setAdmin_app_id(1);
+		master.setEmployee(entityManager.find(Employee.class, empId));
+		master.setAcademicYear(entityManager.find(AcademicYear.class, YEAR));
+		master.setAppFromNo(from);
+		master.setAppToNo(to);
+		master.setTotalApp(to - from + 1);
+		master.setApp_amount(AMOUNT.intValue());
+		master.setIs_active(1);
+		entityManager.persist(master);
+	}
+
+	private void distributed(int createdBy, int from, int to) {
+		Distribution d = new Distribution();
+		d.setAcademicYear(entityManager.find(AcademicYear.class, YEAR));
+		d.setCreated_by(createdBy);
+		d.setAmount(AMOUNT);
+		d.setAppStartNo(from);
+		d.setAppEndNo(to);
+		d.setTotalAppCount(to - from + 1);
+		d.setIsActive(1);
+		entityManager.persist(d);
+	}
+}
@@ -0,0 +1,62 @@
+package com.application.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Comparator;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+class BoundedRankingTest {
+
+	private record Entry(String name, int score) {
+	}
+
+	// Highest score first, ties by name
+	private static final Comparator<Entry> ORDER = Comparator.comparingInt(Entry::score).reversed()
+			.thenComparing(Entry::name);
+
+	@Test
+	void nonPositiveKKeepsNothing() {
+		BoundedRanking<Entry> zero = new BoundedRanking<>(0, ORDER);
+		BoundedRanking<Entry> negative = new BoundedRanking<>(-3, ORDER);
+		zero.offer(new Entry("a", 1));
+		negative.offer(new Entry("a", 1));
+
+		assertThat(zero.toList()).isEmpty();
+		assertThat(negative.toList()).isEmpty();
+	}
+
+	@Test
+	void fewerThanKItemsAreAllKeptBestFirst() {
+		BoundedRanking<Entry> ranking = new BoundedRanking<>(5, ORDER);
+		ranking.offer(new Entry("b", 10));
+		ranking.offer(new Entry("a", 30));
+		ranking.offer(new Entry("c", 20));
+
+		assertThat(ranking.toList()).extracting(Entry::name).containsExactly("a", "c", "b");
+	}
+
+	@Test
+	void keepsTheKBest() {
+		BoundedRanking<Entry> ranking = new BoundedRanking<>(2, ORDER);
+		for (Entry e : List.of(new Entry("a", 5), new Entry("b", 50), new Entry("c", 1), new Entry("d", 40),
+				new Entry("e", 45))) {
+			ranking.offer(e);
+		}
+
+		assertThat(ranking.toList()).extracting(Entry::name).containsExactly("b", "e");
+	}
+
+	@Test
+	void tiesAreResolvedByTheComparatorNotArrivalOrder() {
+		BoundedRanking<Entry> forward = new BoundedRanking<>(2, ORDER);
+		BoundedRanking<Entry> backward = new BoundedRanking<>(2, ORDER);
+		List<Entry> entries = List.of(new Entry("a", 7), new Entry("b", 7), new Entry("c", 7));
+		entries.forEach(forward::offer);
+		List.of(entries.get(2), entries.get(1), entries.get(0)).forEach(backward::offer);
+
+		assertThat(forward.toList()).extracting(Entry::name).containsExactly("a", "b");
+		assertThat(backward.toList()).extracting(Entry::name).containsExactly("a", "b");
+	}
+}
@@ -0,0 +1,171 @@
+package com.application.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDateTime;
+import java.util.function.Supplier;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import com.application.entity.AcademicYear;
+import com.application.entity.AppIssuedType;
+import com.application.entity.AppStatusTrack;
+import com.application.entity.Campus;
+import com.application.entity.CounterOutboxEvent;
+import com.application.entity.Distribution;
+import com.application.entity.Employee;
+import com.application.entity.UserAppSold;
+import com.application.repository.CounterOutboxEventRepository;
+
+import jakarta.persistence.EntityManager;
+
+/**
+ * The relay against H2: queued events reach the employee, campus (PRO) and
+ * user counters of the ranges holding their numbers, and leave the outbox.
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({ CounterOutbox.class, DistributionRangeIndex.class })
+class CounterOutboxTest {
+
+	private static final int YEAR = 26;
+	private static final int DGM_TYPE = 3;
+	private static final int PRO_TYPE = 4;
+
+	@MockitoBean
+	private AnalyticsCube analyticsCube;
+
+	@Autowired
+	private CounterOutbox counterOutbox;
+
+	@Autowired
+	private CounterOutboxEventRepository counterOutboxEventRepository;
+
+	@Autowired
+	private EntityManager entityManager;
+
+	private int dgmId;
+	private int campusId;
+
+	@BeforeEach
+	@SuppressWarnings("unchecked")
+	void setUp() {
+		when(analyticsCube.applyingDeltas(any())).thenAnswer(inv -> inv.getArgument(0, Supplier.class).get());
+		entityManager.createNativeQuery("CREATE SEQUENCE IF NOT EXISTS sce_application.sce_app_distribution_id_seq")
+				.executeUpdate();
+
+		AcademicYear year = new AcademicYear();
+		year.setAcdcYearId(YEAR);
+		year.setAcademicYear("2025-26");
+		entityManager.persist(year);
+		for (int typeId : new int[] { DGM_TYPE, PRO_TYPE }) {
+			AppIssuedType type = new AppIssuedType();
+			type.setAppIssuedId(typeId);
+			entityManager.persist(type);
+		}
+		dgmId = employee("Dgm").getEmp_id();
+		// A campus whose id is also some employee's id: only the campus row may move
+		Employee namesake = employee("Namesake");
+		campusId = namesake.getEmp_id();
+		Campus campus = new Campus();
+		campus.setCampusId(campusId);
+		campus.setCampusName("Campus");
+		entityManager.persist(campus);
+
+		distribution(100, 199, DGM_TYPE).setIssued_to_emp_id(dgmId);
+		distribution(200, 299, PRO_TYPE).setIssued_to_pro_id(campusId);
+		track(1, dgmId, null);
+		track(2, namesake.getEmp_id(), null);
+		track(3, null, campus);
+		userAppSold(100, 199);
+		userAppSold(200, 299);
+		entityManager.flush();
+	}
+
+	@Test
+	void relayAppliesEmployeeAndProCountersPerRun() {
+		event(CounterOutboxEvent.SOLD, 152);
+		event(CounterOutboxEvent.SOLD, 150);
+		event(CounterOutboxEvent.SOLD, 151);
+		event(CounterOutboxEvent.CONFIRMED, 151);
+		event(CounterOutboxEvent.SOLD, 250);
+		event(CounterOutboxEvent.DAMAGED, 251);
+		event(CounterOutboxEvent.SOLD, 5000);
+		entityManager.flush();
+
+		counterOutbox.relay();
+		entityManager.clear();
+
+		AppStatusTrack dgm = entityManager.find(AppStatusTrack.class, 1);
+		assertThat(new int[] { dgm.getAppSold(), dgm.getAppConfirmed(), dgm.getAppDamaged(), dgm.getAppAvailable() })
+				.containsExactly(3, 1, 0, 97);
+		AppStatusTrack campus = entityManager.find(AppStatusTrack.class, 3);
+		assertThat(new int[] { campus.getAppSold(), campus.getAppConfirmed(), campus.getAppDamaged(),
+				campus.getAppAvailable() }).containsExactly(1, 0, 1, 98);
+		AppStatusTrack namesake = entityManager.find(AppStatusTrack.class, 2);
+		assertThat(new int[] { namesake.getAppSold(), namesake.getAppDamaged(), namesake.getAppAvailable() })
+				.containsExactly(0, 0, 100);
+
+		assertThat(entityManager.createQuery("SELECT u.rangeStartNo, u.sold FROM UserAppSold u ORDER BY u.rangeStartNo",
+				Object[].class).getResultList()).containsExactly(new Object[] { 100L, 3 }, new Object[] { 200L, 1 });
+		assertThat(counterOutboxEventRepository.count()).isZero();
+	}
+
+	private void event(String type, long appNo) {
+		counterOutboxEventRepository.save(new CounterOutboxEvent(null, type, appNo, YEAR, LocalDateTime.now()));
+	}
+
+	private Distribution distribution(int start, int end, int issuedToTypeId) {
+		Distribution d = new Distribution();
+		d.setAcademicYear(entityManager.find(AcademicYear.class, YEAR));
+		d.setIssuedToType(entityManager.find(AppIssuedType.class, issuedToTypeId));
+		d.setCreated_by(dgmId);
+		d.setAmount(500f);
+		d.setAppStartNo(start);
+		d.setAppEndNo(end);
+		d.setTotalAppCount(end - start + 1);
+		d.setIsActive(1);
+		entityManager.persist(d);
+		return d;
+	}
+
+	private void track(int id, Integer empId, Campus campus) {
+		AppStatusTrack t = new AppStatusTrack();
+		t.setAppStatsTrkId(id);
+		t.setEmployee(empId != null ? entityManager.find(Employee.class, empId) : null);
+		t.setCampus(campus);
+		t.setAcademicYear(entityManager.find(AcademicYear.class, YEAR));
+		t.setTotalApp(100);
+		t.setAppAvailable(100);
+		t.setIsActive(1);
+		entityManager.persist(t);
+	}
+
+	private void userAppSold(long start, long end) {
+		UserAppSold u = new UserAppSold();
+		u.setAcdcYearId(YEAR);
+		u.setRangeStartNo(start);
+		u.setRangeEndNo(end);
+		u.setSold(0);
+		u.setIsActive(1);
+		entityManager.persist(u);
+	}
+
+	private Employee employee(String name) {
+		Employee e = new Employee();
+		e.setFirst_name(name);
+		e.setIsActive(1);
+		entityManager.persist(e);
+		return e;
+	}
+}
@@ -0,0 +1,224 @@
+package com.application.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+import java.util.List;
+
+import org.assertj.core.groups.Tuple;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import com.application.dto.AppSeriesDTO;
+import com.application.dto.DistributionPreviewDTO;
+import com.application.dto.DistributionPreviewRowDTO;
+import com.application.dto.HolderBalancePreviewDTO;
+import com.application.entity.AcademicYear;
+import com.application.entity.AppIssuedType;
+import com.application.entity.BalanceTrack;
+import com.application.entity.Distribution;
+import com.application.entity.Employee;
+import com.application.repository.BalanceTrackRepository;
+import com.application.repository.DistributionRepository;
+
+import jakarta.persistence.EntityManager;
+
+/**
+ * Zone-style writes (every overlap split) through the planner against H2:
+ * the split a plan describes, and the rows and balances a write leaves.
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({ DistributionBatchPlanner.class, BalanceDeltaEngine.class, DistributionRangeIndex.class })
+class DistributionBatchPlannerTest {
+
+	private static final int YEAR = 26;
+	private static final int DGM_TYPE = 3;
+	private static final int PRO_TYPE = 4;
+	private static final int CAMPUS_ID = 50;
+	private static final Float AMOUNT = 500f;
+
+	@MockitoBean
+	private DistributionLockManager distributionLockManager;
+
+	@Autowired
+	private DistributionBatchPlanner distributionBatchPlanner;
+
+	@Autowired
+	private DistributionRepository distributionRepository;
+
+	@Autowired
+	private BalanceTrackRepository balanceTrackRepository;
+
+	@Autowired
+	private EntityManager entityManager;
+
+	private int issuerId;
+	private int dgmId;
+	private int otherDgmId;
+
+	@BeforeEach
+	void setUp() {
+		entityManager.createNativeQuery("CREATE SEQUENCE IF NOT EXISTS sce_application.sce_app_balance_trk_id_seq")
+				.executeUpdate();
+		entityManager.createNativeQuery("CREATE SEQUENCE IF NOT EXISTS sce_application.sce_app_distribution_id_seq")
+				.executeUpdate();
+
+		AcademicYear year = new AcademicYear();
+		year.setAcdcYearId(YEAR);
+		year.setAcademicYear("2025-26");
+		entityManager.persist(year);
+		for (int typeId : new int[] { DGM_TYPE, PRO_TYPE }) {
+			AppIssuedType type = new AppIssuedType();
+			type.setAppIssuedId(typeId);
+			entityManager.persist(type);
+		}
+		issuerId = employee("Zone").getEmp_id();
+		dgmId = employee("Dgm").getEmp_id();
+		otherDgmId = employee("Other Dgm").getEmp_id();
+		entityManager.flush();
+	}
+
+	@Test
+	void planSplitsAnOverlappedRowAroundEveryPacketThatHitsIt() {
+		distributionBatchPlanner.apply(List.of(dgmPacket(otherDgmId, 100, 199)), issuerId, false);
+
+		DistributionPreviewDTO preview = preview(dgmPacket(dgmId, 160, 169), dgmPacket(dgmId, 120, 129));
+
+		assertThat(preview.getDeactivated()).extracting(DistributionPreviewRowDTO::getStartNo,
+				DistributionPreviewRowDTO::getEndNo).containsExactly(tuple(100, 199));
+		assertThat(preview.getCreated()).extracting(DistributionPreviewRowDTO::getKind,
+				DistributionPreviewRowDTO::getStartNo, DistributionPreviewRowDTO::getEndNo,
+				DistributionPreviewRowDTO::getIssuedToEmpId)
+				.containsExactly(tuple("NEW", 160, 169, dgmId), tuple("NEW", 120, 129, dgmId),
+						tuple("REMAINDER", 100, 119, otherDgmId), tuple("REMAINDER", 130, 159, otherDgmId),
+						tuple("REMAINDER", 170, 199, otherDgmId));
+
+		HolderBalancePreviewDTO oldHolder = balanceOf(preview, otherDgmId);
+		assertThat(series(oldHolder.getReleased())).containsExactly(tuple(120, 129), tuple(160, 169));
+		assertThat(series(oldHolder.getResultingSeries())).containsExactly(tuple(100, 119), tuple(130, 159),
+				tuple(170, 199));
+		assertThat(oldHolder.getResultingCount()).isEqualTo(80);
+		assertThat(balanceOf(preview, dgmId).getResultingCount()).isEqualTo(20);
+	}
+
+	@Test
+	void planClipsPacketsReachingPastTheRowToItsEdges() {
+		distributionBatchPlanner.apply(List.of(dgmPacket(otherDgmId, 100, 199)), issuerId, false);
+
+		DistributionPreviewDTO preview = preview(dgmPacket(dgmId, 90, 109), dgmPacket(dgmId, 190, 250));
+
+		assertThat(preview.getCreated()).filteredOn(r -> r.getKind().equals("REMAINDER"))
+				.extracting(DistributionPreviewRowDTO::getStartNo, DistributionPreviewRowDTO::getEndNo)
+				.containsExactly(tuple(110, 189));
+		assertThat(series(balanceOf(preview, otherDgmId).getReleased())).containsExactly(tuple(100, 109),
+				tuple(190, 199));
+	}
+
+	@Test
+	void adjacentPacketsCoveringTheRowLeaveNoRemainderAndWriteNothingOnPreview() {
+		distributionBatchPlanner.apply(List.of(dgmPacket(otherDgmId, 100, 199)), issuerId, false);
+		long rowsBefore = distributionRepository.count();
+
+		DistributionPreviewDTO preview = preview(dgmPacket(dgmId, 150, 199), dgmPacket(dgmId, 100, 149));
+
+		assertThat(preview.getCreated()).extracting(DistributionPreviewRowDTO::getKind).containsOnly("NEW");
+		HolderBalancePreviewDTO oldHolder = balanceOf(preview, otherDgmId);
+		assertThat(series(oldHolder.getReleased())).containsExactly(tuple(100, 199));
+		assertThat(oldHolder.getResultingSeries()).isEmpty();
+		assertThat(distributionRepository.count()).isEqualTo(rowsBefore);
+		assertThat(activeDistributions()).extracting(Distribution::getIssued_to_emp_id).containsExactly(otherDgmId);
+	}
+
+	@Test
+	void zoneWriteOverlappingAProRangeRebuildsTheProBalance() {
+		// The campus holds 100-199 and its balance row says so
+		distributionBatchPlanner.apply(List.of(proPacket(100, 199)), issuerId, false);
+		assertThat(proRows()).extracting(BalanceTrack::getAppFrom, BalanceTrack::getAppTo,
+				BalanceTrack::getAppAvblCnt).containsExactly(tuple(100, 199, 100));
+
+		// A zone write hands 150-199 to a DGM
+		distributionBatchPlanner.apply(List.of(dgmPacket(dgmId, 150, 199)), issuerId, false);
+
+		assertThat(activeDistributions()).extracting(Distribution::getAppStartNo, Distribution::getAppEndNo,
+				Distribution::getIssued_to_pro_id, Distribution::getIssued_to_emp_id)
+				.containsExactly(tuple(100, 149, CAMPUS_ID, null), tuple(150, 199, null, dgmId));
+		assertThat(proRows()).extracting(BalanceTrack::getAppFrom, BalanceTrack::getAppTo,
+				BalanceTrack::getAppAvblCnt).containsExactly(tuple(100, 149, 50));
+		assertThat(balanceTrackRepository.findActiveBalancesByEmpAndAmount(YEAR, dgmId, AMOUNT))
+				.extracting(BalanceTrack::getAppFrom, BalanceTrack::getAppTo, BalanceTrack::getAppAvblCnt)
+				.containsExactly(tuple(150, 199, 50));
+	}
+
+	@Test
+	void zoneWriteRecallingAWholeProRangeEmptiesTheProBalance() {
+		distributionBatchPlanner.apply(List.of(proPacket(100, 199)), issuerId, false);
+
+		distributionBatchPlanner.apply(List.of(dgmPacket(dgmId, 100, 199)), issuerId, false);
+
+		assertThat(proRows()).extracting(BalanceTrack::getAppFrom, BalanceTrack::getAppTo,
+				BalanceTrack::getAppAvblCnt).containsExactly(tuple(0, 0, 0));
+	}
+
+	private DistributionPreviewDTO preview(DistributionBatchPlanner.Packet... packets) {
+		return distributionBatchPlanner.preview(distributionBatchPlanner.plan(List.of(packets), false));
+	}
+
+	private static HolderBalancePreviewDTO balanceOf(DistributionPreviewDTO preview, int empId) {
+		return preview.getBalances().stream().filter(b -> b.getEmpId() != null && b.getEmpId() == empId)
+				.findFirst().orElseThrow();
+	}
+
+	private static List<Tuple> series(List<AppSeriesDTO> series) {
+		return series.stream().map(a -> tuple(a.getStartNo(), a.getEndNo())).toList();
+	}
+
+	private List<BalanceTrack> proRows() {
+		return balanceTrackRepository.findActiveBalancesByProAndAmount(YEAR, CAMPUS_ID, AMOUNT);
+	}
+
+	private List<Distribution> activeDistributions() {
+		return distributionRepository.findAll().stream().filter(d -> d.getIsActive() == 1)
+				.sorted((a, b) -> Integer.compare(a.getAppStartNo(), b.getAppStartNo())).toList();
+	}
+
+	private DistributionBatchPlanner.Packet proPacket(int start, int end) {
+		Distribution d = distribution(start, end, PRO_TYPE);
+		d.setIssued_to_pro_id(CAMPUS_ID);
+		return new DistributionBatchPlanner.Packet(YEAR, start, end, 0, AMOUNT, null, PRO_TYPE, issuerId, d);
+	}
+
+	private DistributionBatchPlanner.Packet dgmPacket(int holderId, int start, int end) {
+		Distribution d = distribution(start, end, DGM_TYPE);
+		d.setIssued_to_emp_id(holderId);
+		return new DistributionBatchPlanner.Packet(YEAR, start, end, 0, AMOUNT, holderId, DGM_TYPE, issuerId, d);
+	}
+
+	private Distribution distribution(int start, int end, int issuedToTypeId) {
+		Distribution d = new Distribution();
+		d.setAcademicYear(entityManager.find(AcademicYear.class, YEAR));
+		d.setIssuedToType(entityManager.find(AppIssuedType.class, issuedToTypeId));
+		d.setCreated_by(issuerId);
+		d.setAmount(AMOUNT);
+		d.setAppStartNo(start);
+		d.setAppEndNo(end);
+		d.setTotalAppCount(end - start + 1);
+		d.setIsActive(1);
+		return d;
+	}
+
+	private Employee employee(String name) {
+		Employee e = new Employee();
+		e.setFirst_name(name);
+		e.setIsActive(1);
+		entityManager.persist(e);
+		return e;
+	}
+}
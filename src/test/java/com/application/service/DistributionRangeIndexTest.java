@@ -0,0 +1,222 @@
+package com.application.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.Optional;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.application.dto.DistributionRangeDTO;
+import com.application.entity.AcademicYear;
+import com.application.entity.AppIssuedType;
+import com.application.entity.Distribution;
+import com.application.repository.DistributionRepository;
+
+/**
+ * The index against a mocked repository: what it answers itself, when it
+ * falls back to the DB, and when committed writes become visible.
+ */
+class DistributionRangeIndexTest {
+
+	private static final int YEAR = 26;
+	private static final int PRO = 4;
+	private static final int DGM = 3;
+
+	private DistributionRepository repository;
+	private DistributionRangeIndex index;
+
+	private final Distribution dgmRow = distribution(1, 100, 199, DGM);
+	private final Distribution proRow = distribution(2, 200, 299, PRO);
+	private final Distribution laterRow = distribution(3, 400, 499, PRO);
+
+	@BeforeEach
+	void setUp() {
+		repository = mock(DistributionRepository.class);
+		index = new DistributionRangeIndex(repository);
+		ReflectionTestUtils.setField(index, "enabled", true);
+		ReflectionTestUtils.setField(index, "maxAgeMillis", 60_000L);
+		ReflectionTestUtils.setField(index, "overlapsEnabled", true);
+
+		when(repository.findActiveAcademicYearIds()).thenReturn(List.of(YEAR));
+		when(repository.findActiveRangesByAcademicYear(YEAR))
+				.thenReturn(List.of(range(dgmRow), range(proRow), range(laterRow)));
+		for (Distribution d : List.of(dgmRow, proRow, laterRow)) {
+			when(repository.findById(d.getAppDistributionId())).thenReturn(Optional.of(d));
+		}
+		when(repository.findAllById(List.of(1, 2))).thenReturn(List.of(proRow, dgmRow));
+		when(repository.findAllById(List.of(2))).thenReturn(List.of(proRow));
+	}
+
+	@AfterEach
+	void tearDown() {
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.clearSynchronization();
+		}
+		TransactionSynchronizationManager.unbindResourceIfPossible(index);
+	}
+
+	@Test
+	void proOwnerIsAnsweredFromTheIndexAndConfirmedByPrimaryKey() {
+		assertThat(index.findProDistributionForAdmissionNumber(200)).containsSame(proRow);
+		assertThat(index.findProDistributionForAdmissionNumber(299)).containsSame(proRow);
+
+		verify(repository, never()).findProDistributionForAdmissionNumber(anyLong());
+	}
+
+	@Test
+	void gapsAndNonProOwnersGoToTheDb() {
+		when(repository.findProDistributionForAdmissionNumber(anyLong())).thenReturn(Optional.empty());
+
+		assertThat(index.findProDistributionForAdmissionNumber(350)).isEmpty();
+		assertThat(index.findProDistributionForAdmissionNumber(150)).isEmpty();
+
+		verify(repository).findProDistributionForAdmissionNumber(350);
+		verify(repository).findProDistributionForAdmissionNumber(150);
+	}
+
+	@Test
+	void staleOwnerHitIsLeftToTheDb() {
+		Distribution moved = distribution(2, 200, 249, PRO);
+		when(repository.findById(2)).thenReturn(Optional.of(moved));
+		when(repository.findProDistributionForAdmissionNumber(270)).thenReturn(Optional.empty());
+
+		assertThat(index.findProDistributionForAdmissionNumber(270)).isEmpty();
+		verify(repository).findProDistributionForAdmissionNumber(270);
+	}
+
+	@Test
+	void overlapsAreAnsweredFromTheIndexInStartOrder() {
+		assertThat(index.findOverlappingDistributions(YEAR, 150, 250)).containsExactly(dgmRow, proRow);
+		assertThat(index.findOverlappingDistributions(YEAR, 300, 399)).isEmpty();
+
+		verify(repository, never()).findOverlappingDistributions(anyInt(), anyInt(), anyInt());
+	}
+
+	@Test
+	void overlapsGoToTheDbWhenDisabled() {
+		ReflectionTestUtils.setField(index, "overlapsEnabled", false);
+		when(repository.findOverlappingDistributions(YEAR, 150, 250)).thenReturn(List.of(dgmRow, proRow));
+
+		assertThat(index.findOverlappingDistributions(YEAR, 150, 250)).containsExactly(dgmRow, proRow);
+		verify(repository).findOverlappingDistributions(YEAR, 150, 250);
+	}
+
+	@Test
+	void overlapHitThatNoLongerMatchesGoesToTheDb() {
+		Distribution deactivated = distribution(2, 200, 299, PRO);
+		deactivated.setIsActive(0);
+		when(repository.findAllById(List.of(2))).thenReturn(List.of(deactivated));
+		when(repository.findOverlappingDistributions(YEAR, 250, 260)).thenReturn(List.of());
+
+		assertThat(index.findOverlappingDistributions(YEAR, 250, 260)).isEmpty();
+		verify(repository).findOverlappingDistributions(YEAR, 250, 260);
+	}
+
+	@Test
+	void yearWithOverlappingRowsIsNotTrusted() {
+		Distribution clash = distribution(9, 150, 160, PRO);
+		when(repository.findActiveRangesByAcademicYear(YEAR)).thenReturn(List.of(range(dgmRow), range(clash)));
+		when(repository.findOverlappingDistributions(YEAR, 150, 150)).thenReturn(List.of(dgmRow, clash));
+
+		assertThat(index.findOverlappingDistributions(YEAR, 150, 150)).containsExactly(dgmRow, clash);
+		verify(repository).findOverlappingDistributions(YEAR, 150, 150);
+	}
+
+	@Test
+	void writesReachTheIndexOnlyWhenTheTransactionCommits() {
+		index.findOverlappingDistributions(YEAR, 100, 299);
+		Distribution added = distribution(7, 300, 349, PRO);
+		when(repository.findAllById(List.of(7))).thenReturn(List.of(added));
+		when(repository.findOverlappingDistributions(YEAR, 300, 349)).thenReturn(List.of(added));
+
+		TransactionSynchronizationManager.initSynchronization();
+		index.onDistributionWritten(added);
+
+		// Inside the writing transaction overlaps come from the DB, which sees its own writes
+		assertThat(index.findOverlappingDistributions(YEAR, 300, 349)).containsExactly(added);
+		verify(repository).findOverlappingDistributions(YEAR, 300, 349);
+
+		complete(TransactionSynchronization.STATUS_COMMITTED);
+
+		// ...and once committed, from the index (still the one DB call from above)
+		assertThat(index.findOverlappingDistributions(YEAR, 300, 349)).containsExactly(added);
+		verify(repository).findOverlappingDistributions(YEAR, 300, 349);
+	}
+
+	@Test
+	void rolledBackWritesNeverReachTheIndex() {
+		index.findOverlappingDistributions(YEAR, 100, 299);
+		Distribution added = distribution(7, 300, 349, PRO);
+
+		TransactionSynchronizationManager.initSynchronization();
+		index.onDistributionWritten(added);
+		complete(TransactionSynchronization.STATUS_ROLLED_BACK);
+
+		assertThat(index.findOverlappingDistributions(YEAR, 300, 349)).isEmpty();
+		verify(repository, never()).findOverlappingDistributions(anyInt(), anyInt(), anyInt());
+	}
+
+	@Test
+	void committedSplitReplacesTheOldRow() {
+		index.findOverlappingDistributions(YEAR, 100, 299);
+		Distribution old = distribution(2, 200, 299, PRO);
+		old.setIsActive(0);
+		Distribution remainder = distribution(8, 250, 299, PRO);
+		when(repository.findAllById(List.of(8))).thenReturn(List.of(remainder));
+		when(repository.findById(8)).thenReturn(Optional.of(remainder));
+		when(repository.findProDistributionForAdmissionNumber(220)).thenReturn(Optional.empty());
+
+		TransactionSynchronizationManager.initSynchronization();
+		index.onDistributionWritten(old);
+		index.onDistributionWritten(remainder);
+		complete(TransactionSynchronization.STATUS_COMMITTED);
+
+		assertThat(index.findOverlappingDistributions(YEAR, 200, 299)).containsExactly(remainder);
+		assertThat(index.findProDistributionForAdmissionNumber(260)).containsSame(remainder);
+		assertThat(index.findProDistributionForAdmissionNumber(220)).isEmpty();
+	}
+
+	// What the transaction manager does on completion: afterCommit (commit only), then afterCompletion
+	private static void complete(int status) {
+		List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+		TransactionSynchronizationManager.clearSynchronization();
+		if (status == TransactionSynchronization.STATUS_COMMITTED) {
+			synchronizations.forEach(TransactionSynchronization::afterCommit);
+		}
+		synchronizations.forEach(s -> s.afterCompletion(status));
+	}
+
+	private static DistributionRangeDTO range(Distribution d) {
+		return new DistributionRangeDTO(d.getAppDistributionId(), d.getAppStartNo(), d.getAppEndNo(),
+				d.getIssuedToType().getAppIssuedId());
+	}
+
+	private static Distribution distribution(int id, int start, int end, int issuedToTypeId) {
+		AcademicYear year = new AcademicYear();
+		year.setAcdcYearId(YEAR);
+		AppIssuedType type = new AppIssuedType();
+		type.setAppIssuedId(issuedToTypeId);
+
+		Distribution d = new Distribution();
+		d.setAppDistributionId(id);
+		d.setAcademicYear(year);
+		d.setIssuedToType(type);
+		d.setAppStartNo(start);
+		d.setAppEndNo(end);
+		d.setTotalAppCount(end - start + 1);
+		d.setIsActive(1);
+		return d;
+	}
+}
@@ -0,0 +1,217 @@
+package com.application.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+import org.assertj.core.groups.Tuple;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.application.dto.AppSeriesDTO;
+import com.application.dto.LedgerDriftDTO;
+import com.application.dto.LedgerReconciliationReportDTO;
+import com.application.entity.AcademicYear;
+import com.application.entity.AppIssuedType;
+import com.application.entity.BalanceTrack;
+import com.application.entity.Distribution;
+import com.application.entity.Employee;
+
+import jakarta.persistence.EntityManager;
+
+/**
+ * The drift report against H2. Reconciliation reads on its own pool threads,
+ * so the fixture is committed rather than left in a test transaction.
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import(LedgerReconciliationService.class)
+class LedgerReconciliationServiceTest {
+
+	private static final int YEAR = 26;
+	private static final int DGM_TYPE = 3;
+	private static final Float AMOUNT = 500f;
+
+	@Autowired
+	private LedgerReconciliationService ledgerReconciliationService;
+
+	@Autowired
+	private EntityManager entityManager;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	private TransactionTemplate transaction;
+	private int holderId;
+
+	@BeforeEach
+	void setUp() {
+		transaction = new TransactionTemplate(transactionManager);
+		inTransaction(em -> {
+			em.createNativeQuery("CREATE SEQUENCE IF NOT EXISTS sce_application.sce_app_balance_trk_id_seq")
+					.executeUpdate();
+			em.createNativeQuery("CREATE SEQUENCE IF NOT EXISTS sce_application.sce_app_distribution_id_seq")
+					.executeUpdate();
+			AcademicYear year = new AcademicYear();
+			year.setAcdcYearId(YEAR);
+			year.setAcademicYear("2025-26");
+			em.persist(year);
+			AppIssuedType type = new AppIssuedType();
+			type.setAppIssuedId(DGM_TYPE);
+			em.persist(type);
+			Employee holder = new Employee();
+			holder.setFirst_name("Dgm");
+			holder.setIsActive(1);
+			em.persist(holder);
+			em.flush();
+			holderId = holder.getEmp_id();
+		});
+	}
+
+	@AfterEach
+	void tearDown() {
+		inTransaction(em -> {
+			for (String entity : List.of("BalanceTrack", "Distribution", "Employee", "AppIssuedType", "AcademicYear")) {
+				em.createQuery("DELETE FROM " + entity).executeUpdate();
+			}
+		});
+	}
+
+	@Test
+	void exactRowsCoveringTheDistributionsReportNoDrift() {
+		distributed(100, 199);
+		distributed(300, 349);
+		balance(100, 199, 100);
+		balance(300, 349, 50);
+
+		LedgerReconciliationReportDTO report = ledgerReconciliationService.reconcile(YEAR);
+
+		assertThat(report.getDistributionsScanned()).isEqualTo(2);
+		assertThat(report.getBalancesScanned()).isEqualTo(2);
+		assertThat(report.getHoldersChecked()).isEqualTo(1);
+		assertThat(report.getDrifts()).isEmpty();
+	}
+
+	@Test
+	void exactRowWithAGapReportsTheMissingNumbers() {
+		distributed(100, 199);
+		balance(100, 149, 50);
+
+		LedgerDriftDTO drift = onlyDrift(ledgerReconciliationService.reconcile(YEAR));
+
+		assertThat(drift.getIssues()).containsExactly(
+				"COUNT_MISMATCH: balance 50, active distributions 100",
+				"MISSING_RANGES: 50 distributed numbers not in any balance row");
+		assertThat(series(drift.getMissing())).containsExactly(tuple(150, 199));
+		assertThat(drift.getExtra()).isNull();
+		assertThat(series(drift.getProposedSeries())).containsExactly(tuple(100, 199));
+	}
+
+	@Test
+	void bucketRowWhoseCountDiffersFromItsLengthIsOnlyComparedByCount() {
+		distributed(100, 199);
+		balance(100, 199, 40);
+
+		LedgerDriftDTO drift = onlyDrift(ledgerReconciliationService.reconcile(YEAR));
+
+		assertThat(drift.getIssues()).containsExactly("COUNT_MISMATCH: balance 40, active distributions 100");
+		assertThat(drift.getMissing()).isNull();
+		assertThat(drift.getExtra()).isNull();
+	}
+
+	@Test
+	void overlappingRowsAreReported() {
+		distributed(100, 199);
+		balance(100, 199, 100);
+		balance(150, 199, 50);
+
+		LedgerDriftDTO drift = onlyDrift(ledgerReconciliationService.reconcile(YEAR));
+
+		assertThat(drift.getIssues()).containsExactly("COUNT_MISMATCH: balance 150, active distributions 100",
+				"OVERLAPPING_ROWS: 50 numbers are in more than one balance row");
+	}
+
+	@Test
+	void emptyZeroRowDoesNotCountAsDrift() {
+		distributed(100, 199);
+		balance(100, 199, 100);
+		balance(0, 0, 0);
+
+		assertThat(ledgerReconciliationService.reconcile(YEAR).getDrifts()).isEmpty();
+	}
+
+	@Test
+	void invalidRangeCarryingACountIsOnlyComparedByCount() {
+		distributed(100, 199);
+		balance(100, 199, 100);
+		balance(250, 240, 5);
+
+		LedgerDriftDTO drift = onlyDrift(ledgerReconciliationService.reconcile(YEAR));
+
+		assertThat(drift.getIssues()).containsExactly("COUNT_MISMATCH: balance 105, active distributions 100");
+		assertThat(drift.getExtra()).isNull();
+	}
+
+	private LedgerDriftDTO onlyDrift(LedgerReconciliationReportDTO report) {
+		assertThat(report.getDrifts()).hasSize(1);
+		assertThat(report.getHoldersWithDrift()).isEqualTo(1);
+		LedgerDriftDTO drift = report.getDrifts().get(0);
+		assertThat(drift.getEmpId()).isEqualTo(holderId);
+		assertThat(drift.getAmount()).isEqualTo(AMOUNT);
+		return drift;
+	}
+
+	private static List<Tuple> series(List<AppSeriesDTO> series) {
+		return series.stream().map(a -> tuple(a.getStartNo(), a.getEndNo())).toList();
+	}
+
+	private void distributed(int from, int to) {
+		inTransaction(em -> {
+			Distribution d = new Distribution();
+			d.setAcademicYear(em.find(AcademicYear.class, YEAR));
+			d.setIssuedToType(em.find(AppIssuedType.class, DGM_TYPE));
+			d.setIssued_to_emp_id(holderId);
+			d.setCreated_by(holderId);
+			d.setAmount(AMOUNT);
+			d.setAppStartNo(from);
+			d.setAppEndNo(to);
+			d.setTotalAppCount(to - from + 1);
+			d.setIsActive(1);
+			em.persist(d);
+		});
+	}
+
+	private void balance(int from, int to, int count) {
+		inTransaction(em -> {
+			BalanceTrack b = new BalanceTrack();
+			b.setAcademicYear(em.find(AcademicYear.class, YEAR));
+			b.setEmployee(em.find(Employee.class, holderId));
+			b.setIssuedByType(em.find(AppIssuedType.class, DGM_TYPE));
+			b.setAmount(AMOUNT);
+			b.setAppFrom(from);
+			b.setAppTo(to);
+			b.setAppAvblCnt(count);
+			b.setIsActive(1);
+			b.setCreatedBy(holderId);
+			em.persist(b);
+		});
+	}
+
+	private void inTransaction(Consumer<EntityManager> work) {
+		transaction.executeWithoutResult(status -> work.accept(entityManager));
+	}
+}
@@ -0,0 +1,120 @@
+package com.application.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import com.application.dto.SaleImportErrorDTO;
+import com.application.dto.SaleImportReportDTO;
+import com.application.dto.StudentFastSaleDTO;
+import com.application.entity.Distribution;
+import com.application.entity.Employee;
+import com.application.entity.StudentClass;
+import com.application.repository.CampusRepository;
+import com.application.repository.OrientationRepository;
+import com.application.repository.StudentAcademicDetailsRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Fast-sale CSV imports against mocked collaborators: the sale writer records
+ * what it sold, and the sold-numbers query answers from that.
+ */
+class SaleImportServiceTest {
+
+	private static final String HEADER = "studAdmsNo,classId,branchId,firstName\n";
+
+	private final Set<Long> sold = new HashSet<>();
+	private final List<Long> written = new ArrayList<>();
+	private SaleImportService service;
+
+	@BeforeEach
+	@SuppressWarnings("unchecked")
+	void setUp() {
+		ApplicationFastSale applicationFastSale = mock(ApplicationFastSale.class);
+		when(applicationFastSale.createFastSaleAdmission(any())).thenAnswer(inv -> {
+			Long no = inv.<StudentFastSaleDTO>getArgument(0).getStudAdmsNo();
+			written.add(no);
+			sold.add(no);
+			return null;
+		});
+
+		StudentAcademicDetailsRepository students = mock(StudentAcademicDetailsRepository.class);
+		when(students.findUsedAdmissionNumbersIn(anyCollection()))
+				.thenAnswer(inv -> inv.<Collection<Long>>getArgument(0).stream().filter(sold::contains).toList());
+
+		Distribution proRange = new Distribution();
+		proRange.setIssuedToEmployee(new Employee());
+		DistributionRangeIndex index = mock(DistributionRangeIndex.class);
+		when(index.findProDistributionForAdmissionNumber(anyLong())).thenReturn(Optional.of(proRange));
+
+		ReferenceDataRegistry registry = mock(ReferenceDataRegistry.class);
+		when(registry.find(eq(StudentClass.class), any())).thenReturn(Optional.of(new StudentClass()));
+
+		CampusRepository campuses = mock(CampusRepository.class);
+		when(campuses.findExistingIds(anyCollection())).thenReturn(List.of(10));
+
+		service = new SaleImportService(applicationFastSale, mock(StudentAdmissionService.class), index, registry,
+				students, campuses, mock(OrientationRepository.class), new ObjectMapper(),
+				mock(PlatformTransactionManager.class));
+		ReflectionTestUtils.setField(service, "chunkSize", 2);
+		ReflectionTestUtils.setField(service, "maxErrors", 100);
+	}
+
+	@Test
+	void unterminatedQuoteRejectsTheLastRecordAndKeepsWhatWasImported() {
+		String csv = HEADER + "1001,1,10,Asha\n1002,1,10,Ravi\n1003,1,10,\"Kiran\n1004,1,10,Meena\n";
+
+		SaleImportReportDTO report = service.importFastSales(stream(csv), "csv");
+
+		assertThat(written).containsExactly(1001L, 1002L);
+		assertThat(report.getRecords()).isEqualTo(3);
+		assertThat(report.getImported()).isEqualTo(2);
+		assertThat(report.getFailed()).isEqualTo(1);
+		assertThat(report.getErrors()).extracting(SaleImportErrorDTO::getLine, SaleImportErrorDTO::getMessage)
+				.containsExactly(tuple(4L, "Unterminated quoted field: input ends at line 5"));
+	}
+
+	@Test
+	void unterminatedQuoteInTheHeaderIsReportedNotThrown() {
+		SaleImportReportDTO report = service.importFastSales(stream("studAdmsNo,\"classId\n1001,1\n"), "csv");
+
+		assertThat(report.getImported()).isZero();
+		assertThat(report.getErrors()).extracting(SaleImportErrorDTO::getLine).containsExactly(1L);
+	}
+
+	@Test
+	void duplicatesAreRejectedWithinAChunkAndAcrossChunks() {
+		String csv = HEADER + "1001,1,10,Asha\n1001,1,10,Asha\n1002,1,10,Ravi\n1001,1,10,Asha\n";
+
+		SaleImportReportDTO report = service.importFastSales(stream(csv), "csv");
+
+		assertThat(written).containsExactly(1001L, 1002L);
+		assertThat(report.getChunks()).isEqualTo(2);
+		assertThat(report.getErrors()).extracting(SaleImportErrorDTO::getLine, SaleImportErrorDTO::getMessage)
+				.containsExactly(tuple(3L, "Admission Number 1001 appears more than once in this import"),
+						tuple(5L, "Admission Number 1001 has already been sold"));
+	}
+
+	private static ByteArrayInputStream stream(String text) {
+		return new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8));
+	}
+}